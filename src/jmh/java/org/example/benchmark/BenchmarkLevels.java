@@ -0,0 +1,65 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.example.model.Level;
+import org.example.model.LevelData;
+import org.example.model.LevelGenerator;
+
+/**
+ * Creates levels of a given size for the benchmarks with the {@link LevelGenerator}.
+ */
+final class BenchmarkLevels {
+    /** The area per entity in square pixels, matching the density of the bundled levels. */
+    static final int AREA_PER_ENTITY = LevelGenerator.AREA_PER_ENTITY;
+
+    private BenchmarkLevels() {
+    }
+
+    /**
+     * Gets the width of a 4:3 world holding the given number of entities at the bundled levels' density.
+     *
+     * @param entities the number of entities
+     * @return the world width in pixels
+     */
+    static int worldWidth(int entities) {
+        return LevelGenerator.worldWidth(entities);
+    }
+
+    /**
+     * Gets the height of a 4:3 world holding the given number of entities at the bundled levels' density.
+     *
+     * @param entities the number of entities
+     * @return the world height in pixels
+     */
+    static int worldHeight(int entities) {
+        return LevelGenerator.worldHeight(entities);
+    }
+
+    /**
+     * Generates a level with the given number of obstacles, baskets and rangers.
+     *
+     * @param perKind the number of entities of each kind
+     * @param seed    the random seed
+     * @return the level
+     */
+    static Level create(int perKind, long seed) {
+        return new Level(new LevelGenerator(seed, perKind, perKind, perKind).generate());
+    }
+
+    /**
+     * Generates a level with the given number of obstacles, baskets and rangers and writes it
+     * to a temporary text file.
+     *
+     * @param perKind the number of entities of each kind
+     * @param seed    the random seed
+     * @return the path of the level file
+     * @throws IOException if the level file cannot be written
+     */
+    static Path write(int perKind, long seed) throws IOException {
+        Path file = Files.createTempFile("yogi-bench-", ".txt");
+        LevelData.writeText(new LevelGenerator(seed, perKind, perKind, perKind).generate(), file);
+        return file;
+    }
+}
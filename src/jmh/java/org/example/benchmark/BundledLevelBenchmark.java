@@ -0,0 +1,57 @@
+package org.example.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.example.model.Level;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures constructing, updating and drawing each of the levels shipped in {@code levels/}.
+ * Run from the project root, where the level files are found.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BundledLevelBenchmark {
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int levelNumber;
+
+    private String file;
+    private Level level;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    @Setup
+    public void setup() {
+        file = "levels/level" + levelNumber + ".txt";
+        level = new Level(file);
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public Level construct() {
+        return new Level(file);
+    }
+
+    @Benchmark
+    public Level update() {
+        level.update();
+        return level;
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        level.draw(g, 0.5);
+        return image;
+    }
+}
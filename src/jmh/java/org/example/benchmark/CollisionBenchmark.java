@@ -0,0 +1,86 @@
+package org.example.benchmark;
+
+import java.awt.Rectangle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.model.Level;
+import org.example.model.Obstacle;
+import org.example.model.Player;
+import org.example.model.Ranger;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the grid-backed collision queries of {@link Level} with the linear scans they replaced,
+ * on levels from 10 to 100k entities of each kind.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int entities;
+
+    private Level level;
+    private Player player;
+    private Rectangle[] probes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        level = BenchmarkLevels.create(entities, 42);
+        player = new Player(50, 50, level);
+
+        Random random = new Random(7);
+        int width = BenchmarkLevels.worldWidth(entities * 3);
+        int height = BenchmarkLevels.worldHeight(entities * 3);
+        probes = new Rectangle[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = new Rectangle(random.nextInt(width), random.nextInt(height), 50, 50);
+        }
+    }
+
+    private Rectangle nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return probes[next];
+    }
+
+    @Benchmark
+    public boolean obstacleGrid() {
+        return level.checkObstacleCollision(nextProbe());
+    }
+
+    @Benchmark
+    public boolean obstacleScan() {
+        Rectangle probe = nextProbe();
+        for (Obstacle obstacle : level.getObstacles()) {
+            if (probe.intersects(obstacle.getBounds())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean rangerGrid() {
+        Rectangle probe = nextProbe();
+        player.setPosition(probe.x, probe.y);
+        return level.checkRangerCollision(player);
+    }
+
+    @Benchmark
+    public boolean rangerScan() {
+        Rectangle probe = nextProbe();
+        player.setPosition(probe.x, probe.y);
+        for (Ranger ranger : level.getRangers()) {
+            if (player.getBounds().intersects(ranger.getBounds())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
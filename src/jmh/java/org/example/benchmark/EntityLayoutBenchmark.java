@@ -0,0 +1,123 @@
+package org.example.benchmark;
+
+import java.awt.Rectangle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.model.EntityArrays;
+import org.example.model.Level;
+import org.example.model.LevelData;
+import org.example.model.Player;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the object-per-entity {@link Level} with the parallel arrays of {@link EntityArrays}
+ * on the same random level: moving every ranger, checking the player against every ranger,
+ * and collecting baskets. Rangers only patrol the 800x600 field, so the level packs the given
+ * number of rangers and baskets into it, among 20 obstacles like the bundled levels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx2g"})
+public class EntityLayoutBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"1000", "100000"})
+    public int entities;
+
+    private LevelData data;
+    private Level level;
+    private EntityArrays arrays;
+    private Player player;
+    private Rectangle[] probes;
+    private int next;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void createData() {
+        Random random = new Random(42);
+        LevelData.Builder builder = new LevelData.Builder();
+        Rectangle[] obstacles = new Rectangle[20];
+        for (int i = 0; i < obstacles.length; i++) {
+            int type = random.nextBoolean() ? LevelData.TREE : LevelData.MOUNTAIN;
+            int size = LevelData.obstacleSize(type);
+            obstacles[i] = new Rectangle(random.nextInt(800 - size), random.nextInt(600 - size), size, size);
+            builder.addObstacle(type, obstacles[i].x, obstacles[i].y);
+        }
+        for (int i = 0; i < entities; i++) {
+            builder.addBasket(random.nextInt(770), random.nextInt(570));
+        }
+        // Rangers start clear of obstacles, as in the bundled levels
+        for (int i = 0; i < entities; i++) {
+            Rectangle ranger = new Rectangle(0, 0, 40, 40);
+            do {
+                ranger.setLocation(random.nextInt(760), random.nextInt(560));
+            } while (intersectsAny(ranger, obstacles));
+            builder.addRanger(ranger.x, ranger.y, random.nextBoolean() ? LevelData.HORIZONTAL : LevelData.VERTICAL);
+        }
+        data = builder.build();
+    }
+
+    private static boolean intersectsAny(Rectangle rect, Rectangle[] others) {
+        for (Rectangle other : others) {
+            if (rect.intersects(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Collected baskets are gone for good, so every iteration starts from fresh entities
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setup() {
+        level = new Level(data);
+        arrays = new EntityArrays(data);
+        player = new Player(50, 50, level);
+
+        Random random = new Random(7);
+        probes = new Rectangle[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = new Rectangle(random.nextInt(750), random.nextInt(550), 50, 50);
+        }
+    }
+
+    @Benchmark
+    public Level objectUpdate() {
+        level.update();
+        return level;
+    }
+
+    @Benchmark
+    public EntityArrays arraysUpdate() {
+        arrays.updateAll(player.getX(), player.getY());
+        return arrays;
+    }
+
+    /** A tick's ranger movement followed by the player collision check, which re-indexes the rangers. */
+    @Benchmark
+    public boolean objectUpdateAndRangerCollision() {
+        level.update();
+        return level.checkRangerCollision(player);
+    }
+
+    @Benchmark
+    public boolean arraysUpdateAndRangerCollision() {
+        arrays.updateAll(player.getX(), player.getY());
+        Rectangle b = player.getBounds();
+        return arrays.anyRangerIntersects(b.x, b.y, b.width, b.height);
+    }
+
+    @Benchmark
+    public boolean objectBasketCollision() {
+        Rectangle probe = probes[next++ & (PROBES - 1)];
+        player.setPosition(probe.x, probe.y);
+        return level.checkBasketCollision(player);
+    }
+
+    @Benchmark
+    public int arraysBasketCollision() {
+        Rectangle probe = probes[next++ & (PROBES - 1)];
+        return arrays.collectBasket(probe.x, probe.y, probe.width, probe.height);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.model.GameRecord;
+import org.example.model.HighscoreManager;
+import org.example.model.HighscoreStore;
+import org.example.model.JdbcHighscoreStore;
+import org.example.model.LogHighscoreStore;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link HighscoreManager} round trips against local stand-ins for the production
+ * database: an in-memory H2 database in MySQL mode and the embedded log store in a temporary
+ * file. A round trip adds a score, waits until the background writer has saved it, and looks
+ * up the player's rank.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighscoreRoundTripBenchmark {
+    @Param({"jdbc", "log"})
+    public String store;
+
+    @Param({"1000", "100000"})
+    public int records;
+
+    private Path logFile;
+    private HighscoreManager manager;
+    private Random random;
+    private int added;
+
+    @Setup
+    public void setup() throws Exception {
+        HighscoreStore backing;
+        if (store.equals("jdbc")) {
+            backing = new JdbcHighscoreStore("jdbc:h2:mem:roundtrip" + records + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        } else {
+            logFile = Files.createTempFile("yogi-bench-", ".ylog");
+            Files.delete(logFile);
+            backing = new LogHighscoreStore(logFile, records * 2);
+        }
+        backing.open();
+        random = new Random(42);
+        ArrayList<GameRecord> batch = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            batch.add(new GameRecord(0, "Player " + random.nextInt(Math.max(1, records / 4)),
+                    random.nextInt(200), random.nextInt(11)));
+            if (batch.size() == 10_000 || i == records - 1) {
+                backing.append(batch);
+                batch.clear();
+            }
+        }
+        manager = new HighscoreManager(backing, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.close();
+        if (logFile != null) {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Benchmark
+    public int addFlushAndRank() throws InterruptedException {
+        String name = "Bench " + (added++ & 1023);
+        manager.addScore(name, random.nextInt(200), random.nextInt(11));
+        if (!manager.flush(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Score was not written");
+        }
+        return manager.getRank(name);
+    }
+
+    @Benchmark
+    public ArrayList<GameRecord> topScores() {
+        return manager.getTopScores(10);
+    }
+}
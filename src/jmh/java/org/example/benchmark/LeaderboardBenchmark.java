@@ -0,0 +1,140 @@
+package org.example.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.model.GameRecord;
+import org.example.model.HighscoreManager;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the indexed leaderboard queries of {@link HighscoreManager} with the full-table
+ * SELECT they replaced, on an in-memory H2 table of up to a million highscores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private String url;
+    private Connection connection;
+    private HighscoreManager manager;
+    private GameRecord middle;
+    private String player;
+
+    @Setup
+    public void setup() throws Exception {
+        url = "jdbc:h2:mem:leaderboard" + rows + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        manager = new HighscoreManager(url, "sa", "");
+        manager.addScore("Setup", 0, 0);
+        if (!manager.flush(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Highscore table was not created");
+        }
+
+        connection = DriverManager.getConnection(url, "sa", "");
+        connection.setAutoCommit(false);
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO highscores (player_name, baskets_collected, levels_cleared) VALUES (?, ?, ?)")) {
+            for (int i = 1; i < rows; i++) {
+                insert.setString(1, "Player " + random.nextInt(rows / 4));
+                insert.setInt(2, random.nextInt(200));
+                insert.setInt(3, random.nextInt(11));
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        // Reopen so the in-memory leaderboard is loaded from the filled table
+        manager.close();
+        manager = new HighscoreManager(url, "sa", "");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (manager.getTopScores(1).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        GameRecord last = null;
+        for (int skipped = 0; skipped < rows / 2; skipped += 10_000) {
+            ArrayList<GameRecord> page = manager.getPage(last, 10_000);
+            last = page.get(page.size() - 1);
+        }
+        middle = last;
+        player = middle.getPlayerName();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        manager.close();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int fullTableSelect() throws SQLException {
+        int count = 0;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, player_name, baskets_collected, levels_cleared "
+                     + "FROM highscores ORDER BY baskets_collected DESC, levels_cleared DESC")) {
+            while (rs.next()) {
+                count += rs.getInt(3);
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public ArrayList<GameRecord> firstPage() {
+        return manager.getPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ArrayList<GameRecord> cachedTopScores() {
+        return manager.getTopScores(PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ArrayList<GameRecord> keysetMiddlePage() {
+        return manager.getPage(middle, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int offsetMiddlePage() throws SQLException {
+        int count = 0;
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT id, player_name, baskets_collected, levels_cleared "
+                + "FROM highscores ORDER BY baskets_collected DESC, levels_cleared DESC, id DESC LIMIT ? OFFSET ?")) {
+            stmt.setInt(1, PAGE_SIZE);
+            stmt.setInt(2, rows / 2);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    count += rs.getInt(3);
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int rankLookup() {
+        return manager.getRank(player);
+    }
+}
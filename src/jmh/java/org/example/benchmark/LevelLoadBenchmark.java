@@ -0,0 +1,61 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.example.model.Level;
+import org.example.model.LevelCompiler;
+import org.example.model.LevelData;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares parsing text levels with reading compiled binary levels, on levels from 10 to
+ * one million entities of each kind.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelLoadBenchmark {
+    @Param({"10", "10000", "1000000"})
+    public int entities;
+
+    private Path textFile;
+    private Path binaryFile;
+
+    @Setup
+    public void setup() throws IOException {
+        textFile = BenchmarkLevels.write(entities, 42);
+        binaryFile = LevelCompiler.compiledPath(textFile);
+        LevelCompiler.compile(textFile, binaryFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    public LevelData parseText() throws IOException {
+        return LevelData.load(textFile);
+    }
+
+    @Benchmark
+    public LevelData readBinary() throws IOException {
+        return LevelData.load(binaryFile);
+    }
+
+    @Benchmark
+    public Level levelFromText() {
+        return new Level(textFile.toString());
+    }
+
+    @Benchmark
+    public Level levelFromBinary() {
+        return new Level(binaryFile.toString());
+    }
+}
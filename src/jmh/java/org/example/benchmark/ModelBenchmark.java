@@ -0,0 +1,90 @@
+package org.example.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.model.Level;
+import org.example.model.Level;
+import org.example.model.Player;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the per-tick model operations one at a time, on levels from 10 to 100k entities of
+ * each kind: {@link Level#update()}, {@link Player#update()}, the basket collision check, which
+ * removes the baskets it hits, and {@link Level#draw(java.awt.Graphics, double)} into an
+ * off-screen 800x600 image. The obstacle and ranger checks are in {@link CollisionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ModelBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"10", "1000", "100000"})
+    public int entities;
+
+    private Level level;
+    private Player player;
+    private Rectangle[] probes;
+    private int next;
+    private int ticks;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    // Collected baskets are gone for good, so every iteration starts from a fresh level
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setup() {
+        level = BenchmarkLevels.create(entities, 42);
+        player = new Player(50, 50, level);
+        player.setDirection(5, 5);
+
+        Random random = new Random(7);
+        int width = BenchmarkLevels.worldWidth(entities * 3);
+        int height = BenchmarkLevels.worldHeight(entities * 3);
+        probes = new Rectangle[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = new Rectangle(random.nextInt(width), random.nextInt(height), 50, 50);
+        }
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public Level levelUpdate() {
+        level.update();
+        return level;
+    }
+
+    @Benchmark
+    public int playerUpdate() {
+        // Turn around regularly so the player keeps moving instead of resting against a wall
+        if (++ticks % 64 == 0) {
+            player.setDirection((ticks & 64) == 0 ? 5 : -5, (ticks & 128) == 0 ? 5 : -5);
+        }
+        player.update();
+        return player.getX();
+    }
+
+    @Benchmark
+    public boolean basketCollision() {
+        next = (next + 1) & (PROBES - 1);
+        player.setPosition(probes[next].x, probes[next].y);
+        return level.checkBasketCollision(player);
+    }
+
+    @Benchmark
+    public BufferedImage levelDraw() {
+        level.draw(g, 0.5);
+        return image;
+    }
+}
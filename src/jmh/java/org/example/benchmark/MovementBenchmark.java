@@ -0,0 +1,47 @@
+package org.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.example.model.Level;
+import org.example.model.Player;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures one simulation tick of player and ranger movement with their collision checks.
+ *
+ * <p>
+ * The tick is expected to be allocation-free; run with {@code -prof gc} and check that
+ * {@code gc.alloc.rate.norm} stays at about 0 B/op.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int rangers;
+
+    private Level level;
+    private Player player;
+    private int ticks;
+
+    @Setup
+    public void setup() {
+        level = BenchmarkLevels.create(rangers, 42);
+        player = new Player(50, 50, level);
+        player.setDirection(5, 5);
+    }
+
+    @Benchmark
+    public boolean tick() {
+        // Turn around regularly so the player keeps moving instead of resting against a wall
+        if (++ticks % 64 == 0) {
+            player.setDirection((ticks & 64) == 0 ? 5 : -5, (ticks & 128) == 0 ? 5 : -5);
+        }
+        player.update();
+        level.update();
+        return level.checkRangerCollision(player);
+    }
+}
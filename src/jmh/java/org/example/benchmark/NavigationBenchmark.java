@@ -0,0 +1,127 @@
+package org.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.model.Level;
+import org.example.model.LevelData;
+import org.example.model.NavigationGrid;
+import org.example.model.Obstacle;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures steering 1,000 chasing rangers with a {@link NavigationGrid}, on maps from the
+ * 800x600 field up to 12800x9600 (480,000 cells), while the target walks across the map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NavigationBenchmark {
+    private static final int RANGERS = 1_000;
+    private static final int CELL_SIZE = 16;
+    private static final int AGENT_SIZE = 40;
+    private static final int SPEED = 2;
+    private static final int BUDGET = 4_096;
+
+    @Param({"800", "3200", "12800"})
+    public int worldWidth;
+
+    private int worldHeight;
+    private NavigationGrid grid;
+    private int[] xs, ys;
+    private int targetX, targetY, targetStep;
+    private Level level;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setup() {
+        worldHeight = worldWidth * 3 / 4;
+        Random random = new Random(42);
+        ArrayList<Obstacle> obstacles = new ArrayList<>();
+        int treeCount = worldWidth * worldHeight / 40_000;
+        for (int i = 0; i < treeCount; i++) {
+            obstacles.add(new Obstacle("Tree", random.nextInt(worldWidth), random.nextInt(worldHeight)));
+        }
+        grid = new NavigationGrid(worldWidth, worldHeight, CELL_SIZE, AGENT_SIZE, AGENT_SIZE);
+        grid.addObstacles(obstacles);
+
+        xs = new int[RANGERS];
+        ys = new int[RANGERS];
+        for (int i = 0; i < RANGERS; i++) {
+            do {
+                xs[i] = random.nextInt(worldWidth);
+                ys[i] = random.nextInt(worldHeight);
+            } while (!grid.isWalkable(xs[i], ys[i]));
+        }
+        targetX = 50;
+        targetY = 50;
+        targetStep = 5;
+        grid.setTarget(targetX, targetY);
+        grid.advance(Integer.MAX_VALUE);
+
+        LevelData.Builder builder = new LevelData.Builder();
+        for (int i = 0; i < 8; i++) {
+            builder.addObstacle(LevelData.MOUNTAIN, 150 + 200 * (i % 3), 100 + 200 * (i / 3));
+        }
+        for (int i = 0; i < RANGERS; i++) {
+            builder.addRanger(random.nextInt(760), random.nextInt(560), LevelData.CHASE);
+        }
+        level = new Level(builder.build());
+    }
+
+    /**
+     * Moves the target like the player, 5 pixels per tick, bouncing off the map edges.
+     */
+    private void moveTarget(int width) {
+        targetX += targetStep;
+        if (targetX < 0 || targetX > width - 60) {
+            targetStep = -targetStep;
+            targetX += 2 * targetStep;
+        }
+    }
+
+    /**
+     * One tick of the navigation alone: move the target, continue the search within its
+     * budget, and steer every ranger one step along the field.
+     */
+    @Benchmark
+    public int tick() {
+        moveTarget(worldWidth);
+        grid.setTarget(targetX, targetY);
+        grid.advance(BUDGET);
+        int sum = 0;
+        for (int i = 0; i < RANGERS; i++) {
+            int direction = grid.directionAt(xs[i], ys[i]);
+            if (direction >= NavigationGrid.UP && direction <= NavigationGrid.RIGHT) {
+                xs[i] += Math.max(-SPEED, Math.min(SPEED, grid.neighbourX(xs[i], direction) - xs[i]));
+                ys[i] += Math.max(-SPEED, Math.min(SPEED, grid.neighbourY(ys[i], direction) - ys[i]));
+            }
+            sum += xs[i];
+        }
+        return sum;
+    }
+
+    /**
+     * A complete search of the whole map, which a tick only pays in slices.
+     */
+    @Benchmark
+    public long fullSearch() {
+        moveTarget(worldWidth);
+        grid.setTarget(targetX, targetY);
+        grid.advance(Integer.MAX_VALUE);
+        return grid.getSearchCount();
+    }
+
+    /**
+     * One update of an 800x600 level with 1,000 chasing rangers. Every ranger is steered
+     * through the level, and those outside the field also query the obstacle grid.
+     */
+    @Benchmark
+    public Level levelUpdate() {
+        moveTarget(800);
+        level.update(targetX, targetY);
+        return level;
+    }
+}
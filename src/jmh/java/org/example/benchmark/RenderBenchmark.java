@@ -0,0 +1,138 @@
+package org.example.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.example.assets.SpriteCache;
+import org.example.engine.GameEngine;
+import org.example.engine.InputState;
+import org.example.model.Level;
+import org.example.model.LevelData;
+import org.example.model.LevelGenerator;
+import org.example.model.Player;
+import org.example.model.WorldSnapshot;
+import org.example.view.LayeredRenderer;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures drawing one 800x600 frame into an off-screen image: the full redraw of the
+ * background and every entity, the cached static layer with the visible entities repainted,
+ * the cached static layer limited to the dirty region of the frame, and frames of a camera
+ * scrolling diagonally across the world. The maps are level 10 and generated worlds of 10,000
+ * and 100,000 entities, so the layered frames show the draw time against the world size; only
+ * the full redraw, which does not cull, grows with it. The game steps are captured during setup
+ * and replayed in a loop, so updating the rangers of the large worlds is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    private static final int WIDTH = 800, HEIGHT = 600;
+
+    /** The number of captured steps replayed by each benchmark, a power of two. */
+    private static final int FRAMES = 128;
+
+    @Param({"level10", "10k", "100k"})
+    public String map;
+
+    private WorldSnapshot[] steps;
+    private WorldSnapshot[] scrolls;
+    private BufferedImage background;
+    private BufferedImage frame;
+    private Graphics2D g;
+    private LayeredRenderer renderer;
+    private int ticks;
+
+    @Setup
+    public void setup() {
+        LevelData data;
+        try {
+            data = switch (map) {
+                case "level10" -> LevelData.load(Path.of("levels/level10.txt"));
+                case "10k" -> new LevelGenerator(42, 3_334, 3_334, 3_334).generate();
+                default -> new LevelGenerator(42, 33_334, 33_334, 33_334).generate();
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // The player walks back and forth near the spawn point
+        GameEngine engine = new GameEngine(levelNumber -> new Level(data));
+        steps = new WorldSnapshot[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            engine.step((i & 64) == 0 ? InputState.RIGHT | InputState.DOWN : InputState.LEFT | InputState.UP);
+            if (engine.isGameOver()) {
+                engine.reset();
+            }
+            steps[i] = engine.snapshot();
+        }
+
+        // The player moves diagonally away from the spawn point, 5 pixels per step along x, so the view scrolls
+        Level level = new Level(data);
+        Player player = new Player(50, 50, level);
+        scrolls = new WorldSnapshot[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            int x = Math.min(level.getWidth() - player.getWidth(), player.getX() + 5);
+            player.setPosition(x, Math.min(level.getHeight() - player.getHeight(), x * 3 / 4));
+            level.update(player.getX(), player.getY());
+            scrolls[i] = WorldSnapshot.capture(level, player);
+        }
+
+        background = SpriteCache.getSprite("/images/background.png", WIDTH, HEIGHT);
+        frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+        renderer = new LayeredRenderer(background, Color.GRAY, WIDTH, HEIGHT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage fullRedraw() {
+        WorldSnapshot snapshot = steps[ticks++ & (FRAMES - 1)];
+        g.setClip(null);
+        g.setColor(Color.GRAY);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.drawImage(background, 0, 0, WIDTH, HEIGHT, null);
+        snapshot.draw(g, 0.5);
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage layeredFullFrame() {
+        WorldSnapshot snapshot = steps[ticks++ & (FRAMES - 1)];
+        g.setClip(null);
+        renderer.paint(g, snapshot, 0.5);
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage layeredDirtyRegion() {
+        WorldSnapshot snapshot = steps[ticks++ & (FRAMES - 1)];
+        Rectangle dirty = renderer.getDirtyRegion(snapshot, 0.5);
+        g.setClip(dirty);
+        renderer.paint(g, snapshot, 0.5);
+        return frame;
+    }
+
+    /**
+     * A frame of the scrolling view, which rebuilds the static layer whenever the view leaves it.
+     */
+    @Benchmark
+    public BufferedImage layeredScrolling() {
+        WorldSnapshot snapshot = scrolls[ticks++ & (FRAMES - 1)];
+        g.setClip(null);
+        renderer.paint(g, snapshot, 0.5);
+        return frame;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.example.engine.GameEngine;
+import org.example.engine.InputRecording;
+import org.example.engine.LevelLoader;
+import org.example.engine.Replayer;
+import org.example.simulation.Agent;
+import org.example.simulation.GreedyAgent;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures verifying a recorded game by replaying it headlessly, and decoding the recording.
+ * The game is played by a greedy agent until it ends or reaches the tick limit. Run from the
+ * project root, where the level files are found.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ReplayBenchmark {
+    /** The tick limit of the recorded game. */
+    private static final long MAX_TICKS = 1_000_000;
+
+    /** The agent seeds; 67 and 288 each clear six levels. */
+    @Param({"42", "67", "288"})
+    public long seed;
+
+    private Replayer replayer;
+    private InputRecording recording;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        LevelLoader levels = LevelLoader.fromDirectory("./levels");
+        GameEngine engine = new GameEngine(levels);
+        Agent agent = new GreedyAgent(seed);
+        InputRecording.Builder recorder = new InputRecording.Builder();
+        while (!engine.isGameOver() && engine.getTickCount() < MAX_TICKS) {
+            int mask = agent.nextInput(engine);
+            recorder.record(mask);
+            engine.step(mask);
+        }
+        recording = recorder.build(engine);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recording.write(out);
+        encoded = out.toByteArray();
+        replayer = new Replayer(levels);
+        System.out.printf("%n%d ticks, %d levels cleared, %d input changes, %d bytes%n",
+                recording.getTicks(), recording.getLevelsCleared(), recording.getChangeCount(), encoded.length);
+    }
+
+    @Benchmark
+    public Replayer.Result replay() {
+        return replayer.replay(recording);
+    }
+
+    @Benchmark
+    public InputRecording decode() throws IOException {
+        return InputRecording.read(new ByteArrayInputStream(encoded));
+    }
+}
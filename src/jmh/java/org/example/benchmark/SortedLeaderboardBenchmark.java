@@ -0,0 +1,94 @@
+package org.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.model.GameRecord;
+import org.example.model.HighscoreStore;
+import org.example.model.Leaderboard;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the in-memory {@link Leaderboard} with sorting a copy of every record, which is
+ * what answering top-N and rank queries from {@code getAllScores()} costs, for up to ten
+ * million records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SortedLeaderboardBenchmark {
+    private static final int TOP = 10;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int records;
+
+    private ArrayList<GameRecord> all;
+    private Leaderboard leaderboard;
+    private GameRecord middle;
+    private String player;
+    private int nextId;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        random = new Random(42);
+        all = new ArrayList<>(records);
+        leaderboard = new Leaderboard();
+        String[] names = new String[Math.max(1, records / 4)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Player " + i;
+        }
+        for (nextId = 1; nextId <= records; nextId++) {
+            GameRecord record = new GameRecord(nextId, names[random.nextInt(names.length)],
+                    random.nextInt(200), random.nextInt(11));
+            all.add(record);
+            leaderboard.insert(record);
+        }
+        middle = leaderboard.recordAt(records / 2);
+        player = middle.getPlayerName();
+    }
+
+    @Benchmark
+    public ArrayList<GameRecord> sortedCopyTop() {
+        ArrayList<GameRecord> sorted = new ArrayList<>(all);
+        sorted.sort(HighscoreStore.RANKING);
+        return new ArrayList<>(sorted.subList(0, TOP));
+    }
+
+    @Benchmark
+    public ArrayList<GameRecord> leaderboardTop() {
+        return leaderboard.top(TOP);
+    }
+
+    @Benchmark
+    public int sortedCopyRank() {
+        ArrayList<GameRecord> sorted = new ArrayList<>(all);
+        sorted.sort(HighscoreStore.RANKING);
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getPlayerName().equals(player)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    @Benchmark
+    public int leaderboardRank() {
+        return leaderboard.rankOf(player);
+    }
+
+    @Benchmark
+    public ArrayList<GameRecord> leaderboardMiddlePage() {
+        return leaderboard.after(middle, TOP);
+    }
+
+    @Benchmark
+    public boolean leaderboardInsertAndRemove() {
+        GameRecord record = new GameRecord(nextId++, player, random.nextInt(200), random.nextInt(11));
+        leaderboard.insert(record);
+        return leaderboard.remove(record);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.example.engine.GameEngine;
+import org.example.engine.InputState;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.TickMetrics;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the cost of the per-phase tick instrumentation: one engine step with metrics off
+ * and on, and a single histogram update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickMetricsBenchmark {
+    @Param({"10", "1000"})
+    public int rangers;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private GameEngine engine;
+    private LatencyHistogram histogram;
+    private int ticks;
+    private long value;
+
+    @Setup
+    public void setup() {
+        engine = new GameEngine(levelNumber -> BenchmarkLevels.create(rangers, 42));
+        engine.setMetrics(metrics ? new TickMetrics() : null);
+        engine.setLives(Integer.MAX_VALUE);
+        histogram = new LatencyHistogram("benchmark");
+    }
+
+    @Benchmark
+    public long step() {
+        int mask = (++ticks & 64) == 0 ? InputState.RIGHT | InputState.DOWN : InputState.LEFT | InputState.UP;
+        engine.step(mask);
+        return engine.getTickCount();
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        value = value * 6364136223846793005L + 1442695040888963407L;
+        histogram.record((value >>> 40) & 0xFFFFF);
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.example.model.Level;
+import org.example.model.Player;
+import org.example.server.WorldStateDecoder;
+import org.example.server.WorldStateEncoder;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures encoding the world state of a level for a remote client, on the bundled level 10
+ * and on a random level of 10,002 entities. The delta benchmarks step the level first, so the
+ * encoding cost is their difference to {@link #update()}. The average message size is printed
+ * after every iteration. Run from the project root, where the level files are found.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class WorldStateBenchmark {
+    @Param({"level10", "10k"})
+    public String map;
+
+    private Level level;
+    private Player player;
+    private int playerStep;
+    private long tick;
+    private WorldStateEncoder encoder;
+    private WorldStateDecoder decoder;
+    private ByteBuffer buffer;
+    private long messages, bytes;
+    private int keyframeSize;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setup() {
+        level = map.equals("level10") ? new Level("./levels/level10.txt") : BenchmarkLevels.create(3_334, 42);
+        player = new Player(50, 50, level);
+        playerStep = 3;
+        tick = 0;
+        encoder = new WorldStateEncoder();
+        decoder = new WorldStateDecoder();
+        buffer = ByteBuffer.allocateDirect(WorldStateEncoder.maxEncodedSize(level));
+        encoder.encode(level, player, 10, tick, buffer);
+        keyframeSize = buffer.position();
+        decoder.apply(buffer.flip());
+        messages = 0;
+        bytes = 0;
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+    public void report() {
+        if (messages > 0) {
+            System.out.printf("%n%s: keyframe %d bytes, delta %.1f bytes/tick%n", map, keyframeSize, bytes / (double) messages);
+        }
+    }
+
+    /**
+     * Steps the level with the player walking back and forth along a row.
+     */
+    private void step() {
+        int x = player.getX() + playerStep;
+        if (x < 0 || x > 700) {
+            playerStep = -playerStep;
+            x += 2 * playerStep;
+        }
+        player.setPosition(x, 50);
+        level.update(player.getX(), player.getY());
+        level.checkBasketCollision(player);
+        tick++;
+    }
+
+    /**
+     * The step alone, the baseline of the delta benchmarks.
+     */
+    @Benchmark
+    public Level update() {
+        step();
+        return level;
+    }
+
+    /**
+     * A step and the encoding of its delta.
+     */
+    @Benchmark
+    public int updateAndEncode() {
+        step();
+        buffer.clear();
+        encoder.encode(level, player, 10, tick, buffer);
+        messages++;
+        bytes += buffer.position();
+        return buffer.position();
+    }
+
+    /**
+     * A step, the encoding of its delta and its reconstruction on the client.
+     */
+    @Benchmark
+    public int updateEncodeAndDecode() {
+        step();
+        buffer.clear();
+        encoder.encode(level, player, 10, tick, buffer);
+        decoder.apply(buffer.flip());
+        return decoder.getRangerX(0);
+    }
+
+    /**
+     * Encoding a complete keyframe of the level.
+     */
+    @Benchmark
+    public int keyframe() {
+        encoder.reset();
+        buffer.clear();
+        encoder.encode(level, player, 10, tick, buffer);
+        return buffer.position();
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.assets;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.imageio.ImageIO;
+
+/**
+ * Process-wide registry of sprite images.
+ *
+ * <p>
+ * Every image resource is decoded at most once, then converted to a display-compatible
+ * image pre-scaled to the size it is drawn at. All entities of the same kind share the
+ * same image instance, so loading a level no longer decodes a PNG per entity.
+ * </p>
+ */
+public final class SpriteCache {
+    /** Marker stored for resources that could not be loaded, since the maps cannot hold null. */
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    /** The decoded source images, keyed by resource path. */
+    private static final ConcurrentHashMap<String, BufferedImage> decoded = new ConcurrentHashMap<>();
+
+    /** The pre-scaled, display-compatible images, keyed by path and draw size. */
+    private static final ConcurrentHashMap<SpriteKey, BufferedImage> sprites = new ConcurrentHashMap<>();
+
+    /** The number of times each resource has been decoded. */
+    private static final ConcurrentHashMap<String, AtomicInteger> decodeCounts = new ConcurrentHashMap<>();
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    private SpriteCache() {
+    }
+
+    /**
+     * Retrieves the image at the given resource path, scaled to the given draw size.
+     *
+     * @param path   the classpath resource path, e.g. {@code /images/tree1.png}
+     * @param width  the width the image is drawn with
+     * @param height the height the image is drawn with
+     * @return the shared image, or null if the resource could not be loaded
+     */
+    public static BufferedImage getSprite(String path, int width, int height) {
+        SpriteKey key = new SpriteKey(path, width, height);
+        BufferedImage sprite = sprites.get(key);
+        if (sprite != null) {
+            hits.increment();
+        } else {
+            sprite = sprites.computeIfAbsent(key, k -> {
+                misses.increment();
+                return createSprite(k);
+            });
+        }
+        return sprite == MISSING ? null : sprite;
+    }
+
+    /**
+     * Retrieves the image at the given resource path at its original size.
+     *
+     * @param path the classpath resource path
+     * @return the shared image, or null if the resource could not be loaded
+     */
+    public static BufferedImage getImage(String path) {
+        BufferedImage image = decode(path);
+        return image == MISSING ? null : image;
+    }
+
+    /**
+     * Gets how many times the given resource has been decoded since the last {@link #clear()}.
+     *
+     * @param path the classpath resource path
+     * @return the number of decodes
+     */
+    public static int getDecodeCount(String path) {
+        AtomicInteger count = decodeCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Gets the number of sprite requests served from the cache.
+     *
+     * @return the hit count
+     */
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of sprite requests that had to create a new sprite.
+     *
+     * @return the miss count
+     */
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Drops every cached image and resets the counters.
+     */
+    public static void clear() {
+        sprites.clear();
+        decoded.clear();
+        decodeCounts.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Creates the display-compatible, scaled copy of an image.
+     *
+     * @param key the path and size of the sprite
+     * @return the new sprite, or {@link #MISSING} if the source could not be loaded
+     */
+    private static BufferedImage createSprite(SpriteKey key) {
+        BufferedImage source = decode(key.path());
+        if (source == MISSING || key.width() <= 0 || key.height() <= 0) {
+            return MISSING;
+        }
+
+        BufferedImage sprite = createCompatibleImage(key.width(), key.height());
+        Graphics2D g = sprite.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, key.width(), key.height(), null);
+        } finally {
+            g.dispose();
+        }
+        return sprite;
+    }
+
+    /**
+     * Decodes the image resource, or returns the already decoded copy.
+     *
+     * @param path the classpath resource path
+     * @return the decoded image, or {@link #MISSING} if it could not be loaded
+     */
+    private static BufferedImage decode(String path) {
+        return decoded.computeIfAbsent(path, p -> {
+            decodeCounts.computeIfAbsent(p, c -> new AtomicInteger()).incrementAndGet();
+            try (InputStream is = SpriteCache.class.getResourceAsStream(p)) {
+                if (is == null) {
+                    System.err.println("Error: Image not found: " + p);
+                    return MISSING;
+                }
+                BufferedImage image = ImageIO.read(is);
+                return image != null ? image : MISSING;
+            } catch (IOException e) {
+                System.err.println("Error loading image: " + p);
+                e.printStackTrace();
+                return MISSING;
+            }
+        });
+    }
+
+    /**
+     * Creates an empty translucent image in the format of the default screen,
+     * or a plain ARGB image when running without a display.
+     *
+     * @param width  the image width
+     * @param height the image height
+     * @return the new image
+     */
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice()
+                .getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * Identifies a sprite by its resource path and draw size.
+     */
+    private record SpriteKey(String path, int width, int height) {
+    }
+}
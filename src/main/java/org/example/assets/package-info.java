@@ -0,0 +1,10 @@
+/**
+ * Contains the shared asset registry used by the model and view layers.
+ *
+ * <p>
+ * This package includes the {@link org.example.assets.SpriteCache} which decodes every
+ * image resource once per process and hands out shared, display-ready copies of it,
+ * so that creating many entities of the same kind does not repeat the image decoding work.
+ * </p>
+ */
+package org.example.assets;
@@ -8,28 +8,78 @@ package org.example.controller;
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
+import org.example.engine.GameEngine;
+import org.example.engine.GameListener;
+import org.example.engine.InputRecording;
+import org.example.engine.InputState;
+import org.example.engine.LevelLoader;
+import org.example.engine.PrefetchingLevelLoader;
+import org.example.metrics.TickMetrics;
 import org.example.model.*;
 import org.example.view.GamePanel;
 import org.example.view.GameFrame;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Controls the game logic, including game state updates, rendering, and user input.
+ *
+ * <p>
+ * The rules of the game live in the headless {@link GameEngine}; this class adapts it to the
+ * game window. The engine is only stepped on the game loop thread. Key events from the Swing
+ * event thread are queued and applied at the start of the next tick, and after every tick an
+ * immutable {@link WorldSnapshot} is published for {@link #render(Graphics)} to draw.
+ * </p>
+ *
+ * <p>
+ * When {@link TickMetrics} are turned on, the engine and the renderer record the duration of
+ * every phase, the histograms are registered with JMX, and F3 toggles a debug overlay.
+ * </p>
+ *
+ * <p>
+ * The input of every tick is recorded. If the {@value #RECORD_PROPERTY} system property names a
+ * directory, each finished game is saved there as an {@link InputRecording}. If the
+ * {@value #REPLAY_PROPERTY} system property names a recording, the keyboard is ignored and the
+ * recorded game is played back in real time instead.
+ * </p>
  */
-public class GameController implements KeyListener {
+public class GameController implements KeyListener, GameListener {
+    /** The number of simulation steps per second. */
+    private static final int TICKS_PER_SECOND = 60;
+
+    /** The highest number of frames rendered per second. */
+    private static final int FRAMES_PER_SECOND = 120;
+
+    /** The number of highscores shown in the highscore dialog. */
+    private static final int HIGHSCORES_SHOWN = 10;
+
+    /** The system property naming the directory finished games are recorded to. */
+    public static final String RECORD_PROPERTY = "yogi.record";
+
+    /** The system property naming a recording to play back instead of reading the keyboard. */
+    public static final String REPLAY_PROPERTY = "yogi.replay";
+
     private GameFrame gameFrame;
     private GamePanel gamePanel;
-    private Timer timer;
-    private Player yogi;
-    private Level currentLevel;
-    private int levelNumber = 1;
-    private int lives = 3;
-    private long startTime;
-    private int totalBasketsCollected = 0;
+    private GameLoop gameLoop;
+    private volatile double renderAlpha = 1.0;
+    private final AtomicReference<WorldSnapshot> snapshot = new AtomicReference<>();
+    private final InputQueue inputQueue = new InputQueue();
+    private final InputState inputState = new InputState();
+    private final PrefetchingLevelLoader levelLoader;
+    private final GameEngine engine;
+    private volatile int levelNumber = 1;
+    private volatile int lives = 3;
+    private volatile long startTime;
+    private volatile int totalBasketsCollected = 0;
     private HighscoreManager highscoreManager;
+    private final TickMetrics metrics;
+    private final InputRecording.Builder recorder = new InputRecording.Builder();
+    private final InputRecording replay;
 
     /**
      * Constructs a new GameController with the specified frame and panel.
@@ -41,30 +91,114 @@ public class GameController implements KeyListener {
         this.gameFrame = frame;
         this.gamePanel = panel;
         highscoreManager = new HighscoreManager();
-        loadLevel(levelNumber);
-        initTimer();
+        Runtime.getRuntime().addShutdownHook(new Thread(highscoreManager::close, "highscore-flush"));
+        levelLoader = new PrefetchingLevelLoader(LevelLoader.fromDirectory("./levels"), GameEngine.LEVEL_COUNT);
+        engine = new GameEngine(levelLoader);
+        engine.addListener(this);
+        metrics = TickMetrics.fromProperties();
+        if (metrics != null) {
+            metrics.register();
+            engine.setMetrics(metrics);
+            gamePanel.getRenderer().setMetrics(metrics);
+        }
+        replay = loadReplay();
+        levelLoaded(engine.getLevelNumber(), engine.getLevel());
+        initGameLoop();
         startTime = System.currentTimeMillis();
     }
 
     /**
-     * Loads the specified level.
+     * Publishes the newly loaded level and restarts the level timer.
      *
-     * @param levelNum the level number to load
+     * @param levelNum the number of the loaded level
+     * @param level    the loaded level
      */
-    private void loadLevel(int levelNum) {
+    @Override
+    public void levelLoaded(int levelNum, Level level) {
         System.out.println("Loading level " + levelNum + "...");
-        currentLevel = new Level("./levels/level" + levelNum + ".txt");
-        yogi = new Player(50, 50, currentLevel);
+        PrefetchingLevelLoader.LoadStats stats = levelLoader.getStats(levelNum);
+        if (stats != null) {
+            System.out.println(stats);
+        }
+        System.out.println((gamePanel.isActiveRendering() ? "Active" : "Passive") + " rendering: "
+                + gamePanel.getFrameStats());
+        levelNumber = levelNum;
+        snapshot.set(engine.snapshot());
         resetTime();
     }
 
     /**
-     * Initializes and starts the game loop timer.
+     * Updates the basket count shown in the status bar.
+     *
+     * @param totalBasketsCollected the number of baskets collected in the whole game
      */
-    private void initTimer() {
-        System.out.println("Starting game timer...");
-        timer = new Timer();
-        timer.scheduleAtFixedRate(new GameLoop(), 0, 16);
+    @Override
+    public void basketCollected(int totalBasketsCollected) {
+        this.totalBasketsCollected = totalBasketsCollected;
+        gameFrame.repaint();
+    }
+
+    /**
+     * Updates the lives shown in the status bar.
+     *
+     * @param livesLeft the number of lives the player has left
+     */
+    @Override
+    public void lifeLost(int livesLeft) {
+        lives = livesLeft;
+    }
+
+    /**
+     * Reads the recording named by the {@value #REPLAY_PROPERTY} system property.
+     *
+     * @return the recording, or null if none is set or it cannot be read
+     */
+    private static InputRecording loadReplay() {
+        String file = System.getProperty(REPLAY_PROPERTY);
+        if (file == null) {
+            return null;
+        }
+        try {
+            InputRecording recording = InputRecording.read(Path.of(file));
+            System.out.println("Replaying " + file + " (" + recording.getTicks() + " ticks)");
+            return recording;
+        } catch (IOException e) {
+            System.err.println("Could not read recording " + file);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Saves the recording of the finished game to the directory named by the
+     * {@value #RECORD_PROPERTY} system property, if it is set.
+     */
+    private void saveRecording() {
+        String directory = System.getProperty(RECORD_PROPERTY);
+        if (directory == null) {
+            return;
+        }
+        Path file = Path.of(directory, "game-" + System.currentTimeMillis() + InputRecording.EXTENSION);
+        try {
+            Files.createDirectories(file.getParent());
+            recorder.build(engine).write(file);
+            System.out.println("Recorded game to " + file);
+        } catch (IOException e) {
+            System.err.println("Could not save recording " + file);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Initializes and starts the game loop.
+     */
+    private void initGameLoop() {
+        System.out.println("Starting game loop...");
+        if (gameLoop != null) {
+            gameLoop.stop();
+        }
+        gameLoop = new GameLoop(this::tick, this::requestFrame, TICKS_PER_SECOND, FRAMES_PER_SECOND);
+        gameLoop.start();
     }
 
     /**
@@ -79,29 +213,49 @@ public class GameController implements KeyListener {
      */
     public void restartGame() {
         System.out.println("Restarting game...");
-        levelNumber = 1;
-        lives = 3;
+        if (gameLoop != null) {
+            gameLoop.stop();
+        }
+        lives = GameEngine.STARTING_LIVES;
         totalBasketsCollected = 0;
-        loadLevel(levelNumber);
+        inputQueue.clear();
+        inputState.clear();
+        recorder.clear();
+        engine.reset();
         startTime = System.currentTimeMillis();
-        timer.cancel();
-        initTimer();
+        initGameLoop();
     }
 
     /**
-     * Renders the current game state using the provided Graphics context.
+     * Renders the most recently published game state using the provided Graphics context.
      *
      * @param g the Graphics context
      */
     public void render(Graphics g) {
-        if (currentLevel != null) {
-            currentLevel.draw(g);
-        }
-        if (yogi != null) {
-            yogi.draw(g);
+        WorldSnapshot current = snapshot.get();
+        if (current != null) {
+            current.draw(g, renderAlpha);
         }
     }
 
+    /**
+     * Retrieves the most recently published game state.
+     *
+     * @return the snapshot, or null before the first level is loaded
+     */
+    public WorldSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Retrieves the interpolation point of the most recently requested frame.
+     *
+     * @return the fraction of a tick elapsed since the last step, from 0 to 1
+     */
+    public double getRenderAlpha() {
+        return renderAlpha;
+    }
+
     /**
      * Retrieves the current game status, including lives, baskets collected, and elapsed time.
      *
@@ -122,65 +276,45 @@ public class GameController implements KeyListener {
     }
 
     /**
-     * Represents the game loop task that updates game state and repaints the game panel.
-     */
-    private class GameLoop extends TimerTask {
-        @Override
-        public void run() {
-            try {
-                yogi.update();
-                currentLevel.update();
-                checkCollisions();
-                gamePanel.repaint();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-    }
-
-    /**
-     * Checks for collisions between the player and game entities.
+     * Advances the game state by one simulation step.
      */
-    private void checkCollisions() {
-        if (currentLevel.checkBasketCollision(yogi)) {
-            yogi.collectBasket();
-            totalBasketsCollected++;
-            gameFrame.repaint();
-            if (currentLevel.areAllBasketsCollected()) {
-                loadNextLevel();
-            }
+    private void tick() {
+        int mask;
+        if (replay != null) {
+            mask = replay.maskAt(engine.getTickCount());
+        } else {
+            inputQueue.drainTo(inputState);
+            mask = inputState.getMask();
         }
-
-        if (currentLevel.checkRangerCollision(yogi)) {
-            lives--;
-            if (lives > 0) {
-                yogi.resetPosition();
-            } else {
-                timer.cancel();
-                endGame();
-            }
+        recorder.record(mask);
+        engine.step(mask);
+        if (engine.isGameOver() || (replay != null && engine.getTickCount() >= replay.getTicks())) {
+            gameLoop.stop();
+            endGame();
+            return;
         }
+        snapshot.set(engine.snapshot());
     }
 
     /**
-     * Loads the next level or ends the game if all levels are completed.
+     * Requests a repaint of the part of the game panel that changes at the given interpolation point.
+     *
+     * @param alpha the fraction of a tick elapsed since the last step
      */
-    private void loadNextLevel() {
-        levelNumber++;
-        if (levelNumber <= 10) {
-            loadLevel(levelNumber);
-            yogi.resetPosition();
-        } else {
-            timer.cancel();
-            endGame();
+    private void requestFrame(double alpha) {
+        renderAlpha = alpha;
+        WorldSnapshot current = snapshot.get();
+        if (current != null) {
+            gamePanel.repaintFrame(current, alpha);
         }
     }
 
     /**
-     * Displays the highscores in a dialog.
+     * Displays the top highscores in a dialog. The scores come from the highscore manager's
+     * cache, so opening the dialog never waits on the database.
      */
     public void showHighscores() {
-        ArrayList<GameRecord> records = highscoreManager.getAllScores();
+        ArrayList<GameRecord> records = highscoreManager.getTopScores(HIGHSCORES_SHOWN);
         StringBuilder sb = new StringBuilder("Highscores:\n");
 
         int rank = 1;
@@ -194,34 +328,51 @@ public class GameController implements KeyListener {
     }
 
     /**
-     * Ends the game by prompting the player to enter their name and saving the score.
+     * Ends the game by prompting the player to enter their name and saving the score. A replay
+     * instead reports whether it reached the recorded outcome and starts over.
      */
     public void endGame() {
+        if (replay != null) {
+            boolean matches = recorder.build(engine).hasSameOutcome(replay);
+            JOptionPane.showMessageDialog(gameFrame, "Replay finished: " + engine.getTotalBasketsCollected()
+                    + " baskets, " + (matches ? "matches the recording." : "does NOT match the recording."));
+            restartGame();
+            return;
+        }
+        saveRecording();
         String playerName = JOptionPane.showInputDialog(gameFrame, "Game Over! Enter your name:");
         if (playerName != null && !playerName.trim().isEmpty()) {
-            highscoreManager.addScore(playerName, totalBasketsCollected, levelNumber - 1);
+            highscoreManager.addScore(playerName, engine.getTotalBasketsCollected(), engine.getLevelsCleared());
         }
         restartGame();
     }
 
     /**
-     * Handles key pressed events by delegating to the player.
+     * Handles key pressed events by queueing them for the player's next tick.
      *
      * @param e the KeyEvent
      */
     @Override
     public void keyPressed(KeyEvent e) {
-        yogi.keyPressed(e);
+        if (e.getKeyCode() == KeyEvent.VK_F3 && metrics != null) {
+            gamePanel.toggleOverlay();
+            return;
+        }
+        if (replay == null) {
+            inputQueue.offer(e.getKeyCode(), true);
+        }
     }
 
     /**
-     * Handles key released events by delegating to the player.
+     * Handles key released events by queueing them for the player's next tick.
      *
      * @param e the KeyEvent
      */
     @Override
     public void keyReleased(KeyEvent e) {
-        yogi.keyReleased(e);
+        if (replay == null) {
+            inputQueue.offer(e.getKeyCode(), false);
+        }
     }
 
     /**
@@ -234,11 +385,20 @@ public class GameController implements KeyListener {
     }
 
     public Player getPlayer() {
-        return yogi;
+        return engine.getPlayer();
     }
 
     public Level getLevel() {
-        return currentLevel;
+        return engine.getLevel();
+    }
+
+    /**
+     * Retrieves the headless engine that holds the game state.
+     *
+     * @return the GameEngine instance
+     */
+    public GameEngine getEngine() {
+        return engine;
     }
 
     public int getLives() {
@@ -249,10 +409,37 @@ public class GameController implements KeyListener {
         return levelNumber;
     }
 
+    /**
+     * Retrieves the level loader, which exposes per-level load time measurements.
+     *
+     * @return the PrefetchingLevelLoader instance
+     */
+    public PrefetchingLevelLoader getLevelLoader() {
+        return levelLoader;
+    }
+
+    /**
+     * Retrieves the phase duration histograms.
+     *
+     * @return the TickMetrics instance, or null if metrics are turned off
+     */
+    public TickMetrics getMetrics() {
+        return metrics;
+    }
+
     public HighscoreManager getHighscoreManager() {
         return highscoreManager;
     }
 
+    /**
+     * Retrieves the game loop, which exposes tick and frame timing measurements.
+     *
+     * @return the current GameLoop instance
+     */
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
     public boolean isGameOver() {
         return lives <= 0;
     }
@@ -264,11 +451,13 @@ public class GameController implements KeyListener {
      */
     public void setGameOver(boolean gameOver) {
         if (gameOver) {
+            gameLoop.stop();
             lives = 0; // Setting lives to zero indicates the game is over
-            timer.cancel();
+            engine.setLives(lives);
         } else {
-            lives = 3; // Reset lives if game is not over
-            initTimer(); // Restart the game timer
+            lives = GameEngine.STARTING_LIVES; // Reset lives if game is not over
+            engine.setLives(lives);
+            initGameLoop(); // Restart the game loop
         }
     }
 
@@ -279,6 +468,7 @@ public class GameController implements KeyListener {
      */
     public void setLives(int lives) {
         this.lives = lives;
+        engine.setLives(lives);
         if (this.lives <= 0) {
             setGameOver(true); // Automatically end the game if lives are zero
         }
@@ -0,0 +1,303 @@
+package org.example.controller;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Runs the game on a dedicated thread with a fixed simulation step and a separate render rate.
+ *
+ * <p>
+ * Time is measured and waited for with a {@link Clock}, by default {@link Clock#SYSTEM}, which
+ * uses {@link System#nanoTime()}; a clock that only advances when the loop waits makes the loop
+ * fully deterministic, which is how it is tested. The simulation always advances in steps of
+ * exactly one tick; when the loop falls behind, for example after a GC pause, it catches up with
+ * at most {@link #MAX_STEPS_PER_FRAME} steps and then drops the remaining backlog instead of
+ * bunching up. After the steps of a frame the renderer is called with the fraction of a tick that
+ * has elapsed since the last step, so positions can be interpolated between steps.
+ * </p>
+ */
+public class GameLoop {
+    /** The most simulation steps run before a frame is rendered. */
+    private static final int MAX_STEPS_PER_FRAME = 5;
+
+    /** Below this remaining wait the loop spins instead of parking, since parking overshoots. */
+    private static final long SPIN_THRESHOLD_NANOS = 200_000;
+
+    /** The weight of a new sample in the running averages, as a shift (1/16). */
+    private static final int AVERAGE_SHIFT = 4;
+
+    private final Runnable simulation;
+    private final DoubleConsumer renderer;
+    private final long stepNanos;
+    private final long frameNanos;
+    private final Clock clock;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private volatile long tickCount;
+    private volatile long frameCount;
+    private volatile long lastTickNanos;
+    private volatile long averageTickNanos;
+    private volatile long lastFrameNanos;
+    private volatile long averageFrameNanos;
+    private volatile long droppedFrames;
+    private volatile long skippedTicks;
+
+    /**
+     * Constructs a new GameLoop.
+     *
+     * @param simulation      advances the game state by one tick
+     * @param renderer        renders a frame, given the fraction of a tick elapsed since the last step
+     * @param ticksPerSecond  the simulation rate
+     * @param framesPerSecond the highest render rate
+     */
+    public GameLoop(Runnable simulation, DoubleConsumer renderer, int ticksPerSecond, int framesPerSecond) {
+        this(simulation, renderer, ticksPerSecond, framesPerSecond, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a new GameLoop measuring time with the given clock.
+     *
+     * @param simulation      advances the game state by one tick
+     * @param renderer        renders a frame, given the fraction of a tick elapsed since the last step
+     * @param ticksPerSecond  the simulation rate
+     * @param framesPerSecond the highest render rate
+     * @param clock           the source of time the loop measures and waits with
+     */
+    public GameLoop(Runnable simulation, DoubleConsumer renderer, int ticksPerSecond, int framesPerSecond, Clock clock) {
+        this.simulation = simulation;
+        this.renderer = renderer;
+        this.stepNanos = 1_000_000_000L / ticksPerSecond;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts the loop on a new thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop. When called from another thread, waits for the loop thread to finish
+     * its current step; when called from a step itself, the loop ends once that step returns.
+     */
+    public void stop() {
+        Thread loopThread;
+        synchronized (this) {
+            running = false;
+            loopThread = thread;
+            thread = null;
+        }
+        if (loopThread != null && loopThread != Thread.currentThread()) {
+            LockSupport.unpark(loopThread);
+            try {
+                loopThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the loop is running.
+     *
+     * @return true if the loop is running, false otherwise
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The body of the loop thread.
+     */
+    private void run() {
+        long previous = clock.nanoTime();
+        long accumulator = stepNanos; // run the first step right away
+
+        while (running) {
+            long frameStart = clock.nanoTime();
+            long elapsed = frameStart - previous;
+            previous = frameStart;
+            accumulator += elapsed;
+
+            int steps = 0;
+            while (running && accumulator >= stepNanos && steps < MAX_STEPS_PER_FRAME) {
+                long tickStart = clock.nanoTime();
+                try {
+                    simulation.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                recordTick(clock.nanoTime() - tickStart);
+                accumulator -= stepNanos;
+                steps++;
+            }
+            if (accumulator >= stepNanos) {
+                // Too far behind to catch up: drop the backlog rather than fast-forwarding the game
+                skippedTicks += accumulator / stepNanos;
+                accumulator %= stepNanos;
+            }
+            if (!running) {
+                break;
+            }
+
+            try {
+                renderer.accept((double) accumulator / stepNanos);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            recordFrame(elapsed);
+
+            waitUntil(frameStart + Math.min(frameNanos, stepNanos - accumulator));
+        }
+    }
+
+    /**
+     * Waits until the given time, or until the loop is stopped.
+     *
+     * @param deadline the {@link Clock#nanoTime()} value to wait for
+     */
+    private void waitUntil(long deadline) {
+        long remaining;
+        while (running && (remaining = deadline - clock.nanoTime()) > 0) {
+            clock.pause(remaining);
+        }
+    }
+
+    private void recordTick(long nanos) {
+        lastTickNanos = nanos;
+        averageTickNanos += (nanos - averageTickNanos) >> AVERAGE_SHIFT;
+        tickCount++;
+    }
+
+    private void recordFrame(long nanos) {
+        if (frameCount > 0 && nanos > frameNanos + frameNanos / 2) {
+            droppedFrames += Math.max(1, nanos / frameNanos - 1);
+        }
+        lastFrameNanos = nanos;
+        averageFrameNanos += (nanos - averageFrameNanos) >> AVERAGE_SHIFT;
+        frameCount++;
+    }
+
+    /**
+     * Gets the number of simulation steps run so far.
+     *
+     * @return the tick count
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Gets the number of frames rendered so far.
+     *
+     * @return the frame count
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets how long the last simulation step took.
+     *
+     * @return the step duration in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Gets the running average duration of a simulation step.
+     *
+     * @return the average step duration in nanoseconds
+     */
+    public long getAverageTickNanos() {
+        return averageTickNanos;
+    }
+
+    /**
+     * Gets the time between the last two frames.
+     *
+     * @return the frame time in nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /**
+     * Gets the running average time between frames.
+     *
+     * @return the average frame time in nanoseconds
+     */
+    public long getAverageFrameNanos() {
+        return averageFrameNanos;
+    }
+
+    /**
+     * Gets the number of frames that were missed because a frame took more than
+     * one and a half frame intervals.
+     *
+     * @return the dropped frame count
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Gets the number of simulation steps dropped because the loop fell too far behind to catch up.
+     *
+     * @return the skipped tick count
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * The source of time of a loop. A clock is only used from the loop thread.
+     */
+    public interface Clock {
+        /**
+         * The wall clock: {@link System#nanoTime()}, waited for by parking for most of the wait
+         * and spinning for the rest.
+         */
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void pause(long nanos) {
+                if (nanos > SPIN_THRESHOLD_NANOS) {
+                    LockSupport.parkNanos(nanos - SPIN_THRESHOLD_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        };
+
+        /**
+         * Gets the current time.
+         *
+         * @return the time in nanoseconds, from an arbitrary origin
+         */
+        long nanoTime();
+
+        /**
+         * Lets time pass while the loop waits. May return early, for example when the loop thread
+         * is unparked by {@link GameLoop#stop()}; the loop calls it again while time remains.
+         *
+         * @param nanos the remaining wait in nanoseconds
+         */
+        void pause(long nanos);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.controller;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.example.engine.InputState;
+
+/**
+ * Collects keyboard input from the Swing event thread so the simulation thread can apply
+ * it once per tick, instead of the game state being changed from two threads.
+ */
+public class InputQueue {
+    private final ConcurrentLinkedQueue<KeyInput> events = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Queues a key press or release. Safe to call from any thread.
+     *
+     * @param keyCode the virtual key code
+     * @param pressed true for a key press, false for a key release
+     */
+    public void offer(int keyCode, boolean pressed) {
+        events.offer(new KeyInput(keyCode, pressed));
+    }
+
+    /**
+     * Applies every queued event to the input state, in the order they arrived.
+     * Must be called from the simulation thread.
+     *
+     * @param state the input state to apply the events to
+     * @return the number of events applied
+     */
+    public int drainTo(InputState state) {
+        int drained = 0;
+        KeyInput input;
+        while ((input = events.poll()) != null) {
+            if (input.pressed()) {
+                state.press(input.keyCode());
+            } else {
+                state.release(input.keyCode());
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Discards every queued event.
+     */
+    public void clear() {
+        events.clear();
+    }
+
+    /**
+     * A single queued key event.
+     */
+    private record KeyInput(int keyCode, boolean pressed) {
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.engine;
+
+import java.util.ArrayList;
+import org.example.metrics.TickMetrics;
+import org.example.model.Level;
+import org.example.model.Player;
+import org.example.model.WorldSnapshot;
+
+/**
+ * The headless simulation core of the game.
+ *
+ * <p>
+ * The engine owns the current level, the player, the remaining lives and the progress through
+ * the levels, and advances them one tick at a time with {@link #step(int)}. It never touches
+ * Swing or a clock, so the same sequence of inputs always produces the same game, and it can be
+ * stepped as fast as the model allows. An engine is not thread-safe; it must be stepped and
+ * read from one thread at a time.
+ * </p>
+ */
+public class GameEngine {
+    /** The number of levels in a game. */
+    public static final int LEVEL_COUNT = 10;
+
+    /** The number of lives the player starts with. */
+    public static final int STARTING_LIVES = 3;
+
+    /** The position the player starts each level and respawns at. */
+    public static final int SPAWN_X = 50, SPAWN_Y = 50;
+
+    private final LevelLoader levelLoader;
+    private final ArrayList<GameListener> listeners = new ArrayList<>();
+
+    private Level level;
+    private Player player;
+    private int levelNumber;
+    private int lives;
+    private int totalBasketsCollected;
+    private long tickCount;
+    private boolean gameOver;
+    private TickMetrics metrics;
+
+    /**
+     * Constructs a new GameEngine and loads the first level.
+     *
+     * @param levelLoader the source of the levels
+     */
+    public GameEngine(LevelLoader levelLoader) {
+        this.levelLoader = levelLoader;
+        reset();
+    }
+
+    /**
+     * Adds a listener for the engine's events.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener(GameListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts a new game from the first level with full lives.
+     */
+    public void reset() {
+        levelNumber = 1;
+        lives = STARTING_LIVES;
+        totalBasketsCollected = 0;
+        tickCount = 0;
+        gameOver = false;
+        loadLevel(levelNumber);
+    }
+
+    /**
+     * Loads the given level and places a new player at the start.
+     *
+     * @param levelNum the level number to load
+     */
+    private void loadLevel(int levelNum) {
+        Level previous = level;
+        level = levelLoader.load(levelNum);
+        if (previous != null && previous != level && previous.getChunkStreamer() != null) {
+            previous.getChunkStreamer().close();
+        }
+        player = new Player(SPAWN_X, SPAWN_Y, level);
+        for (GameListener listener : listeners) {
+            listener.levelLoaded(levelNum, level);
+        }
+    }
+
+    /**
+     * Advances the game by one tick. Does nothing once the game is over.
+     *
+     * @param inputMask the movement requested for this tick, as an {@link InputState} mask
+     */
+    public void step(int inputMask) {
+        if (gameOver) {
+            return;
+        }
+        tickCount++;
+        int speed = player.getSpeed();
+        player.setDirection(InputState.horizontal(inputMask) * speed, InputState.vertical(inputMask) * speed);
+        if (metrics == null) {
+            player.update();
+            level.update(player.getX(), player.getY());
+            checkCollisions();
+            return;
+        }
+        long start = System.nanoTime();
+        player.update();
+        long playerDone = System.nanoTime();
+        level.update(player.getX(), player.getY());
+        long rangersDone = System.nanoTime();
+        checkCollisions();
+        long end = System.nanoTime();
+        metrics.record(TickMetrics.Phase.PLAYER_UPDATE, playerDone - start);
+        metrics.record(TickMetrics.Phase.RANGER_UPDATE, rangersDone - playerDone);
+        metrics.record(TickMetrics.Phase.COLLISION, end - rangersDone);
+    }
+
+    /**
+     * Sets the metrics the phases of every tick are recorded into.
+     *
+     * @param metrics the metrics, or null to stop measuring
+     */
+    public void setMetrics(TickMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Checks for collisions between the player and the level's baskets and rangers.
+     */
+    private void checkCollisions() {
+        if (level.checkBasketCollision(player)) {
+            player.collectBasket();
+            totalBasketsCollected++;
+            for (GameListener listener : listeners) {
+                listener.basketCollected(totalBasketsCollected);
+            }
+            if (level.areAllBasketsCollected()) {
+                for (GameListener listener : listeners) {
+                    listener.levelCleared(levelNumber);
+                }
+                levelNumber++;
+                if (levelNumber > LEVEL_COUNT) {
+                    endGame();
+                    return;
+                }
+                loadLevel(levelNumber);
+            }
+        }
+
+        if (level.checkRangerCollision(player)) {
+            lives--;
+            for (GameListener listener : listeners) {
+                listener.lifeLost(lives);
+            }
+            if (lives > 0) {
+                player.resetPosition();
+            } else {
+                endGame();
+            }
+        }
+    }
+
+    /**
+     * Marks the game as over and notifies the listeners.
+     */
+    private void endGame() {
+        gameOver = true;
+        for (GameListener listener : listeners) {
+            listener.gameEnded(totalBasketsCollected, getLevelsCleared());
+        }
+    }
+
+    /**
+     * Captures the current state for rendering on another thread.
+     *
+     * @return an immutable snapshot of the level and player
+     */
+    public WorldSnapshot snapshot() {
+        return WorldSnapshot.capture(level, player);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public int getLevelNumber() {
+        return levelNumber;
+    }
+
+    /**
+     * Gets the number of levels the player has fully cleared.
+     *
+     * @return the cleared level count
+     */
+    public int getLevelsCleared() {
+        return levelNumber - 1;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Sets the number of lives, ending the game if none are left.
+     *
+     * @param lives the number of lives to set
+     */
+    public void setLives(int lives) {
+        this.lives = lives;
+        gameOver = lives <= 0;
+    }
+
+    public int getTotalBasketsCollected() {
+        return totalBasketsCollected;
+    }
+
+    /**
+     * Gets the number of ticks stepped since the game started.
+     *
+     * @return the tick count
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
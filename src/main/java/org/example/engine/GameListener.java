@@ -0,0 +1,52 @@
+package org.example.engine;
+
+import org.example.model.Level;
+
+/**
+ * Receives the events of a {@link GameEngine}. Every method has an empty default, so
+ * listeners only implement the events they need. Events are delivered on the thread
+ * that steps the engine.
+ */
+public interface GameListener {
+    /**
+     * Called after a level has been loaded and the player placed at the start.
+     *
+     * @param levelNumber the number of the loaded level
+     * @param level       the loaded level
+     */
+    default void levelLoaded(int levelNumber, Level level) {
+    }
+
+    /**
+     * Called when the player collects a basket.
+     *
+     * @param totalBasketsCollected the number of baskets collected in the whole game
+     */
+    default void basketCollected(int totalBasketsCollected) {
+    }
+
+    /**
+     * Called when the player collects the last basket of a level.
+     *
+     * @param levelNumber the number of the cleared level
+     */
+    default void levelCleared(int levelNumber) {
+    }
+
+    /**
+     * Called when a ranger catches the player.
+     *
+     * @param livesLeft the number of lives the player has left
+     */
+    default void lifeLost(int livesLeft) {
+    }
+
+    /**
+     * Called when the game ends, either because the player ran out of lives or cleared the last level.
+     *
+     * @param basketsCollected the number of baskets collected in the whole game
+     * @param levelsCleared    the number of levels cleared
+     */
+    default void gameEnded(int basketsCollected, int levelsCleared) {
+    }
+}
@@ -0,0 +1,297 @@
+package org.example.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The input of one game, tick by tick, together with the outcome it produced.
+ *
+ * <p>
+ * Since the {@link GameEngine} is deterministic, the input masks of every tick are all that is
+ * needed to play a game again exactly as it went. Only the ticks at which the mask changes are
+ * stored, so holding a direction for a whole level costs a few bytes. The outcome (ticks played,
+ * baskets collected and levels cleared) is kept alongside, so a replay can check that a submitted
+ * score was really achieved with these inputs.
+ * </p>
+ *
+ * <p>
+ * The binary form is the magic {@code YREP}, a version byte, the number of mask changes, each
+ * change as the varint tick distance to the previous change and the mask byte, the outcome as
+ * varints, and a CRC32 of all preceding bytes.
+ * </p>
+ */
+public final class InputRecording {
+    /** The first int of a recording, "YREP" in ASCII. */
+    static final int MAGIC = 0x59524550;
+
+    /** The current format version. */
+    static final int VERSION = 1;
+
+    /** The file name extension of recordings. */
+    public static final String EXTENSION = ".yrep";
+
+    private final long[] changeTicks;
+    private final byte[] changeMasks;
+    private final long ticks;
+    private final int basketsCollected;
+    private final int levelsCleared;
+    private final boolean gameOver;
+
+    private InputRecording(long[] changeTicks, byte[] changeMasks, long ticks,
+                           int basketsCollected, int levelsCleared, boolean gameOver) {
+        this.changeTicks = changeTicks;
+        this.changeMasks = changeMasks;
+        this.ticks = ticks;
+        this.basketsCollected = basketsCollected;
+        this.levelsCleared = levelsCleared;
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * Gets the input mask of a tick.
+     *
+     * @param tick the tick index, starting at 0
+     * @return the input mask
+     */
+    public int maskAt(long tick) {
+        int index = Arrays.binarySearch(changeTicks, tick);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index < 0 ? 0 : changeMasks[index];
+    }
+
+    /**
+     * Gets the number of ticks the game ran for.
+     *
+     * @return the tick count
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getBasketsCollected() {
+        return basketsCollected;
+    }
+
+    public int getLevelsCleared() {
+        return levelsCleared;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Checks whether another recording ended with the same ticks, baskets, cleared levels and
+     * game over state as this one.
+     *
+     * @param other the other recording
+     * @return true if the outcomes are equal
+     */
+    public boolean hasSameOutcome(InputRecording other) {
+        return ticks == other.ticks && basketsCollected == other.basketsCollected
+                && levelsCleared == other.levelsCleared && gameOver == other.gameOver;
+    }
+
+    /**
+     * Gets the number of times the input changed.
+     *
+     * @return the number of stored mask changes
+     */
+    public int getChangeCount() {
+        return changeTicks.length;
+    }
+
+    /**
+     * Writes the recording in its binary form.
+     *
+     * @param out the stream to write to; not closed
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + changeTicks.length * 3);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeVarLong(data, changeTicks.length);
+        long previous = 0;
+        for (int i = 0; i < changeTicks.length; i++) {
+            writeVarLong(data, changeTicks[i] - previous);
+            data.writeByte(changeMasks[i]);
+            previous = changeTicks[i];
+        }
+        writeVarLong(data, ticks);
+        writeVarLong(data, basketsCollected);
+        writeVarLong(data, levelsCleared);
+        data.writeBoolean(gameOver);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        data.writeInt((int) crc.getValue());
+        data.flush();
+        bytes.writeTo(out);
+    }
+
+    /**
+     * Writes the recording to a file, replacing it if it exists.
+     *
+     * @param file the file to write
+     * @throws IOException if writing fails
+     */
+    public void write(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Reads a recording from its binary form.
+     *
+     * @param in the stream to read from; not closed
+     * @return the recording
+     * @throws IOException if reading fails or the data is not a valid recording
+     */
+    public static InputRecording read(InputStream in) throws IOException {
+        byte[] bytes = in.readAllBytes();
+        if (bytes.length < 4 + 1 + 4) {
+            throw new IOException("Not an input recording: too short");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an input recording: bad magic");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported input recording version " + version);
+        }
+        try {
+            int changes = Math.toIntExact(readVarLong(data));
+            if (changes > bytes.length) {
+                throw new IOException("Corrupt input recording: " + changes + " changes");
+            }
+            long[] changeTicks = new long[changes];
+            byte[] changeMasks = new byte[changes];
+            long tick = 0;
+            for (int i = 0; i < changes; i++) {
+                tick += readVarLong(data);
+                changeTicks[i] = tick;
+                changeMasks[i] = data.readByte();
+            }
+            long ticks = readVarLong(data);
+            int baskets = Math.toIntExact(readVarLong(data));
+            int levels = Math.toIntExact(readVarLong(data));
+            boolean gameOver = data.readBoolean();
+            if (data.readInt() != (int) crc.getValue()) {
+                throw new IOException("Corrupt input recording: checksum mismatch");
+            }
+            return new InputRecording(changeTicks, changeMasks, ticks, baskets, levels, gameOver);
+        } catch (EOFException | ArithmeticException e) {
+            throw new IOException("Corrupt input recording: truncated", e);
+        }
+    }
+
+    /**
+     * Reads a recording from a file.
+     *
+     * @param file the file to read
+     * @return the recording
+     * @throws IOException if reading fails or the file is not a valid recording
+     */
+    public static InputRecording read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt input recording: varint too long");
+    }
+
+    /**
+     * Collects the input of a game as it is played. Not thread-safe; call it from the thread
+     * that steps the engine.
+     */
+    public static final class Builder {
+        private long[] changeTicks = new long[64];
+        private byte[] changeMasks = new byte[64];
+        private int changes;
+        private long ticks;
+        private int lastMask;
+
+        /**
+         * Records the input of the next tick.
+         *
+         * @param mask the input mask the engine is stepped with
+         */
+        public void record(int mask) {
+            if (mask != lastMask) {
+                if (changes == changeTicks.length) {
+                    changeTicks = Arrays.copyOf(changeTicks, changes * 2);
+                    changeMasks = Arrays.copyOf(changeMasks, changes * 2);
+                }
+                changeTicks[changes] = ticks;
+                changeMasks[changes] = (byte) mask;
+                changes++;
+                lastMask = mask;
+            }
+            ticks++;
+        }
+
+        /**
+         * Gets the number of ticks recorded so far.
+         *
+         * @return the tick count
+         */
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * Forgets everything recorded, for a new game.
+         */
+        public void clear() {
+            changes = 0;
+            ticks = 0;
+            lastMask = 0;
+        }
+
+        /**
+         * Creates the recording with the outcome of the engine the input was played on.
+         *
+         * @param engine the engine, after the last recorded tick
+         * @return the recording
+         */
+        public InputRecording build(GameEngine engine) {
+            return new InputRecording(Arrays.copyOf(changeTicks, changes), Arrays.copyOf(changeMasks, changes),
+                    ticks, engine.getTotalBasketsCollected(), engine.getLevelsCleared(), engine.isGameOver());
+        }
+    }
+}
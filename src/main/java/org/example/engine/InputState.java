@@ -0,0 +1,96 @@
+package org.example.engine;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Tracks the movement direction requested by the keyboard as a compact input mask.
+ *
+ * <p>
+ * Pressing a movement key sets the direction on its axis, replacing the opposite direction,
+ * and releasing any key of an axis stops movement on that axis, matching how the player has
+ * always reacted to key events. The resulting mask is what the engine consumes every tick.
+ * </p>
+ */
+public class InputState {
+    /** Mask bit for moving up. */
+    public static final int UP = 1;
+
+    /** Mask bit for moving down. */
+    public static final int DOWN = 1 << 1;
+
+    /** Mask bit for moving left. */
+    public static final int LEFT = 1 << 2;
+
+    /** Mask bit for moving right. */
+    public static final int RIGHT = 1 << 3;
+
+    private int mask;
+
+    /**
+     * Applies a key press.
+     *
+     * @param keyCode the virtual key code of the pressed key
+     */
+    public void press(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_W, KeyEvent.VK_UP -> mask = (mask & ~DOWN) | UP;
+            case KeyEvent.VK_S, KeyEvent.VK_DOWN -> mask = (mask & ~UP) | DOWN;
+            case KeyEvent.VK_A, KeyEvent.VK_LEFT -> mask = (mask & ~RIGHT) | LEFT;
+            case KeyEvent.VK_D, KeyEvent.VK_RIGHT -> mask = (mask & ~LEFT) | RIGHT;
+        }
+    }
+
+    /**
+     * Applies a key release.
+     *
+     * @param keyCode the virtual key code of the released key
+     */
+    public void release(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_W, KeyEvent.VK_S, KeyEvent.VK_UP, KeyEvent.VK_DOWN -> mask &= ~(UP | DOWN);
+            case KeyEvent.VK_A, KeyEvent.VK_D, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT -> mask &= ~(LEFT | RIGHT);
+        }
+    }
+
+    /**
+     * Clears the input, as if every key had been released.
+     */
+    public void clear() {
+        mask = 0;
+    }
+
+    /**
+     * Gets the current input mask.
+     *
+     * @return a combination of {@link #UP}, {@link #DOWN}, {@link #LEFT} and {@link #RIGHT}
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Gets the horizontal direction of an input mask.
+     *
+     * @param mask the input mask
+     * @return -1 for left, 1 for right, 0 for none
+     */
+    public static int horizontal(int mask) {
+        if ((mask & LEFT) != 0) {
+            return -1;
+        }
+        return (mask & RIGHT) != 0 ? 1 : 0;
+    }
+
+    /**
+     * Gets the vertical direction of an input mask.
+     *
+     * @param mask the input mask
+     * @return -1 for up, 1 for down, 0 for none
+     */
+    public static int vertical(int mask) {
+        if ((mask & UP) != 0) {
+            return -1;
+        }
+        return (mask & DOWN) != 0 ? 1 : 0;
+    }
+}
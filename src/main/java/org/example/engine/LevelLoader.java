@@ -0,0 +1,83 @@
+package org.example.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import org.example.model.BinaryLevelFormat;
+import org.example.model.ChunkedLevelFormat;
+import org.example.model.Level;
+import org.example.model.LevelData;
+
+/**
+ * Provides the levels of a game by number.
+ */
+@FunctionalInterface
+public interface LevelLoader {
+    /**
+     * Loads the given level.
+     *
+     * @param levelNumber the level number, starting at 1
+     * @return the loaded level
+     */
+    Level load(int levelNumber);
+
+    /**
+     * Creates a loader reading {@code level<n>} files from a directory. A chunked
+     * {@code level<n>.ychk} file is preferred and streamed around the player; otherwise a
+     * compiled {@code level<n>.ylvl} file is preferred over the {@code level<n>.txt} text file.
+     *
+     * @param directory the directory containing the level files
+     * @return the level loader
+     */
+    static LevelLoader fromDirectory(String directory) {
+        return levelNumber -> {
+            Path chunked = Path.of(directory, "level" + levelNumber + ChunkedLevelFormat.EXTENSION);
+            if (Files.isReadable(chunked)) {
+                try {
+                    return new Level(ChunkedLevelFormat.open(chunked));
+                } catch (IOException e) {
+                    System.err.println("Could not open chunked level " + chunked + ": " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+            return new Level(levelFile(directory, levelNumber).toString());
+        };
+    }
+
+    /**
+     * Creates a loader reading {@code level<n>} files from a directory once, and building every
+     * further copy of a level from the data already read. Meant for servers that create the
+     * same levels for many games; the loader is thread-safe.
+     *
+     * @param directory the directory containing the level files
+     * @return the level loader
+     */
+    static LevelLoader cachedFromDirectory(String directory) {
+        ConcurrentHashMap<Integer, LevelData> cache = new ConcurrentHashMap<>();
+        return levelNumber -> new Level(cache.computeIfAbsent(levelNumber, n -> {
+            try {
+                return LevelData.load(levelFile(directory, n));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return new LevelData.Builder().build();
+            }
+        }));
+    }
+
+    /**
+     * Gets the file of a level, preferring a compiled {@code level<n>.ylvl} file over the
+     * {@code level<n>.txt} text file.
+     *
+     * @param directory   the directory containing the level files
+     * @param levelNumber the level number
+     * @return the path of the level file
+     */
+    private static Path levelFile(String directory, int levelNumber) {
+        Path compiled = Path.of(directory, "level" + levelNumber + BinaryLevelFormat.EXTENSION);
+        if (Files.isReadable(compiled)) {
+            return compiled;
+        }
+        return Path.of(directory, "level" + levelNumber + ".txt");
+    }
+}
@@ -0,0 +1,317 @@
+package org.example.engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.example.model.Level;
+
+/**
+ * A level loader that prepares levels on a background thread before they are needed.
+ *
+ * <p>
+ * Whenever a level is loaded, the next level and the first level (for a restart) are
+ * constructed in the background, which includes reading the level file and decoding its
+ * sprites. When the engine later asks for a prepared level, it is handed over without any
+ * work on the calling thread. Levels that were not prepared in time are waited for, and
+ * levels that were never requested are loaded directly, so the loader always returns the
+ * same levels as its delegate. Every prepared level is used at most once, because levels
+ * change while they are played.
+ * </p>
+ *
+ * <p>
+ * The cache holds at most {@code capacity} prepared levels; when it is full the oldest
+ * one is discarded. The next level has priority: the first level is only prepared when there
+ * is room for it beside the prepared levels, so it never displaces the next one. The load time of every level is recorded in a {@link LoadStats}.
+ * </p>
+ */
+public class PrefetchingLevelLoader implements LevelLoader, AutoCloseable {
+    /** The default number of prepared levels kept. */
+    public static final int DEFAULT_CAPACITY = 2;
+
+    private final LevelLoader delegate;
+    private final int levelCount;
+    private final int capacity;
+    private final ExecutorService executor;
+    private final LinkedHashMap<Integer, Future<Level>> prepared = new LinkedHashMap<>();
+    private final ConcurrentHashMap<Integer, LoadStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new PrefetchingLevelLoader keeping {@value #DEFAULT_CAPACITY} prepared levels.
+     *
+     * @param delegate   the loader that constructs the levels
+     * @param levelCount the number of the last level
+     */
+    public PrefetchingLevelLoader(LevelLoader delegate, int levelCount) {
+        this(delegate, levelCount, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new PrefetchingLevelLoader.
+     *
+     * @param delegate   the loader that constructs the levels
+     * @param levelCount the number of the last level
+     * @param capacity   the highest number of prepared levels kept
+     */
+    public PrefetchingLevelLoader(LevelLoader delegate, int levelCount, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.levelCount = levelCount;
+        this.capacity = capacity;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "level-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the given level, taking it from the prepared levels when possible, and starts
+     * preparing the levels likely to be needed next.
+     *
+     * @param levelNumber the level number, starting at 1
+     * @return the loaded level
+     */
+    @Override
+    public Level load(int levelNumber) {
+        long start = System.nanoTime();
+        Future<Level> future;
+        synchronized (prepared) {
+            future = prepared.remove(levelNumber);
+        }
+
+        Level level = null;
+        boolean prefetched = false;
+        if (future != null) {
+            try {
+                level = future.get();
+                prefetched = true;
+            } catch (ExecutionException | CancellationException e) {
+                System.err.println("Prefetching level " + levelNumber + " failed, loading it directly");
+                e.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (level == null) {
+            level = timedLoad(levelNumber);
+        }
+
+        long waitNanos = System.nanoTime() - start;
+        stats.computeIfAbsent(levelNumber, LoadStats::new).recordSwap(waitNanos, prefetched);
+
+        if (levelNumber < levelCount) {
+            prefetch(levelNumber + 1);
+        }
+        if (levelNumber != 1) {
+            prefetch(1, false);
+        }
+        return level;
+    }
+
+    /**
+     * Starts preparing a level in the background, unless it is already prepared.
+     *
+     * @param levelNumber the level number, starting at 1
+     */
+    public void prefetch(int levelNumber) {
+        prefetch(levelNumber, true);
+    }
+
+    /**
+     * Starts preparing a level in the background, unless it is already prepared.
+     *
+     * @param levelNumber the level number, starting at 1
+     * @param evict       whether to discard the oldest prepared levels to make room, or to
+     *                    skip the level when the cache is full
+     */
+    private void prefetch(int levelNumber, boolean evict) {
+        synchronized (prepared) {
+            if (executor.isShutdown() || prepared.containsKey(levelNumber)
+                    || (!evict && prepared.size() >= capacity)) {
+                return;
+            }
+            Iterator<Future<Level>> oldest = prepared.values().iterator();
+            while (prepared.size() >= capacity && oldest.hasNext()) {
+                oldest.next().cancel(false);
+                oldest.remove();
+            }
+            prepared.put(levelNumber, executor.submit(() -> timedLoad(levelNumber)));
+        }
+    }
+
+    /**
+     * Loads a level from the delegate and records how long it took.
+     *
+     * @param levelNumber the level number
+     * @return the loaded level
+     */
+    private Level timedLoad(int levelNumber) {
+        long start = System.nanoTime();
+        Level level = delegate.load(levelNumber);
+        long loadNanos = System.nanoTime() - start;
+        stats.computeIfAbsent(levelNumber, LoadStats::new).recordLoad(loadNanos);
+        return level;
+    }
+
+    /**
+     * Checks whether a level is prepared and ready to be handed over without waiting.
+     *
+     * @param levelNumber the level number
+     * @return true if the level has been constructed in the background
+     */
+    public boolean isReady(int levelNumber) {
+        synchronized (prepared) {
+            Future<Level> future = prepared.get(levelNumber);
+            return future != null && future.isDone() && !future.isCancelled();
+        }
+    }
+
+    /**
+     * Gets the load statistics of a level.
+     *
+     * @param levelNumber the level number
+     * @return the statistics, or null if the level has never been loaded
+     */
+    public LoadStats getStats(int levelNumber) {
+        return stats.get(levelNumber);
+    }
+
+    /**
+     * Gets the load statistics of every level loaded so far, ordered by level number.
+     *
+     * @return the statistics
+     */
+    public ArrayList<LoadStats> getAllStats() {
+        ArrayList<LoadStats> all = new ArrayList<>(stats.values());
+        all.sort((a, b) -> Integer.compare(a.getLevelNumber(), b.getLevelNumber()));
+        return all;
+    }
+
+    /**
+     * Stops the background thread and discards the prepared levels.
+     */
+    @Override
+    public void close() {
+        synchronized (prepared) {
+            for (Future<Level> future : prepared.values()) {
+                future.cancel(true);
+            }
+            prepared.clear();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The load time measurements of one level. Updated by the loader, safe to read from any thread.
+     */
+    public static final class LoadStats {
+        private final int levelNumber;
+        private long loads;
+        private long lastLoadNanos;
+        private long totalLoadNanos;
+        private long swaps;
+        private long prefetchedSwaps;
+        private long lastWaitNanos;
+        private long maxWaitNanos;
+
+        LoadStats(int levelNumber) {
+            this.levelNumber = levelNumber;
+        }
+
+        synchronized void recordLoad(long nanos) {
+            loads++;
+            lastLoadNanos = nanos;
+            totalLoadNanos += nanos;
+        }
+
+        synchronized void recordSwap(long waitNanos, boolean prefetched) {
+            swaps++;
+            if (prefetched) {
+                prefetchedSwaps++;
+            }
+            lastWaitNanos = waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+
+        public int getLevelNumber() {
+            return levelNumber;
+        }
+
+        /**
+         * Gets the number of times the level has been constructed, in the background or directly.
+         *
+         * @return the load count
+         */
+        public synchronized long getLoads() {
+            return loads;
+        }
+
+        /**
+         * Gets the time the most recent construction of the level took.
+         *
+         * @return the load time in nanoseconds
+         */
+        public synchronized long getLastLoadNanos() {
+            return lastLoadNanos;
+        }
+
+        /**
+         * Gets the average time a construction of the level took.
+         *
+         * @return the average load time in nanoseconds
+         */
+        public synchronized double getAverageLoadNanos() {
+            return loads == 0 ? 0 : (double) totalLoadNanos / loads;
+        }
+
+        /**
+         * Gets the number of times the level has been handed to the engine.
+         *
+         * @return the swap count
+         */
+        public synchronized long getSwaps() {
+            return swaps;
+        }
+
+        /**
+         * Gets the number of times the level was handed over from the prepared levels.
+         *
+         * @return the prefetched swap count
+         */
+        public synchronized long getPrefetchedSwaps() {
+            return prefetchedSwaps;
+        }
+
+        /**
+         * Gets how long the most recent hand-over blocked the engine's thread.
+         *
+         * @return the wait time in nanoseconds
+         */
+        public synchronized long getLastWaitNanos() {
+            return lastWaitNanos;
+        }
+
+        /**
+         * Gets the longest time a hand-over blocked the engine's thread.
+         *
+         * @return the wait time in nanoseconds
+         */
+        public synchronized long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("Level %d: loaded %d times (last %.2f ms), %d of %d swaps prefetched, last wait %.1f us",
+                    levelNumber, loads, lastLoadNanos / 1e6, prefetchedSwaps, swaps, lastWaitNanos / 1e3);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Plays an {@link InputRecording} again on a fresh {@link GameEngine} and checks its outcome.
+ *
+ * <p>
+ * The replay runs headlessly and as fast as the engine can step, with no clock and no
+ * rendering, so a whole game is re-simulated in milliseconds. It is meant for verifying a
+ * submitted score: the score counts only if replaying its recording reaches the same number of
+ * ticks, baskets and cleared levels.
+ * </p>
+ */
+public class Replayer {
+    private final LevelLoader levelLoader;
+
+    /**
+     * Constructs a new Replayer.
+     *
+     * @param levelLoader the source of the levels the recordings were played on
+     */
+    public Replayer(LevelLoader levelLoader) {
+        this.levelLoader = levelLoader;
+    }
+
+    /**
+     * Replays a recording to its last tick.
+     *
+     * @param recording the recording
+     * @return the outcome of the replay
+     */
+    public Result replay(InputRecording recording) {
+        long start = System.nanoTime();
+        GameEngine engine = new GameEngine(levelLoader);
+        long ticks = recording.getTicks();
+        while (engine.getTickCount() < ticks && !engine.isGameOver()) {
+            engine.step(recording.maskAt(engine.getTickCount()));
+        }
+        return new Result(recording, engine, System.nanoTime() - start);
+    }
+
+    /**
+     * The outcome of a replay.
+     */
+    public static final class Result {
+        private final long ticks;
+        private final int basketsCollected;
+        private final int levelsCleared;
+        private final boolean gameOver;
+        private final boolean matches;
+        private final long nanos;
+
+        private Result(InputRecording recording, GameEngine engine, long nanos) {
+            this.ticks = engine.getTickCount();
+            this.basketsCollected = engine.getTotalBasketsCollected();
+            this.levelsCleared = engine.getLevelsCleared();
+            this.gameOver = engine.isGameOver();
+            this.matches = ticks == recording.getTicks()
+                    && basketsCollected == recording.getBasketsCollected()
+                    && levelsCleared == recording.getLevelsCleared()
+                    && gameOver == recording.isGameOver();
+            this.nanos = nanos;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public int getBasketsCollected() {
+            return basketsCollected;
+        }
+
+        public int getLevelsCleared() {
+            return levelsCleared;
+        }
+
+        public boolean isGameOver() {
+            return gameOver;
+        }
+
+        /**
+         * Checks whether the replay reached the outcome stored in the recording.
+         *
+         * @return true if ticks, baskets, cleared levels and the game over state all match
+         */
+        public boolean matches() {
+            return matches;
+        }
+
+        /**
+         * Gets the time the replay took, including loading the levels.
+         *
+         * @return the duration in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d ticks, %d baskets, %d levels cleared in %.2f ms",
+                    matches ? "verified" : "MISMATCH", ticks, basketsCollected, levelsCleared, nanos / 1e6);
+        }
+    }
+
+    /**
+     * Verifies recordings from the command line.
+     *
+     * <p>
+     * Usage: {@code Replayer <recording>...}. Exits with status 1 if any recording does not
+     * replay to its stored outcome or cannot be read.
+     * </p>
+     *
+     * @param args the recording files
+     */
+    public static void main(String[] args) {
+        Replayer replayer = new Replayer(LevelLoader.fromDirectory("./levels"));
+        boolean allMatch = true;
+        for (String arg : args) {
+            try {
+                Result result = replayer.replay(InputRecording.read(Path.of(arg)));
+                System.out.println(arg + " " + result);
+                allMatch &= result.matches();
+            } catch (IOException e) {
+                System.err.println("Could not read recording " + arg);
+                e.printStackTrace();
+                allMatch = false;
+            }
+        }
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+}
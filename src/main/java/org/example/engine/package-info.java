@@ -0,0 +1,18 @@
+/**
+ * Contains the headless simulation core of the game.
+ *
+ * <p>
+ * This package includes the {@link org.example.engine.GameEngine}, which owns the world state
+ * (level, player, lives and progress) and advances it one tick at a time from an input mask,
+ * reporting what happened through {@link org.example.engine.GameListener} events. It has no
+ * dependency on Swing, so it can run on a headless machine for tests, simulations and replays;
+ * the controller layer adapts it to the game window.
+ * </p>
+ *
+ * <p>
+ * Because the engine is deterministic, a game is fully described by its input. An
+ * {@link org.example.engine.InputRecording} stores the input masks of a game compactly, and the
+ * {@link org.example.engine.Replayer} plays it again at full speed to verify its score.
+ * </p>
+ */
+package org.example.engine;
@@ -0,0 +1,67 @@
+package org.example.metrics;
+
+/**
+ * The management interface of a {@link LatencyHistogram}, as shown in JMX consoles.
+ */
+public interface LatencyHistogramMBean {
+    /**
+     * Gets the name of the measured phase.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return the count
+     */
+    long getCount();
+
+    /**
+     * Gets the average recorded duration.
+     *
+     * @return the mean in nanoseconds
+     */
+    double getMeanNanos();
+
+    /**
+     * Gets the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds
+     */
+    long getMaxNanos();
+
+    /**
+     * Gets the median recorded duration.
+     *
+     * @return the 50th percentile in nanoseconds
+     */
+    long getP50Nanos();
+
+    /**
+     * Gets the 90th percentile of the recorded durations.
+     *
+     * @return the 90th percentile in nanoseconds
+     */
+    long getP90Nanos();
+
+    /**
+     * Gets the 99th percentile of the recorded durations.
+     *
+     * @return the 99th percentile in nanoseconds
+     */
+    long getP99Nanos();
+
+    /**
+     * Gets the 99.9th percentile of the recorded durations.
+     *
+     * @return the 99.9th percentile in nanoseconds
+     */
+    long getP999Nanos();
+
+    /**
+     * Forgets every recorded duration.
+     */
+    void reset();
+}
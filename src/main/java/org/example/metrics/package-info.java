@@ -0,0 +1,11 @@
+/**
+ * Contains the runtime instrumentation of the game.
+ *
+ * <p>
+ * This package includes the lock-free {@link org.example.metrics.LatencyHistogram} and
+ * {@link org.example.metrics.TickMetrics}, which holds one histogram per phase of a tick and
+ * for rendering. The histograms can be read through JMX and by the debug overlay of the game
+ * panel. Nothing here depends on Swing, so the headless engine can record into it as well.
+ * </p>
+ */
+package org.example.metrics;
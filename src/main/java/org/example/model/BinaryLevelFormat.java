@@ -0,0 +1,156 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the compiled binary level format.
+ *
+ * <p>
+ * A compiled level is a little-endian sequence of ints: a header of magic number, format
+ * version and the obstacle, basket and ranger counts, followed by one array per field
+ * (obstacle types, xs and ys; basket xs and ys; ranger xs, ys and patterns), the world width
+ * and height, and a CRC-32 checksum of everything after the header. Files are read through a
+ * memory mapping and copied into the {@link LevelData} arrays with bulk transfers, without any
+ * parsing. Files of version 1, which end the payload after the arrays, are still read and get
+ * the default world size.
+ * </p>
+ */
+public final class BinaryLevelFormat {
+    /** The file name extension of compiled levels. */
+    public static final String EXTENSION = ".ylvl";
+
+    /** The first int of every compiled level, "YLVL" in ASCII. */
+    static final int MAGIC = 0x594C564C;
+
+    /** The current format version. */
+    static final int VERSION = 2;
+
+    /** The number of ints in the header: magic, version and three counts. */
+    private static final int HEADER_INTS = 5;
+
+    /** The number of ints after the arrays holding the world size. */
+    private static final int SIZE_INTS = 2;
+
+    private BinaryLevelFormat() {
+    }
+
+    /**
+     * Writes level data in the binary format.
+     *
+     * @param data the level data
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(LevelData data, Path file) throws IOException {
+        long payloadInts = data.obstacleCount * 3L + data.basketCount * 2L + data.rangerCount * 3L + SIZE_INTS;
+        long size = (HEADER_INTS + payloadInts + 1L) * Integer.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Level is too large for the binary format: " + data.getEntityCount() + " entities");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putInt(data.obstacleCount).putInt(data.basketCount).putInt(data.rangerCount);
+
+        IntBuffer ints = buffer.asIntBuffer();
+        ints.put(data.obstacleTypes, 0, data.obstacleCount)
+                .put(data.obstacleXs, 0, data.obstacleCount)
+                .put(data.obstacleYs, 0, data.obstacleCount)
+                .put(data.basketXs, 0, data.basketCount)
+                .put(data.basketYs, 0, data.basketCount)
+                .put(data.rangerXs, 0, data.rangerCount)
+                .put(data.rangerYs, 0, data.rangerCount)
+                .put(data.rangerPatterns, 0, data.rangerCount)
+                .put(data.width).put(data.height);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_INTS * Integer.BYTES, (int) payloadInts * Integer.BYTES);
+        ints.put((int) crc.getValue());
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads level data from a file in the binary format.
+     *
+     * @param file the compiled level file
+     * @return the level data
+     * @throws IOException if the file cannot be read, is truncated, or fails its checksum
+     */
+    public static LevelData read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < (HEADER_INTS + 1L) * Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a compiled level: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a compiled level: " + file);
+            }
+            int version = mapped.getInt(4);
+            if (version != VERSION && version != 1) {
+                throw new IOException("Unsupported level format version " + version + ": " + file);
+            }
+            int obstacles = mapped.getInt(8);
+            int baskets = mapped.getInt(12);
+            int rangers = mapped.getInt(16);
+            long payloadInts = obstacles * 3L + baskets * 2L + rangers * 3L + (version == 1 ? 0 : SIZE_INTS);
+            if (obstacles < 0 || baskets < 0 || rangers < 0
+                    || (HEADER_INTS + payloadInts + 1) * Integer.BYTES != size) {
+                throw new IOException("Truncated or corrupt level: " + file);
+            }
+
+            ByteBuffer payload = mapped.slice(HEADER_INTS * Integer.BYTES, (int) payloadInts * Integer.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != mapped.getInt((int) size - Integer.BYTES)) {
+                throw new IOException("Checksum mismatch in level: " + file);
+            }
+
+            IntBuffer ints = mapped.position(HEADER_INTS * Integer.BYTES).slice()
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int[] obstacleTypes = new int[obstacles], obstacleXs = new int[obstacles], obstacleYs = new int[obstacles];
+            int[] basketXs = new int[baskets], basketYs = new int[baskets];
+            int[] rangerXs = new int[rangers], rangerYs = new int[rangers], rangerPatterns = new int[rangers];
+            ints.get(obstacleTypes).get(obstacleXs).get(obstacleYs)
+                    .get(basketXs).get(basketYs)
+                    .get(rangerXs).get(rangerYs).get(rangerPatterns);
+            int width = version == 1 ? LevelData.DEFAULT_WIDTH : ints.get();
+            int height = version == 1 ? LevelData.DEFAULT_HEIGHT : ints.get();
+            if (width <= 0 || height <= 0) {
+                throw new IOException("Invalid world size " + width + "x" + height + " in level: " + file);
+            }
+
+            for (int i = 0; i < obstacles; i++) {
+                if (obstacleTypes[i] < 0 || obstacleTypes[i] > LevelData.UNKNOWN_OBSTACLE) {
+                    throw new IOException("Invalid obstacle type " + obstacleTypes[i] + " in level: " + file);
+                }
+            }
+            for (int i = 0; i < rangers; i++) {
+                if (rangerPatterns[i] < 0 || rangerPatterns[i] > LevelData.CHASE) {
+                    throw new IOException("Invalid ranger pattern " + rangerPatterns[i] + " in level: " + file);
+                }
+            }
+
+            return new LevelData(obstacles, obstacleTypes, obstacleXs, obstacleYs,
+                    baskets, basketXs, basketYs,
+                    rangers, rangerXs, rangerYs, rangerPatterns, width, height);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps the chunks of a {@link ChunkedLevelFormat chunked level} around the player in a
+ * {@link Level}, so worlds of any size can be played in bounded memory.
+ *
+ * <p>
+ * Every update schedules the chunks within {@link #getRadius()} chunks of the player to be read
+ * on a background thread, installs the chunks requested {@value #INSTALL_DELAY} updates
+ * earlier, and evicts the least recently used chunks beyond that ring once more than
+ * {@link #getCapacity()} chunks are installed. The chunks close enough for the player to touch
+ * next tick are installed at once. Either way a read that has not finished is waited for, and
+ * each such wait is counted as a stall, so the update in which a chunk is installed never
+ * depends on how fast the background thread is and a game replays the same on every run.
+ * Everything outside the installed chunks is frozen: the level treats it as solid, so rangers
+ * stop at its border instead of walking into it.
+ * </p>
+ *
+ * <p>
+ * An evicted chunk is written, with its remaining baskets and the rangers that ended up inside
+ * it, as a {@link BinaryLevelFormat} file in a temporary directory, and read from there when it
+ * is installed again. Reading and writing happen in submission order on one shared daemon
+ * thread, so a chunk is never read before its last eviction has been written. Until its write
+ * has succeeded, an evicted chunk is also kept in memory, and installed from there if the write
+ * failed. Rangers resume their patrol in the original direction when their chunk comes back.
+ * </p>
+ *
+ * <p>
+ * A streamer belongs to one level and is used from the thread that updates it.
+ * </p>
+ */
+public final class ChunkStreamer implements AutoCloseable {
+    /** The number of chunks around the player's chunk that are kept installed, in every direction. */
+    public static final int DEFAULT_RADIUS = 1;
+
+    /**
+     * The distance around the player within which chunks must be installed before the tick goes on:
+     * twice the size of the largest obstacle, which covers the player, its next move, and every
+     * obstacle it could touch.
+     */
+    static final int REACH = 200;
+
+    /** The number of updates after its request at which a chunk outside the reach is installed. */
+    static final int INSTALL_DELAY = 8;
+
+    /** Reads and writes chunks for every streamer, one at a time and in submission order. */
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chunk-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Level level;
+    private final ChunkedLevelFormat chunks;
+    private final int radius;
+    private final int capacity;
+
+    /** Whether each chunk is installed in the level. */
+    private final boolean[] installed;
+
+    /** Whether each chunk has been evicted, so its current state is in the save directory. */
+    private final boolean[] saved;
+
+    /** The installed chunks, least recently used first. */
+    private final LinkedHashMap<Integer, Boolean> recent = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The chunks being read, in submission order. */
+    private final LinkedHashMap<Integer, PendingRead> pending = new LinkedHashMap<>();
+
+    /** The evicted chunks whose write has not succeeded, read by the I/O thread. */
+    private final ConcurrentHashMap<Integer, LevelData> unsaved = new ConcurrentHashMap<>();
+
+    private Path saveDirectory;
+    private long unloadedBaskets;
+    private int version;
+    private long updates;
+
+    private long loads, evictions, stalls;
+    private int peakInstalled;
+
+    /**
+     * Constructs a streamer for a level, with nothing installed yet.
+     *
+     * @param level  the level to install chunks into
+     * @param chunks the chunked level file
+     * @param radius the number of chunks around the player's chunk to keep installed
+     */
+    ChunkStreamer(Level level, ChunkedLevelFormat chunks, int radius) {
+        this.level = level;
+        this.chunks = chunks;
+        this.radius = radius;
+        int ring = (2 * radius + 1) * (2 * radius + 1);
+        this.capacity = 2 * ring;
+        installed = new boolean[chunks.getChunkCount()];
+        saved = new boolean[chunks.getChunkCount()];
+        for (int chunk = 0; chunk < installed.length; chunk++) {
+            unloadedBaskets += chunks.getBasketCount(chunk);
+        }
+    }
+
+    /**
+     * Streams chunks for a player at the given position: installs the chunks whose delay has
+     * passed, waits for those the player could touch next tick, schedules the ring around it,
+     * and evicts the least recently used chunks outside the ring.
+     *
+     * @param x the x-coordinate of the player
+     * @param y the y-coordinate of the player
+     */
+    void update(int x, int y) {
+        updates++;
+        installDue();
+
+        int size = chunks.getChunkSize();
+        int column = Math.floorDiv(x, size);
+        int row = Math.floorDiv(y, size);
+        for (int r = Math.max(0, row - radius); r <= Math.min(chunks.getRows() - 1, row + radius); r++) {
+            for (int c = Math.max(0, column - radius); c <= Math.min(chunks.getColumns() - 1, column + radius); c++) {
+                request(r * chunks.getColumns() + c);
+            }
+        }
+
+        int c0 = Math.max(0, Math.floorDiv(x - REACH, size));
+        int c1 = Math.min(chunks.getColumns() - 1, Math.floorDiv(x + REACH, size));
+        int r0 = Math.max(0, Math.floorDiv(y - REACH, size));
+        int r1 = Math.min(chunks.getRows() - 1, Math.floorDiv(y + REACH, size));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int chunk = r * chunks.getColumns() + c;
+                if (!installed[chunk]) {
+                    request(chunk);
+                    install(chunk, pending.remove(chunk));
+                }
+            }
+        }
+
+        evict(Math.min(c0, column - radius), Math.max(c1, column + radius),
+                Math.min(r0, row - radius), Math.max(r1, row + radius));
+    }
+
+    /**
+     * Marks an installed chunk as used, or schedules it to be read.
+     *
+     * @param chunk the chunk index
+     */
+    private void request(int chunk) {
+        if (installed[chunk]) {
+            recent.get(chunk);
+        } else if (!pending.containsKey(chunk)) {
+            Path file = saved[chunk] ? savedChunk(chunk) : null;
+            pending.put(chunk, new PendingRead(IO.submit(() -> {
+                if (file == null) {
+                    return chunks.readChunk(chunk);
+                }
+                LevelData kept = unsaved.remove(chunk);
+                return kept != null ? kept : BinaryLevelFormat.read(file);
+            }), updates + INSTALL_DELAY));
+        }
+    }
+
+    /**
+     * Installs the chunks whose delay has passed, in the order they were requested.
+     */
+    private void installDue() {
+        Iterator<Map.Entry<Integer, PendingRead>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, PendingRead> entry = iterator.next();
+            if (entry.getValue().due() > updates) {
+                break;
+            }
+            iterator.remove();
+            install(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Installs a chunk once its read has finished, counting a stall if it had to be waited for.
+     *
+     * @param chunk the chunk index
+     * @param read  the read of the chunk
+     */
+    private void install(int chunk, PendingRead read) {
+        if (!read.data().isDone()) {
+            stalls++;
+        }
+        install(chunk, await(read.data()));
+    }
+
+    private static LevelData await(Future<LevelData> read) {
+        try {
+            return read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading a chunk", e);
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("Could not read a chunk",
+                    e.getCause() instanceof IOException io ? io : new IOException(e.getCause()));
+        }
+    }
+
+    private void install(int chunk, LevelData data) {
+        level.addEntities(data);
+        installed[chunk] = true;
+        recent.put(chunk, Boolean.TRUE);
+        unloadedBaskets -= data.basketCount;
+        loads++;
+        version++;
+        peakInstalled = Math.max(peakInstalled, recent.size());
+    }
+
+    /**
+     * Evicts the least recently used chunks outside the area around the player until at most
+     * {@link #capacity} chunks are installed.
+     *
+     * @param c0 the first chunk column to keep
+     * @param c1 the last chunk column to keep
+     * @param r0 the first chunk row to keep
+     * @param r1 the last chunk row to keep
+     */
+    private void evict(int c0, int c1, int r0, int r1) {
+        Iterator<Integer> iterator = recent.keySet().iterator();
+        while (recent.size() > capacity && iterator.hasNext()) {
+            int chunk = iterator.next();
+            int column = chunk % chunks.getColumns();
+            int row = chunk / chunks.getColumns();
+            if (column >= c0 && column <= c1 && row >= r0 && row <= r1) {
+                continue;
+            }
+            iterator.remove();
+            LevelData data = level.removeEntities(chunks, chunk);
+            installed[chunk] = false;
+            Path file = savedChunk(chunk);
+            if (!saved[chunk]) {
+                saved[chunk] = true;
+                file.toFile().deleteOnExit();
+            }
+            unloadedBaskets += data.basketCount;
+            evictions++;
+            version++;
+            unsaved.put(chunk, data);
+            IO.submit(() -> {
+                try {
+                    BinaryLevelFormat.write(data, file);
+                    unsaved.remove(chunk, data);
+                } catch (IOException e) {
+                    // The chunk stays in memory and is installed from there
+                    System.err.println("Could not save chunk " + chunk + ": " + e.getMessage());
+                    e.printStackTrace();
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the file an evicted chunk is saved to, creating the save directory on first use.
+     *
+     * @param chunk the chunk index
+     * @return the path of the chunk file
+     */
+    private Path savedChunk(int chunk) {
+        if (saveDirectory == null) {
+            try {
+                saveDirectory = Files.createTempDirectory("chunks");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create a directory for evicted chunks", e);
+            }
+            saveDirectory.toFile().deleteOnExit();
+        }
+        return saveDirectory.resolve("chunk" + chunk + BinaryLevelFormat.EXTENSION);
+    }
+
+    /**
+     * Checks whether an area and everything that could overlap it is installed, so that a
+     * collision query over it sees every obstacle.
+     *
+     * @param x      the x-coordinate of the area
+     * @param y      the y-coordinate of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @return true if the chunks holding every entity that could intersect the area are installed
+     */
+    boolean isInstalled(int x, int y, int width, int height) {
+        int size = chunks.getChunkSize();
+        // An entity belongs to the chunk of its top left corner, up to one obstacle size before the area
+        int c0 = Math.max(0, Math.floorDiv(x - REACH / 2, size));
+        int c1 = Math.min(chunks.getColumns() - 1, Math.floorDiv(x + width - 1, size));
+        int r0 = Math.max(0, Math.floorDiv(y - REACH / 2, size));
+        int r1 = Math.min(chunks.getRows() - 1, Math.floorDiv(y + height - 1, size));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                if (!installed[r * chunks.getColumns() + c]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the reads still pending and deletes the saved chunks. The level keeps the
+     * installed entities but streams no more.
+     */
+    @Override
+    public void close() {
+        for (PendingRead read : pending.values()) {
+            read.data().cancel(false);
+        }
+        pending.clear();
+        unsaved.clear();
+        if (saveDirectory != null) {
+            Path directory = saveDirectory;
+            Future<?> deleted = IO.submit(() -> {
+                try (var files = Files.list(directory)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        Files.deleteIfExists(file);
+                    }
+                    Files.deleteIfExists(directory);
+                } catch (IOException e) {
+                    System.err.println("Could not delete evicted chunks: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            });
+            try {
+                deleted.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of baskets in chunks that are not installed, which still have to be collected.
+     *
+     * @return the basket count
+     */
+    public long getUnloadedBaskets() {
+        return unloadedBaskets;
+    }
+
+    /**
+     * Gets a count that changes whenever chunks are installed or evicted, and with them the
+     * entity lists of the level.
+     *
+     * @return the streaming version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the installed chunks.
+     *
+     * @return the chunk indices, least recently used first
+     */
+    public ArrayList<Integer> getInstalledChunks() {
+        return new ArrayList<>(recent.keySet());
+    }
+
+    public ChunkedLevelFormat getChunks() {
+        return chunks;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Gets the number of chunks kept installed before the least recently used are evicted:
+     * twice the ring around the player, so walking back and forth over a chunk border reads nothing.
+     *
+     * @return the chunk count
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of chunks the simulation had to wait for because they were not read in time.
+     *
+     * @return the stall count
+     */
+    public long getStalls() {
+        return stalls;
+    }
+
+    /**
+     * Gets the largest number of chunks that were installed at once.
+     *
+     * @return the chunk count
+     */
+    public int getPeakInstalled() {
+        return peakInstalled;
+    }
+
+    /**
+     * A chunk being read, and the update count at which it is installed.
+     */
+    private record PendingRead(Future<LevelData> data, long due) {
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes levels split into square chunks, for worlds too large to keep in memory.
+ *
+ * <p>
+ * A chunked level is one little-endian file of ints: a header of magic number, format version,
+ * chunk size, world width and height and the number of chunk columns and rows; a table with the
+ * file offset and the obstacle, basket and ranger counts of every chunk, row by row; and the
+ * chunks, each laid out like the arrays of {@link BinaryLevelFormat} and followed by a CRC-32
+ * checksum of them. An entity belongs to the chunk holding its top left corner, clamped to the
+ * world.
+ * </p>
+ *
+ * <p>
+ * An opened file stays memory mapped, and a chunk is only copied out and checked when it is
+ * read, so opening a level costs the same whatever its size and the heap only ever holds the
+ * chunks in use. Reading is safe from any thread.
+ * </p>
+ */
+public final class ChunkedLevelFormat {
+    /** The file name extension of chunked levels. */
+    public static final String EXTENSION = ".ychk";
+
+    /** The chunk size used when none is given. */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /** The first int of every chunked level, "YCHK" in ASCII. */
+    static final int MAGIC = 0x5943484B;
+
+    /** The current format version. */
+    static final int VERSION = 1;
+
+    /** The number of ints in the header: magic, version, chunk size, world size and chunk grid size. */
+    private static final int HEADER_INTS = 7;
+
+    /** The number of ints per chunk in the table: offset and three counts. */
+    private static final int TABLE_INTS = 4;
+
+    private final Path file;
+    private final MappedByteBuffer mapped;
+    private final int chunkSize;
+    private final int width, height;
+    private final int columns, rows;
+
+    private ChunkedLevelFormat(Path file, MappedByteBuffer mapped) {
+        this.file = file;
+        this.mapped = mapped;
+        chunkSize = mapped.getInt(8);
+        width = mapped.getInt(12);
+        height = mapped.getInt(16);
+        columns = mapped.getInt(20);
+        rows = mapped.getInt(24);
+    }
+
+    /**
+     * Writes level data as a chunked level.
+     *
+     * @param data      the level data
+     * @param chunkSize the edge length of a chunk in pixels
+     * @param file      the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(LevelData data, int chunkSize, Path file) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        int columns = Math.ceilDiv(data.width, chunkSize);
+        int rows = Math.ceilDiv(data.height, chunkSize);
+        int chunks = columns * rows;
+
+        // Sort every entity kind by chunk, keeping the level's order within a chunk
+        int[] obstacleStart = new int[chunks + 1], basketStart = new int[chunks + 1], rangerStart = new int[chunks + 1];
+        int[] obstacles = sortByChunk(data.obstacleXs, data.obstacleYs, data.obstacleCount, chunkSize, columns, rows, obstacleStart);
+        int[] baskets = sortByChunk(data.basketXs, data.basketYs, data.basketCount, chunkSize, columns, rows, basketStart);
+        int[] rangers = sortByChunk(data.rangerXs, data.rangerYs, data.rangerCount, chunkSize, columns, rows, rangerStart);
+
+        long size = (HEADER_INTS + (long) chunks * TABLE_INTS) * Integer.BYTES;
+        ByteBuffer table = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        table.putInt(MAGIC).putInt(VERSION).putInt(chunkSize).putInt(data.width).putInt(data.height)
+                .putInt(columns).putInt(rows);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int o = obstacleStart[chunk + 1] - obstacleStart[chunk];
+            int b = basketStart[chunk + 1] - basketStart[chunk];
+            int r = rangerStart[chunk + 1] - rangerStart[chunk];
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Level is too large for the chunked format: " + data.getEntityCount() + " entities");
+            }
+            table.putInt((int) size).putInt(o).putInt(b).putInt(r);
+            size += (o * 3L + b * 2L + r * 3L + 1) * Integer.BYTES;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Level is too large for the chunked format: " + data.getEntityCount() + " entities");
+        }
+        table.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, table);
+            ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int o0 = obstacleStart[chunk], o1 = obstacleStart[chunk + 1];
+                int b0 = basketStart[chunk], b1 = basketStart[chunk + 1];
+                int r0 = rangerStart[chunk], r1 = rangerStart[chunk + 1];
+                int bytes = ((o1 - o0) * 3 + (b1 - b0) * 2 + (r1 - r0) * 3 + 1) * Integer.BYTES;
+                if (buffer.capacity() < bytes) {
+                    buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                buffer.clear();
+                putAll(buffer, data.obstacleTypes, obstacles, o0, o1);
+                putAll(buffer, data.obstacleXs, obstacles, o0, o1);
+                putAll(buffer, data.obstacleYs, obstacles, o0, o1);
+                putAll(buffer, data.basketXs, baskets, b0, b1);
+                putAll(buffer, data.basketYs, baskets, b0, b1);
+                putAll(buffer, data.rangerXs, rangers, r0, r1);
+                putAll(buffer, data.rangerYs, rangers, r0, r1);
+                putAll(buffer, data.rangerPatterns, rangers, r0, r1);
+                crc.reset();
+                crc.update(buffer.array(), 0, buffer.position());
+                buffer.putInt((int) crc.getValue());
+                buffer.flip();
+                writeFully(channel, buffer);
+            }
+        }
+    }
+
+    /**
+     * Sorts entities by the chunk holding their top left corner with a counting sort.
+     *
+     * @param xs        the x-coordinates of the entities
+     * @param ys        the y-coordinates of the entities
+     * @param count     the number of entities
+     * @param chunkSize the edge length of a chunk
+     * @param columns   the number of chunk columns
+     * @param rows      the number of chunk rows
+     * @param start     receives the offset of every chunk's first entity, with one extra trailing element
+     * @return the entity indices in chunk order
+     */
+    private static int[] sortByChunk(int[] xs, int[] ys, int count, int chunkSize, int columns, int rows, int[] start) {
+        int[] chunkOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            chunkOf[i] = chunkIndex(xs[i], ys[i], chunkSize, columns, rows);
+            start[chunkOf[i] + 1]++;
+        }
+        for (int chunk = 1; chunk < start.length; chunk++) {
+            start[chunk] += start[chunk - 1];
+        }
+        int[] cursor = start.clone();
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[cursor[chunkOf[i]]++] = i;
+        }
+        return order;
+    }
+
+    private static void putAll(ByteBuffer buffer, int[] values, int[] order, int from, int to) {
+        for (int k = from; k < to; k++) {
+            buffer.putInt(values[order[k]]);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Opens a chunked level by mapping it into memory. Only the header and the table are checked;
+     * each chunk is checked when it is read.
+     *
+     * @param file the chunked level file
+     * @return the opened level
+     * @throws IOException if the file cannot be read or is not a valid chunked level
+     */
+    public static ChunkedLevelFormat open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_INTS * Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a chunked level: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a chunked level: " + file);
+            }
+            int version = mapped.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported chunked level version " + version + ": " + file);
+            }
+            ChunkedLevelFormat level = new ChunkedLevelFormat(file, mapped);
+            if (level.chunkSize <= 0 || level.width <= 0 || level.height <= 0
+                    || level.columns != Math.ceilDiv(level.width, level.chunkSize)
+                    || level.rows != Math.ceilDiv(level.height, level.chunkSize)
+                    || (HEADER_INTS + (long) level.getChunkCount() * TABLE_INTS) * Integer.BYTES > size) {
+                throw new IOException("Truncated or corrupt chunked level: " + file);
+            }
+            return level;
+        }
+    }
+
+    /**
+     * Reads the entities of one chunk.
+     *
+     * @param chunk the chunk index, row by row
+     * @return the level data of the chunk, with the size of the whole world
+     * @throws IOException if the chunk is truncated or fails its checksum
+     */
+    public LevelData readChunk(int chunk) throws IOException {
+        int entry = (HEADER_INTS + chunk * TABLE_INTS) * Integer.BYTES;
+        int offset = mapped.getInt(entry);
+        int obstacles = mapped.getInt(entry + 4);
+        int baskets = mapped.getInt(entry + 8);
+        int rangers = mapped.getInt(entry + 12);
+        long payloadInts = obstacles * 3L + baskets * 2L + rangers * 3L;
+        if (offset < 0 || obstacles < 0 || baskets < 0 || rangers < 0
+                || offset + (payloadInts + 1) * Integer.BYTES > mapped.capacity()) {
+            throw new IOException("Truncated or corrupt chunk " + chunk + " in level: " + file);
+        }
+
+        ByteBuffer payload = mapped.slice(offset, (int) payloadInts * Integer.BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != mapped.getInt(offset + (int) payloadInts * Integer.BYTES)) {
+            throw new IOException("Checksum mismatch in chunk " + chunk + " of level: " + file);
+        }
+
+        IntBuffer ints = mapped.slice(offset, (int) payloadInts * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int[] obstacleTypes = new int[obstacles], obstacleXs = new int[obstacles], obstacleYs = new int[obstacles];
+        int[] basketXs = new int[baskets], basketYs = new int[baskets];
+        int[] rangerXs = new int[rangers], rangerYs = new int[rangers], rangerPatterns = new int[rangers];
+        ints.get(obstacleTypes).get(obstacleXs).get(obstacleYs)
+                .get(basketXs).get(basketYs)
+                .get(rangerXs).get(rangerYs).get(rangerPatterns);
+        for (int i = 0; i < obstacles; i++) {
+            if (obstacleTypes[i] < 0 || obstacleTypes[i] > LevelData.UNKNOWN_OBSTACLE) {
+                throw new IOException("Invalid obstacle type " + obstacleTypes[i] + " in chunk " + chunk + " of level: " + file);
+            }
+        }
+        for (int i = 0; i < rangers; i++) {
+            if (rangerPatterns[i] < 0 || rangerPatterns[i] > LevelData.CHASE) {
+                throw new IOException("Invalid ranger pattern " + rangerPatterns[i] + " in chunk " + chunk + " of level: " + file);
+            }
+        }
+        return new LevelData(obstacles, obstacleTypes, obstacleXs, obstacleYs,
+                baskets, basketXs, basketYs,
+                rangers, rangerXs, rangerYs, rangerPatterns, width, height);
+    }
+
+    /**
+     * Gets the number of baskets a chunk holds in the file.
+     *
+     * @param chunk the chunk index
+     * @return the basket count
+     */
+    public int getBasketCount(int chunk) {
+        return mapped.getInt((HEADER_INTS + chunk * TABLE_INTS) * Integer.BYTES + 8);
+    }
+
+    /**
+     * Gets the chunk an entity at the given position belongs to.
+     *
+     * @param x the x-coordinate of the entity
+     * @param y the y-coordinate of the entity
+     * @return the chunk index, row by row
+     */
+    public int chunkAt(int x, int y) {
+        return chunkIndex(x, y, chunkSize, columns, rows);
+    }
+
+    private static int chunkIndex(int x, int y, int chunkSize, int columns, int rows) {
+        int column = Math.max(0, Math.min(columns - 1, Math.floorDiv(x, chunkSize)));
+        int row = Math.max(0, Math.min(rows - 1, Math.floorDiv(y, chunkSize)));
+        return row * columns + column;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getChunkCount() {
+        return columns * rows;
+    }
+}
@@ -0,0 +1,339 @@
+package org.example.model;
+
+import java.util.Arrays;
+
+/**
+ * The rangers and baskets of a level stored as parallel primitive arrays, one array per field.
+ *
+ * <p>
+ * A {@link Level} holds one object per entity, each with its own {@link java.awt.Rectangle},
+ * sprite reference and back-pointer to the level, so updating a hundred thousand rangers walks
+ * a hundred thousand scattered objects. Here the positions, sizes, velocities and flags of all
+ * rangers are in a handful of {@code int[]} arrays, and {@link #updateAll(int, int)} moves
+ * every patrolling ranger in straight loops over them: one pass computes every next position
+ * and wall bounce without calls or allocation, so the JIT can unroll and vectorize it, and a
+ * second pass checks the obstacles. That pass first looks the position up in a fine
+ * {@link NavigationGrid} of the field, and only queries the obstacle grid where the cell is not
+ * known to be clear. The rules are the same as {@link Ranger#update()}, so the two
+ * representations stay in step tick for tick.
+ * </p>
+ *
+ * <p>
+ * Collected baskets are removed from the basket grid in place rather than from a list, so
+ * basket ids stay stable and nothing is rebuilt or shifted when one is collected.
+ * </p>
+ */
+public final class EntityArrays {
+    private static final int RANGER_SIZE = 40;
+    private static final int RANGER_SPEED = 2;
+    private static final int BASKET_SIZE = 30;
+    private static final int GRID_CELL_SIZE = 64;
+
+    /** The smallest cell size of the grid telling which ranger positions are clear of obstacles. */
+    private static final int CLEARANCE_CELL_SIZE = 4;
+
+    /** Ranger flag for a ranger chasing the player. */
+    public static final int CHASING = 1;
+
+    /** The size of the world in pixels, as enforced by {@link Ranger}. */
+    private final int fieldWidth, fieldHeight;
+
+    private final int rangerCount;
+    private final int[] rangerXs, rangerYs;
+    private final int[] previousXs, previousYs;
+    private final int[] rangerWidths, rangerHeights;
+    private final int[] velocityXs, velocityYs;
+    private final int[] rangerFlags;
+    private final int[] nextXs, nextYs;
+    private final int[] chasers;
+
+    private final int basketCount;
+    private final int[] basketXs, basketYs;
+    private final boolean[] collected;
+    private int basketsLeft;
+
+    private final SpatialGrid obstacleGrid = new SpatialGrid(GRID_CELL_SIZE);
+    private final SpatialGrid basketGrid = new SpatialGrid(GRID_CELL_SIZE);
+    private final NavigationGrid navigation;
+    private final NavigationGrid clearance;
+    private int chaseTargetX, chaseTargetY;
+
+    /**
+     * Constructs the arrays for the entities of a level.
+     *
+     * @param data the level data
+     */
+    public EntityArrays(LevelData data) {
+        fieldWidth = data.width;
+        fieldHeight = data.height;
+        obstacleGrid.reset(data.obstacleCount);
+        for (int i = 0; i < data.obstacleCount; i++) {
+            int size = LevelData.obstacleSize(data.obstacleTypes[i]);
+            obstacleGrid.set(i, data.obstacleXs[i], data.obstacleYs[i], size, size);
+        }
+        obstacleGrid.build();
+
+        basketCount = data.basketCount;
+        basketXs = Arrays.copyOf(data.basketXs, basketCount);
+        basketYs = Arrays.copyOf(data.basketYs, basketCount);
+        collected = new boolean[basketCount];
+        basketsLeft = basketCount;
+        basketGrid.reset(basketCount);
+        for (int i = 0; i < basketCount; i++) {
+            basketGrid.set(i, basketXs[i], basketYs[i], BASKET_SIZE, BASKET_SIZE);
+        }
+        basketGrid.build();
+
+        rangerCount = data.rangerCount;
+        rangerXs = Arrays.copyOf(data.rangerXs, rangerCount);
+        rangerYs = Arrays.copyOf(data.rangerYs, rangerCount);
+        previousXs = rangerXs.clone();
+        previousYs = rangerYs.clone();
+        rangerWidths = new int[rangerCount];
+        rangerHeights = new int[rangerCount];
+        Arrays.fill(rangerWidths, RANGER_SIZE);
+        Arrays.fill(rangerHeights, RANGER_SIZE);
+        velocityXs = new int[rangerCount];
+        velocityYs = new int[rangerCount];
+        rangerFlags = new int[rangerCount];
+        nextXs = new int[rangerCount];
+        nextYs = new int[rangerCount];
+        int chaserCount = 0;
+        for (int i = 0; i < rangerCount; i++) {
+            switch (data.rangerPatterns[i]) {
+                case LevelData.HORIZONTAL -> velocityXs[i] = RANGER_SPEED;
+                case LevelData.VERTICAL -> velocityYs[i] = RANGER_SPEED;
+                case LevelData.CHASE -> {
+                    rangerFlags[i] = CHASING;
+                    chaserCount++;
+                }
+                default -> {
+                    // unknown patterns stand still
+                }
+            }
+        }
+        chasers = new int[chaserCount];
+        for (int i = 0, c = 0; i < rangerCount; i++) {
+            if ((rangerFlags[i] & CHASING) != 0) {
+                chasers[c++] = i;
+            }
+        }
+        navigation = new NavigationGrid(fieldWidth, fieldHeight, Level.navigationCellSize(fieldWidth, fieldHeight),
+                RANGER_SIZE, RANGER_SIZE);
+        int clearanceCellSize = CLEARANCE_CELL_SIZE;
+        while ((long) Math.ceilDiv(fieldWidth, clearanceCellSize) * Math.ceilDiv(fieldHeight, clearanceCellSize)
+                > Level.NAVIGATION_CELL_LIMIT) {
+            clearanceCellSize *= 2;
+        }
+        clearance = new NavigationGrid(fieldWidth, fieldHeight, clearanceCellSize, RANGER_SIZE, RANGER_SIZE);
+        for (int i = 0; i < data.obstacleCount; i++) {
+            int size = LevelData.obstacleSize(data.obstacleTypes[i]);
+            navigation.addObstacle(data.obstacleXs[i], data.obstacleYs[i], size, size);
+            clearance.addObstacle(data.obstacleXs[i], data.obstacleYs[i], size, size);
+        }
+    }
+
+    /**
+     * Moves every ranger one tick, with chasing rangers steering towards the given position.
+     *
+     * @param targetX the x-coordinate of the player
+     * @param targetY the y-coordinate of the player
+     */
+    public void updateAll(int targetX, int targetY) {
+        int n = rangerCount;
+        System.arraycopy(rangerXs, 0, previousXs, 0, n);
+        System.arraycopy(rangerYs, 0, previousYs, 0, n);
+
+        // Next positions and wall bounces; patrolling rangers move along one axis only
+        for (int i = 0; i < n; i++) {
+            int vx = velocityXs[i];
+            int vy = velocityYs[i];
+            int nx = rangerXs[i] + vx;
+            int ny = rangerYs[i] + vy;
+            int maxX = fieldWidth - rangerWidths[i];
+            int maxY = fieldHeight - rangerHeights[i];
+            boolean bounceX = vx != 0 & (nx <= 0 | nx >= maxX);
+            boolean bounceY = vy != 0 & (ny <= 0 | ny >= maxY);
+            velocityXs[i] = bounceX ? -vx : vx;
+            velocityYs[i] = bounceY ? -vy : vy;
+            nextXs[i] = bounceX ? Math.max(0, Math.min(maxX, nx)) : nx;
+            nextYs[i] = bounceY ? Math.max(0, Math.min(maxY, ny)) : ny;
+        }
+
+        // Obstacles turn a ranger around instead of letting it move; walkable cells need no query
+        for (int i = 0; i < n; i++) {
+            if ((velocityXs[i] | velocityYs[i]) == 0) {
+                continue;
+            }
+            if (!clearance.isWalkable(nextXs[i], nextYs[i])
+                    && obstacleGrid.intersectsAny(nextXs[i], nextYs[i], rangerWidths[i], rangerHeights[i])) {
+                velocityXs[i] = -velocityXs[i];
+                velocityYs[i] = -velocityYs[i];
+            } else {
+                rangerXs[i] = nextXs[i];
+                rangerYs[i] = nextYs[i];
+            }
+        }
+
+        if (chasers.length > 0) {
+            chaseTargetX = targetX;
+            chaseTargetY = targetY;
+            navigation.setTarget(targetX, targetY);
+            navigation.advance(Level.NAVIGATION_BUDGET);
+            for (int i : chasers) {
+                chase(i);
+            }
+        }
+    }
+
+    /**
+     * Moves a chasing ranger one step, by the same rules as a chasing {@link Ranger}.
+     *
+     * @param i the ranger index
+     */
+    private void chase(int i) {
+        int x = rangerXs[i];
+        int y = rangerYs[i];
+        int step = navigation.directionAt(x, y);
+        if (step != NavigationGrid.NONE && step != NavigationGrid.GOAL) {
+            rangerXs[i] = x + clamp(navigation.neighbourX(x, step) - x, RANGER_SPEED);
+            rangerYs[i] = y + clamp(navigation.neighbourY(y, step) - y, RANGER_SPEED);
+            return;
+        }
+        int dx = clamp(chaseTargetX - x, RANGER_SPEED);
+        int dy = clamp(chaseTargetY - y, RANGER_SPEED);
+        if (!tryMove(i, x + dx, y + dy) && !tryMove(i, x + dx, y)) {
+            tryMove(i, x, y + dy);
+        }
+    }
+
+    /**
+     * Moves a ranger to the given position if it is inside the field and clear of obstacles.
+     *
+     * @param i     the ranger index
+     * @param nextX the x-coordinate to move to
+     * @param nextY the y-coordinate to move to
+     * @return true if the ranger moved
+     */
+    private boolean tryMove(int i, int nextX, int nextY) {
+        int w = rangerWidths[i];
+        int h = rangerHeights[i];
+        if ((nextX == rangerXs[i] && nextY == rangerYs[i]) || nextX < 0 || nextY < 0
+                || nextX + w > fieldWidth || nextY + h > fieldHeight
+                || obstacleGrid.intersectsAny(nextX, nextY, w, h)) {
+            return false;
+        }
+        rangerXs[i] = nextX;
+        rangerYs[i] = nextY;
+        return true;
+    }
+
+    private static int clamp(int delta, int limit) {
+        return Math.max(-limit, Math.min(limit, delta));
+    }
+
+    /**
+     * Checks whether any ranger intersects the given area, scanning the position arrays.
+     *
+     * @param x      the x-coordinate of the area
+     * @param y      the y-coordinate of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @return true if a ranger intersects the area
+     */
+    public boolean anyRangerIntersects(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        int right = x + width;
+        int bottom = y + height;
+        boolean hit = false;
+        for (int i = 0; i < rangerCount; i++) {
+            int rx = rangerXs[i];
+            int ry = rangerYs[i];
+            hit |= rx < right & ry < bottom & rx + rangerWidths[i] > x & ry + rangerHeights[i] > y;
+        }
+        return hit;
+    }
+
+    /**
+     * Collects the first remaining basket intersecting the given area, in level file order.
+     *
+     * @param x      the x-coordinate of the area
+     * @param y      the y-coordinate of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @return the index of the collected basket, or -1 if none intersects the area
+     */
+    public int collectBasket(int x, int y, int width, int height) {
+        int index = basketGrid.firstIntersecting(x, y, width, height);
+        if (index >= 0) {
+            basketGrid.remove(index);
+            collected[index] = true;
+            basketsLeft--;
+        }
+        return index;
+    }
+
+    /**
+     * Checks whether the given area collides with any obstacle.
+     *
+     * @param x      the x-coordinate of the area
+     * @param y      the y-coordinate of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @return true if an obstacle intersects the area
+     */
+    public boolean checkObstacleCollision(int x, int y, int width, int height) {
+        return obstacleGrid.intersectsAny(x, y, width, height);
+    }
+
+    public int getRangerCount() {
+        return rangerCount;
+    }
+
+    public int getRangerX(int i) {
+        return rangerXs[i];
+    }
+
+    public int getRangerY(int i) {
+        return rangerYs[i];
+    }
+
+    public int getPreviousRangerX(int i) {
+        return previousXs[i];
+    }
+
+    public int getPreviousRangerY(int i) {
+        return previousYs[i];
+    }
+
+    public int getRangerFlags(int i) {
+        return rangerFlags[i];
+    }
+
+    public int getBasketCount() {
+        return basketCount;
+    }
+
+    public int getBasketX(int i) {
+        return basketXs[i];
+    }
+
+    public int getBasketY(int i) {
+        return basketYs[i];
+    }
+
+    public boolean isCollected(int i) {
+        return collected[i];
+    }
+
+    /**
+     * Gets the number of baskets not collected yet.
+     *
+     * @return the remaining basket count
+     */
+    public int getBasketsLeft() {
+        return basketsLeft;
+    }
+}
@@ -1,83 +1,505 @@
 package org.example.model;
 
-import java.sql.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Manages highscore records, including adding and retrieving scores from the database.
+ * Manages highscore records, including adding and retrieving scores from a {@link HighscoreStore}.
+ *
+ * <p>
+ * Store access never happens on the caller's thread when adding scores. New scores are put
+ * in a bounded queue and written by a background thread, which saves them in batches. If the
+ * store cannot be reached, scores are kept in memory and the writer retries with a growing delay.
+ * </p>
+ *
+ * <p>
+ * Reads are served from an in-memory {@link Leaderboard} that the writer loads from the store
+ * when it starts and keeps up to date after every batch. A score is added to it as soon as it
+ * is added here, with a provisional id that is replaced by the store's id once it is written,
+ * so top scores, pages, ranks and score ranges cost O(log n) without touching the store.
+ * Provisional ids count up from {@link #FIRST_PROVISIONAL_ID}, above the ids stores hand out,
+ * so a pending score already ranks as the newest of its ties, as it will once written. The
+ * leaderboard holds at most {@code capacity} records; when the store has more, ranks and pages
+ * beyond the cached records are read from the store on the calling thread.
+ * The leaderboard order is {@link HighscoreStore#RANKING}.
+ * Records written to the store by other programs are only seen after {@link #refresh()}.
+ * </p>
+ *
+ * <p>
+ * By default scores are kept in the local {@value #DEFAULT_LOG_FILE} log, or the file named by
+ * the {@code yogi.highscores.file} system property, and the scores of an old
+ * {@value #LEGACY_FILE} file next to it are imported into it the first time. Setting the
+ * {@code yogi.highscores.url} system property (and optionally {@code yogi.highscores.user}
+ * and {@code yogi.highscores.password}) stores them in that database instead.
+ * </p>
  */
-public class HighscoreManager {
-    private static final String DATABASE_URL = "jdbc:mysql://localhost:3306/yogidb";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "";
+public class HighscoreManager implements AutoCloseable {
+    /** The local highscore log used when no database is configured. */
+    public static final String DEFAULT_LOG_FILE = "highscores.ylog";
+
+    /** The highscore file written by older versions of the game. */
+    public static final String LEGACY_FILE = "highscores.dat";
+
+    /** The first provisional id of a score not written yet, above every id a store hands out. */
+    static final int FIRST_PROVISIONAL_ID = Integer.MAX_VALUE / 2;
+
+    /** The highest number of scores waiting to be written. */
+    static final int QUEUE_CAPACITY = 1024;
+
+    /** The highest number of scores written in one batch. */
+    static final int BATCH_SIZE = 64;
+
+    /** The default number of top records kept in memory. */
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    /** The number of records read from the store per query when loading the leaderboard. */
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    /** The longest delay between reconnection attempts, in milliseconds. */
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    /** Queued to wake the writer up without adding a score. */
+    private static final GameRecord WAKE_UP = new GameRecord(0, null, 0, 0);
+
+    private final HighscoreStore store;
+    private final Path legacyFile;
+    private final int capacity;
+    private final ArrayBlockingQueue<GameRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
 
     /**
-     * Constructs a new HighscoreManager and ensures the highscores table exists.
+     * Guards changes to {@link #leaderboard} and {@link #complete}, and guards {@link #pending},
+     * {@link #provisionalId}, {@link #refreshRequested} and {@link #closed}.
+     */
+    private final Object lock = new Object();
+    private volatile Leaderboard leaderboard = new Leaderboard();
+    private volatile boolean complete;
+    private final ArrayList<GameRecord> pending = new ArrayList<>();
+    private int provisionalId = FIRST_PROVISIONAL_ID;
+    private boolean refreshRequested = true;
+    private boolean closed;
+
+    private boolean connected;
+    private long retryDelayMs;
+    private long nextConnectAttempt;
+
+    /**
+     * Constructs a new HighscoreManager for the configured store. The store is opened in the
+     * background.
      */
     public HighscoreManager() {
-        createTableIfNotExists();
+        this(defaultStore(), logFile().resolveSibling(LEGACY_FILE));
     }
 
     /**
-     * Creates the highscores table in the database if it does not already exist.
+     * Constructs a new HighscoreManager for the given database.
+     *
+     * @param databaseUrl the JDBC URL of the database
+     * @param username    the database user
+     * @param password    the database password
      */
-    private void createTableIfNotExists() {
-        String sql = "CREATE TABLE IF NOT EXISTS highscores (" +
-                "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                "player_name VARCHAR(100), " +
-                "baskets_collected INT NOT NULL, " +
-                "levels_cleared INT NOT NULL)";
-        try (Connection conn = DriverManager.getConnection(DATABASE_URL, USERNAME, PASSWORD);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-        } catch (SQLException e) {
-            e.printStackTrace();
+    public HighscoreManager(String databaseUrl, String username, String password) {
+        this(new JdbcHighscoreStore(databaseUrl, username, password), null);
+    }
+
+    /**
+     * Constructs a new HighscoreManager for the given store.
+     *
+     * @param store      the store holding the highscores
+     * @param legacyFile a legacy highscore file to import when the store is empty, or null
+     */
+    public HighscoreManager(HighscoreStore store, Path legacyFile) {
+        this(store, legacyFile, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new HighscoreManager for the given store.
+     *
+     * @param store      the store holding the highscores
+     * @param legacyFile a legacy highscore file to import when the store is empty, or null
+     * @param capacity   the highest number of records kept in memory
+     */
+    public HighscoreManager(HighscoreStore store, Path legacyFile, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.store = store;
+        this.legacyFile = legacyFile;
+        this.capacity = capacity;
+        writer = new Thread(this::runWriter, "highscore-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Creates the store selected by the {@code yogi.highscores.*} system properties.
+     *
+     * @return a JDBC store if a database URL is set, the local log otherwise
+     */
+    private static HighscoreStore defaultStore() {
+        String url = System.getProperty("yogi.highscores.url");
+        if (url != null && !url.isBlank()) {
+            return new JdbcHighscoreStore(url, System.getProperty("yogi.highscores.user", "root"),
+                    System.getProperty("yogi.highscores.password", ""));
         }
+        return new LogHighscoreStore(logFile());
+    }
+
+    /**
+     * Gets the local highscore log selected by the {@code yogi.highscores.file} system property.
+     *
+     * @return the path of the log, {@value #DEFAULT_LOG_FILE} in the working directory by default
+     */
+    private static Path logFile() {
+        return Path.of(System.getProperty("yogi.highscores.file", DEFAULT_LOG_FILE));
     }
 
     /**
-     * Adds a new highscore record to the database.
+     * Adds a new highscore record. The record is visible to {@link #getAllScores()} immediately
+     * and written to the store in the background.
      *
      * @param playerName       the name of the player
      * @param basketsCollected the number of baskets collected
      * @param levelsCleared    the number of levels cleared
+     * @return true if the record was queued, false if the queue was full or the manager is closed
      */
-    public void addScore(String playerName, int basketsCollected, int levelsCleared) {
-        String sql = "INSERT INTO highscores (player_name, baskets_collected, levels_cleared) VALUES (?, ?, ?)";
-        try (Connection conn = DriverManager.getConnection(DATABASE_URL, USERNAME, PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, playerName);
-            pstmt.setInt(2, basketsCollected);
-            pstmt.setInt(3, levelsCleared);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+    public boolean addScore(String playerName, int basketsCollected, int levelsCleared) {
+        synchronized (lock) {
+            GameRecord record = new GameRecord(++provisionalId, playerName, basketsCollected, levelsCleared);
+            if (closed || !queue.offer(record)) {
+                provisionalId--;
+                System.err.println("Highscore queue unavailable, dropping score of " + playerName);
+                return false;
+            }
+            pending.add(record);
+            leaderboard.insert(record);
+            trim();
         }
+        return true;
     }
 
     /**
-     * Retrieves all highscore records from the database, sorted by baskets collected and levels cleared.
+     * Evicts the lowest records beyond the capacity. Must hold {@link #lock}.
+     */
+    private void trim() {
+        if (leaderboard.trimTo(capacity) > 0) {
+            complete = false;
+        }
+    }
+
+    /**
+     * Retrieves the cached highscore records, sorted by baskets collected and levels cleared.
+     * Records that have not been written to the store yet are included with a provisional id.
      *
      * @return an ArrayList of GameRecord instances
+     * @deprecated copies every cached record; use {@link #getTopScores(int)} or
+     * {@link #getPage(GameRecord, int)}
      */
+    @Deprecated
     public ArrayList<GameRecord> getAllScores() {
-        ArrayList<GameRecord> records = new ArrayList<>();
-        String sql = "SELECT id, player_name, baskets_collected, levels_cleared " +
-                "FROM highscores ORDER BY baskets_collected DESC, levels_cleared DESC";
-        try (Connection conn = DriverManager.getConnection(DATABASE_URL, USERNAME, PASSWORD);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                records.add(new GameRecord(
-                        rs.getInt("id"),
-                        rs.getString("player_name"),
-                        rs.getInt("baskets_collected"),
-                        rs.getInt("levels_cleared")
-                ));
-            }
-        } catch (SQLException e) {
+        return getTopScores(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieves the best highscore records from memory, without accessing the store.
+     * Records that have not been written to the store yet are included with a provisional id.
+     *
+     * @param limit the highest number of records to return
+     * @return the records in leaderboard order
+     */
+    public ArrayList<GameRecord> getTopScores(int limit) {
+        return leaderboard.top(limit);
+    }
+
+    /**
+     * Retrieves one page of the leaderboard. Pages within the cached records are served from
+     * memory; deeper pages are read from the store on the calling thread and do not include
+     * scores that have not been written yet.
+     *
+     * @param after the last record of the previous page, or null for the first page
+     * @param size  the highest number of records to return
+     * @return the records in leaderboard order; empty after the last page or if the store
+     * cannot be read
+     */
+    public ArrayList<GameRecord> getPage(GameRecord after, int size) {
+        boolean cachedAll = complete;
+        ArrayList<GameRecord> page = after == null ? leaderboard.top(size) : leaderboard.after(after, size);
+        if (cachedAll || page.size() == size) {
+            return page;
+        }
+        try {
+            return new ArrayList<>(after == null ? store.top(size) : store.page(after, size));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Finds the leaderboard position of a player's best record. Players with a cached record
+     * are looked up in memory; others are looked up in the store on the calling thread.
+     *
+     * @param playerName the name of the player
+     * @return the 1-based rank, or 0 if the player has no record or the store cannot be read
+     */
+    public int getRank(String playerName) {
+        boolean cachedAll = complete;
+        int rank = leaderboard.rankOf(playerName);
+        if (rank > 0 || cachedAll) {
+            return rank;
+        }
+        try {
+            return store.rank(playerName);
+        } catch (IOException e) {
             e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Retrieves the cached records with a number of baskets in a range, best first, without
+     * accessing the store.
+     *
+     * @param minBaskets the lowest number of baskets, inclusive
+     * @param maxBaskets the highest number of baskets, inclusive
+     * @param limit      the highest number of records to return
+     * @return the records in leaderboard order
+     */
+    public ArrayList<GameRecord> getScoresBetween(int minBaskets, int maxBaskets, int limit) {
+        return leaderboard.betweenBaskets(minBaskets, maxBaskets, limit);
+    }
+
+    /**
+     * Checks whether every record of the store is held in memory.
+     *
+     * @return true if the store has been loaded and has no more than {@code capacity} records
+     */
+    public boolean isFullyCached() {
+        return complete;
+    }
+
+    /**
+     * Retrieves the store holding the highscores.
+     *
+     * @return the HighscoreStore instance
+     */
+    public HighscoreStore getStore() {
+        return store;
+    }
+
+    /**
+     * Asks the background thread to reload the leaderboard from the store.
+     */
+    public void refresh() {
+        synchronized (lock) {
+            refreshRequested = true;
+        }
+        queue.offer(WAKE_UP);
+    }
+
+    /**
+     * Waits until every added score has been written to the store.
+     *
+     * @param timeout the longest time to wait
+     * @param unit    the unit of the timeout
+     * @return true if every score was written, false if the timeout elapsed first
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!pending.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of scores that have not been written to the store yet.
+     *
+     * @return the pending score count
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Stops accepting scores, waits briefly for the queued ones to be written and closes the store.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        queue.offer(WAKE_UP);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+        int unsaved = getPendingCount();
+        if (unsaved > 0) {
+            System.err.println(unsaved + " highscores could not be saved");
+        }
+    }
+
+    /**
+     * The body of the background thread: loads the leaderboard and writes queued scores in batches.
+     */
+    private void runWriter() {
+        ArrayList<GameRecord> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            boolean stopping;
+            synchronized (lock) {
+                stopping = closed;
+            }
+            if (batch.isEmpty()) {
+                try {
+                    GameRecord first = stopping ? queue.poll() : queue.poll(1, TimeUnit.SECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, BATCH_SIZE - batch.size());
+                batch.removeIf(record -> record == WAKE_UP);
+            }
+            if (stopping && (batch.isEmpty() || !connectIfDue())) {
+                break;
+            }
+
+            if ((!batch.isEmpty() || isRefreshRequested()) && connectIfDue()) {
+                try {
+                    if (isRefreshRequested()) {
+                        reload();
+                    }
+                    if (!batch.isEmpty()) {
+                        List<GameRecord> saved = store.append(batch);
+                        synchronized (lock) {
+                            for (int i = 0; i < batch.size(); i++) {
+                                leaderboard.replace(batch.get(i), saved.get(i));
+                            }
+                            trim();
+                            pending.removeAll(batch);
+                            lock.notifyAll();
+                        }
+                    }
+                    batch.clear();
+                } catch (IOException e) {
+                    System.err.println("Could not save highscores, retrying later");
+                    e.printStackTrace();
+                    disconnect();
+                }
+            } else if (!batch.isEmpty()) {
+                sleepUntilRetry();
+            }
+        }
+        disconnect();
+    }
+
+    /**
+     * Loads the best {@code capacity} records of the store into a new leaderboard, adds the
+     * pending records to it and makes it current.
+     *
+     * @throws IOException if the store cannot be read
+     */
+    private void reload() throws IOException {
+        Leaderboard loaded = new Leaderboard();
+        List<GameRecord> page = store.top(Math.min(LOAD_PAGE_SIZE, capacity + 1));
+        while (!page.isEmpty() && loaded.size() <= capacity) {
+            for (GameRecord record : page) {
+                loaded.insert(record);
+            }
+            page = store.page(page.get(page.size() - 1), Math.min(LOAD_PAGE_SIZE, capacity + 1 - loaded.size()));
+        }
+        synchronized (lock) {
+            boolean all = loaded.trimTo(capacity) == 0;
+            for (GameRecord record : pending) {
+                loaded.insert(record);
+            }
+            leaderboard = loaded;
+            complete = all;
+            trim();
+            refreshRequested = false;
+        }
+    }
+
+    private boolean isRefreshRequested() {
+        synchronized (lock) {
+            return refreshRequested;
+        }
+    }
+
+    /**
+     * Opens the store and imports the legacy highscores, unless the store is open or the last
+     * failed attempt was too recent.
+     *
+     * @return true if the store is open
+     */
+    private boolean connectIfDue() {
+        if (connected) {
+            return true;
+        }
+        if (System.currentTimeMillis() < nextConnectAttempt) {
+            return false;
+        }
+        try {
+            store.open();
+            connected = true;
+            retryDelayMs = 0;
+        } catch (IOException e) {
+            System.err.println("Could not open the highscore store: " + e.getMessage());
+            disconnect();
+            return false;
+        }
+        if (legacyFile != null) {
+            try {
+                int imported = LegacyHighscoreImporter.importInto(legacyFile, store);
+                if (imported > 0) {
+                    System.out.println("Imported " + imported + " highscores from " + legacyFile);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not import legacy highscores from " + legacyFile);
+                e.printStackTrace();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes the store and schedules the next connection attempt.
+     */
+    private void disconnect() {
+        store.close();
+        connected = false;
+        retryDelayMs = retryDelayMs == 0 ? 500 : Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+        nextConnectAttempt = System.currentTimeMillis() + retryDelayMs;
+    }
+
+    private void sleepUntilRetry() {
+        long delay = nextConnectAttempt - System.currentTimeMillis();
+        if (delay > 0) {
+            try {
+                Thread.sleep(Math.min(delay, 1000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
-        return records;
     }
 }
@@ -0,0 +1,82 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Persistent storage for highscore records, used by {@link HighscoreManager}.
+ *
+ * <p>
+ * Every store keeps the records in leaderboard order: most baskets first, then most levels
+ * cleared, then the newest record. Implementations must be safe to use from several threads.
+ * </p>
+ */
+public interface HighscoreStore extends AutoCloseable {
+    /** The leaderboard order: most baskets first, then most levels cleared, then the newest record. */
+    Comparator<GameRecord> RANKING = Comparator
+            .comparingInt(GameRecord::getBasketsCollected).reversed()
+            .thenComparing(Comparator.comparingInt(GameRecord::getLevelsCleared).reversed())
+            .thenComparing(Comparator.comparingInt(GameRecord::getPlayerId).reversed());
+
+    /**
+     * Opens the store, creating its table or file if needed. Does nothing if the store is
+     * already open.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    void open() throws IOException;
+
+    /**
+     * Saves records. Either every record is saved or none is.
+     *
+     * @param records the records to save; their ids are ignored and assigned by the store
+     * @return the saved records with their assigned ids, in the same order
+     * @throws IOException if the records cannot be saved
+     */
+    List<GameRecord> append(List<GameRecord> records) throws IOException;
+
+    /**
+     * Reads the best records.
+     *
+     * @param limit the highest number of records to return
+     * @return the records in leaderboard order
+     * @throws IOException if the records cannot be read
+     */
+    List<GameRecord> top(int limit) throws IOException;
+
+    /**
+     * Reads the records that follow a given record in leaderboard order.
+     *
+     * @param after the last record of the previous page
+     * @param size  the highest number of records to return
+     * @return the records in leaderboard order
+     * @throws IOException if the records cannot be read
+     */
+    List<GameRecord> page(GameRecord after, int size) throws IOException;
+
+    /**
+     * Finds the leaderboard position of a player's best record.
+     *
+     * @param playerName the name of the player
+     * @return the 1-based rank, or 0 if the player has no record
+     * @throws IOException if the records cannot be read
+     */
+    int rank(String playerName) throws IOException;
+
+    /**
+     * Checks whether the store holds no records.
+     *
+     * @return true if no record has been saved
+     * @throws IOException if the store cannot be read
+     */
+    default boolean isEmpty() throws IOException {
+        return top(1).isEmpty();
+    }
+
+    /**
+     * Closes the store. It can be opened again with {@link #open()}.
+     */
+    @Override
+    void close();
+}
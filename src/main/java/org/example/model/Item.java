@@ -2,9 +2,7 @@ package org.example.model;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import java.io.IOException;
-import java.io.InputStream;
+import org.example.assets.SpriteCache;
 
 /**
  * Represents an item (basket) that the player can collect.
@@ -29,19 +27,10 @@ public class Item {
     }
 
     /**
-     * Loads the basket image from the resources.
+     * Loads the shared basket image from the sprite cache.
      */
     private void loadImage() {
-        try {
-            InputStream is = getClass().getResourceAsStream("/images/basket.png");
-            if (is != null) {
-                image = ImageIO.read(is);
-            } else {
-                System.err.println("Basket image not found!");
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        image = SpriteCache.getSprite("/images/basket.png", width, height);
     }
 
     /**
@@ -51,7 +40,7 @@ public class Item {
      */
     public void draw(Graphics g) {
         if (image != null) {
-            g.drawImage(image, x, y, width, height, null);
+            g.drawImage(image, x, y, null);
         } else {
             g.setColor(Color.YELLOW);
             g.fillRect(x, y, width, height);
@@ -0,0 +1,248 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores highscores in a SQL database over JDBC.
+ *
+ * <p>
+ * The records are kept in the {@code highscores} table, which is created together with a
+ * composite index on {@code (baskets_collected, levels_cleared, id)} for the leaderboard and
+ * one on {@code player_name} for rank lookups. Pages are read with keyset pagination over
+ * the leaderboard index, so deep pages are as fast as the first one. A single connection is
+ * reused for every operation and reopened after a failure.
+ * </p>
+ */
+public class JdbcHighscoreStore implements HighscoreStore {
+    private static final String SELECT_COLUMNS = "SELECT id, player_name, baskets_collected, levels_cleared FROM highscores ";
+    private static final String RANK_ORDER = " ORDER BY baskets_collected DESC, levels_cleared DESC, id DESC LIMIT ?";
+    private static final String TOP_SQL = SELECT_COLUMNS + RANK_ORDER;
+    private static final String PAGE_SQL = SELECT_COLUMNS
+            + "WHERE (baskets_collected, levels_cleared, id) < (?, ?, ?)" + RANK_ORDER;
+    private static final String BEST_OF_PLAYER_SQL = SELECT_COLUMNS + "WHERE player_name = ?" + RANK_ORDER;
+    private static final String COUNT_AHEAD_SQL = "SELECT COUNT(*) FROM highscores "
+            + "WHERE (baskets_collected, levels_cleared, id) > (?, ?, ?)";
+    private static final String INSERT_SQL =
+            "INSERT INTO highscores (player_name, baskets_collected, levels_cleared) VALUES (?, ?, ?)";
+
+    private final String databaseUrl;
+    private final String username;
+    private final String password;
+
+    private Connection connection;
+
+    /**
+     * Constructs a new JdbcHighscoreStore. No connection is made until the store is used.
+     *
+     * @param databaseUrl the JDBC URL of the database
+     * @param username    the database user
+     * @param password    the database password
+     */
+    public JdbcHighscoreStore(String databaseUrl, String username, String password) {
+        this.databaseUrl = databaseUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        try {
+            connection();
+        } catch (SQLException e) {
+            throw failure("Could not connect to the highscore database", e);
+        }
+    }
+
+    @Override
+    public synchronized List<GameRecord> append(List<GameRecord> records) throws IOException {
+        try {
+            Connection conn = connection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (GameRecord record : records) {
+                    insert.setString(1, record.getPlayerName());
+                    insert.setInt(2, record.getBasketsCollected());
+                    insert.setInt(3, record.getLevelsCleared());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                ArrayList<GameRecord> saved = new ArrayList<>(records.size());
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    for (GameRecord record : records) {
+                        if (!keys.next()) {
+                            throw new SQLException("Missing generated id for highscore of " + record.getPlayerName());
+                        }
+                        saved.add(new GameRecord(keys.getInt(1), record.getPlayerName(),
+                                record.getBasketsCollected(), record.getLevelsCleared()));
+                    }
+                }
+                conn.commit();
+                return saved;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw failure("Could not save highscores", e);
+        }
+    }
+
+    @Override
+    public synchronized List<GameRecord> top(int limit) throws IOException {
+        try (PreparedStatement stmt = connection().prepareStatement(TOP_SQL)) {
+            stmt.setInt(1, limit);
+            return readRecords(stmt);
+        } catch (SQLException e) {
+            throw failure("Could not read highscores", e);
+        }
+    }
+
+    @Override
+    public synchronized List<GameRecord> page(GameRecord after, int size) throws IOException {
+        try (PreparedStatement stmt = connection().prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, after.getBasketsCollected());
+            stmt.setInt(2, after.getLevelsCleared());
+            stmt.setInt(3, after.getPlayerId());
+            stmt.setInt(4, size);
+            return readRecords(stmt);
+        } catch (SQLException e) {
+            throw failure("Could not read highscores", e);
+        }
+    }
+
+    @Override
+    public synchronized int rank(String playerName) throws IOException {
+        try (PreparedStatement best = connection().prepareStatement(BEST_OF_PLAYER_SQL)) {
+            best.setString(1, playerName);
+            best.setInt(2, 1);
+            ArrayList<GameRecord> records = readRecords(best);
+            if (records.isEmpty()) {
+                return 0;
+            }
+            GameRecord record = records.get(0);
+            try (PreparedStatement ahead = connection.prepareStatement(COUNT_AHEAD_SQL)) {
+                ahead.setInt(1, record.getBasketsCollected());
+                ahead.setInt(2, record.getLevelsCleared());
+                ahead.setInt(3, record.getPlayerId());
+                try (ResultSet rs = ahead.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1) + 1;
+                }
+            }
+        } catch (SQLException e) {
+            throw failure("Could not read highscores", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Gets the open connection, connecting and creating the table if needed.
+     *
+     * @return the connection
+     * @throws SQLException if the database cannot be reached
+     */
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            connection = DriverManager.getConnection(databaseUrl, username, password);
+            try {
+                createTableIfNotExists();
+            } catch (SQLException e) {
+                close();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Wraps a database error and drops the connection, so the next operation reconnects.
+     *
+     * @param message the description of the failed operation
+     * @param cause   the database error
+     * @return the exception to throw
+     */
+    private IOException failure(String message, SQLException cause) {
+        close();
+        return new IOException(message + ": " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Creates the highscores table and its indexes in the database if they do not already exist.
+     *
+     * @throws SQLException if a statement fails
+     */
+    private void createTableIfNotExists() throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS highscores (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "player_name VARCHAR(100), " +
+                "baskets_collected INT NOT NULL, " +
+                "levels_cleared INT NOT NULL)";
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+        createIndexIfNotExists("idx_highscores_rank", "baskets_collected, levels_cleared, id");
+        createIndexIfNotExists("idx_highscores_player", "player_name, baskets_collected, levels_cleared, id");
+    }
+
+    /**
+     * Creates an index on the highscores table unless an index of that name exists. Tables
+     * created by older versions of the game get their indexes this way.
+     *
+     * @param name    the index name
+     * @param columns the indexed columns
+     * @throws SQLException if the index cannot be created
+     */
+    private void createIndexIfNotExists(String name, String columns) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        for (String table : new String[]{"highscores", "HIGHSCORES"}) {
+            try (ResultSet rs = meta.getIndexInfo(connection.getCatalog(), null, table, false, false)) {
+                while (rs.next()) {
+                    if (name.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return;
+                    }
+                }
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE INDEX " + name + " ON highscores (" + columns + ")");
+        }
+    }
+
+    /**
+     * Runs a query over the highscore columns and collects the records.
+     *
+     * @param stmt the prepared query
+     * @return the records in result order
+     * @throws SQLException if the query fails
+     */
+    private static ArrayList<GameRecord> readRecords(PreparedStatement stmt) throws SQLException {
+        ArrayList<GameRecord> records = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                records.add(new GameRecord(
+                        rs.getInt("id"),
+                        rs.getString("player_name"),
+                        rs.getInt("baskets_collected"),
+                        rs.getInt("levels_cleared")
+                ));
+            }
+        }
+        return records;
+    }
+}
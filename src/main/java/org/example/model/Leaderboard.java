@@ -0,0 +1,404 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory leaderboard that keeps highscore records sorted in {@link HighscoreStore#RANKING}
+ * order.
+ *
+ * <p>
+ * The records are kept in an indexable skip list: every link also stores how many records it
+ * skips, so the position of a record and the record at a position are found in the same
+ * expected O(log n) steps as an insert. Reading the top k records, or k records from any
+ * position, costs O(log n + k). The records of every player are also kept in their own sorted
+ * set, which makes rank lookups by name O(log n).
+ * </p>
+ *
+ * <p>
+ * A leaderboard is safe to use from several threads. Readers share a read lock and only
+ * wait while a record is being added or removed.
+ * </p>
+ */
+public class Leaderboard {
+    private static final int MAX_LEVEL = 32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node head = new Node(null, MAX_LEVEL);
+    private final HashMap<String, TreeSet<GameRecord>> byPlayer = new HashMap<>();
+    private int level = 1;
+    private int size;
+    private long seed = 0x2545F4914F6CDD1DL;
+
+    /** Reused by writers, which hold the write lock. */
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] rank = new int[MAX_LEVEL];
+
+    /**
+     * Adds a record. Records that compare equal under {@link HighscoreStore#RANKING} (same
+     * baskets, levels and id) are only stored once.
+     *
+     * @param record the record to add
+     * @return true if the record was added, false if an equal record is already present
+     */
+    public boolean insert(GameRecord record) {
+        lock.writeLock().lock();
+        try {
+            return insertLocked(record);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a record.
+     *
+     * @param record the record to remove, or a record comparing equal to it
+     * @return true if the record was present
+     */
+    public boolean remove(GameRecord record) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(record) != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a record with another one in a single step, so readers never see neither of them.
+     *
+     * @param previous the record to remove
+     * @param current  the record to add
+     * @return true if the previous record was present
+     */
+    public boolean replace(GameRecord previous, GameRecord current) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(previous) != null;
+            insertLocked(current);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the lowest ranked records until at most {@code capacity} remain.
+     *
+     * @param capacity the number of records to keep
+     * @return the number of removed records
+     */
+    public int trimTo(int capacity) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            while (size > capacity) {
+                removeLocked(recordAtLocked(size));
+                removed++;
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every record.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < MAX_LEVEL; i++) {
+                head.next[i] = null;
+                head.span[i] = 0;
+            }
+            byPlayer.clear();
+            level = 1;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the best records.
+     *
+     * @param limit the highest number of records to return
+     * @return the records in leaderboard order
+     */
+    public ArrayList<GameRecord> top(int limit) {
+        lock.readLock().lock();
+        try {
+            return collect(head.next[0], limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the records that follow a record in leaderboard order. The record itself does not
+     * need to be on the leaderboard.
+     *
+     * @param after the record to start after
+     * @param limit the highest number of records to return
+     * @return the records in leaderboard order
+     */
+    public ArrayList<GameRecord> after(GameRecord after, int limit) {
+        lock.readLock().lock();
+        try {
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.next[i] != null && HighscoreStore.RANKING.compare(x.next[i].record, after) <= 0) {
+                    x = x.next[i];
+                }
+            }
+            return collect(x.next[0], limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the records with a number of baskets in a range, best first.
+     *
+     * @param minBaskets the lowest number of baskets, inclusive
+     * @param maxBaskets the highest number of baskets, inclusive
+     * @param limit      the highest number of records to return
+     * @return the records in leaderboard order
+     */
+    public ArrayList<GameRecord> betweenBaskets(int minBaskets, int maxBaskets, int limit) {
+        lock.readLock().lock();
+        try {
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.next[i] != null && x.next[i].record.getBasketsCollected() > maxBaskets) {
+                    x = x.next[i];
+                }
+            }
+            ArrayList<GameRecord> records = new ArrayList<>(Math.min(limit, 64));
+            for (Node n = x.next[0]; n != null && records.size() < limit
+                    && n.record.getBasketsCollected() >= minBaskets; n = n.next[0]) {
+                records.add(n.record);
+            }
+            return records;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the position of a record.
+     *
+     * @param record the record, or a record comparing equal to it
+     * @return the 1-based rank, or 0 if the record is not on the leaderboard
+     */
+    public int rankOf(GameRecord record) {
+        lock.readLock().lock();
+        try {
+            return rankLocked(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the position of a player's best record.
+     *
+     * @param playerName the name of the player
+     * @return the 1-based rank, or 0 if the player has no record on the leaderboard
+     */
+    public int rankOf(String playerName) {
+        lock.readLock().lock();
+        try {
+            TreeSet<GameRecord> records = byPlayer.get(playerName);
+            return records == null ? 0 : rankLocked(records.first());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a player's best record.
+     *
+     * @param playerName the name of the player
+     * @return the record, or null if the player has no record on the leaderboard
+     */
+    public GameRecord bestOf(String playerName) {
+        lock.readLock().lock();
+        try {
+            TreeSet<GameRecord> records = byPlayer.get(playerName);
+            return records == null ? null : records.first();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the record at a position.
+     *
+     * @param rank the 1-based rank
+     * @return the record, or null if the leaderboard has fewer records
+     */
+    public GameRecord recordAt(int rank) {
+        lock.readLock().lock();
+        try {
+            return recordAtLocked(rank);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean insertLocked(GameRecord record) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && HighscoreStore.RANKING.compare(x.next[i].record, record) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        if (x.next[0] != null && HighscoreStore.RANKING.compare(x.next[0].record, record) == 0) {
+            return false;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        Node node = new Node(record, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+
+        byPlayer.computeIfAbsent(record.getPlayerName(), name -> new TreeSet<>(HighscoreStore.RANKING)).add(record);
+        return true;
+    }
+
+    private GameRecord removeLocked(GameRecord record) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && HighscoreStore.RANKING.compare(x.next[i].record, record) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node node = x.next[0];
+        if (node == null || HighscoreStore.RANKING.compare(node.record, record) != 0) {
+            return null;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+
+        TreeSet<GameRecord> records = byPlayer.get(node.record.getPlayerName());
+        records.remove(node.record);
+        if (records.isEmpty()) {
+            byPlayer.remove(node.record.getPlayerName());
+        }
+        return node.record;
+    }
+
+    private int rankLocked(GameRecord record) {
+        Node x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && HighscoreStore.RANKING.compare(x.next[i].record, record) <= 0) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && HighscoreStore.RANKING.compare(x.record, record) == 0) {
+                return traversed;
+            }
+        }
+        return 0;
+    }
+
+    private GameRecord recordAtLocked(int rank) {
+        if (rank < 1 || rank > size) {
+            return null;
+        }
+        Node x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x.record;
+            }
+        }
+        return null;
+    }
+
+    private static ArrayList<GameRecord> collect(Node from, int limit) {
+        ArrayList<GameRecord> records = new ArrayList<>(Math.min(limit, 64));
+        for (Node n = from; n != null && records.size() < limit; n = n.next[0]) {
+            records.add(n.record);
+        }
+        return records;
+    }
+
+    /**
+     * Picks the level of a new node: each further level with probability 1/4.
+     *
+     * @return the level, between 1 and {@value #MAX_LEVEL}
+     */
+    private int randomLevel() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        int nodeLevel = 1 + Long.numberOfTrailingZeros(seed | (1L << 62)) / 2;
+        return Math.min(nodeLevel, MAX_LEVEL);
+    }
+
+    /**
+     * A skip list node. {@code span[i]} is the number of records from this node to
+     * {@code next[i]}, counting {@code next[i]} itself.
+     */
+    private static final class Node {
+        final GameRecord record;
+        final Node[] next;
+        final int[] span;
+
+        Node(GameRecord record, int level) {
+            this.record = record;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports the highscores saved by older versions of the game, which serialized an
+ * {@code ArrayList} of {@code org.example.Score} objects to {@code highscores.dat}.
+ *
+ * <p>
+ * The {@code Score} class no longer exists, so its stream descriptor is mapped onto a private
+ * class with the same fields. Only that class, {@code ArrayList} and {@code String} are
+ * accepted from the stream. Old scores only counted baskets, so imported records have no
+ * levels cleared.
+ * </p>
+ */
+public final class LegacyHighscoreImporter {
+    /** The class name used by the old save format. */
+    static final String LEGACY_CLASS = "org.example.Score";
+
+    private LegacyHighscoreImporter() {
+    }
+
+    /**
+     * Reads the records of a legacy highscore file.
+     *
+     * @param file the legacy file
+     * @return the records, in file order, with an id of 0
+     * @throws IOException if the file cannot be read or is not a legacy highscore file
+     */
+    public static List<GameRecord> read(Path file) throws IOException {
+        try (ObjectInputStream in = new LegacyInputStream(Files.newInputStream(file))) {
+            Object object = in.readObject();
+            if (!(object instanceof List<?> scores)) {
+                throw new IOException("Not a legacy highscore file: " + file);
+            }
+            ArrayList<GameRecord> records = new ArrayList<>(scores.size());
+            for (Object score : scores) {
+                if (!(score instanceof LegacyScore legacy)) {
+                    throw new IOException("Unexpected entry in legacy highscore file: " + file);
+                }
+                records.add(new GameRecord(0, legacy.playerName, legacy.score, 0));
+            }
+            return records;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Not a legacy highscore file: " + file, e);
+        }
+    }
+
+    /**
+     * Imports a legacy highscore file into a store that has no records yet. The legacy file is
+     * left untouched; because the store is no longer empty afterwards, the import happens once.
+     *
+     * @param file  the legacy file
+     * @param store the store to import into
+     * @return the number of imported records; 0 if the file does not exist or the store is not empty
+     * @throws IOException if the file cannot be read or the records cannot be saved
+     */
+    public static int importInto(Path file, HighscoreStore store) throws IOException {
+        if (!Files.isRegularFile(file) || !store.isEmpty()) {
+            return 0;
+        }
+        List<GameRecord> records = read(file);
+        if (!records.isEmpty()) {
+            store.append(records);
+        }
+        return records.size();
+    }
+
+    /**
+     * Stands in for the removed {@code org.example.Score} class.
+     */
+    private static final class LegacyScore implements Serializable {
+        private static final long serialVersionUID = 0xc13cee0fc13dce56L;
+
+        private int score;
+        private String playerName;
+    }
+
+    /**
+     * Reads {@code org.example.Score} as {@link LegacyScore} and rejects every class the
+     * legacy format does not use.
+     */
+    private static final class LegacyInputStream extends ObjectInputStream {
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+            setObjectInputFilter(info -> {
+                Class<?> type = info.serialClass();
+                if (type == null || type == ArrayList.class || type == Object[].class
+                        || type == LegacyScore.class || type == String.class) {
+                    return info.depth() > 3 || info.references() > 1_000_000
+                            ? ObjectInputFilter.Status.REJECTED
+                            : ObjectInputFilter.Status.UNDECIDED;
+                }
+                return ObjectInputFilter.Status.REJECTED;
+            });
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass descriptor = super.readClassDescriptor();
+            if (LEGACY_CLASS.equals(descriptor.getName())) {
+                ObjectStreamClass local = ObjectStreamClass.lookup(LegacyScore.class);
+                if (local.getSerialVersionUID() != descriptor.getSerialVersionUID()) {
+                    throw new InvalidClassException(LEGACY_CLASS, "unexpected serialVersionUID");
+                }
+                return local;
+            }
+            return descriptor;
+        }
+    }
+}
@@ -1,57 +1,278 @@
 package org.example.model;
 
 import java.awt.*;
-import java.io.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 /**
  * Represents a game level, managing obstacles, baskets, and rangers.
+ *
+ * <p>
+ * Collision queries are answered through a {@link SpatialGrid} per entity kind. The grids are
+ * rebuilt lazily whenever the corresponding list has been structurally modified, and the ranger
+ * grid additionally after every {@link #update()}, so they always match a scan of the lists.
+ * </p>
+ *
+ * <p>
+ * If any ranger chases the player, the level also keeps a {@link NavigationGrid}. It is built
+ * from the obstacles on the first {@link #update(int, int)}, and every update moves its target
+ * to the player and continues the search within a fixed budget of cells.
+ * </p>
+ *
+ * <p>
+ * The world has the size given by the level data, and may be much larger than the window.
+ * {@link #draw(Graphics, double, Rectangle)} only draws the entities that intersect a view
+ * rectangle, found through the same grids. The obstacle and basket grids are replaced rather
+ * than rebuilt in place, so a {@link WorldSnapshot} can keep querying the grid it captured.
+ * </p>
+ *
+ * <p>
+ * A level opened from a {@link ChunkedLevelFormat chunked level} only holds the chunks around
+ * the player, which its {@link ChunkStreamer} installs and evicts on every
+ * {@link #update(int, int)}. The rest of the world is frozen and counts as solid in collision
+ * queries, and its baskets still have to be collected before the level is complete.
+ * </p>
  */
 public class Level {
-    private ArrayList<Obstacle> obstacles;
-    private ArrayList<Item> baskets;
-    private ArrayList<Ranger> rangers;
+    /** The edge length of a collision grid cell in pixels. */
+    private static final int GRID_CELL_SIZE = 64;
+
+    /** The edge length of a navigation grid cell in pixels. */
+    static final int NAVIGATION_CELL_SIZE = 16;
+
+    /** The largest number of navigation cells searched per update. */
+    static final int NAVIGATION_BUDGET = 16_384;
+
+    /** The largest number of navigation cells in a world; larger worlds get coarser cells. */
+    static final int NAVIGATION_CELL_LIMIT = 1 << 20;
+
+    /** The largest distance a ranger moves along an axis in one update, with room to spare. */
+    private static final int STEP_MARGIN = 8;
+
+    /** The size of the world in pixels. */
+    private final int width, height;
+
+    private TrackedList<Obstacle> obstacles;
+    private TrackedList<Item> baskets;
+    private TrackedList<Ranger> rangers;
+
+    private SpatialGrid obstacleGrid = new SpatialGrid(GRID_CELL_SIZE);
+    private SpatialGrid basketGrid = new SpatialGrid(GRID_CELL_SIZE);
+    private final SpatialGrid rangerGrid = new SpatialGrid(GRID_CELL_SIZE);
+
+    /** Array copies of the static lists handed to snapshots, rebuilt when the lists change. */
+    private Obstacle[] obstacleArray;
+    private Item[] basketArray;
+    private int obstacleArrayVersion = -1;
+    private int basketArrayVersion = -1;
+
+    /** The list modification counts the grids were last built for; -1 forces a rebuild. */
+    private int obstacleGridVersion = -1;
+    private int basketGridVersion = -1;
+    private int rangerGridVersion = -1;
+
+    /** Streams the chunks of a chunked level; null when the whole level is in memory. */
+    private final ChunkStreamer streamer;
+
+    private NavigationGrid navigation;
+    private int navigationVersion = -1;
+    private int chaserCheckVersion = -1;
+    private boolean hasChasers;
+    private int chaseTargetX, chaseTargetY;
 
     /**
-     * Constructs a new Level by loading level data from a file.
+     * Constructs a new Level by loading level data from a file. Both the text format and
+     * compiled {@value BinaryLevelFormat#EXTENSION} files are accepted.
      *
      * @param levelFile the path to the level file
      */
     public Level(String levelFile) {
-        obstacles = new ArrayList<>();
-        baskets = new ArrayList<>();
-        rangers = new ArrayList<>();
-        loadLevelFromFile(levelFile);
+        obstacles = new TrackedList<>();
+        baskets = new TrackedList<>();
+        rangers = new TrackedList<>();
+        LevelData data = null;
+        try {
+            data = LevelData.load(Path.of(levelFile));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        width = data != null ? data.width : LevelData.DEFAULT_WIDTH;
+        height = data != null ? data.height : LevelData.DEFAULT_HEIGHT;
+        streamer = null;
+        if (data != null) {
+            addEntities(data);
+        }
     }
 
     /**
-     * Loads level data from the specified file.
+     * Constructs a new Level from already loaded level data.
      *
-     * @param levelFile the path to the level file
+     * @param data the level data
      */
-    private void loadLevelFromFile(String levelFile) {
-        try (BufferedReader br = new BufferedReader(new FileReader(levelFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] tokens = line.split(",");
-                switch (tokens[0]) {
-                    case "O" -> obstacles.add(new Obstacle(tokens[1], Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3])));
-                    case "B" -> baskets.add(new Item(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2])));
-                    case "R" -> rangers.add(new Ranger(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]), tokens[3], this));
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    public Level(LevelData data) {
+        obstacles = new TrackedList<>();
+        baskets = new TrackedList<>();
+        rangers = new TrackedList<>();
+        width = data.width;
+        height = data.height;
+        streamer = null;
+        addEntities(data);
+    }
+
+    /**
+     * Constructs a new Level that streams the chunks of a chunked level around the player.
+     * The chunks around the top left corner of the world, where the player starts, are
+     * installed before this returns.
+     *
+     * @param chunks the chunked level file
+     */
+    public Level(ChunkedLevelFormat chunks) {
+        obstacles = new TrackedList<>();
+        baskets = new TrackedList<>();
+        rangers = new TrackedList<>();
+        width = chunks.getWidth();
+        height = chunks.getHeight();
+        streamer = new ChunkStreamer(this, chunks, ChunkStreamer.DEFAULT_RADIUS);
+        streamer.update(0, 0);
+    }
+
+    /**
+     * Creates the entities described by the level data.
+     *
+     * @param data the level data
+     */
+    void addEntities(LevelData data) {
+        obstacles.ensureCapacity(data.obstacleCount);
+        for (int i = 0; i < data.obstacleCount; i++) {
+            obstacles.add(new Obstacle(LevelData.obstacleType(data.obstacleTypes[i]), data.obstacleXs[i], data.obstacleYs[i]));
+        }
+        baskets.ensureCapacity(data.basketCount);
+        for (int i = 0; i < data.basketCount; i++) {
+            baskets.add(new Item(data.basketXs[i], data.basketYs[i]));
         }
+        rangers.ensureCapacity(data.rangerCount);
+        for (int i = 0; i < data.rangerCount; i++) {
+            rangers.add(new Ranger(data.rangerXs[i], data.rangerYs[i], LevelData.pattern(data.rangerPatterns[i]), this));
+        }
+    }
+
+    /**
+     * Removes the entities whose top left corner lies in a chunk, keeping the order of the rest.
+     *
+     * @param chunks the chunked level the chunk belongs to
+     * @param chunk  the chunk index
+     * @return the removed entities, with rangers at their current positions
+     */
+    LevelData removeEntities(ChunkedLevelFormat chunks, int chunk) {
+        LevelData.Builder removed = new LevelData.Builder().setSize(width, height);
+        obstacles.removeIf(obstacle -> {
+            Rectangle b = obstacle.getBounds();
+            if (chunks.chunkAt(b.x, b.y) != chunk) {
+                return false;
+            }
+            removed.addObstacle(obstacle.getTypeTag(), b.x, b.y);
+            return true;
+        });
+        baskets.removeIf(basket -> {
+            Rectangle b = basket.getBounds();
+            if (chunks.chunkAt(b.x, b.y) != chunk) {
+                return false;
+            }
+            removed.addBasket(b.x, b.y);
+            return true;
+        });
+        rangers.removeIf(ranger -> {
+            if (chunks.chunkAt(ranger.getX(), ranger.getY()) != chunk) {
+                return false;
+            }
+            removed.addRanger(ranger.getX(), ranger.getY(), ranger.getPattern());
+            return true;
+        });
+        return removed.build();
     }
 
     /**
      * Updates the state of the level, including ranger movements.
      */
     public void update() {
-        for (Ranger ranger : rangers) {
-            ranger.update();
+        for (int i = 0; i < rangers.size(); i++) {
+            rangers.get(i).update();
         }
+        rangerGridVersion = -1;
+    }
+
+    /**
+     * Updates the level with chasing rangers steering towards the given position. A chunked
+     * level first streams its chunks around that position.
+     *
+     * @param targetX the x-coordinate of the player
+     * @param targetY the y-coordinate of the player
+     */
+    public void update(int targetX, int targetY) {
+        if (streamer != null) {
+            streamer.update(targetX, targetY);
+        }
+        chaseTargetX = targetX;
+        chaseTargetY = targetY;
+        if (chaserCheckVersion != rangers.modificationCount()) {
+            hasChasers = false;
+            for (int i = 0; i < rangers.size() && !hasChasers; i++) {
+                hasChasers = rangers.get(i).isChasing();
+            }
+            chaserCheckVersion = rangers.modificationCount();
+        }
+        if (hasChasers) {
+            if (navigation == null || navigationVersion != obstacles.modificationCount()) {
+                buildNavigation();
+            }
+            navigation.setTarget(targetX, targetY);
+            navigation.advance(NAVIGATION_BUDGET);
+        }
+        update();
+    }
+
+    /**
+     * Builds the navigation grid from the obstacles, for agents the size of the first chasing ranger.
+     */
+    private void buildNavigation() {
+        Ranger chaser = rangers.stream().filter(Ranger::isChasing).findFirst().orElseThrow();
+        navigation = new NavigationGrid(width, height, navigationCellSize(width, height), chaser.getWidth(), chaser.getHeight());
+        navigation.addObstacles(obstacles);
+        navigationVersion = obstacles.modificationCount();
+    }
+
+    /**
+     * Gets the navigation cell size for a world: {@link #NAVIGATION_CELL_SIZE}, doubled until
+     * the world has at most {@link #NAVIGATION_CELL_LIMIT} cells.
+     *
+     * @param width  the width of the world
+     * @param height the height of the world
+     * @return the cell size in pixels, a power of two
+     */
+    static int navigationCellSize(int width, int height) {
+        int cellSize = NAVIGATION_CELL_SIZE;
+        while ((long) Math.ceilDiv(width, cellSize) * Math.ceilDiv(height, cellSize) > NAVIGATION_CELL_LIMIT) {
+            cellSize *= 2;
+        }
+        return cellSize;
+    }
+
+    /**
+     * Gets the navigation grid chasing rangers follow.
+     *
+     * @return the grid, or null if no ranger has chased yet
+     */
+    public NavigationGrid getNavigation() {
+        return navigation;
+    }
+
+    int getChaseTargetX() {
+        return chaseTargetX;
+    }
+
+    int getChaseTargetY() {
+        return chaseTargetY;
     }
 
     /**
@@ -60,6 +281,17 @@ public class Level {
      * @param g the Graphics context
      */
     public void draw(Graphics g) {
+        draw(g, 1.0);
+    }
+
+    /**
+     * Draws all elements of the level, interpolating moving elements between their
+     * previous and current positions.
+     *
+     * @param g     the Graphics context
+     * @param alpha the fraction of a tick elapsed since the last update, from 0 to 1
+     */
+    public void draw(Graphics g, double alpha) {
         for (Obstacle obstacle : obstacles) {
             obstacle.draw(g);
         }
@@ -69,7 +301,35 @@ public class Level {
         }
 
         for (Ranger ranger : rangers) {
-            ranger.draw(g);
+            ranger.draw(g, alpha);
+        }
+    }
+
+    /**
+     * Draws the elements of the level that intersect a view of the world, in the same order as
+     * {@link #draw(Graphics, double)}. The elements are found through the collision grids, so
+     * the cost depends on what is visible rather than on the size of the level.
+     *
+     * @param g     the Graphics context, translated so that it draws in world coordinates
+     * @param alpha the fraction of a tick elapsed since the last update, from 0 to 1
+     * @param view  the visible part of the world
+     */
+    public void draw(Graphics g, double alpha, Rectangle view) {
+        for (int i : obstacleIndex().findIntersecting(view.x, view.y, view.width, view.height)) {
+            obstacles.get(i).draw(g);
+        }
+
+        for (int i : basketIndex().findIntersecting(view.x, view.y, view.width, view.height)) {
+            baskets.get(i).draw(g);
+        }
+
+        if (rangerGridVersion != rangers.modificationCount()) {
+            indexRangers();
+        }
+        // Rangers are drawn between their previous and current bounds, at most one step apart
+        for (int i : rangerGrid.findIntersecting(view.x - STEP_MARGIN, view.y - STEP_MARGIN,
+                view.width + 2 * STEP_MARGIN, view.height + 2 * STEP_MARGIN)) {
+            rangers.get(i).draw(g, alpha);
         }
     }
 
@@ -82,11 +342,10 @@ public class Level {
      */
     public boolean checkBasketCollision(Player player) {
         Rectangle playerBounds = player.getBounds();
-        for (int i = 0; i < baskets.size(); i++) {
-            if (playerBounds.intersects(baskets.get(i).getBounds())) {
-                baskets.remove(i);
-                return true;
-            }
+        int index = basketIndex().firstIntersecting(playerBounds.x, playerBounds.y, playerBounds.width, playerBounds.height);
+        if (index >= 0) {
+            baskets.remove(index);
+            return true;
         }
         return false;
     }
@@ -97,7 +356,7 @@ public class Level {
      * @return true if all baskets are collected, false otherwise
      */
     public boolean areAllBasketsCollected() {
-        return baskets.isEmpty();
+        return baskets.isEmpty() && (streamer == null || streamer.getUnloadedBaskets() == 0);
     }
 
     /**
@@ -108,12 +367,10 @@ public class Level {
      */
     public boolean checkRangerCollision(Player player) {
         Rectangle playerBounds = player.getBounds();
-        for (Ranger ranger : rangers) {
-            if (playerBounds.intersects(ranger.getBounds())) {
-                return true;
-            }
+        if (rangerGridVersion != rangers.modificationCount()) {
+            indexRangers();
         }
-        return false;
+        return rangerGrid.intersectsAny(playerBounds.x, playerBounds.y, playerBounds.width, playerBounds.height);
     }
 
     /**
@@ -123,12 +380,145 @@ public class Level {
      * @return true if a collision is detected, false otherwise
      */
     public boolean checkObstacleCollision(Rectangle rect) {
-        for (Obstacle obstacle : obstacles) {
-            if (rect.intersects(obstacle.getBounds())) {
-                return true;
-            }
+        return checkObstacleCollision(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    /**
+     * Checks if the given area collides with any obstacles, without needing a Rectangle.
+     *
+     * @param x      the x-coordinate of the area
+     * @param y      the y-coordinate of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @return true if a collision is detected, false otherwise
+     */
+    public boolean checkObstacleCollision(int x, int y, int width, int height) {
+        if (streamer != null && !streamer.isInstalled(x, y, width, height)) {
+            return true; // the world outside the installed chunks is frozen
         }
-        return false;
+        return obstacleIndex().intersectsAny(x, y, width, height);
+    }
+
+    /**
+     * Gets the grid of the obstacles, indexed like {@link #obstacleArray()}. The grid is never
+     * modified once returned; a change to the list builds a new one.
+     *
+     * @return the obstacle grid
+     */
+    SpatialGrid obstacleIndex() {
+        if (obstacleGridVersion != obstacles.modificationCount()) {
+            indexObstacles();
+        }
+        return obstacleGrid;
+    }
+
+    /**
+     * Gets the grid of the remaining baskets, indexed like {@link #basketArray()}. The grid is
+     * never modified once returned; a change to the list builds a new one.
+     *
+     * @return the basket grid
+     */
+    SpatialGrid basketIndex() {
+        if (basketGridVersion != baskets.modificationCount()) {
+            indexBaskets();
+        }
+        return basketGrid;
+    }
+
+    /**
+     * Gets the obstacles as an array that is shared by every snapshot until the list changes.
+     * Callers must not modify the returned array.
+     *
+     * @return the obstacles of the level
+     */
+    Obstacle[] obstacleArray() {
+        if (obstacleArrayVersion != obstacles.modificationCount()) {
+            obstacleArray = obstacles.toArray(new Obstacle[0]);
+            obstacleArrayVersion = obstacles.modificationCount();
+        }
+        return obstacleArray;
+    }
+
+    /**
+     * Gets the remaining baskets as an array that is shared by every snapshot until the list changes.
+     * Callers must not modify the returned array.
+     *
+     * @return the baskets of the level
+     */
+    Item[] basketArray() {
+        if (basketArrayVersion != baskets.modificationCount()) {
+            basketArray = baskets.toArray(new Item[0]);
+            basketArrayVersion = baskets.modificationCount();
+        }
+        return basketArray;
+    }
+
+    /**
+     * Rebuilds the obstacle grid from the obstacle list.
+     */
+    private void indexObstacles() {
+        obstacleGrid = new SpatialGrid(GRID_CELL_SIZE);
+        obstacleGrid.reset(obstacles.size());
+        for (int i = 0; i < obstacles.size(); i++) {
+            Rectangle b = obstacles.get(i).getBounds();
+            obstacleGrid.set(i, b.x, b.y, b.width, b.height);
+        }
+        obstacleGrid.build();
+        obstacleGridVersion = obstacles.modificationCount();
+    }
+
+    /**
+     * Rebuilds the basket grid from the basket list.
+     */
+    private void indexBaskets() {
+        basketGrid = new SpatialGrid(GRID_CELL_SIZE);
+        basketGrid.reset(baskets.size());
+        for (int i = 0; i < baskets.size(); i++) {
+            Rectangle b = baskets.get(i).getBounds();
+            basketGrid.set(i, b.x, b.y, b.width, b.height);
+        }
+        basketGrid.build();
+        basketGridVersion = baskets.modificationCount();
+    }
+
+    /**
+     * Rebuilds the ranger grid from the current ranger positions.
+     */
+    private void indexRangers() {
+        rangerGrid.reset(rangers.size());
+        for (int i = 0; i < rangers.size(); i++) {
+            Rectangle b = rangers.get(i).getBounds();
+            rangerGrid.set(i, b.x, b.y, b.width, b.height);
+        }
+        rangerGrid.build();
+        rangerGridVersion = rangers.modificationCount();
+    }
+
+    /**
+     * Gets the width of the world, which the player and the rangers never leave.
+     *
+     * @return the width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the world, which the player and the rangers never leave.
+     *
+     * @return the height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the streamer of a chunked level.
+     *
+     * @return the streamer, or null if the whole level is in memory
+     */
+    public ChunkStreamer getChunkStreamer() {
+        return streamer;
     }
 
     public ArrayList<Item> getBaskets() {
@@ -143,4 +533,16 @@ public class Level {
         return obstacles;
     }
 
+    /**
+     * An ArrayList that exposes its structural modification count, so the level can tell
+     * when a collision grid no longer matches the list it was built from.
+     *
+     * @param <E> the type of elements in the list
+     */
+    private static class TrackedList<E> extends ArrayList<E> {
+        int modificationCount() {
+            return modCount;
+        }
+    }
+
 }
@@ -0,0 +1,73 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compiles text level files into the binary {@value BinaryLevelFormat#EXTENSION} format.
+ */
+public final class LevelCompiler {
+
+    private LevelCompiler() {
+    }
+
+    /**
+     * Compiles a text level file.
+     *
+     * @param source the text level file
+     * @param target the binary level file to write
+     * @return the compiled level data
+     * @throws IOException if a file cannot be read or written
+     */
+    public static LevelData compile(Path source, Path target) throws IOException {
+        LevelData data = LevelData.parseText(source);
+        BinaryLevelFormat.write(data, target);
+        return data;
+    }
+
+    /**
+     * Gets the binary file name a text level file compiles to, next to the source file.
+     *
+     * @param source the text level file
+     * @return the path of the compiled file
+     */
+    public static Path compiledPath(Path source) {
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return source.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + BinaryLevelFormat.EXTENSION);
+    }
+
+    /**
+     * Compiles level files from the command line.
+     * Usage: {@code LevelCompiler <file.txt | directory>...}; directories compile every {@code .txt} file in them.
+     *
+     * @param args the files and directories to compile
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: LevelCompiler <file.txt | directory>...");
+            return;
+        }
+        for (String arg : args) {
+            Path path = Path.of(arg);
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*.txt")) {
+                    for (Path file : files) {
+                        compileAndReport(file);
+                    }
+                }
+            } else {
+                compileAndReport(path);
+            }
+        }
+    }
+
+    private static void compileAndReport(Path source) throws IOException {
+        Path target = compiledPath(source);
+        LevelData data = compile(source, target);
+        System.out.println("Compiled " + source + " -> " + target + " (" + data.getEntityCount() + " entities)");
+    }
+}
@@ -0,0 +1,406 @@
+package org.example.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The raw contents of a level file, stored as parallel int arrays per entity kind.
+ *
+ * <p>
+ * Level data can be read from the {@code O/B/R} text format or from the compiled binary
+ * format of {@link BinaryLevelFormat}, and a {@link Level} is built from it. Entity types
+ * and movement patterns are stored as small integer tags. The data also carries the size of
+ * the world the entities live in, which is the original 800x600 field unless the level
+ * declares a larger one.
+ * </p>
+ */
+public final class LevelData {
+    /** Obstacle type tag for a tree. */
+    public static final int TREE = 0;
+
+    /** Obstacle type tag for a mountain. */
+    public static final int MOUNTAIN = 1;
+
+    /** Obstacle type tag for a type the game does not know; such obstacles have no size. */
+    public static final int UNKNOWN_OBSTACLE = 2;
+
+    /** Movement pattern tag for a ranger patrolling horizontally. */
+    public static final int HORIZONTAL = 0;
+
+    /** Movement pattern tag for a ranger patrolling vertically. */
+    public static final int VERTICAL = 1;
+
+    /** Movement pattern tag for a ranger with a pattern the game does not know; such rangers stand still. */
+    public static final int UNKNOWN_PATTERN = 2;
+
+    /** Movement pattern tag for a ranger chasing the player through a {@link NavigationGrid}. */
+    public static final int CHASE = 3;
+
+    /** The width of the world of a level that does not declare its size. */
+    public static final int DEFAULT_WIDTH = 800;
+
+    /** The height of the world of a level that does not declare its size. */
+    public static final int DEFAULT_HEIGHT = 600;
+
+    private static final String[] OBSTACLE_TYPES = {"Tree", "Mountain", "Unknown"};
+    private static final String[] PATTERNS = {"Horizontal", "Vertical", "Unknown", "Chase"};
+
+    final int obstacleCount;
+    final int[] obstacleTypes, obstacleXs, obstacleYs;
+    final int basketCount;
+    final int[] basketXs, basketYs;
+    final int rangerCount;
+    final int[] rangerXs, rangerYs, rangerPatterns;
+    final int width, height;
+
+    LevelData(int obstacleCount, int[] obstacleTypes, int[] obstacleXs, int[] obstacleYs,
+              int basketCount, int[] basketXs, int[] basketYs,
+              int rangerCount, int[] rangerXs, int[] rangerYs, int[] rangerPatterns,
+              int width, int height) {
+        this.obstacleCount = obstacleCount;
+        this.obstacleTypes = obstacleTypes;
+        this.obstacleXs = obstacleXs;
+        this.obstacleYs = obstacleYs;
+        this.basketCount = basketCount;
+        this.basketXs = basketXs;
+        this.basketYs = basketYs;
+        this.rangerCount = rangerCount;
+        this.rangerXs = rangerXs;
+        this.rangerYs = rangerYs;
+        this.rangerPatterns = rangerPatterns;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Loads level data from a file, choosing the format by its extension.
+     *
+     * @param file the level file, either {@code .txt} or {@value BinaryLevelFormat#EXTENSION}
+     * @return the level data
+     * @throws IOException if the file cannot be read or is not a valid level
+     */
+    public static LevelData load(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(BinaryLevelFormat.EXTENSION)) {
+            return BinaryLevelFormat.read(file);
+        }
+        return parseText(file);
+    }
+
+    /**
+     * Parses a level in the text format. Each line holds one entity:
+     * {@code O,<type>,<x>,<y>}, {@code B,<x>,<y>} or {@code R,<x>,<y>,<pattern>}. An optional
+     * {@code W,<width>,<height>} line sets the size of the world; without it the world is
+     * {@value #DEFAULT_WIDTH}x{@value #DEFAULT_HEIGHT}. Blank lines are ignored; malformed lines
+     * are reported and skipped.
+     *
+     * @param file the text level file
+     * @return the level data
+     * @throws IOException if the file cannot be read
+     */
+    public static LevelData parseText(Path file) throws IOException {
+        Builder builder = new Builder();
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            int[] commas = new int[4];
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                int fields = 1;
+                for (int i = line.indexOf(','); i >= 0 && fields <= commas.length; i = line.indexOf(',', i + 1)) {
+                    commas[fields - 1] = i;
+                    fields++;
+                }
+                try {
+                    if (line.startsWith("O,") && fields == 4) {
+                        builder.addObstacle(obstacleTag(line.substring(commas[0] + 1, commas[1])),
+                                parseInt(line, commas[1] + 1, commas[2]),
+                                parseInt(line, commas[2] + 1, line.length()));
+                    } else if (line.startsWith("B,") && fields == 3) {
+                        builder.addBasket(parseInt(line, commas[0] + 1, commas[1]),
+                                parseInt(line, commas[1] + 1, line.length()));
+                    } else if (line.startsWith("R,") && fields == 4) {
+                        builder.addRanger(parseInt(line, commas[0] + 1, commas[1]),
+                                parseInt(line, commas[1] + 1, commas[2]),
+                                patternTag(line.substring(commas[2] + 1).trim()));
+                    } else if (line.startsWith("W,") && fields == 3) {
+                        builder.setSize(parseInt(line, commas[0] + 1, commas[1]),
+                                parseInt(line, commas[1] + 1, line.length()));
+                    } else {
+                        System.err.println("Skipping malformed line " + lineNumber + " in " + file + ": " + line);
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping malformed line " + lineNumber + " in " + file + ": " + line);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping invalid line " + lineNumber + " in " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes level data in the text format read by {@link #parseText(Path)}: the world size if
+     * it is not the default, then obstacles, baskets and rangers.
+     *
+     * @param data the level data
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeText(LevelData data, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(32);
+            if (data.width != DEFAULT_WIDTH || data.height != DEFAULT_HEIGHT) {
+                line.append("W,").append(data.width).append(',').append(data.height).append('\n');
+                out.append(line);
+            }
+            for (int i = 0; i < data.obstacleCount; i++) {
+                line.setLength(0);
+                line.append("O,").append(obstacleType(data.obstacleTypes[i])).append(',')
+                        .append(data.obstacleXs[i]).append(',').append(data.obstacleYs[i]).append('\n');
+                out.append(line);
+            }
+            for (int i = 0; i < data.basketCount; i++) {
+                line.setLength(0);
+                line.append("B,").append(data.basketXs[i]).append(',').append(data.basketYs[i]).append('\n');
+                out.append(line);
+            }
+            for (int i = 0; i < data.rangerCount; i++) {
+                line.setLength(0);
+                line.append("R,").append(data.rangerXs[i]).append(',').append(data.rangerYs[i]).append(',')
+                        .append(pattern(data.rangerPatterns[i])).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    private static int parseInt(String line, int begin, int end) {
+        while (begin < end && line.charAt(begin) == ' ') {
+            begin++;
+        }
+        while (end > begin && line.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return Integer.parseInt(line, begin, end, 10);
+    }
+
+    /**
+     * Converts an obstacle type name to its tag.
+     *
+     * @param type the type name used in level files
+     * @return the type tag
+     */
+    public static int obstacleTag(String type) {
+        return switch (type.trim()) {
+            case "Tree" -> TREE;
+            case "Mountain" -> MOUNTAIN;
+            default -> UNKNOWN_OBSTACLE;
+        };
+    }
+
+    /**
+     * Converts a ranger movement pattern name to its tag.
+     *
+     * @param pattern the pattern name used in level files
+     * @return the pattern tag
+     */
+    public static int patternTag(String pattern) {
+        return switch (pattern) {
+            case "Horizontal" -> HORIZONTAL;
+            case "Vertical" -> VERTICAL;
+            case "Chase" -> CHASE;
+            default -> UNKNOWN_PATTERN;
+        };
+    }
+
+    /**
+     * Gets the edge length of an obstacle type. Obstacles are square.
+     *
+     * @param tag the type tag
+     * @return the size in pixels; 0 for unknown types
+     */
+    public static int obstacleSize(int tag) {
+        return switch (tag) {
+            case TREE -> 50;
+            case MOUNTAIN -> 100;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Converts an obstacle type tag to the name used in level files.
+     *
+     * @param tag the type tag
+     * @return the type name
+     */
+    public static String obstacleType(int tag) {
+        return OBSTACLE_TYPES[tag];
+    }
+
+    /**
+     * Converts a movement pattern tag to the name used in level files.
+     *
+     * @param tag the pattern tag
+     * @return the pattern name
+     */
+    public static String pattern(int tag) {
+        return PATTERNS[tag];
+    }
+
+    public int getObstacleCount() {
+        return obstacleCount;
+    }
+
+    public int getBasketCount() {
+        return basketCount;
+    }
+
+    public int getRangerCount() {
+        return rangerCount;
+    }
+
+    /**
+     * Gets the width of the world, which entities never leave.
+     *
+     * @return the width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the world, which entities never leave.
+     *
+     * @return the height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the total number of entities in the level.
+     *
+     * @return the number of obstacles, baskets and rangers
+     */
+    public int getEntityCount() {
+        return obstacleCount + basketCount + rangerCount;
+    }
+
+    /**
+     * Accumulates entities into growable arrays and produces the {@link LevelData}.
+     */
+    public static final class Builder {
+        private int obstacleCount, basketCount, rangerCount;
+        private int[] obstacleTypes = new int[16], obstacleXs = new int[16], obstacleYs = new int[16];
+        private int[] basketXs = new int[16], basketYs = new int[16];
+        private int[] rangerXs = new int[16], rangerYs = new int[16], rangerPatterns = new int[16];
+        private int width = DEFAULT_WIDTH, height = DEFAULT_HEIGHT;
+
+        /**
+         * Sets the size of the world.
+         *
+         * @param width  the width in pixels
+         * @param height the height in pixels
+         * @return this builder
+         * @throws IllegalArgumentException if either size is not positive
+         */
+        public Builder setSize(int width, int height) {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("World size must be positive: " + width + "x" + height);
+            }
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        /**
+         * Adds an obstacle.
+         *
+         * @param type the obstacle type tag
+         * @param x    the x-coordinate
+         * @param y    the y-coordinate
+         * @return this builder
+         */
+        public Builder addObstacle(int type, int x, int y) {
+            if (obstacleCount == obstacleXs.length) {
+                int capacity = obstacleCount * 2;
+                obstacleTypes = Arrays.copyOf(obstacleTypes, capacity);
+                obstacleXs = Arrays.copyOf(obstacleXs, capacity);
+                obstacleYs = Arrays.copyOf(obstacleYs, capacity);
+            }
+            obstacleTypes[obstacleCount] = type;
+            obstacleXs[obstacleCount] = x;
+            obstacleYs[obstacleCount] = y;
+            obstacleCount++;
+            return this;
+        }
+
+        /**
+         * Adds a basket.
+         *
+         * @param x the x-coordinate
+         * @param y the y-coordinate
+         * @return this builder
+         */
+        public Builder addBasket(int x, int y) {
+            if (basketCount == basketXs.length) {
+                int capacity = basketCount * 2;
+                basketXs = Arrays.copyOf(basketXs, capacity);
+                basketYs = Arrays.copyOf(basketYs, capacity);
+            }
+            basketXs[basketCount] = x;
+            basketYs[basketCount] = y;
+            basketCount++;
+            return this;
+        }
+
+        /**
+         * Adds a ranger.
+         *
+         * @param x       the x-coordinate
+         * @param y       the y-coordinate
+         * @param pattern the movement pattern tag
+         * @return this builder
+         */
+        public Builder addRanger(int x, int y, int pattern) {
+            if (rangerCount == rangerXs.length) {
+                int capacity = rangerCount * 2;
+                rangerXs = Arrays.copyOf(rangerXs, capacity);
+                rangerYs = Arrays.copyOf(rangerYs, capacity);
+                rangerPatterns = Arrays.copyOf(rangerPatterns, capacity);
+            }
+            rangerXs[rangerCount] = x;
+            rangerYs[rangerCount] = y;
+            rangerPatterns[rangerCount] = pattern;
+            rangerCount++;
+            return this;
+        }
+
+        /**
+         * Creates the level data from the added entities.
+         *
+         * @return the level data
+         */
+        public LevelData build() {
+            return new LevelData(obstacleCount,
+                    Arrays.copyOf(obstacleTypes, obstacleCount),
+                    Arrays.copyOf(obstacleXs, obstacleCount),
+                    Arrays.copyOf(obstacleYs, obstacleCount),
+                    basketCount,
+                    Arrays.copyOf(basketXs, basketCount),
+                    Arrays.copyOf(basketYs, basketCount),
+                    rangerCount,
+                    Arrays.copyOf(rangerXs, rangerCount),
+                    Arrays.copyOf(rangerYs, rangerCount),
+                    Arrays.copyOf(rangerPatterns, rangerCount),
+                    width, height);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates random levels of any size from a seed, with every basket reachable from the
+ * player's spawn point.
+ *
+ * <p>
+ * The world is cut into regions of about {@value #REGION_SIZE} pixels square, which are
+ * generated independently and in parallel, each from its own random stream derived from the
+ * seed, so a seed always gives the same level however many threads run. A band of
+ * {@value #ROAD_WIDTH} pixels along the top and the left edge of every region is kept free of
+ * obstacles. Together these roads form a connected grid over the whole world that passes
+ * through the spawn point, so a basket is reachable if the player can walk from it to the
+ * roads of its own region. That is checked by a search of the region alone, and a basket that
+ * fails is placed again elsewhere.
+ * </p>
+ *
+ * <p>
+ * Unless a size is given, the world is a 4:3 rectangle holding the entities at the density of
+ * the bundled levels, and never smaller than the 800x600 field. Rangers patrol horizontally or
+ * vertically, stay off obstacles, and keep away from the spawn point.
+ * </p>
+ */
+public final class LevelGenerator {
+    /** The target edge length of a region in pixels. */
+    public static final int REGION_SIZE = 1024;
+
+    /** The width of the obstacle-free roads along the top and left edge of every region. */
+    public static final int ROAD_WIDTH = 128;
+
+    /** The area per entity in square pixels, matching the density of the bundled levels. */
+    public static final int AREA_PER_ENTITY = 24_000;
+
+    /** The smallest world generated, the size of the playing field. */
+    private static final int MIN_WIDTH = LevelData.DEFAULT_WIDTH, MIN_HEIGHT = LevelData.DEFAULT_HEIGHT;
+
+    private static final int SPAWN_X = 50, SPAWN_Y = 50;
+    private static final int PLAYER_SIZE = 50;
+    private static final int BASKET_SIZE = 30;
+    private static final int RANGER_SIZE = 40;
+
+    /** How far from the spawn point rangers are kept, so a new game does not start with a death. */
+    private static final int SPAWN_CLEARANCE = 200;
+
+    /**
+     * The spacing of the positions searched for reachability: a multiple of the player's
+     * 5 pixel step, so the positions are ones the player can stand at, and less than the
+     * player's size.
+     */
+    private static final int REACH_STEP = 25;
+
+    /** How often a basket or ranger is placed at random before falling back to a road. */
+    private static final int PLACEMENT_TRIES = 64;
+
+    private final long seed;
+    private final int obstacles, baskets, rangers;
+    private final int width, height;
+    private final int regionColumns, regionRows;
+
+    /**
+     * Constructs a new LevelGenerator for a world sized by the entity count.
+     *
+     * @param seed      the random seed
+     * @param obstacles the number of obstacles
+     * @param baskets   the number of baskets
+     * @param rangers   the number of rangers
+     */
+    public LevelGenerator(long seed, int obstacles, int baskets, int rangers) {
+        this(seed, obstacles, baskets, rangers,
+                worldWidth(obstacles + baskets + rangers), worldHeight(obstacles + baskets + rangers));
+    }
+
+    /**
+     * Constructs a new LevelGenerator for a world of a given size.
+     *
+     * @param seed      the random seed
+     * @param obstacles the number of obstacles
+     * @param baskets   the number of baskets
+     * @param rangers   the number of rangers
+     * @param width     the width of the world in pixels, at least 800
+     * @param height    the height of the world in pixels, at least 600
+     */
+    public LevelGenerator(long seed, int obstacles, int baskets, int rangers, int width, int height) {
+        if (obstacles < 0 || baskets < 0 || rangers < 0) {
+            throw new IllegalArgumentException("Entity counts must not be negative");
+        }
+        if (width < MIN_WIDTH || height < MIN_HEIGHT) {
+            throw new IllegalArgumentException("World must be at least " + MIN_WIDTH + "x" + MIN_HEIGHT + ": " + width + "x" + height);
+        }
+        this.seed = seed;
+        this.obstacles = obstacles;
+        this.baskets = baskets;
+        this.rangers = rangers;
+        this.width = width;
+        this.height = height;
+        regionColumns = Math.max(1, Math.round(width / (float) REGION_SIZE));
+        regionRows = Math.max(1, Math.round(height / (float) REGION_SIZE));
+    }
+
+    /**
+     * Gets the width of a 4:3 world holding the given number of entities at the bundled levels' density.
+     *
+     * @param entities the number of entities
+     * @return the world width in pixels, at least 800
+     */
+    public static int worldWidth(int entities) {
+        return Math.max(MIN_WIDTH, (int) Math.sqrt(entities * (double) AREA_PER_ENTITY * 4 / 3));
+    }
+
+    /**
+     * Gets the height of a 4:3 world holding the given number of entities at the bundled levels' density.
+     *
+     * @param entities the number of entities
+     * @return the world height in pixels, at least 600
+     */
+    public static int worldHeight(int entities) {
+        return Math.max(MIN_HEIGHT, worldWidth(entities) * 3 / 4);
+    }
+
+    /**
+     * Generates the level, one region per task on the common fork-join pool.
+     *
+     * @return the level data, with the entities of each kind ordered by region
+     */
+    public LevelData generate() {
+        int regionCount = regionColumns * regionRows;
+        LevelData[] regions = IntStream.range(0, regionCount).parallel()
+                .mapToObj(this::generateRegion)
+                .toArray(LevelData[]::new);
+        return concatenate(regions, width, height);
+    }
+
+    /**
+     * Generates the entities of one region.
+     *
+     * @param index the region index, row by row
+     * @return the entities of the region
+     */
+    private LevelData generateRegion(int index) {
+        int column = index % regionColumns;
+        int row = index / regionColumns;
+        int x0 = regionStart(column, regionColumns, width);
+        int y0 = regionStart(row, regionRows, height);
+        int w = regionStart(column + 1, regionColumns, width) - x0;
+        int h = regionStart(row + 1, regionRows, height) - y0;
+        SplittableRandom random = new SplittableRandom(seed ^ (0x9E3779B97F4A7C15L * (index + 1)));
+        LevelData.Builder builder = new LevelData.Builder();
+
+        // Obstacles stay off the roads and inside the region, so no region's obstacles reach into another
+        int obstacleCount = share(obstacles, index, regionCount());
+        for (int i = 0; i < obstacleCount; i++) {
+            int type = random.nextInt(3) == 0 ? LevelData.MOUNTAIN : LevelData.TREE;
+            int size = LevelData.obstacleSize(type);
+            builder.addObstacle(type,
+                    x0 + ROAD_WIDTH + random.nextInt(Math.max(1, w - ROAD_WIDTH - size)),
+                    y0 + ROAD_WIDTH + random.nextInt(Math.max(1, h - ROAD_WIDTH - size)));
+        }
+        LevelData placed = builder.build();
+
+        int basketCount = share(baskets, index, regionCount());
+        if (basketCount > 0) {
+            Reach reach = new Reach(x0, y0, w, h, placed);
+            for (int i = 0; i < basketCount; i++) {
+                int x = -1, y = -1;
+                for (int attempt = 0; attempt < PLACEMENT_TRIES && x < 0; attempt++) {
+                    int bx = x0 + random.nextInt(w - BASKET_SIZE);
+                    int by = y0 + random.nextInt(h - BASKET_SIZE);
+                    if (reach.canCollect(bx, by)) {
+                        x = bx;
+                        y = by;
+                    }
+                }
+                if (x < 0) {
+                    // On the top road, where the player always fits
+                    x = x0 + random.nextInt(w - PLAYER_SIZE);
+                    y = y0 + random.nextInt(ROAD_WIDTH - PLAYER_SIZE);
+                }
+                builder.addBasket(x, y);
+            }
+        }
+
+        int rangerCount = share(rangers, index, regionCount());
+        for (int i = 0; i < rangerCount; i++) {
+            int x = -1, y = -1;
+            for (int attempt = 0; attempt < PLACEMENT_TRIES && x < 0; attempt++) {
+                int rx = x0 + random.nextInt(w - RANGER_SIZE);
+                int ry = y0 + random.nextInt(h - RANGER_SIZE);
+                if (!nearSpawn(rx, ry) && !hitsObstacle(placed, rx, ry)) {
+                    x = rx;
+                    y = ry;
+                }
+            }
+            if (x < 0) {
+                // On the left road, below the spawn point
+                x = x0 + random.nextInt(ROAD_WIDTH - RANGER_SIZE);
+                y = y0 + SPAWN_Y + SPAWN_CLEARANCE + random.nextInt(h - SPAWN_Y - SPAWN_CLEARANCE - RANGER_SIZE);
+            }
+            builder.addRanger(x, y, random.nextBoolean() ? LevelData.HORIZONTAL : LevelData.VERTICAL);
+        }
+        return builder.build();
+    }
+
+    /**
+     * The positions of a region the player can walk to from the region's roads, searched on a
+     * lattice of {@value #REACH_STEP} pixels. When the player fits at two positions less than
+     * its size apart, it also fits at every position between them, since it is covered by the
+     * two there, so a path found on the lattice can be walked in the player's smaller steps.
+     */
+    private final class Reach {
+        private final int originX, originY;
+        private final int columns, rows;
+        private final boolean[] reached;
+
+        Reach(int x0, int y0, int w, int h, LevelData obstacles) {
+            originX = Math.ceilDiv(x0, REACH_STEP) * REACH_STEP;
+            originY = Math.ceilDiv(y0, REACH_STEP) * REACH_STEP;
+            columns = Math.ceilDiv(x0 + w - originX, REACH_STEP);
+            rows = Math.ceilDiv(y0 + h - originY, REACH_STEP);
+            boolean[] blocked = new boolean[columns * rows];
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c++) {
+                    blocked[r * columns + c] = originX + c * REACH_STEP + PLAYER_SIZE > width
+                            || originY + r * REACH_STEP + PLAYER_SIZE > height;
+                }
+            }
+            // The player at (px, py) overlaps an obstacle at (ox, oy) if ox - PLAYER_SIZE < px < ox + size
+            for (int i = 0; i < obstacles.obstacleCount; i++) {
+                int size = LevelData.obstacleSize(obstacles.obstacleTypes[i]);
+                int c0 = Math.max(0, Math.floorDiv(obstacles.obstacleXs[i] - PLAYER_SIZE - originX, REACH_STEP) + 1);
+                int c1 = Math.min(columns - 1, Math.ceilDiv(obstacles.obstacleXs[i] + size - originX, REACH_STEP) - 1);
+                int r0 = Math.max(0, Math.floorDiv(obstacles.obstacleYs[i] - PLAYER_SIZE - originY, REACH_STEP) + 1);
+                int r1 = Math.min(rows - 1, Math.ceilDiv(obstacles.obstacleYs[i] + size - originY, REACH_STEP) - 1);
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) {
+                        blocked[r * columns + c] = true;
+                    }
+                }
+            }
+
+            // Breadth-first from the region's top left corner, which lies on both of its roads
+            reached = new boolean[columns * rows];
+            int[] queue = new int[columns * rows];
+            int head = 0, tail = 0;
+            reached[0] = true;
+            queue[tail++] = 0;
+            while (head < tail) {
+                int cell = queue[head++];
+                int c = cell % columns;
+                int r = cell / columns;
+                if (c > 0 && !blocked[cell - 1] && !reached[cell - 1]) {
+                    reached[cell - 1] = true;
+                    queue[tail++] = cell - 1;
+                }
+                if (c < columns - 1 && !blocked[cell + 1] && !reached[cell + 1]) {
+                    reached[cell + 1] = true;
+                    queue[tail++] = cell + 1;
+                }
+                if (r > 0 && !blocked[cell - columns] && !reached[cell - columns]) {
+                    reached[cell - columns] = true;
+                    queue[tail++] = cell - columns;
+                }
+                if (r < rows - 1 && !blocked[cell + columns] && !reached[cell + columns]) {
+                    reached[cell + columns] = true;
+                    queue[tail++] = cell + columns;
+                }
+            }
+        }
+
+        /**
+         * Checks whether the player can walk to a position touching a basket at the given position.
+         */
+        boolean canCollect(int x, int y) {
+            int c = Math.floorDiv(x - originX, REACH_STEP);
+            int r = Math.floorDiv(y - originY, REACH_STEP);
+            return c >= 0 && r >= 0 && c < columns && r < rows && reached[r * columns + c];
+        }
+    }
+
+    private int regionCount() {
+        return regionColumns * regionRows;
+    }
+
+    /**
+     * Gets where a region starts along one axis; the world is split as evenly as possible.
+     */
+    private static int regionStart(int region, int regions, int size) {
+        return (int) ((long) size * region / regions);
+    }
+
+    /**
+     * Gets the number of entities a region gets of a total spread evenly over all regions.
+     */
+    private static int share(int total, int region, int regions) {
+        return (int) ((long) total * (region + 1) / regions - (long) total * region / regions);
+    }
+
+    private static boolean nearSpawn(int x, int y) {
+        return x < SPAWN_X + SPAWN_CLEARANCE && y < SPAWN_Y + SPAWN_CLEARANCE;
+    }
+
+    private static boolean hitsObstacle(LevelData obstacles, int x, int y) {
+        for (int i = 0; i < obstacles.obstacleCount; i++) {
+            int size = LevelData.obstacleSize(obstacles.obstacleTypes[i]);
+            int ox = obstacles.obstacleXs[i];
+            int oy = obstacles.obstacleYs[i];
+            if (x < ox + size && ox < x + RANGER_SIZE && y < oy + size && oy < y + RANGER_SIZE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Joins the entities of all regions, in region order, into a world of the given size.
+     */
+    private static LevelData concatenate(LevelData[] regions, int width, int height) {
+        int obstacleCount = 0, basketCount = 0, rangerCount = 0;
+        for (LevelData region : regions) {
+            obstacleCount += region.obstacleCount;
+            basketCount += region.basketCount;
+            rangerCount += region.rangerCount;
+        }
+        int[] obstacleTypes = new int[obstacleCount], obstacleXs = new int[obstacleCount], obstacleYs = new int[obstacleCount];
+        int[] basketXs = new int[basketCount], basketYs = new int[basketCount];
+        int[] rangerXs = new int[rangerCount], rangerYs = new int[rangerCount], rangerPatterns = new int[rangerCount];
+        int o = 0, b = 0, r = 0;
+        for (LevelData region : regions) {
+            System.arraycopy(region.obstacleTypes, 0, obstacleTypes, o, region.obstacleCount);
+            System.arraycopy(region.obstacleXs, 0, obstacleXs, o, region.obstacleCount);
+            System.arraycopy(region.obstacleYs, 0, obstacleYs, o, region.obstacleCount);
+            o += region.obstacleCount;
+            System.arraycopy(region.basketXs, 0, basketXs, b, region.basketCount);
+            System.arraycopy(region.basketYs, 0, basketYs, b, region.basketCount);
+            b += region.basketCount;
+            System.arraycopy(region.rangerXs, 0, rangerXs, r, region.rangerCount);
+            System.arraycopy(region.rangerYs, 0, rangerYs, r, region.rangerCount);
+            System.arraycopy(region.rangerPatterns, 0, rangerPatterns, r, region.rangerCount);
+            r += region.rangerCount;
+        }
+        return new LevelData(obstacleCount, obstacleTypes, obstacleXs, obstacleYs,
+                basketCount, basketXs, basketYs, rangerCount, rangerXs, rangerYs, rangerPatterns, width, height);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Generates a level from the command line and writes it in the format its extension names.
+     * Usage: {@code LevelGenerator <entities> [seed] [file.txt | file.ylvl | file.ychk]}; the entities are
+     * split evenly between obstacles, baskets and rangers.
+     *
+     * @param args the entity count, optional seed and optional output file
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: LevelGenerator <entities> [seed] [file.txt | file" + BinaryLevelFormat.EXTENSION
+                    + " | file" + ChunkedLevelFormat.EXTENSION + "]");
+            return;
+        }
+        int entities = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Path file = Path.of(args.length > 2 ? args[2] : "generated" + entities + ".txt");
+
+        int perKind = entities / 3;
+        LevelGenerator generator = new LevelGenerator(seed, perKind, entities - 2 * perKind, perKind);
+        long start = System.nanoTime();
+        LevelData data = generator.generate();
+        long generated = System.nanoTime();
+        if (file.getFileName().toString().endsWith(BinaryLevelFormat.EXTENSION)) {
+            BinaryLevelFormat.write(data, file);
+        } else if (file.getFileName().toString().endsWith(ChunkedLevelFormat.EXTENSION)) {
+            ChunkedLevelFormat.write(data, ChunkedLevelFormat.DEFAULT_CHUNK_SIZE, file);
+        } else {
+            LevelData.writeText(data, file);
+        }
+        System.out.printf("Generated %d entities on %dx%d in %d ms, wrote %s in %d ms%n",
+                data.getEntityCount(), generator.getWidth(), generator.getHeight(),
+                (generated - start) / 1_000_000, file, (System.nanoTime() - generated) / 1_000_000);
+    }
+}
@@ -0,0 +1,456 @@
+package org.example.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Stores highscores in a local append-only file, without any database.
+ *
+ * <p>
+ * The file is a {@value #HEADER_SIZE} byte header followed by fixed-size records of
+ * {@value #RECORD_SIZE} bytes, each protected by a CRC-32. The header holds the length of the
+ * committed part of the log and the next id to hand out: a batch of records is written through
+ * a memory mapping and forced to disk first, and only then are the committed length and the
+ * next id advanced, so a batch interrupted by a crash is ignored as a whole when the file is
+ * opened again. Player names are stored as UTF-8 and cut to {@value #MAX_NAME_BYTES} bytes.
+ * </p>
+ *
+ * <p>
+ * All records are kept in memory in a {@link Leaderboard}, so reads never touch the file. When the
+ * log grows past its retention limit by a quarter, it is compacted: the best records and the
+ * best record of every player are rewritten to a new file that replaces the old one, keeping
+ * their ids. Ids are never handed out twice, even when the records that held the highest ones
+ * have been compacted away.
+ * </p>
+ *
+ * <p>
+ * Only one store may have the log open at a time. While it is open, the store holds an
+ * exclusive lock on a {@value #LOCK_SUFFIX} file next to it, and opening it from another
+ * store or process fails until the lock is released by {@link #close()}.
+ * </p>
+ */
+public class LogHighscoreStore implements HighscoreStore {
+    /** The default number of records kept by compaction. */
+    public static final int DEFAULT_MAX_RECORDS = 100_000;
+
+    /** The first int of the file, "YHSC" in ASCII. */
+    static final int MAGIC = 0x59485343;
+
+    /** The current file format version. */
+    static final int VERSION = 2;
+
+    /** Appended to the name of the log to get the name of its lock file. */
+    static final String LOCK_SUFFIX = ".lock";
+
+    static final int HEADER_SIZE = 24;
+    static final int RECORD_SIZE = 128;
+    static final int MAX_NAME_BYTES = 110;
+
+    private static final int COMMITTED_OFFSET = 8;
+    private static final int NEXT_ID_OFFSET = 16;
+    private static final int NAME_OFFSET = 14;
+    private static final int CRC_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final long INITIAL_CAPACITY = HEADER_SIZE + 1024L * RECORD_SIZE;
+    private static final long MAX_GROWTH = 64L * 1024 * 1024;
+
+    private final Path file;
+    private final int maxRecords;
+
+    private FileChannel lockChannel;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long committed;
+    private int nextId;
+    private int compactAt;
+    private final Leaderboard index = new Leaderboard();
+
+    /**
+     * Constructs a new LogHighscoreStore keeping at most {@value #DEFAULT_MAX_RECORDS} records
+     * after compaction. The file is not opened until the store is used.
+     *
+     * @param file the log file; created if it does not exist
+     */
+    public LogHighscoreStore(Path file) {
+        this(file, DEFAULT_MAX_RECORDS);
+    }
+
+    /**
+     * Constructs a new LogHighscoreStore.
+     *
+     * @param file       the log file; created if it does not exist
+     * @param maxRecords the number of best records kept by compaction, in addition to the best
+     *                   record of every player
+     */
+    public LogHighscoreStore(Path file, int maxRecords) {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("maxRecords must be positive: " + maxRecords);
+        }
+        this.file = file;
+        this.maxRecords = maxRecords;
+        this.compactAt = maxRecords + maxRecords / 4;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        try {
+            lock();
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size == 0) {
+                map(INITIAL_CAPACITY);
+                mapped.putInt(0, MAGIC).putInt(4, VERSION).putLong(COMMITTED_OFFSET, HEADER_SIZE)
+                        .putInt(NEXT_ID_OFFSET, 1);
+                mapped.force();
+                committed = HEADER_SIZE;
+                nextId = 1;
+            } else {
+                if (size < HEADER_SIZE) {
+                    throw new IOException("Not a highscore log: " + file);
+                }
+                map(size);
+                readLog();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes the lock file of the log, unless this store holds it already. The lock is kept
+     * while compaction replaces the log.
+     *
+     * @throws IOException if another store or process has the log open
+     */
+    private void lock() throws IOException {
+        if (lockChannel != null) {
+            return;
+        }
+        Path lockFile = file.resolveSibling(file.getFileName() + LOCK_SUFFIX);
+        FileChannel locking = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (locking.tryLock() == null) {
+                throw new IOException("Highscore log is in use by another process: " + file);
+            }
+        } catch (OverlappingFileLockException e) {
+            locking.close();
+            throw new IOException("Highscore log is already open: " + file, e);
+        } catch (IOException e) {
+            locking.close();
+            throw e;
+        }
+        lockChannel = locking;
+    }
+
+    /**
+     * Checks the header and loads every committed record into the index.
+     *
+     * @throws IOException if the file is not a highscore log
+     */
+    private void readLog() throws IOException {
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a highscore log: " + file);
+        }
+        int version = mapped.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported highscore log version " + version + ": " + file);
+        }
+        long end = mapped.getLong(COMMITTED_OFFSET);
+        if (end < HEADER_SIZE || end > mapped.capacity() || (end - HEADER_SIZE) % RECORD_SIZE != 0) {
+            throw new IOException("Corrupt highscore log header: " + file);
+        }
+
+        committed = HEADER_SIZE;
+        int highestId = 0;
+        while (committed < end) {
+            GameRecord record = readRecord((int) committed);
+            if (record == null) {
+                System.err.println("Corrupt highscore record at offset " + committed + " in " + file
+                        + ", ignoring the rest of the log");
+                break;
+            }
+            index.insert(record);
+            highestId = Math.max(highestId, record.getPlayerId());
+            committed += RECORD_SIZE;
+        }
+        // The committed length may have reached the disk without the next id, never the other way round
+        nextId = Math.max(mapped.getInt(NEXT_ID_OFFSET), highestId + 1);
+        if (committed != end) {
+            mapped.putLong(COMMITTED_OFFSET, committed);
+            mapped.force();
+        }
+    }
+
+    @Override
+    public synchronized List<GameRecord> append(List<GameRecord> records) throws IOException {
+        open();
+        long end = committed + (long) records.size() * RECORD_SIZE;
+        if (end > mapped.capacity()) {
+            long capacity = mapped.capacity();
+            while (capacity < end) {
+                capacity += Math.min(capacity, MAX_GROWTH);
+            }
+            map(capacity);
+        }
+
+        ArrayList<GameRecord> saved = new ArrayList<>(records.size());
+        int position = (int) committed;
+        int id = nextId;
+        for (GameRecord record : records) {
+            GameRecord stored = new GameRecord(id++, truncate(record.getPlayerName()),
+                    record.getBasketsCollected(), record.getLevelsCleared());
+            writeRecord(position, stored);
+            saved.add(stored);
+            position += RECORD_SIZE;
+        }
+        mapped.force((int) committed, position - (int) committed);
+        mapped.putLong(COMMITTED_OFFSET, position).putInt(NEXT_ID_OFFSET, id);
+        mapped.force(0, HEADER_SIZE);
+
+        committed = position;
+        nextId = id;
+        for (GameRecord record : saved) {
+            index.insert(record);
+        }
+        if (index.size() > compactAt) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // The batch is committed; reporting it as failed would make the caller write it again
+                System.err.println("Could not compact highscore log " + file + ": " + e.getMessage());
+                e.printStackTrace();
+                compactAt = index.size() + maxRecords / 4;
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public synchronized List<GameRecord> top(int limit) throws IOException {
+        open();
+        return index.top(limit);
+    }
+
+    @Override
+    public synchronized List<GameRecord> page(GameRecord after, int size) throws IOException {
+        open();
+        return index.after(after, size);
+    }
+
+    @Override
+    public synchronized int rank(String playerName) throws IOException {
+        open();
+        return index.rankOf(playerName);
+    }
+
+    @Override
+    public synchronized boolean isEmpty() throws IOException {
+        open();
+        return index.size() == 0;
+    }
+
+    /**
+     * Gets the number of records in the log.
+     *
+     * @return the record count
+     * @throws IOException if the log cannot be opened
+     */
+    public synchronized int size() throws IOException {
+        open();
+        return index.size();
+    }
+
+    /**
+     * Rewrites the log with only the best {@code maxRecords} records and the best record of
+     * every player. The new file replaces the old one atomically and keeps the next id, so the
+     * ids of dropped records are not handed out again; if it cannot be written or moved into
+     * place, the old log is kept and stays open.
+     *
+     * @throws IOException if the new log cannot be written
+     */
+    public synchronized void compact() throws IOException {
+        open();
+        ArrayList<GameRecord> kept = new ArrayList<>();
+        int count = 0;
+        for (GameRecord record : index.top(Integer.MAX_VALUE)) {
+            if (count++ < maxRecords || index.bestOf(record.getPlayerName()) == record) {
+                kept.add(record);
+            }
+        }
+        kept.sort((a, b) -> Integer.compare(a.getPlayerId(), b.getPlayerId()));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        long size = HEADER_SIZE + (long) kept.size() * RECORD_SIZE;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+            target.order(ByteOrder.LITTLE_ENDIAN);
+            target.putInt(0, MAGIC).putInt(4, VERSION).putLong(COMMITTED_OFFSET, size)
+                    .putInt(NEXT_ID_OFFSET, nextId);
+            int position = HEADER_SIZE;
+            for (GameRecord record : kept) {
+                writeRecord(target, position, record);
+                position += RECORD_SIZE;
+            }
+            target.force();
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+
+        unmap();
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Some platforms refuse to replace a file that is still mapped; keep the old log
+            deleteQuietly(temp);
+            throw e;
+        } finally {
+            open();
+        }
+        compactAt = Math.max(maxRecords, index.size()) + maxRecords / 4;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        unmap();
+        if (lockChannel != null) {
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            lockChannel = null;
+        }
+    }
+
+    /**
+     * Closes the log and forgets its records, but keeps the lock file.
+     */
+    private void unmap() {
+        if (channel != null) {
+            try {
+                if (mapped != null) {
+                    mapped.force();
+                }
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        channel = null;
+        mapped = null;
+        index.clear();
+        nextId = 0;
+    }
+
+    /**
+     * Maps the first {@code size} bytes of the file, growing it if needed.
+     *
+     * @param size the size of the mapping
+     * @throws IOException if the file cannot be mapped
+     */
+    private void map(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Highscore log is too large: " + file);
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void writeRecord(int position, GameRecord record) {
+        writeRecord(mapped, position, record);
+    }
+
+    /**
+     * Writes one record and its checksum.
+     *
+     * @param buffer   the mapped log
+     * @param position the offset of the record
+     * @param record   the record to write
+     */
+    private static void writeRecord(ByteBuffer buffer, int position, GameRecord record) {
+        byte[] name = record.getPlayerName() == null ? new byte[0]
+                : record.getPlayerName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer slot = buffer.slice(position, RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        slot.putInt(record.getPlayerId())
+                .putInt(record.getBasketsCollected())
+                .putInt(record.getLevelsCleared())
+                .putShort((short) name.length)
+                .put(name)
+                .put(new byte[MAX_NAME_BYTES - name.length]);
+        CRC32 crc = new CRC32();
+        crc.update(slot.flip());
+        buffer.putInt(position + CRC_OFFSET, (int) crc.getValue());
+    }
+
+    /**
+     * Reads one record and checks its checksum.
+     *
+     * @param position the offset of the record
+     * @return the record, or null if it is corrupt
+     */
+    private GameRecord readRecord(int position) {
+        ByteBuffer slot = mapped.slice(position, CRC_OFFSET);
+        CRC32 crc = new CRC32();
+        crc.update(slot);
+        if ((int) crc.getValue() != mapped.getInt(position + CRC_OFFSET)) {
+            return null;
+        }
+        int nameLength = mapped.getShort(position + 12);
+        if (nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+            return null;
+        }
+        byte[] name = new byte[nameLength];
+        mapped.get(position + NAME_OFFSET, name);
+        return new GameRecord(mapped.getInt(position), new String(name, StandardCharsets.UTF_8),
+                mapped.getInt(position + 4), mapped.getInt(position + 8));
+    }
+
+    /**
+     * Cuts a name to at most {@value #MAX_NAME_BYTES} bytes of UTF-8, at a character boundary.
+     *
+     * @param name the player name
+     * @return the name as it will be stored
+     */
+    private static String truncate(String name) {
+        if (name == null) {
+            return "";
+        }
+        if (name.length() * 3 <= MAX_NAME_BYTES) {
+            return name;
+        }
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer in = CharBuffer.wrap(name);
+        encoder.encode(in, ByteBuffer.allocate(MAX_NAME_BYTES), true);
+        return name.substring(0, in.position());
+    }
+}
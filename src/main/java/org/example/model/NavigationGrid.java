@@ -0,0 +1,318 @@
+package org.example.model;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * A flow field over a level that tells a chasing ranger which way to step towards a target.
+ *
+ * <p>
+ * The world is divided into square cells. A cell is walkable if an agent standing anywhere in
+ * it stays inside the world and touches no obstacle, so an agent can move in a straight line
+ * from any point of a walkable cell to any point of a neighbouring walkable cell. The walkable
+ * cells are computed once from the obstacles. A breadth-first search from the target's cell
+ * then stores, for every reachable cell, the direction of the neighbour one step closer to the
+ * target, and steering an agent is a single array lookup however many agents there are.
+ * </p>
+ *
+ * <p>
+ * A search is only started when the target has entered another cell, and it runs in slices of
+ * at most a given number of cells per {@link #advance(int)}, into a second buffer. Agents keep
+ * following the last complete field until the new one is swapped in, and a target that moves
+ * on during a search is picked up by the next one, so the work per tick stays bounded on maps
+ * of any size. Cells are marked with the number of the search that reached them instead of
+ * being cleared, so starting a search does not touch the whole grid either.
+ * </p>
+ */
+public final class NavigationGrid {
+    /** The direction of a cell that is blocked or not connected to the target. */
+    public static final int NONE = -1;
+
+    /** Step up, towards smaller y. */
+    public static final int UP = 0;
+
+    /** Step down, towards larger y. */
+    public static final int DOWN = 1;
+
+    /** Step left, towards smaller x. */
+    public static final int LEFT = 2;
+
+    /** Step right, towards larger x. */
+    public static final int RIGHT = 3;
+
+    /** The direction of the cell holding the target. */
+    public static final int GOAL = 4;
+
+    private static final int[] STEP_X = {0, 0, -1, 1};
+    private static final int[] STEP_Y = {-1, 1, 0, 0};
+
+    /** The direction leading back from a neighbour to the cell it was reached from. */
+    private static final byte[] BACK = {DOWN, UP, RIGHT, LEFT};
+
+    private final int cellSize;
+    private final int cellShift;
+    private final int agentWidth, agentHeight;
+    private final int columns, rows;
+    private final boolean[] blocked;
+
+    /** The complete field that agents follow, and the one being searched. */
+    private byte[] flow;
+    private byte[] pending;
+
+    /** The search that set each cell's direction; other cells have no direction. */
+    private int[] flowStamps;
+    private int[] pendingStamps;
+    private int flowSearch = -1;
+    private int pendingSearch;
+
+    private int[] queue;
+    private int queueHead, queueTail;
+    private boolean searching;
+    private int flowTargetCell = -1;
+    private int pendingTargetCell = -1;
+    private int requestedTargetCell = -1;
+    private long searches;
+
+    /**
+     * Constructs a new NavigationGrid with no obstacles and no target.
+     *
+     * @param worldWidth  the width of the world in pixels
+     * @param worldHeight the height of the world in pixels
+     * @param cellSize    the edge length of a cell in pixels, a power of two
+     * @param agentWidth  the width of the agents that navigate the grid
+     * @param agentHeight the height of the agents that navigate the grid
+     */
+    public NavigationGrid(int worldWidth, int worldHeight, int cellSize, int agentWidth, int agentHeight) {
+        if (cellSize <= 0 || worldWidth <= 0 || worldHeight <= 0) {
+            throw new IllegalArgumentException("World and cell sizes must be positive");
+        }
+        if (Integer.bitCount(cellSize) != 1) {
+            throw new IllegalArgumentException("Cell size must be a power of two: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.cellShift = Integer.numberOfTrailingZeros(cellSize);
+        this.agentWidth = agentWidth;
+        this.agentHeight = agentHeight;
+        this.columns = Math.ceilDiv(worldWidth, cellSize);
+        this.rows = Math.ceilDiv(worldHeight, cellSize);
+        int cells = Math.multiplyExact(columns, rows);
+        blocked = new boolean[cells];
+        flow = new byte[cells];
+        flowStamps = new int[cells];
+
+        // A cell is blocked if an agent at its far corner would leave the world
+        int maxX = worldWidth - agentWidth - cellSize + 1;
+        int maxY = worldHeight - agentHeight - cellSize + 1;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                blocked[r * columns + c] = c * cellSize > maxX || r * cellSize > maxY;
+            }
+        }
+    }
+
+    /**
+     * Marks the cells an agent would collide with any of the given obstacles in as blocked.
+     * Obstacles do not move, so this is done once per level.
+     *
+     * @param obstacles the obstacles of the level
+     */
+    public void addObstacles(List<Obstacle> obstacles) {
+        for (int i = 0; i < obstacles.size(); i++) {
+            Rectangle b = obstacles.get(i).getBounds();
+            addObstacle(b.x, b.y, b.width, b.height);
+        }
+    }
+
+    /**
+     * Marks the cells an agent would collide with an obstacle in as blocked.
+     *
+     * @param x      the x-coordinate of the obstacle
+     * @param y      the y-coordinate of the obstacle
+     * @param width  the width of the obstacle
+     * @param height the height of the obstacle
+     */
+    public void addObstacle(int x, int y, int width, int height) {
+        if (width > 0 && height > 0) {
+            // An agent anywhere in the cell covers the cell origin plus the agent size plus cellSize - 1
+            int c0 = Math.max(0, Math.ceilDiv(x - agentWidth - cellSize + 2, cellSize));
+            int c1 = Math.min(columns - 1, Math.floorDiv(x + width - 1, cellSize));
+            int r0 = Math.max(0, Math.ceilDiv(y - agentHeight - cellSize + 2, cellSize));
+            int r1 = Math.min(rows - 1, Math.floorDiv(y + height - 1, cellSize));
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    blocked[r * columns + c] = true;
+                }
+            }
+        }
+        flowSearch = ++pendingSearch;
+        flowTargetCell = -1;
+        pendingTargetCell = -1;
+        requestedTargetCell = -1;
+        searching = false;
+    }
+
+    /**
+     * Sets the position agents are steered towards. A new search starts once no search is
+     * running and the position is in another cell than the target of the current field.
+     *
+     * @param x the x-coordinate of the target
+     * @param y the y-coordinate of the target
+     */
+    public void setTarget(int x, int y) {
+        int cell = cellIndex(x, y);
+        if (cell >= 0) {
+            requestedTargetCell = cell;
+        }
+    }
+
+    /**
+     * Starts a search from the requested target cell.
+     */
+    private void startSearch() {
+        if (queue == null) {
+            // Grids only used for isWalkable never search, so the search buffers are made on demand
+            pending = new byte[blocked.length];
+            pendingStamps = new int[blocked.length];
+            queue = new int[blocked.length];
+        }
+        int cell = requestedTargetCell;
+        pendingSearch++;
+        pending[cell] = GOAL;
+        pendingStamps[cell] = pendingSearch;
+        queue[0] = cell;
+        queueHead = 0;
+        queueTail = 1;
+        pendingTargetCell = cell;
+        searching = true;
+    }
+
+    /**
+     * Continues the search for the target, starting one if the target has moved to another
+     * cell, and makes its field the one agents follow once it is complete.
+     *
+     * @param budget the largest number of cells to expand
+     * @return true if the field agents follow leads to the current target
+     */
+    public boolean advance(int budget) {
+        if (!searching) {
+            if (requestedTargetCell < 0 || requestedTargetCell == flowTargetCell) {
+                return flowTargetCell >= 0;
+            }
+            startSearch();
+        }
+        int search = pendingSearch;
+        int limit = queueHead + Math.min(budget, queue.length);
+        while (queueHead < queueTail && queueHead < limit) {
+            int cell = queue[queueHead++];
+            int c = cell % columns;
+            int r = cell / columns;
+            for (int d = 0; d < 4; d++) {
+                int nc = c + STEP_X[d];
+                int nr = r + STEP_Y[d];
+                if (nc < 0 || nr < 0 || nc >= columns || nr >= rows) {
+                    continue;
+                }
+                int next = nr * columns + nc;
+                if (!blocked[next] && pendingStamps[next] != search) {
+                    pending[next] = BACK[d];
+                    pendingStamps[next] = search;
+                    queue[queueTail++] = next;
+                }
+            }
+        }
+        if (queueHead < queueTail) {
+            return false;
+        }
+        byte[] done = pending;
+        pending = flow;
+        flow = done;
+        int[] doneStamps = pendingStamps;
+        pendingStamps = flowStamps;
+        flowStamps = doneStamps;
+        flowSearch = search;
+        flowTargetCell = pendingTargetCell;
+        pendingTargetCell = -1;
+        searching = false;
+        searches++;
+        return flowTargetCell == requestedTargetCell;
+    }
+
+    /**
+     * Gets the direction an agent should step in from the given position.
+     *
+     * @param x the x-coordinate of the agent
+     * @param y the y-coordinate of the agent
+     * @return one of {@link #UP}, {@link #DOWN}, {@link #LEFT} and {@link #RIGHT}, {@link #GOAL}
+     * if the agent is in the target's cell, or {@link #NONE} if the field does not cover the position
+     */
+    public int directionAt(int x, int y) {
+        int cell = cellIndex(x, y);
+        return cell < 0 || flowStamps[cell] != flowSearch ? NONE : flow[cell];
+    }
+
+    /**
+     * Checks whether an agent anywhere in the cell of the given position is clear of obstacles
+     * and of the world's edges.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return true if the cell is walkable
+     */
+    public boolean isWalkable(int x, int y) {
+        int cell = cellIndex(x, y);
+        return cell >= 0 && !blocked[cell];
+    }
+
+    private int cellIndex(int x, int y) {
+        if (x < 0 || y < 0) {
+            return -1;
+        }
+        int c = x >> cellShift;
+        int r = y >> cellShift;
+        return c < columns && r < rows ? r * columns + c : -1;
+    }
+
+    /**
+     * Gets the x-coordinate of the origin of the cell next to a position.
+     *
+     * @param x         the x-coordinate of the position
+     * @param direction the direction of the neighbouring cell
+     * @return the x-coordinate of the neighbour's top left corner
+     */
+    public int neighbourX(int x, int direction) {
+        return ((x >> cellShift) + STEP_X[direction]) << cellShift;
+    }
+
+    /**
+     * Gets the y-coordinate of the origin of the cell next to a position.
+     *
+     * @param y         the y-coordinate of the position
+     * @param direction the direction of the neighbouring cell
+     * @return the y-coordinate of the neighbour's top left corner
+     */
+    public int neighbourY(int y, int direction) {
+        return ((y >> cellShift) + STEP_Y[direction]) << cellShift;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Gets the number of cells of the grid.
+     *
+     * @return the number of columns times the number of rows
+     */
+    public int getCellCount() {
+        return blocked.length;
+    }
+
+    /**
+     * Gets the number of searches completed since the grid was created.
+     *
+     * @return the search count
+     */
+    public long getSearchCount() {
+        return searches;
+    }
+}
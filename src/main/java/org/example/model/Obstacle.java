@@ -2,9 +2,7 @@ package org.example.model;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
-import javax.imageio.ImageIO;
+import org.example.assets.SpriteCache;
 
 /**
  * Represents an obstacle within the game level.
@@ -14,6 +12,7 @@ public class Obstacle {
     private int x, y;
     private int width, height;
     private String type;
+    private final int typeTag;
     private Rectangle bounds;
     private BufferedImage obstacleImage;
 
@@ -28,16 +27,11 @@ public class Obstacle {
         this.type = type;
         this.x = x;
         this.y = y;
-        loadObstacleImage(type);
-
-        if (type.equals("Tree")) {
-            width = 50;
-            height = 50;
-        } else if (type.equals("Mountain")) {
-            width = 100;
-            height = 100;
-        }
+        typeTag = LevelData.obstacleTag(type);
+        width = LevelData.obstacleSize(typeTag);
+        height = width;
         bounds = new Rectangle(x, y, width, height);
+        loadObstacleImage(type);
     }
 
     private void loadObstacleImage(String type) {
@@ -50,16 +44,7 @@ public class Obstacle {
         }
 
         if (imagePath != null) {
-            try (InputStream is = getClass().getResourceAsStream(imagePath)) {
-                if (is != null) {
-                    obstacleImage = ImageIO.read(is);
-                } else {
-                    System.err.println("Error: Image not found for obstacle type: " + type);
-                }
-            } catch (IOException e) {
-                System.err.println("Error loading image for obstacle type: " + type);
-                e.printStackTrace();
-            }
+            obstacleImage = SpriteCache.getSprite(imagePath, width, height);
         }
     }
     /**
@@ -69,7 +54,7 @@ public class Obstacle {
      */
     public void draw(Graphics g) {
         if (obstacleImage != null) {
-            g.drawImage(obstacleImage, x, y, width, height, null);
+            g.drawImage(obstacleImage, x, y, null);
         } else {
             // Fallback: draw a rectangle if the image fails to load
             if (type.equals("Tree")) {
@@ -88,4 +73,13 @@ public class Obstacle {
     public Rectangle getBounds() {
         return bounds;
     }
+
+    /**
+     * Gets the type of the obstacle.
+     *
+     * @return the type tag, one of the {@link LevelData} obstacle constants
+     */
+    public int getTypeTag() {
+        return typeTag;
+    }
 }
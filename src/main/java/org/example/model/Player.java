@@ -3,9 +3,7 @@ package org.example.model;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import java.io.IOException;
-import java.io.InputStream;
+import org.example.assets.SpriteCache;
 
 /**
  * Represents the player character in the game (Yogi Bear).
@@ -19,6 +17,12 @@ public class Player {
     /** The y-coordinate of the player on the game board. */
     private int y;
 
+    /** The x-coordinate of the player before the last update, used to interpolate drawing. */
+    private int prevX;
+
+    /** The y-coordinate of the player before the last update, used to interpolate drawing. */
+    private int prevY;
+
     /** The change in x-coordinate for player movement. */
     private int dx;
 
@@ -50,25 +54,18 @@ public class Player {
     public Player(int x, int y, Level level) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.prevY = y;
         this.level = level;
         bounds = new Rectangle(x, y, 50, 50); // Example size: 50x50 pixels
         loadImage();
     }
 
     /**
-     * Loads the image representing the player character.
+     * Loads the shared image representing the player character from the sprite cache.
      */
     private void loadImage() {
-        try {
-            InputStream is = getClass().getResourceAsStream("/images/yogi.png");
-            if (is != null) {
-                image = ImageIO.read(is);
-            } else {
-                System.err.println("Image not found!");
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        image = SpriteCache.getSprite("/images/yogi.png", bounds.width, bounds.height);
     }
 
     /**
@@ -76,12 +73,14 @@ public class Player {
      * ensuring no collisions with obstacles or out-of-bounds movement.
      */
     public void update() {
+        prevX = x;
+        prevY = y;
         int nextX = x + dx;
         int nextY = y + dy;
-        Rectangle nextBounds = new Rectangle(nextX, nextY, bounds.width, bounds.height);
 
         // Check collisions and boundaries
-        if (!level.checkObstacleCollision(nextBounds) && withinBounds(nextBounds)) {
+        if (withinBounds(nextX, nextY, bounds.width, bounds.height)
+                && !level.checkObstacleCollision(nextX, nextY, bounds.width, bounds.height)) {
             x = nextX;
             y = nextY;
             bounds.setLocation(x, y);
@@ -89,13 +88,16 @@ public class Player {
     }
 
     /**
-     * Checks if the specified rectangle is within the boundaries of the game board.
+     * Checks if the specified area is within the boundaries of the level's world.
      *
-     * @param rect the rectangle to check
-     * @return true if the rectangle is within bounds; false otherwise
+     * @param x      the x-coordinate of the area
+     * @param y      the y-coordinate of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @return true if the area is within bounds; false otherwise
      */
-    private boolean withinBounds(Rectangle rect) {
-        return rect.x >= 0 && rect.x + rect.width <= 800 && rect.y >= 0 && rect.y + rect.height <= 600;
+    private boolean withinBounds(int x, int y, int width, int height) {
+        return x >= 0 && x + width <= level.getWidth() && y >= 0 && y + height <= level.getHeight();
     }
 
     /**
@@ -104,12 +106,38 @@ public class Player {
      * @param g the Graphics context used for drawing
      */
     public void draw(Graphics g) {
+        draw(g, 1.0);
+    }
+
+    /**
+     * Draws the player between its previous and current position.
+     *
+     * @param g     the Graphics context used for drawing
+     * @param alpha the fraction of a tick elapsed since the last update, from 0 to 1
+     */
+    public void draw(Graphics g, double alpha) {
+        int drawX = prevX + (int) Math.round((x - prevX) * alpha);
+        int drawY = prevY + (int) Math.round((y - prevY) * alpha);
+        drawSprite(g, image, drawX, drawY, bounds.width, bounds.height);
+    }
+
+    /**
+     * Draws a player sprite, or an orange rectangle if the image is not loaded.
+     *
+     * @param g      the Graphics context
+     * @param image  the player image, or null
+     * @param x      the x-coordinate to draw at
+     * @param y      the y-coordinate to draw at
+     * @param width  the player width
+     * @param height the player height
+     */
+    static void drawSprite(Graphics g, BufferedImage image, int x, int y, int width, int height) {
         if (image != null) {
-            g.drawImage(image, x, y, bounds.width, bounds.height, null);
+            g.drawImage(image, x, y, null);
         } else {
             // Fallback to an orange rectangle if the image is not loaded
             g.setColor(Color.ORANGE);
-            g.fillRect(x, y, bounds.width, bounds.height);
+            g.fillRect(x, y, width, height);
         }
     }
 
@@ -119,7 +147,16 @@ public class Player {
      * @param e the KeyEvent triggered by a key press
      */
     public void keyPressed(KeyEvent e) {
-        switch (e.getKeyCode()) {
+        keyPressed(e.getKeyCode());
+    }
+
+    /**
+     * Sets the player's movement direction for a pressed key.
+     *
+     * @param keyCode the virtual key code of the pressed key
+     */
+    public void keyPressed(int keyCode) {
+        switch (keyCode) {
             case KeyEvent.VK_W, KeyEvent.VK_UP -> dy = -speed;
             case KeyEvent.VK_S, KeyEvent.VK_DOWN -> dy = speed;
             case KeyEvent.VK_A, KeyEvent.VK_LEFT -> dx = -speed;
@@ -127,13 +164,33 @@ public class Player {
         }
     }
 
+    /**
+     * Sets the player's movement per tick directly, bypassing keyboard input.
+     *
+     * @param dx the change in x-coordinate per tick
+     * @param dy the change in y-coordinate per tick
+     */
+    public void setDirection(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
     /**
      * Handles key release events to stop the player's movement in a specific direction.
      *
      * @param e the KeyEvent triggered by a key release
      */
     public void keyReleased(KeyEvent e) {
-        switch (e.getKeyCode()) {
+        keyReleased(e.getKeyCode());
+    }
+
+    /**
+     * Stops the player's movement in the direction of a released key.
+     *
+     * @param keyCode the virtual key code of the released key
+     */
+    public void keyReleased(int keyCode) {
+        switch (keyCode) {
             case KeyEvent.VK_W, KeyEvent.VK_S, KeyEvent.VK_UP, KeyEvent.VK_DOWN -> dy = 0;
             case KeyEvent.VK_A, KeyEvent.VK_D, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT -> dx = 0;
         }
@@ -170,6 +227,8 @@ public class Player {
     public void resetPosition() {
         x = 50;
         y = 50;
+        prevX = x;
+        prevY = y;
         bounds.setLocation(x, y);
     }
 
@@ -181,12 +240,35 @@ public class Player {
         return y;
     }
 
+    int getPreviousX() {
+        return prevX;
+    }
+
+    int getPreviousY() {
+        return prevY;
+    }
+
+    BufferedImage getImage() {
+        return image;
+    }
+
     public void setPosition(int x, int y) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.prevY = y;
         bounds.setLocation(x, y);
     }
 
+    /**
+     * Gets the distance the player moves per tick while a direction key is held.
+     *
+     * @return the player's speed in pixels per tick
+     */
+    public int getSpeed() {
+        return speed;
+    }
+
     /**
      * Gets the width of the player.
      *
@@ -2,18 +2,24 @@ package org.example.model;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import java.io.IOException;
-import java.io.InputStream;
+import org.example.assets.SpriteCache;
 
 /**
  * Represents a ranger enemy that moves within the game level.
+ *
+ * <p>
+ * A ranger either patrols back and forth along one axis, turning at walls and obstacles, or
+ * chases the player by following the level's {@link NavigationGrid}. Where the grid has no
+ * direction for the ranger's position it heads straight for the player instead.
+ * </p>
  */
 public class Ranger {
     private int x, y;
+    private int prevX, prevY;
     private int width = 40, height = 40;
     private Rectangle bounds;
     private String movementPattern;
+    private final int pattern;
     private int speed = 2;
     private int direction = 1;
     private Level level;
@@ -24,59 +30,57 @@ public class Ranger {
      *
      * @param x                the initial x-coordinate
      * @param y                the initial y-coordinate
-     * @param movementPattern  the movement pattern ("Horizontal" or "Vertical")
+     * @param movementPattern  the movement pattern ("Horizontal", "Vertical" or "Chase")
      * @param level            the current Level instance
      */
     public Ranger(int x, int y, String movementPattern, Level level) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.prevY = y;
         this.movementPattern = movementPattern;
+        this.pattern = LevelData.patternTag(movementPattern);
         this.level = level;
         bounds = new Rectangle(x, y, width, height);
         loadRangerImage();
     }
 
     /**
-     * Loads the ranger image from the resources.
+     * Loads the shared ranger image from the sprite cache.
      */
     private void loadRangerImage() {
-        try {
-            InputStream is = getClass().getResourceAsStream("/images/ranger.png");
-            if (is != null) {
-                rangerImage = ImageIO.read(is);
-            } else {
-                System.err.println("Error: Ranger image not found!");
-            }
-        } catch (IOException e) {
-            System.err.println("Error loading ranger image.");
-            e.printStackTrace();
-        }
+        rangerImage = SpriteCache.getSprite("/images/ranger.png", width, height);
     }
 
     /**
      * Updates the ranger's position based on its movement pattern and checks for collisions.
      */
     public void update() {
+        prevX = x;
+        prevY = y;
+        if (pattern == LevelData.CHASE) {
+            chase();
+            bounds.setLocation(x, y);
+            return;
+        }
         int nextX = x;
         int nextY = y;
 
-        if (movementPattern.equals("Horizontal")) {
+        if (pattern == LevelData.HORIZONTAL) {
             nextX += speed * direction;
-            if (nextX <= 0 || nextX + width >= 800) {
+            if (nextX <= 0 || nextX + width >= level.getWidth()) {
                 direction *= -1;
-                nextX = Math.max(0, Math.min(800 - width, nextX));
+                nextX = Math.max(0, Math.min(level.getWidth() - width, nextX));
             }
-        } else if (movementPattern.equals("Vertical")) {
+        } else if (pattern == LevelData.VERTICAL) {
             nextY += speed * direction;
-            if (nextY <= 0 || nextY + height >= 600) {
+            if (nextY <= 0 || nextY + height >= level.getHeight()) {
                 direction *= -1;
-                nextY = Math.max(0, Math.min(600 - height, nextY));
+                nextY = Math.max(0, Math.min(level.getHeight() - height, nextY));
             }
         }
 
-        Rectangle nextBounds = new Rectangle(nextX, nextY, width, height);
-
-        if (level.checkObstacleCollision(nextBounds)) {
+        if (level.checkObstacleCollision(nextX, nextY, width, height)) {
             direction *= -1;
         } else {
             x = nextX;
@@ -86,14 +90,83 @@ public class Ranger {
         bounds.setLocation(x, y);
     }
 
+    /**
+     * Moves one step towards the level's chase target. Within walkable cells the step follows
+     * the navigation grid and cannot hit an obstacle; elsewhere the ranger moves straight at
+     * the target, sliding along an axis if the direct step is blocked.
+     */
+    private void chase() {
+        NavigationGrid navigation = level.getNavigation();
+        int step = navigation == null ? NavigationGrid.NONE : navigation.directionAt(x, y);
+        if (step != NavigationGrid.NONE && step != NavigationGrid.GOAL) {
+            x += clamp(navigation.neighbourX(x, step) - x, speed);
+            y += clamp(navigation.neighbourY(y, step) - y, speed);
+            return;
+        }
+        int dx = clamp(level.getChaseTargetX() - x, speed);
+        int dy = clamp(level.getChaseTargetY() - y, speed);
+        if (tryMove(x + dx, y + dy) || tryMove(x + dx, y)) {
+            return;
+        }
+        tryMove(x, y + dy);
+    }
+
+    /**
+     * Moves to the given position if it is inside the world and clear of obstacles.
+     *
+     * @param nextX the x-coordinate to move to
+     * @param nextY the y-coordinate to move to
+     * @return true if the ranger moved
+     */
+    private boolean tryMove(int nextX, int nextY) {
+        if ((nextX == x && nextY == y) || nextX < 0 || nextY < 0 || nextX + width > level.getWidth()
+                || nextY + height > level.getHeight()
+                || level.checkObstacleCollision(nextX, nextY, width, height)) {
+            return false;
+        }
+        x = nextX;
+        y = nextY;
+        return true;
+    }
+
+    private static int clamp(int delta, int limit) {
+        return Math.max(-limit, Math.min(limit, delta));
+    }
+
     /**
      * Draws the ranger on the provided Graphics context.
      *
      * @param g the Graphics context
      */
     public void draw(Graphics g) {
-        if (rangerImage != null) {
-            g.drawImage(rangerImage, x, y, width, height, null);
+        draw(g, 1.0);
+    }
+
+    /**
+     * Draws the ranger between its previous and current position.
+     *
+     * @param g     the Graphics context
+     * @param alpha the fraction of a tick elapsed since the last update, from 0 to 1
+     */
+    public void draw(Graphics g, double alpha) {
+        int drawX = prevX + (int) Math.round((x - prevX) * alpha);
+        int drawY = prevY + (int) Math.round((y - prevY) * alpha);
+        drawSprite(g, rangerImage, drawX, drawY, width, height);
+    }
+
+    /**
+     * Draws a ranger sprite, or a red rectangle if the image is not loaded.
+     *
+     * @param g      the Graphics context
+     * @param image  the ranger image, or null
+     * @param x      the x-coordinate to draw at
+     * @param y      the y-coordinate to draw at
+     * @param width  the ranger width
+     * @param height the ranger height
+     */
+    static void drawSprite(Graphics g, BufferedImage image, int x, int y, int width, int height) {
+        if (image != null) {
+            g.drawImage(image, x, y, null);
         } else {
             g.setColor(Color.RED);
             g.fillRect(x, y, width, height);
@@ -117,4 +190,42 @@ public class Ranger {
         return y;
     }
 
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the movement pattern of the ranger.
+     *
+     * @return the pattern tag, one of the {@link LevelData} pattern constants
+     */
+    public int getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Checks whether the ranger chases the player rather than patrolling.
+     *
+     * @return true for the "Chase" movement pattern
+     */
+    public boolean isChasing() {
+        return pattern == LevelData.CHASE;
+    }
+
+    int getPreviousX() {
+        return prevX;
+    }
+
+    int getPreviousY() {
+        return prevY;
+    }
+
+    BufferedImage getImage() {
+        return rangerImage;
+    }
+
 }
@@ -0,0 +1,323 @@
+package org.example.model;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid index over axis-aligned rectangles, used to answer collision queries
+ * without scanning every entity of a level.
+ *
+ * <p>
+ * Entities are identified by their position in the list the grid was built from. The grid
+ * keeps its own copy of their bounds in primitive arrays and stores the cell contents in a
+ * compressed layout (one array of cell offsets and one array of entity ids), so it can be
+ * rebuilt every tick for moving entities and queried without any allocation.
+ * </p>
+ */
+public final class SpatialGrid {
+    /** The largest number of cells per stored entity before the cell size is increased. */
+    private static final int MAX_CELLS_PER_ENTITY = 4;
+
+    /** The smallest number of cells a grid may use regardless of its size. */
+    private static final int MIN_CELL_BUDGET = 4096;
+
+    private final int preferredCellSize;
+    private int cellSize;
+    private int originX, originY;
+    private int columns, rows;
+
+    private int count;
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private int[] widths = new int[0];
+    private int[] heights = new int[0];
+
+    /** Offset of each cell's first entry in {@link #entries}; has one extra trailing element. */
+    private int[] cellStart = new int[1];
+    private int[] cellCursor = new int[0];
+    private int[] entries = new int[0];
+
+    /**
+     * Constructs an empty grid.
+     *
+     * @param cellSize the preferred edge length of a grid cell in pixels
+     */
+    public SpatialGrid(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.preferredCellSize = cellSize;
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Clears the grid and prepares it to receive the given number of entities.
+     * The bounds of each entity must then be supplied with {@link #set} before calling {@link #build()}.
+     *
+     * @param count the number of entities
+     */
+    public void reset(int count) {
+        if (xs.length < count) {
+            int capacity = Math.max(count, xs.length * 2);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+        this.count = count;
+    }
+
+    /**
+     * Sets the bounds of an entity.
+     *
+     * @param id     the entity index, between 0 and the count given to {@link #reset(int)}
+     * @param x      the x-coordinate of the entity
+     * @param y      the y-coordinate of the entity
+     * @param width  the width of the entity
+     * @param height the height of the entity
+     */
+    public void set(int id, int x, int y, int width, int height) {
+        xs[id] = x;
+        ys[id] = y;
+        widths[id] = width;
+        heights[id] = height;
+    }
+
+    /**
+     * Removes an entity from a built grid without rebuilding it. The entity keeps its id and
+     * its cell entries, but never intersects anything again.
+     *
+     * @param id the entity index
+     */
+    public void remove(int id) {
+        widths[id] = 0;
+        heights[id] = 0;
+    }
+
+    /**
+     * Sorts the entities into their cells. Must be called after the bounds have been set
+     * and before the grid is queried.
+     */
+    public void build() {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        int stored = 0;
+        for (int i = 0; i < count; i++) {
+            if (widths[i] <= 0 || heights[i] <= 0) {
+                continue; // empty rectangles never intersect anything
+            }
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i] + widths[i] - 1);
+            maxY = Math.max(maxY, ys[i] + heights[i] - 1);
+            stored++;
+        }
+
+        if (stored == 0) {
+            columns = 0;
+            rows = 0;
+            cellStart[0] = 0;
+            return;
+        }
+
+        cellSize = preferredCellSize;
+        long budget = Math.max(MIN_CELL_BUDGET, (long) stored * MAX_CELLS_PER_ENTITY);
+        while (true) {
+            originX = Math.floorDiv(minX, cellSize);
+            originY = Math.floorDiv(minY, cellSize);
+            long cols = Math.floorDiv(maxX, cellSize) - originX + 1L;
+            long rws = Math.floorDiv(maxY, cellSize) - originY + 1L;
+            if (cols * rws <= budget) {
+                columns = (int) cols;
+                rows = (int) rws;
+                break;
+            }
+            cellSize *= 2;
+        }
+
+        int cells = columns * rows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+            cellCursor = new int[cells];
+        } else {
+            Arrays.fill(cellStart, 0, cells + 1, 0);
+        }
+
+        // Count the entries of every cell, then turn the counts into offsets
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            if (widths[i] <= 0 || heights[i] <= 0) {
+                continue;
+            }
+            int c0 = Math.floorDiv(xs[i], cellSize) - originX;
+            int c1 = Math.floorDiv(xs[i] + widths[i] - 1, cellSize) - originX;
+            int r0 = Math.floorDiv(ys[i], cellSize) - originY;
+            int r1 = Math.floorDiv(ys[i] + heights[i] - 1, cellSize) - originY;
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellStart[r * columns + c + 1]++;
+                    total++;
+                }
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        if (entries.length < total) {
+            entries = new int[Math.max(total, entries.length * 2)];
+        }
+
+        System.arraycopy(cellStart, 0, cellCursor, 0, cells);
+        for (int i = 0; i < count; i++) {
+            if (widths[i] <= 0 || heights[i] <= 0) {
+                continue;
+            }
+            int c0 = Math.floorDiv(xs[i], cellSize) - originX;
+            int c1 = Math.floorDiv(xs[i] + widths[i] - 1, cellSize) - originX;
+            int r0 = Math.floorDiv(ys[i], cellSize) - originY;
+            int r1 = Math.floorDiv(ys[i] + heights[i] - 1, cellSize) - originY;
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    entries[cellCursor[r * columns + c]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given rectangle intersects any entity in the grid.
+     *
+     * @param x      the x-coordinate of the rectangle
+     * @param y      the y-coordinate of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @return true if an entity intersects the rectangle, false otherwise
+     */
+    public boolean intersectsAny(int x, int y, int width, int height) {
+        return firstIntersecting(x, y, width, height, true) >= 0;
+    }
+
+    /**
+     * Finds the entity with the lowest index that intersects the given rectangle,
+     * which is the entity a linear scan over the source list would find first.
+     *
+     * @param x      the x-coordinate of the rectangle
+     * @param y      the y-coordinate of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @return the index of the entity, or -1 if none intersects the rectangle
+     */
+    public int firstIntersecting(int x, int y, int width, int height) {
+        return firstIntersecting(x, y, width, height, false);
+    }
+
+    private int firstIntersecting(int x, int y, int width, int height, boolean any) {
+        if (columns == 0 || width <= 0 || height <= 0) {
+            return -1;
+        }
+        int c0 = Math.max(0, Math.floorDiv(x, cellSize) - originX);
+        int c1 = Math.min(columns - 1, Math.floorDiv(x + width - 1, cellSize) - originX);
+        int r0 = Math.max(0, Math.floorDiv(y, cellSize) - originY);
+        int r1 = Math.min(rows - 1, Math.floorDiv(y + height - 1, cellSize) - originY);
+
+        int first = -1;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                for (int e = cellStart[cell], end = cellStart[cell + 1]; e < end; e++) {
+                    int id = entries[e];
+                    if ((first < 0 || id < first)
+                            && intersects(x, y, width, height, xs[id], ys[id], widths[id], heights[id])) {
+                        if (any) {
+                            return id;
+                        }
+                        first = id;
+                    }
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Finds every entity that intersects the given rectangle, such as the visible part of the
+     * world. Only the cells under the rectangle are visited, and an entity spanning several of
+     * them is reported from the first one, so the cost does not depend on the number of entities
+     * outside the rectangle.
+     *
+     * @param x      the x-coordinate of the rectangle
+     * @param y      the y-coordinate of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @return the indices of the intersecting entities in ascending order, which is the order of the source list
+     */
+    public int[] findIntersecting(int x, int y, int width, int height) {
+        if (columns == 0 || width <= 0 || height <= 0) {
+            return new int[0];
+        }
+        int c0 = Math.max(0, Math.floorDiv(x, cellSize) - originX);
+        int c1 = Math.min(columns - 1, Math.floorDiv(x + width - 1, cellSize) - originX);
+        int r0 = Math.max(0, Math.floorDiv(y, cellSize) - originY);
+        int r1 = Math.min(rows - 1, Math.floorDiv(y + height - 1, cellSize) - originY);
+
+        int[] found = new int[16];
+        int count = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                for (int e = cellStart[cell], end = cellStart[cell + 1]; e < end; e++) {
+                    int id = entries[e];
+                    // The first visited cell of an entity is the one holding its clamped top left corner
+                    if (Math.max(c0, Math.floorDiv(xs[id], cellSize) - originX) == c
+                            && Math.max(r0, Math.floorDiv(ys[id], cellSize) - originY) == r
+                            && intersects(x, y, width, height, xs[id], ys[id], widths[id], heights[id])) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = id;
+                    }
+                }
+            }
+        }
+        found = Arrays.copyOf(found, count);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /**
+     * Gets the number of entities the grid was last built with.
+     *
+     * @return the entity count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Checks whether two rectangles intersect, with the same semantics as
+     * {@link java.awt.Rectangle#intersects(java.awt.Rectangle)} but without needing Rectangle objects.
+     *
+     * @param x1 the x-coordinate of the first rectangle
+     * @param y1 the y-coordinate of the first rectangle
+     * @param w1 the width of the first rectangle
+     * @param h1 the height of the first rectangle
+     * @param x2 the x-coordinate of the second rectangle
+     * @param y2 the y-coordinate of the second rectangle
+     * @param w2 the width of the second rectangle
+     * @param h2 the height of the second rectangle
+     * @return true if the rectangles intersect, false otherwise
+     */
+    public static boolean intersects(int x1, int y1, int w1, int h1, int x2, int y2, int w2, int h2) {
+        if (w1 <= 0 || h1 <= 0 || w2 <= 0 || h2 <= 0) {
+            return false;
+        }
+        w2 += x2;
+        h2 += y2;
+        w1 += x1;
+        h1 += y1;
+        // overflow || intersect, as in java.awt.Rectangle
+        return ((w2 < x2 || w2 > x1) &&
+                (h2 < y2 || h2 > y1) &&
+                (w1 < x1 || w1 > x2) &&
+                (h1 < y1 || h1 > y2));
+    }
+}
@@ -0,0 +1,390 @@
+package org.example.model;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * An immutable copy of everything needed to draw one simulation step.
+ *
+ * <p>
+ * The simulation thread captures a snapshot after every step and publishes it, and the
+ * rendering thread draws the most recently published one. Since nothing in a snapshot
+ * changes after it is captured, drawing never races with the simulation. Obstacles and
+ * baskets do not move, so their arrays are shared between snapshots until the level's
+ * lists change; only the ranger and player positions are copied on every step.
+ * </p>
+ *
+ * <p>
+ * The drawing is split into a static part, the obstacles, which a renderer can cache for as
+ * long as {@link #hasSameObstacles(WorldSnapshot)} holds, and a dynamic part drawn every frame.
+ * Both can be limited to a view of the world: obstacles and baskets are then found through the
+ * level's grids, which the snapshot shares like their arrays, and rangers through a coarse grid
+ * of the copied positions that the snapshot sorts them into when it is captured, so drawing a
+ * view of a large world only touches the entities around it.
+ * </p>
+ */
+public final class WorldSnapshot {
+    /** The number of ints stored per ranger: previous x, previous y, x, y. */
+    private static final int RANGER_STRIDE = 4;
+
+    /** The edge length of a cell of the ranger index in pixels. */
+    private static final int RANGER_CELL_SIZE = 256;
+
+    private final Obstacle[] obstacles;
+    private final Item[] baskets;
+    private final SpatialGrid obstacleGrid, basketGrid;
+    private final int worldWidth, worldHeight;
+    private final int[] rangers;
+
+    /**
+     * The rangers sorted by the index cell holding the top left corner of the area they sweep
+     * in the step, and the offset of every cell's first ranger, with one extra trailing element.
+     * The index only spans the cells the rangers are in, so its size does not depend on the world.
+     */
+    private final int[] rangersByCell, rangerCellStart;
+    private final int rangerOriginX, rangerOriginY;
+    private final int rangerColumns, rangerRows;
+
+    /** The largest distance any ranger moved along each axis in the step. */
+    private final int rangerSweepX, rangerSweepY;
+    private final int rangerWidth, rangerHeight;
+    private final BufferedImage rangerImage;
+    private final int playerPrevX, playerPrevY, playerX, playerY;
+    private final int playerWidth, playerHeight;
+    private final BufferedImage playerImage;
+
+    private WorldSnapshot(Level level, int[] rangers, Ranger anyRanger, Player player) {
+        this.obstacles = level.obstacleArray();
+        this.baskets = level.basketArray();
+        this.obstacleGrid = level.obstacleIndex();
+        this.basketGrid = level.basketIndex();
+        this.worldWidth = level.getWidth();
+        this.worldHeight = level.getHeight();
+        this.rangers = rangers;
+        int sweepX = 0, sweepY = 0;
+        int minX = 0, minY = 0, maxX = 0, maxY = 0;
+        for (int j = 0; j < rangers.length; j += RANGER_STRIDE) {
+            sweepX = Math.max(sweepX, Math.abs(rangers[j + 2] - rangers[j]));
+            sweepY = Math.max(sweepY, Math.abs(rangers[j + 3] - rangers[j + 1]));
+            int x = Math.min(rangers[j], rangers[j + 2]);
+            int y = Math.min(rangers[j + 1], rangers[j + 3]);
+            minX = j == 0 ? x : Math.min(minX, x);
+            minY = j == 0 ? y : Math.min(minY, y);
+            maxX = j == 0 ? x : Math.max(maxX, x);
+            maxY = j == 0 ? y : Math.max(maxY, y);
+        }
+        rangerSweepX = sweepX;
+        rangerSweepY = sweepY;
+        rangerOriginX = Math.floorDiv(minX, RANGER_CELL_SIZE);
+        rangerOriginY = Math.floorDiv(minY, RANGER_CELL_SIZE);
+        rangerColumns = Math.floorDiv(maxX, RANGER_CELL_SIZE) - rangerOriginX + 1;
+        rangerRows = Math.floorDiv(maxY, RANGER_CELL_SIZE) - rangerOriginY + 1;
+        rangerCellStart = new int[rangerColumns * rangerRows + 1];
+        rangersByCell = new int[rangers.length / RANGER_STRIDE];
+        for (int j = 0; j < rangers.length; j += RANGER_STRIDE) {
+            rangerCellStart[rangerCell(j) + 1]++;
+        }
+        for (int cell = 1; cell < rangerCellStart.length; cell++) {
+            rangerCellStart[cell] += rangerCellStart[cell - 1];
+        }
+        int[] cursor = Arrays.copyOf(rangerCellStart, rangerCellStart.length - 1);
+        for (int j = 0; j < rangers.length; j += RANGER_STRIDE) {
+            rangersByCell[cursor[rangerCell(j)]++] = j / RANGER_STRIDE;
+        }
+        if (anyRanger != null) {
+            rangerWidth = anyRanger.getBounds().width;
+            rangerHeight = anyRanger.getBounds().height;
+            rangerImage = anyRanger.getImage();
+        } else {
+            rangerWidth = 0;
+            rangerHeight = 0;
+            rangerImage = null;
+        }
+        playerPrevX = player.getPreviousX();
+        playerPrevY = player.getPreviousY();
+        playerX = player.getX();
+        playerY = player.getY();
+        playerWidth = player.getWidth();
+        playerHeight = player.getHeight();
+        playerImage = player.getImage();
+    }
+
+    /**
+     * Captures the current state of a level and its player. Must be called from the thread
+     * that updates them.
+     *
+     * @param level  the level to capture
+     * @param player the player to capture
+     * @return the new snapshot
+     */
+    public static WorldSnapshot capture(Level level, Player player) {
+        ArrayList<Ranger> rangerList = level.getRangers();
+        int[] rangers = new int[rangerList.size() * RANGER_STRIDE];
+        for (int i = 0, j = 0; i < rangerList.size(); i++, j += RANGER_STRIDE) {
+            Ranger ranger = rangerList.get(i);
+            rangers[j] = ranger.getPreviousX();
+            rangers[j + 1] = ranger.getPreviousY();
+            rangers[j + 2] = ranger.getX();
+            rangers[j + 3] = ranger.getY();
+        }
+        Ranger anyRanger = rangerList.isEmpty() ? null : rangerList.get(0);
+        return new WorldSnapshot(level, rangers, anyRanger, player);
+    }
+
+    /**
+     * Draws the snapshot, interpolating moving elements between their previous and current positions.
+     *
+     * @param g     the Graphics context
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     */
+    public void draw(Graphics g, double alpha) {
+        drawStatic(g);
+        drawDynamic(g, alpha);
+    }
+
+    /**
+     * Draws the parts of the snapshot that never move: the obstacles.
+     *
+     * @param g the Graphics context
+     */
+    public void drawStatic(Graphics g) {
+        for (Obstacle obstacle : obstacles) {
+            obstacle.draw(g);
+        }
+    }
+
+    /**
+     * Draws the obstacles that intersect a view of the world, in the same order as {@link #drawStatic(Graphics)}.
+     *
+     * @param g    the Graphics context, translated so that it draws in world coordinates
+     * @param view the visible part of the world
+     */
+    public void drawStatic(Graphics g, Rectangle view) {
+        for (int i : obstacleGrid.findIntersecting(view.x, view.y, view.width, view.height)) {
+            obstacles[i].draw(g);
+        }
+    }
+
+    /**
+     * Draws the parts of the snapshot that can change between steps: the remaining baskets,
+     * the rangers and the player, interpolating moving elements.
+     *
+     * @param g     the Graphics context
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     */
+    public void drawDynamic(Graphics g, double alpha) {
+        for (Item basket : baskets) {
+            basket.draw(g);
+        }
+
+        for (int j = 0; j < rangers.length; j += RANGER_STRIDE) {
+            Ranger.drawSprite(g, rangerImage,
+                    interpolate(rangers[j], rangers[j + 2], alpha),
+                    interpolate(rangers[j + 1], rangers[j + 3], alpha),
+                    rangerWidth, rangerHeight);
+        }
+
+        Player.drawSprite(g, playerImage,
+                interpolate(playerPrevX, playerX, alpha),
+                interpolate(playerPrevY, playerY, alpha),
+                playerWidth, playerHeight);
+    }
+
+    /**
+     * Draws the baskets, rangers and player that intersect a view of the world, in the same
+     * order as {@link #drawDynamic(Graphics, double)}.
+     *
+     * @param g     the Graphics context, translated so that it draws in world coordinates
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     * @param view  the visible part of the world
+     */
+    public void drawDynamic(Graphics g, double alpha, Rectangle view) {
+        for (int i : basketGrid.findIntersecting(view.x, view.y, view.width, view.height)) {
+            baskets[i].draw(g);
+        }
+
+        for (int i : findRangers(alpha, view)) {
+            int j = i * RANGER_STRIDE;
+            Ranger.drawSprite(g, rangerImage,
+                    interpolate(rangers[j], rangers[j + 2], alpha),
+                    interpolate(rangers[j + 1], rangers[j + 3], alpha),
+                    rangerWidth, rangerHeight);
+        }
+
+        Player.drawSprite(g, playerImage, getPlayerX(alpha), getPlayerY(alpha), playerWidth, playerHeight);
+    }
+
+    /**
+     * Checks whether another snapshot has the same obstacles, meaning a cached drawing of
+     * {@link #drawStatic(Graphics)} is still valid for this one.
+     *
+     * @param other the snapshot the static layer was drawn for
+     * @return true if both snapshots share their obstacles
+     */
+    public boolean hasSameObstacles(WorldSnapshot other) {
+        return other != null && obstacles == other.obstacles;
+    }
+
+    /**
+     * Computes the area covered by the rangers and the player when drawn at an interpolation point.
+     *
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     * @return the union of their sprite bounds
+     */
+    public Rectangle getMovingBounds(double alpha) {
+        return getMovingBounds(alpha, new Rectangle(0, 0, worldWidth, worldHeight));
+    }
+
+    /**
+     * Computes the area covered by the player and the rangers that intersect a view when drawn
+     * at an interpolation point.
+     *
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     * @param view  the visible part of the world
+     * @return the union of their sprite bounds
+     */
+    public Rectangle getMovingBounds(double alpha, Rectangle view) {
+        Rectangle bounds = new Rectangle(getPlayerX(alpha), getPlayerY(alpha), playerWidth, playerHeight);
+        for (int i : findRangers(alpha, view)) {
+            int j = i * RANGER_STRIDE;
+            bounds.add(new Rectangle(interpolate(rangers[j], rangers[j + 2], alpha),
+                    interpolate(rangers[j + 1], rangers[j + 3], alpha), rangerWidth, rangerHeight));
+        }
+        return bounds;
+    }
+
+    /**
+     * Finds the rangers that intersect a view when drawn at an interpolation point, visiting
+     * only the cells of the ranger index that such a ranger can be sorted into.
+     *
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     * @param view  the visible part of the world
+     * @return the ranger indices in ascending order
+     */
+    private int[] findRangers(double alpha, Rectangle view) {
+        int c0 = clampCell(view.x - rangerWidth - rangerSweepX, rangerOriginX, rangerColumns);
+        int c1 = clampCell(view.x + view.width - 1, rangerOriginX, rangerColumns);
+        int r0 = clampCell(view.y - rangerHeight - rangerSweepY, rangerOriginY, rangerRows);
+        int r1 = clampCell(view.y + view.height - 1, rangerOriginY, rangerRows);
+        int[] found = new int[16];
+        int count = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int e = rangerCellStart[r * rangerColumns + c0], end = rangerCellStart[r * rangerColumns + c1 + 1]; e < end; e++) {
+                int i = rangersByCell[e];
+                int j = i * RANGER_STRIDE;
+                if (SpatialGrid.intersects(interpolate(rangers[j], rangers[j + 2], alpha),
+                        interpolate(rangers[j + 1], rangers[j + 3], alpha), rangerWidth, rangerHeight,
+                        view.x, view.y, view.width, view.height)) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = i;
+                }
+            }
+        }
+        found = Arrays.copyOf(found, count);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /**
+     * Gets the cell of the ranger index for the ranger whose data starts at the given offset.
+     */
+    private int rangerCell(int j) {
+        int column = clampCell(Math.min(rangers[j], rangers[j + 2]), rangerOriginX, rangerColumns);
+        int row = clampCell(Math.min(rangers[j + 1], rangers[j + 3]), rangerOriginY, rangerRows);
+        return row * rangerColumns + column;
+    }
+
+    private static int clampCell(int position, int origin, int cells) {
+        return Math.max(0, Math.min(cells - 1, Math.floorDiv(position, RANGER_CELL_SIZE) - origin));
+    }
+
+    /**
+     * Computes the area of the baskets that an earlier snapshot of the same level still had.
+     *
+     * @param earlier the earlier snapshot
+     * @return the union of the bounds of the removed baskets, or null if none were removed
+     */
+    public Rectangle getRemovedBasketBounds(WorldSnapshot earlier) {
+        if (earlier.baskets == baskets) {
+            return null;
+        }
+        Set<Item> remaining = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(remaining, baskets);
+        Rectangle bounds = null;
+        for (Item basket : earlier.baskets) {
+            if (!remaining.contains(basket)) {
+                if (bounds == null) {
+                    bounds = new Rectangle(basket.getBounds());
+                } else {
+                    bounds.add(basket.getBounds());
+                }
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Gets the number of rangers in the snapshot.
+     *
+     * @return the ranger count
+     */
+    public int getRangerCount() {
+        return rangers.length / RANGER_STRIDE;
+    }
+
+    /**
+     * Gets the number of baskets remaining in the snapshot.
+     *
+     * @return the basket count
+     */
+    public int getBasketCount() {
+        return baskets.length;
+    }
+
+    /**
+     * Gets the x-coordinate the player is drawn at.
+     *
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     * @return the interpolated x-coordinate
+     */
+    public int getPlayerX(double alpha) {
+        return interpolate(playerPrevX, playerX, alpha);
+    }
+
+    /**
+     * Gets the y-coordinate the player is drawn at.
+     *
+     * @param alpha the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     * @return the interpolated y-coordinate
+     */
+    public int getPlayerY(double alpha) {
+        return interpolate(playerPrevY, playerY, alpha);
+    }
+
+    public int getPlayerWidth() {
+        return playerWidth;
+    }
+
+    public int getPlayerHeight() {
+        return playerHeight;
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    private static int interpolate(int previous, int current, double alpha) {
+        return previous + (int) Math.round((current - previous) * alpha);
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import org.example.engine.GameEngine;
+import org.example.engine.LevelLoader;
+import org.example.metrics.LatencyHistogram;
+
+/**
+ * Hosts an independent game for every client connected over TCP.
+ *
+ * <p>
+ * Each connection gets its own {@link GameEngine}, stepped at a fixed rate by a
+ * {@link TickScheduler} that spreads the sessions over a few carrier threads. A single I/O
+ * thread accepts connections and reads client input with a {@link Selector}; it never steps an
+ * engine, and the carriers never block on a socket, so thousands of sessions need only a
+ * handful of threads. The messages are described in {@link ServerProtocol}.
+ * </p>
+ *
+ * <p>
+ * The latency of every tick, from when it was due until its output was written, is recorded in
+ * a histogram per session and in one for the whole server.
+ * </p>
+ */
+public class GameServer implements AutoCloseable {
+    /** The tick rate of the sessions, the same as the desktop game. */
+    public static final int TICKS_PER_SECOND = 60;
+
+    /** The largest tick latency the server histogram resolves. */
+    private static final long HIGHEST_LATENCY_NANOS = 1_000_000_000L;
+
+    private final LevelLoader levelLoader;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final TickScheduler scheduler;
+    private final Thread ioThread;
+    private final ConcurrentHashMap<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final LatencyHistogram tickLatency = new LatencyHistogram("tick", HIGHEST_LATENCY_NANOS);
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(4096);
+    private int nextSessionId = 1;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new GameServer and starts accepting connections.
+     *
+     * @param levelLoader the loader creating the levels of every session; must be thread-safe
+     * @param address     the address to listen on; port 0 picks a free port
+     * @param carriers    the number of carrier threads stepping the sessions
+     * @throws IOException if the server socket cannot be opened
+     */
+    public GameServer(LevelLoader levelLoader, InetSocketAddress address, int carriers) throws IOException {
+        this.levelLoader = levelLoader;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        scheduler = new TickScheduler(carriers, TICKS_PER_SECOND, tickLatency, session -> sessions.remove(session.getId()));
+        ioThread = new Thread(this::runIo, "Server I/O");
+        ioThread.start();
+    }
+
+    /**
+     * Accepts connections and reads input until the server is closed.
+     */
+    private void runIo() {
+        try {
+            while (running) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                System.err.println("Server I/O failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Accepts the pending connections and starts a session for each.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Session session = new Session(nextSessionId++, channel, new GameEngine(levelLoader));
+            channel.register(selector, SelectionKey.OP_READ, session);
+            sessions.put(session.getId(), session);
+            scheduler.schedule(session);
+        }
+    }
+
+    /**
+     * Reads the input of a session, keeping the last mask sent and closing the session on
+     * {@link ServerProtocol#QUIT}, end of stream or a malformed message.
+     */
+    private void read(SelectionKey key) {
+        Session session = (Session) key.attachment();
+        ByteBuffer inbound = session.inbound;
+        readBuffer.clear();
+        int read;
+        try {
+            read = session.getChannel().read(readBuffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            key.cancel();
+            session.close();
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            inbound.put(readBuffer.get());
+            int length;
+            try {
+                length = ServerProtocol.clientMessageLength(inbound.get(0));
+            } catch (IllegalArgumentException e) {
+                key.cancel();
+                session.close();
+                return;
+            }
+            if (inbound.position() < length) {
+                continue;
+            }
+            if (inbound.get(0) == ServerProtocol.QUIT) {
+                key.cancel();
+                session.close();
+                return;
+            }
+            session.inputMask = inbound.get(1) & 0xFF;
+            inbound.clear();
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of sessions currently hosted.
+     *
+     * @return the session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the latency histogram of every tick of every session.
+     *
+     * @return the histogram
+     */
+    public LatencyHistogram getTickLatency() {
+        return tickLatency;
+    }
+
+    /**
+     * Gets the tick latency histogram of a session.
+     *
+     * @param sessionId the id sent to the client in its {@link ServerProtocol#WELCOME}
+     * @return the histogram, or null if no such session is hosted
+     */
+    public LatencyHistogram getSessionTickLatency(int sessionId) {
+        Session session = sessions.get(sessionId);
+        return session == null ? null : session.getTickLatency();
+    }
+
+    /**
+     * Gets the tick count of a session's game.
+     *
+     * @param sessionId the id sent to the client in its {@link ServerProtocol#WELCOME}
+     * @return the tick count, or -1 if no such session is hosted
+     */
+    public long getSessionTickCount(int sessionId) {
+        Session session = sessions.get(sessionId);
+        return session == null ? -1 : session.getEngine().getTickCount();
+    }
+
+    /**
+     * Gets the number of tick wheel slots skipped because a carrier fell more than a tick behind.
+     *
+     * @return the missed slot count
+     */
+    public long getMissedSlots() {
+        return scheduler.getMissedSlots();
+    }
+
+    /**
+     * Stops the server and closes every session.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler.close();
+        sessions.values().forEach(Session::close);
+        sessions.clear();
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close the server socket: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a server from the command line, printing the tick latency every ten seconds.
+     * Usage: {@code GameServer [port] [carriers]}
+     *
+     * @param args the optional port and number of carrier threads
+     * @throws IOException if the server socket cannot be opened
+     * @throws InterruptedException if interrupted while running
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int carriers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        try (GameServer server = new GameServer(LevelLoader.cachedFromDirectory("./levels"),
+                new InetSocketAddress(port), carriers)) {
+            System.out.println("Listening on port " + server.getPort());
+            while (true) {
+                Thread.sleep(10_000);
+                System.out.printf("%d sessions, %d missed slots, %s%n",
+                        server.getSessionCount(), server.getMissedSlots(), server.getTickLatency());
+                server.getTickLatency().reset();
+            }
+        }
+    }
+}
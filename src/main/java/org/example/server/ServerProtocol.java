@@ -0,0 +1,81 @@
+package org.example.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The messages exchanged between a {@link GameServer} and its clients.
+ *
+ * <p>
+ * Every message starts with a one-byte type and has a fixed length, so a reader knows how many
+ * bytes to wait for from the type alone. Multi-byte values are big-endian.
+ * </p>
+ *
+ * <ul>
+ *     <li>Client to server: {@link #INPUT} with the input mask of the following ticks, and
+ *     {@link #QUIT} to end the session.</li>
+ *     <li>Server to client: {@link #WELCOME} with the session id once the session exists, and
+ *     {@link #STATUS} whenever the level, lives, baskets or game over state change.</li>
+ * </ul>
+ */
+public final class ServerProtocol {
+    /** Client message: the input mask (one byte) to step the session's engine with from now on. */
+    public static final byte INPUT = 1;
+
+    /** Client message: ends the session. */
+    public static final byte QUIT = 2;
+
+    /** Server message: the session id (int). */
+    public static final byte WELCOME = 1;
+
+    /** Server message: tick (long), level (byte), lives (byte), baskets (int) and game over (byte). */
+    public static final byte STATUS = 2;
+
+    /** The length of an {@link #INPUT} message in bytes. */
+    public static final int INPUT_LENGTH = 2;
+
+    /** The length of a {@link #QUIT} message in bytes. */
+    public static final int QUIT_LENGTH = 1;
+
+    /** The length of a {@link #WELCOME} message in bytes. */
+    public static final int WELCOME_LENGTH = 5;
+
+    /** The length of a {@link #STATUS} message in bytes. */
+    public static final int STATUS_LENGTH = 16;
+
+    private ServerProtocol() {
+    }
+
+    /**
+     * Gets the length of a server message.
+     *
+     * @param type the message type
+     * @return the length in bytes including the type
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public static int serverMessageLength(byte type) {
+        return switch (type) {
+            case WELCOME -> WELCOME_LENGTH;
+            case STATUS -> STATUS_LENGTH;
+            default -> throw new IllegalArgumentException("Unknown server message " + type);
+        };
+    }
+
+    /**
+     * Gets the length of a client message.
+     *
+     * @param type the message type
+     * @return the length in bytes including the type
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public static int clientMessageLength(byte type) {
+        return switch (type) {
+            case INPUT -> INPUT_LENGTH;
+            case QUIT -> QUIT_LENGTH;
+            default -> throw new IllegalArgumentException("Unknown client message " + type);
+        };
+    }
+
+    static void putStatus(ByteBuffer out, long tick, int level, int lives, int baskets, boolean gameOver) {
+        out.put(STATUS).putLong(tick).put((byte) level).put((byte) lives).putInt(baskets).put((byte) (gameOver ? 1 : 0));
+    }
+}
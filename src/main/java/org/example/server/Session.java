@@ -0,0 +1,128 @@
+package org.example.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import org.example.engine.GameEngine;
+import org.example.metrics.LatencyHistogram;
+
+/**
+ * One client's game on the server.
+ *
+ * <p>
+ * The engine is only stepped by the carrier thread the session is scheduled on, which also
+ * writes the session's outgoing messages. The I/O thread only reads the client's input into
+ * {@link #inputMask} and marks the session closed, so the two share nothing but volatile fields.
+ * </p>
+ */
+final class Session {
+    /** The largest tick latency the session histogram resolves. */
+    private static final long HIGHEST_LATENCY_NANOS = 100_000_000L;
+
+    /** The most outgoing bytes kept for a client that does not read; beyond this it is dropped. */
+    private static final int OUTBOUND_CAPACITY = 4096;
+
+    private final int id;
+    private final SocketChannel channel;
+    private final GameEngine engine;
+    private final LatencyHistogram tickLatency;
+    private final ByteBuffer outbound = ByteBuffer.allocate(OUTBOUND_CAPACITY);
+
+    /** The input mask last sent by the client, written by the I/O thread. */
+    volatile int inputMask;
+    private volatile boolean closed;
+
+    /** Buffered bytes of an incomplete client message, only touched by the I/O thread. */
+    final ByteBuffer inbound = ByteBuffer.allocate(ServerProtocol.INPUT_LENGTH);
+
+    private int sentLevel = -1, sentLives = -1, sentBaskets = -1;
+    private boolean sentGameOver;
+
+    Session(int id, SocketChannel channel, GameEngine engine) {
+        this.id = id;
+        this.channel = channel;
+        this.engine = engine;
+        this.tickLatency = new LatencyHistogram("session-" + id, HIGHEST_LATENCY_NANOS);
+        outbound.put(ServerProtocol.WELCOME).putInt(id);
+    }
+
+    /**
+     * Steps the engine once and sends the status if it changed. Called by the carrier thread.
+     *
+     * @param deadline the {@link System#nanoTime()} the tick was due at
+     * @return the latency of the tick in nanoseconds, from its deadline until its output was written
+     */
+    long tick(long deadline) {
+        engine.step(inputMask);
+        if (engine.getLevelNumber() != sentLevel || engine.getLives() != sentLives
+                || engine.getTotalBasketsCollected() != sentBaskets || engine.isGameOver() != sentGameOver) {
+            sentLevel = engine.getLevelNumber();
+            sentLives = engine.getLives();
+            sentBaskets = engine.getTotalBasketsCollected();
+            sentGameOver = engine.isGameOver();
+            if (outbound.remaining() < ServerProtocol.STATUS_LENGTH) {
+                close();
+                return 0;
+            }
+            ServerProtocol.putStatus(outbound, engine.getTickCount(), sentLevel, sentLives, sentBaskets, sentGameOver);
+        }
+        flush();
+        long latency = System.nanoTime() - deadline;
+        tickLatency.record(latency);
+        return latency;
+    }
+
+    /**
+     * Writes as much of the pending output as the socket takes without blocking.
+     */
+    private void flush() {
+        if (outbound.position() == 0) {
+            return;
+        }
+        outbound.flip();
+        try {
+            channel.write(outbound);
+        } catch (IOException e) {
+            close();
+        }
+        outbound.compact();
+    }
+
+    /**
+     * Ends the session and closes its connection. Safe to call from any thread, more than once.
+     */
+    void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to do with a connection that fails to close
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Gets the latency of this session's ticks, from the time each was due until it was stepped
+     * and its output written.
+     *
+     * @return the histogram
+     */
+    LatencyHistogram getTickLatency() {
+        return tickLatency;
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.example.engine.InputState;
+
+/**
+ * Plays many sessions against a {@link GameServer} from one thread, for load tests.
+ *
+ * <p>
+ * Every connection changes its input to a random direction a few times a second, like a player
+ * walking around, and counts the messages the server sends it. All connections share one
+ * {@link Selector}, so tens of thousands of them need a single thread.
+ * </p>
+ */
+public class SyntheticClient implements AutoCloseable {
+    /** How often the client sends input, in milliseconds. */
+    private static final long INPUT_INTERVAL_MILLIS = 50;
+
+    /** The chance that a connection changes its input at each interval. */
+    private static final double INPUT_CHANGE_CHANCE = 0.2;
+
+    private static final int[] MASKS = {
+            0, InputState.UP, InputState.DOWN, InputState.LEFT, InputState.RIGHT,
+            InputState.UP | InputState.LEFT, InputState.UP | InputState.RIGHT,
+            InputState.DOWN | InputState.LEFT, InputState.DOWN | InputState.RIGHT
+    };
+
+    private final Selector selector;
+    private final Connection[] connections;
+    private final Random random;
+    private final Thread thread;
+    private final AtomicLong welcomes = new AtomicLong();
+    private final AtomicLong statuses = new AtomicLong();
+    private final AtomicLong closedByServer = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new SyntheticClient, connects all its connections and starts playing.
+     *
+     * @param server      the address of the server
+     * @param connections the number of connections
+     * @param seed        the seed of the random input
+     * @throws IOException if a connection fails
+     */
+    public SyntheticClient(InetSocketAddress server, int connections, long seed) throws IOException {
+        this.random = new Random(seed);
+        this.selector = Selector.open();
+        this.connections = new Connection[connections];
+        for (int i = 0; i < connections; i++) {
+            SocketChannel channel = SocketChannel.open(server);
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.connections[i] = new Connection(channel);
+            channel.register(selector, SelectionKey.OP_READ, this.connections[i]);
+        }
+        thread = new Thread(this::run, "Synthetic client");
+        thread.start();
+    }
+
+    /**
+     * Reads server messages and sends input until closed.
+     */
+    private void run() {
+        ByteBuffer out = ByteBuffer.allocate(ServerProtocol.INPUT_LENGTH);
+        long nextInput = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(INPUT_INTERVAL_MILLIS);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isValid() && key.isReadable()) {
+                        read(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+                if (System.nanoTime() - nextInput >= 0) {
+                    nextInput += INPUT_INTERVAL_MILLIS * 1_000_000;
+                    for (Connection connection : connections) {
+                        if (connection.channel.isOpen() && random.nextDouble() < INPUT_CHANGE_CHANCE) {
+                            out.clear();
+                            out.put(ServerProtocol.INPUT).put((byte) MASKS[random.nextInt(MASKS.length)]).flip();
+                            try {
+                                connection.channel.write(out);
+                            } catch (IOException e) {
+                                connection.channel.close();
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Synthetic client failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Counts the complete messages received on a connection.
+     */
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer in = connection.in;
+        int read;
+        try {
+            read = connection.channel.read(in);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            closedByServer.incrementAndGet();
+            key.cancel();
+            connection.channel.close();
+            return;
+        }
+        in.flip();
+        while (in.hasRemaining()) {
+            int length = ServerProtocol.serverMessageLength(in.get(in.position()));
+            if (in.remaining() < length) {
+                break;
+            }
+            byte type = in.get();
+            if (type == ServerProtocol.WELCOME) {
+                connection.sessionId = in.getInt();
+                welcomes.incrementAndGet();
+            } else {
+                in.position(in.position() + ServerProtocol.STATUS_LENGTH - 1);
+                statuses.incrementAndGet();
+            }
+        }
+        in.compact();
+    }
+
+    /**
+     * Gets the number of {@link ServerProtocol#WELCOME} messages received.
+     *
+     * @return the welcome count
+     */
+    public long getWelcomes() {
+        return welcomes.get();
+    }
+
+    /**
+     * Gets the number of {@link ServerProtocol#STATUS} messages received.
+     *
+     * @return the status count
+     */
+    public long getStatuses() {
+        return statuses.get();
+    }
+
+    /**
+     * Gets the number of connections the server closed.
+     *
+     * @return the closed connection count
+     */
+    public long getClosedByServer() {
+        return closedByServer.get();
+    }
+
+    /**
+     * Gets the session id the server assigned to a connection. Only reliable once
+     * {@link #getWelcomes()} counts every connection.
+     *
+     * @param connection the connection index
+     * @return the session id, or 0 if no welcome was received yet
+     */
+    public int getSessionId(int connection) {
+        return connections[connection].sessionId;
+    }
+
+    /**
+     * Sends {@link ServerProtocol#QUIT} on every connection and closes them.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ByteBuffer quit = ByteBuffer.allocate(ServerProtocol.QUIT_LENGTH);
+        for (Connection connection : connections) {
+            try {
+                if (connection.channel.isOpen()) {
+                    quit.clear();
+                    quit.put(ServerProtocol.QUIT).flip();
+                    connection.channel.write(quit);
+                }
+                connection.channel.close();
+            } catch (IOException e) {
+                // the server is gone; nothing left to tell it
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close the selector: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a load test against an in-process server and prints the tick latency.
+     * Usage: {@code SyntheticClient [connections] [seconds] [carriers]}
+     *
+     * @param args the optional number of connections, test duration and carrier threads
+     * @throws IOException if the server or a connection fails
+     * @throws InterruptedException if interrupted while running
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int connectionCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int carriers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try (GameServer server = new GameServer(org.example.engine.LevelLoader.cachedFromDirectory("./levels"),
+                new InetSocketAddress("127.0.0.1", 0), carriers);
+             SyntheticClient client = new SyntheticClient(new InetSocketAddress("127.0.0.1", server.getPort()),
+                     connectionCount, 42)) {
+            Thread.sleep(5_000);
+            server.getTickLatency().reset();
+            long missedBefore = server.getMissedSlots();
+            long statusesBefore = client.getStatuses();
+            Thread.sleep(seconds * 1_000L);
+            System.out.printf("%d sessions for %d s: %d missed slots, %d statuses, %s%n",
+                    server.getSessionCount(), seconds, server.getMissedSlots() - missedBefore,
+                    client.getStatuses() - statusesBefore, server.getTickLatency());
+            System.out.printf("%.0f ticks/s, %.1f per session%n",
+                    server.getTickLatency().getCount() / (double) seconds,
+                    server.getTickLatency().getCount() / (double) seconds / Math.max(1, server.getSessionCount()));
+        }
+    }
+
+    /**
+     * One connection and its partially received messages.
+     */
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(256);
+        private volatile int sessionId;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
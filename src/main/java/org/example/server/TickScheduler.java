@@ -0,0 +1,185 @@
+package org.example.server;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.example.metrics.LatencyHistogram;
+
+/**
+ * Steps many sessions at a fixed tick rate on a few carrier threads.
+ *
+ * <p>
+ * Each carrier owns a tick wheel: the tick period is divided into {@link #SLOTS} slots, and
+ * every session is placed in the least loaded slot of the least loaded carrier. A carrier parks
+ * until the deadline of the next slot and then steps the sessions in it, so the sessions of a
+ * carrier are spread over the period instead of all becoming due at once, and each is stepped
+ * once per period. A session only ever runs on the carrier it was placed on, so its engine
+ * needs no locking.
+ * </p>
+ *
+ * <p>
+ * A carrier that falls more than a whole period behind skips the slots it missed rather than
+ * running them back to back, and counts them in {@link #getMissedSlots()}; the games on it run
+ * slower until it catches up.
+ * </p>
+ */
+final class TickScheduler implements AutoCloseable {
+    /** The number of slots each tick period is divided into. */
+    static final int SLOTS = 8;
+
+    private final long periodNanos;
+    private final Carrier[] carriers;
+    private final LatencyHistogram tickLatency;
+    private final Consumer<Session> onClosed;
+    private final AtomicLong missedSlots = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Constructs and starts a new TickScheduler.
+     *
+     * @param carrierCount    the number of carrier threads
+     * @param ticksPerSecond  the tick rate of every session
+     * @param tickLatency     the histogram recording the latency of every tick
+     * @param onClosed        called on the carrier thread when a closed session is dropped
+     */
+    TickScheduler(int carrierCount, int ticksPerSecond, LatencyHistogram tickLatency, Consumer<Session> onClosed) {
+        this.periodNanos = 1_000_000_000L / ticksPerSecond;
+        this.tickLatency = tickLatency;
+        this.onClosed = onClosed;
+        carriers = new Carrier[Math.max(1, carrierCount)];
+        for (int i = 0; i < carriers.length; i++) {
+            carriers[i] = new Carrier();
+            Thread thread = new Thread(carriers[i], "Tick carrier " + i);
+            thread.setDaemon(true);
+            carriers[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Hands a new session to the least loaded carrier. Called by the I/O thread.
+     *
+     * @param session the session
+     */
+    void schedule(Session session) {
+        Carrier target = carriers[0];
+        for (Carrier carrier : carriers) {
+            if (carrier.load.get() < target.load.get()) {
+                target = carrier;
+            }
+        }
+        target.load.incrementAndGet();
+        target.added.add(session);
+        LockSupport.unpark(target.thread);
+    }
+
+    /**
+     * Gets the number of slots the carriers skipped because they fell more than a tick behind.
+     *
+     * @return the missed slot count
+     */
+    long getMissedSlots() {
+        return missedSlots.get();
+    }
+
+    /**
+     * Stops the carriers and waits for them to finish their current slot.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Carrier carrier : carriers) {
+            LockSupport.unpark(carrier.thread);
+        }
+        for (Carrier carrier : carriers) {
+            try {
+                carrier.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A carrier thread and the sessions in each slot of its tick wheel.
+     */
+    private final class Carrier implements Runnable {
+        private final ConcurrentLinkedQueue<Session> added = new ConcurrentLinkedQueue<>();
+        private final AtomicLong load = new AtomicLong();
+        private final ArrayList<Session>[] slots;
+        private Thread thread;
+
+        @SuppressWarnings("unchecked")
+        Carrier() {
+            slots = (ArrayList<Session>[]) new ArrayList<?>[SLOTS];
+            for (int i = 0; i < SLOTS; i++) {
+                slots[i] = new ArrayList<>();
+            }
+        }
+
+        @Override
+        public void run() {
+            long slotNanos = periodNanos / SLOTS;
+            long start = System.nanoTime();
+            long slot = 0;
+            while (running) {
+                long deadline = start + slot * slotNanos;
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    takeAdded();
+                    continue;
+                }
+                if (-wait > periodNanos) {
+                    long behind = -wait / slotNanos;
+                    missedSlots.addAndGet(behind);
+                    slot += behind;
+                    continue;
+                }
+                takeAdded();
+                step(slots[(int) (slot % SLOTS)], deadline);
+                slot++;
+            }
+        }
+
+        /**
+         * Places the sessions handed over since the last slot in the least loaded slots.
+         */
+        private void takeAdded() {
+            Session session;
+            while ((session = added.poll()) != null) {
+                ArrayList<Session> target = slots[0];
+                for (ArrayList<Session> slot : slots) {
+                    if (slot.size() < target.size()) {
+                        target = slot;
+                    }
+                }
+                target.add(session);
+            }
+        }
+
+        /**
+         * Steps the sessions of a slot, dropping the closed ones.
+         */
+        private void step(ArrayList<Session> sessions, long deadline) {
+            for (int i = 0; i < sessions.size(); ) {
+                Session session = sessions.get(i);
+                if (!session.isClosed()) {
+                    tickLatency.record(session.tick(deadline));
+                }
+                if (session.isClosed()) {
+                    // Swap-remove; the order sessions are stepped in within a slot does not matter
+                    sessions.set(i, sessions.get(sessions.size() - 1));
+                    sessions.remove(sessions.size() - 1);
+                    load.decrementAndGet();
+                    onClosed.accept(session);
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+}
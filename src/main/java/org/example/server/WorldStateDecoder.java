@@ -0,0 +1,250 @@
+package org.example.server;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.example.server.WorldStateEncoder.getVarLong;
+import static org.example.server.WorldStateEncoder.unzigzag;
+
+/**
+ * Reconstructs the world state of a game on a client from the messages of a
+ * {@link WorldStateEncoder}.
+ *
+ * <p>
+ * The state is kept in flat arrays indexed like the keyframe of the level, and collected
+ * baskets are only marked, so basket indices stay valid for the whole level. Applying a
+ * message reads it in place from the buffer and allocates nothing except on a keyframe.
+ * </p>
+ */
+public final class WorldStateDecoder {
+    private boolean hasKeyframe;
+    private int levelNumber;
+    private long tick;
+    private int playerX, playerY;
+
+    private int obstacleCount;
+    private byte[] obstacleTypes = new byte[0];
+    private int[] obstacleXs = new int[0], obstacleYs = new int[0];
+
+    private int basketCount;
+    private int[] basketXs = new int[0], basketYs = new int[0];
+    private long[] removed = new long[0];
+    private int basketsLeft;
+
+    private int rangerCount;
+    private byte[] rangerPatterns = new byte[0];
+    private int[] rangerXs = new int[0], rangerYs = new int[0];
+    private long[] movedX = new long[0], movedY = new long[0];
+
+    /**
+     * Applies one message, reading it from the buffer's position.
+     *
+     * @param in the buffer holding the message
+     * @return true if the message was a keyframe
+     * @throws IllegalStateException    if a delta arrives before any keyframe
+     * @throws IllegalArgumentException if the message type is unknown
+     */
+    public boolean apply(ByteBuffer in) {
+        byte type = in.get();
+        switch (type) {
+            case WorldStateEncoder.KEYFRAME -> {
+                applyKeyframe(in);
+                return true;
+            }
+            case WorldStateEncoder.DELTA -> {
+                if (!hasKeyframe) {
+                    throw new IllegalStateException("World state delta before the first keyframe");
+                }
+                applyDelta(in);
+                return false;
+            }
+            default -> throw new IllegalArgumentException("Unknown world state message " + type);
+        }
+    }
+
+    private void applyKeyframe(ByteBuffer in) {
+        hasKeyframe = true;
+        levelNumber = (int) getVarLong(in);
+        tick = getVarLong(in);
+        playerX = unzigzag(getVarLong(in));
+        playerY = unzigzag(getVarLong(in));
+
+        obstacleCount = (int) getVarLong(in);
+        if (obstacleTypes.length < obstacleCount) {
+            obstacleTypes = new byte[obstacleCount];
+            obstacleXs = new int[obstacleCount];
+            obstacleYs = new int[obstacleCount];
+        }
+        for (int i = 0; i < obstacleCount; i++) {
+            obstacleTypes[i] = in.get();
+            obstacleXs[i] = unzigzag(getVarLong(in));
+            obstacleYs[i] = unzigzag(getVarLong(in));
+        }
+
+        basketCount = (int) getVarLong(in);
+        if (basketXs.length < basketCount) {
+            basketXs = new int[basketCount];
+            basketYs = new int[basketCount];
+            removed = new long[(basketCount + 63) >>> 6];
+        } else {
+            Arrays.fill(removed, 0);
+        }
+        basketsLeft = basketCount;
+        for (int i = 0; i < basketCount; i++) {
+            basketXs[i] = unzigzag(getVarLong(in));
+            basketYs[i] = unzigzag(getVarLong(in));
+        }
+
+        rangerCount = (int) getVarLong(in);
+        if (rangerXs.length < rangerCount) {
+            rangerPatterns = new byte[rangerCount];
+            rangerXs = new int[rangerCount];
+            rangerYs = new int[rangerCount];
+            movedX = new long[(rangerCount + 63) >>> 6];
+            movedY = new long[(rangerCount + 63) >>> 6];
+        }
+        for (int i = 0; i < rangerCount; i++) {
+            rangerPatterns[i] = in.get();
+            rangerXs[i] = unzigzag(getVarLong(in));
+            rangerYs[i] = unzigzag(getVarLong(in));
+        }
+    }
+
+    private void applyDelta(ByteBuffer in) {
+        tick += getVarLong(in);
+        int flags = in.get();
+        if ((flags & WorldStateEncoder.PLAYER_MOVED) != 0) {
+            playerX += unzigzag(getVarLong(in));
+            playerY += unzigzag(getVarLong(in));
+        }
+        int rangerWords = (rangerCount + 63) >>> 6;
+        if ((flags & WorldStateEncoder.RANGERS_MOVED_X) != 0) {
+            getBits(in, movedX, rangerWords);
+        }
+        if ((flags & WorldStateEncoder.RANGERS_MOVED_Y) != 0) {
+            getBits(in, movedY, rangerWords);
+        }
+        if ((flags & WorldStateEncoder.RANGERS_MOVED_X) != 0) {
+            addChanges(in, movedX, rangerWords, rangerXs);
+        }
+        if ((flags & WorldStateEncoder.RANGERS_MOVED_Y) != 0) {
+            addChanges(in, movedY, rangerWords, rangerYs);
+        }
+        if ((flags & WorldStateEncoder.BASKETS_REMOVED) != 0) {
+            int count = (int) getVarLong(in);
+            for (int w = -1; count > 0; count--) {
+                w += (int) getVarLong(in) + 1;
+                long word = in.getLong();
+                basketsLeft -= Long.bitCount(word & ~removed[w]);
+                removed[w] |= word;
+            }
+        }
+    }
+
+    /**
+     * Reads a sparse bitset into an array, clearing the words it does not list.
+     */
+    private static void getBits(ByteBuffer in, long[] bits, int words) {
+        Arrays.fill(bits, 0, words, 0);
+        int count = (int) getVarLong(in);
+        for (int w = -1; count > 0; count--) {
+            w += (int) getVarLong(in) + 1;
+            bits[w] = in.getLong();
+        }
+    }
+
+    private static void addChanges(ByteBuffer in, long[] bits, int words, int[] values) {
+        for (int w = 0; w < words; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                values[(w << 6) + Long.numberOfTrailingZeros(word)] += unzigzag(getVarLong(in));
+                word &= word - 1;
+            }
+        }
+    }
+
+    public int getLevelNumber() {
+        return levelNumber;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    public int getObstacleCount() {
+        return obstacleCount;
+    }
+
+    /**
+     * Gets the type of an obstacle.
+     *
+     * @param i the obstacle index
+     * @return the type tag, one of the {@link org.example.model.LevelData} obstacle constants
+     */
+    public int getObstacleType(int i) {
+        return obstacleTypes[i];
+    }
+
+    public int getObstacleX(int i) {
+        return obstacleXs[i];
+    }
+
+    public int getObstacleY(int i) {
+        return obstacleYs[i];
+    }
+
+    /**
+     * Gets the number of baskets the level started with, collected or not.
+     *
+     * @return the basket count of the keyframe
+     */
+    public int getBasketCount() {
+        return basketCount;
+    }
+
+    public int getBasketX(int i) {
+        return basketXs[i];
+    }
+
+    public int getBasketY(int i) {
+        return basketYs[i];
+    }
+
+    public boolean isBasketRemoved(int i) {
+        return (removed[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public int getBasketsLeft() {
+        return basketsLeft;
+    }
+
+    public int getRangerCount() {
+        return rangerCount;
+    }
+
+    /**
+     * Gets the movement pattern of a ranger.
+     *
+     * @param i the ranger index
+     * @return the pattern tag, one of the {@link org.example.model.LevelData} pattern constants
+     */
+    public int getRangerPattern(int i) {
+        return rangerPatterns[i];
+    }
+
+    public int getRangerX(int i) {
+        return rangerXs[i];
+    }
+
+    public int getRangerY(int i) {
+        return rangerYs[i];
+    }
+}
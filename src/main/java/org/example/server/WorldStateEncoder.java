@@ -0,0 +1,353 @@
+package org.example.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.example.engine.GameEngine;
+import org.example.model.Item;
+import org.example.model.Level;
+import org.example.model.Obstacle;
+import org.example.model.Player;
+import org.example.model.Ranger;
+
+/**
+ * Encodes the world state of a game for a remote client as a keyframe followed by deltas.
+ *
+ * <p>
+ * The first message of a level is a {@link #KEYFRAME} with every obstacle, basket and ranger.
+ * Obstacles never change, so every later tick is a {@link #DELTA} holding only what changed
+ * since the previous message: the player and ranger position changes as zigzag varints, and
+ * the baskets collected since as a removal bitset over the basket order of the keyframe. A
+ * ranger patrolling along one axis costs one byte per tick, and a tick in which nothing moved
+ * three bytes. Messages are written straight into the caller's buffer, which can be handed to
+ * a channel as is; nothing is copied or allocated per tick. {@link WorldStateDecoder}
+ * reconstructs the state on the client.
+ * </p>
+ *
+ * <p>
+ * Varints are little-endian base 128. Bitsets are written sparsely as the varint number of
+ * non-zero 64-bit words, then for each the varint distance to the previous non-zero word and
+ * the word as a big-endian long, so a bitset with a few bits set stays small however many
+ * entities there are.
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link #KEYFRAME}: level number, tick, player x and y, obstacle count and for each
+ *     the type tag byte, x and y, basket count and for each x and y, ranger count and for each
+ *     the pattern tag byte, x and y.</li>
+ *     <li>{@link #DELTA}: tick distance to the previous message, a flags byte, then as flagged
+ *     the player's x and y change, the bitsets of rangers that moved along x and along y
+ *     followed by the x changes and then the y changes in ranger order, and the bitset of
+ *     baskets removed.</li>
+ * </ul>
+ *
+ * <p>
+ * An encoder is for one client; it is not thread-safe.
+ * </p>
+ */
+public final class WorldStateEncoder {
+    /** Message type of a complete level. */
+    public static final byte KEYFRAME = 1;
+
+    /** Message type of the changes since the previous message. */
+    public static final byte DELTA = 2;
+
+    /** Delta flag: the player moved. */
+    static final int PLAYER_MOVED = 1;
+
+    /** Delta flag: rangers moved along the x-axis. */
+    static final int RANGERS_MOVED_X = 2;
+
+    /** Delta flag: rangers moved along the y-axis. */
+    static final int RANGERS_MOVED_Y = 4;
+
+    /** Delta flag: baskets were collected. */
+    static final int BASKETS_REMOVED = 8;
+
+    private Level level;
+    private int chunkVersion;
+    private long tick;
+    private int playerX, playerY;
+
+    private Item[] baskets = new Item[0];
+    private int basketCount;
+    private long[] removed = new long[0];
+    private long[] newlyRemoved = new long[0];
+    private int basketsLeft;
+
+    private int[] rangerXs = new int[0], rangerYs = new int[0];
+    private int[] currentXs = new int[0], currentYs = new int[0];
+    private long[] movedX = new long[0], movedY = new long[0];
+
+    /**
+     * Encodes the state of a game after its latest step.
+     *
+     * @param engine the game engine
+     * @param out    the buffer to write to, with at least {@link #maxEncodedSize(Level)} bytes remaining
+     * @return true if a keyframe was written, false for a delta
+     */
+    public boolean encode(GameEngine engine, ByteBuffer out) {
+        return encode(engine.getLevel(), engine.getPlayer(), engine.getLevelNumber(), engine.getTickCount(), out);
+    }
+
+    /**
+     * Encodes the state of a level. A keyframe is written when the level is not the one the
+     * previous message was for, or when a chunked level has installed or evicted chunks since,
+     * otherwise a delta.
+     *
+     * @param level       the level
+     * @param player      the player
+     * @param levelNumber the level number
+     * @param tick        the tick count of the game
+     * @param out         the buffer to write to, with at least {@link #maxEncodedSize(Level)} bytes remaining
+     * @return true if a keyframe was written, false for a delta
+     */
+    public boolean encode(Level level, Player player, int levelNumber, long tick, ByteBuffer out) {
+        if (level != this.level || chunkVersion(level) != chunkVersion) {
+            encodeKeyframe(level, player, levelNumber, tick, out);
+            return true;
+        }
+        encodeDelta(player, tick, out);
+        return false;
+    }
+
+    /**
+     * Makes the next message a keyframe, for a client that lost track of the state.
+     */
+    public void reset() {
+        level = null;
+    }
+
+    private static int chunkVersion(Level level) {
+        return level.getChunkStreamer() == null ? 0 : level.getChunkStreamer().getVersion();
+    }
+
+    private void encodeKeyframe(Level level, Player player, int levelNumber, long tick, ByteBuffer out) {
+        this.level = level;
+        chunkVersion = chunkVersion(level);
+        this.tick = tick;
+        playerX = player.getX();
+        playerY = player.getY();
+        out.put(KEYFRAME);
+        putVarLong(out, levelNumber);
+        putVarLong(out, tick);
+        putVarLong(out, zigzag(playerX));
+        putVarLong(out, zigzag(playerY));
+
+        ArrayList<Obstacle> obstacles = level.getObstacles();
+        putVarLong(out, obstacles.size());
+        for (Obstacle obstacle : obstacles) {
+            out.put((byte) obstacle.getTypeTag());
+            putVarLong(out, zigzag(obstacle.getBounds().x));
+            putVarLong(out, zigzag(obstacle.getBounds().y));
+        }
+
+        ArrayList<Item> basketList = level.getBaskets();
+        basketCount = basketList.size();
+        baskets = basketList.toArray(baskets.length >= basketCount ? baskets : new Item[basketCount]);
+        int basketWords = wordCount(basketCount);
+        if (removed.length < basketWords) {
+            removed = new long[basketWords];
+            newlyRemoved = new long[basketWords];
+        } else {
+            Arrays.fill(removed, 0);
+        }
+        basketsLeft = basketCount;
+        putVarLong(out, basketCount);
+        for (int i = 0; i < basketCount; i++) {
+            putVarLong(out, zigzag(baskets[i].getBounds().x));
+            putVarLong(out, zigzag(baskets[i].getBounds().y));
+        }
+
+        ArrayList<Ranger> rangers = level.getRangers();
+        int rangerCount = rangers.size();
+        if (rangerXs.length < rangerCount) {
+            rangerXs = new int[rangerCount];
+            rangerYs = new int[rangerCount];
+            currentXs = new int[rangerCount];
+            currentYs = new int[rangerCount];
+            movedX = new long[wordCount(rangerCount)];
+            movedY = new long[wordCount(rangerCount)];
+        }
+        putVarLong(out, rangerCount);
+        for (int i = 0; i < rangerCount; i++) {
+            Ranger ranger = rangers.get(i);
+            rangerXs[i] = ranger.getX();
+            rangerYs[i] = ranger.getY();
+            out.put((byte) ranger.getPattern());
+            putVarLong(out, zigzag(rangerXs[i]));
+            putVarLong(out, zigzag(rangerYs[i]));
+        }
+    }
+
+    private void encodeDelta(Player player, long tick, ByteBuffer out) {
+        out.put(DELTA);
+        putVarLong(out, tick - this.tick);
+        this.tick = tick;
+        int flagsPosition = out.position();
+        out.put((byte) 0);
+        int flags = 0;
+
+        int dx = player.getX() - playerX;
+        int dy = player.getY() - playerY;
+        if ((dx | dy) != 0) {
+            flags |= PLAYER_MOVED;
+            putVarLong(out, zigzag(dx));
+            putVarLong(out, zigzag(dy));
+            playerX += dx;
+            playerY += dy;
+        }
+
+        ArrayList<Ranger> rangers = level.getRangers();
+        int rangerCount = rangers.size();
+        int words = wordCount(rangerCount);
+        Arrays.fill(movedX, 0, words, 0);
+        Arrays.fill(movedY, 0, words, 0);
+        long anyX = 0, anyY = 0;
+        for (int i = 0; i < rangerCount; i++) {
+            Ranger ranger = rangers.get(i);
+            int x = ranger.getX();
+            int y = ranger.getY();
+            currentXs[i] = x;
+            currentYs[i] = y;
+            long bit = 1L << i;
+            long mx = x != rangerXs[i] ? bit : 0;
+            long my = y != rangerYs[i] ? bit : 0;
+            movedX[i >>> 6] |= mx;
+            movedY[i >>> 6] |= my;
+            anyX |= mx;
+            anyY |= my;
+        }
+        if (anyX != 0) {
+            flags |= RANGERS_MOVED_X;
+            putBits(out, movedX, words);
+        }
+        if (anyY != 0) {
+            flags |= RANGERS_MOVED_Y;
+            putBits(out, movedY, words);
+        }
+        if (anyX != 0) {
+            putChanges(out, movedX, words, currentXs, rangerXs);
+        }
+        if (anyY != 0) {
+            putChanges(out, movedY, words, currentYs, rangerYs);
+        }
+
+        if (level.getBaskets().size() != basketsLeft) {
+            flags |= BASKETS_REMOVED;
+            findRemovedBaskets();
+            int basketWords = wordCount(basketCount);
+            putBits(out, newlyRemoved, basketWords);
+            Arrays.fill(newlyRemoved, 0, basketWords, 0);
+        }
+        out.put(flagsPosition, (byte) flags);
+    }
+
+    /**
+     * Writes the changes of the values whose bits are set, and takes the new values over.
+     */
+    private static void putChanges(ByteBuffer out, long[] bits, int words, int[] current, int[] sent) {
+        for (int w = 0; w < words; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                putVarLong(out, zigzag(current[i] - sent[i]));
+                sent[i] = current[i];
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Marks the baskets of the keyframe missing from the level in {@link #newlyRemoved}. The
+     * level removes baskets without reordering the rest, so one walk over both lists finds them.
+     */
+    private void findRemovedBaskets() {
+        ArrayList<Item> current = level.getBaskets();
+        int j = 0;
+        for (int id = 0; id < basketCount; id++) {
+            long bit = 1L << id;
+            if ((removed[id >>> 6] & bit) != 0) {
+                continue;
+            }
+            if (j < current.size() && current.get(j) == baskets[id]) {
+                j++;
+            } else {
+                removed[id >>> 6] |= bit;
+                newlyRemoved[id >>> 6] |= bit;
+                basketsLeft--;
+            }
+        }
+    }
+
+    /**
+     * Gets an upper bound of the size of the next message for a level.
+     *
+     * @param level the level to be encoded
+     * @return the largest possible message size in bytes
+     */
+    public static int maxEncodedSize(Level level) {
+        int obstacles = level.getObstacles().size();
+        int baskets = level.getBaskets().size();
+        int rangers = level.getRangers().size();
+        int header = 1 + 5 + 10 + 10 + 3 * 5;
+        int keyframe = header + obstacles * 11 + baskets * 10 + rangers * 11;
+        int bitsetWords = 2 * wordCount(rangers) + wordCount(baskets);
+        int delta = header + 3 * 5 + bitsetWords * (5 + Long.BYTES) + rangers * 10;
+        return Math.max(keyframe, delta);
+    }
+
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Writes a bitset as its non-zero words.
+     */
+    private static void putBits(ByteBuffer out, long[] bits, int words) {
+        int nonZero = 0;
+        for (int w = 0; w < words; w++) {
+            if (bits[w] != 0) {
+                nonZero++;
+            }
+        }
+        putVarLong(out, nonZero);
+        int previous = -1;
+        for (int w = 0; w < words; w++) {
+            if (bits[w] != 0) {
+                putVarLong(out, w - previous - 1);
+                out.putLong(bits[w]);
+                previous = w;
+            }
+        }
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt world state: varint too long");
+    }
+
+    static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    static int unzigzag(long value) {
+        int v = (int) value;
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Contains the server hosting many independent games over TCP.
+ *
+ * <p>
+ * The {@link org.example.server.GameServer} gives every connection its own
+ * {@link org.example.engine.GameEngine} and steps them all at 60 Hz on a small pool of carrier
+ * threads, with per-session tick latency histograms. The
+ * {@link org.example.server.SyntheticClient} plays thousands of sessions from one thread to
+ * load-test it over loopback.
+ * </p>
+ *
+ * <p>
+ * The {@link org.example.server.WorldStateEncoder} encodes the world of a game as a keyframe
+ * per level and small per-tick deltas, for clients that draw the game themselves, and the
+ * {@link org.example.server.WorldStateDecoder} reconstructs it on the client.
+ * </p>
+ */
+package org.example.server;
@@ -0,0 +1,17 @@
+package org.example.simulation;
+
+import org.example.engine.GameEngine;
+
+/**
+ * Decides the input of a simulated player on every tick.
+ */
+@FunctionalInterface
+public interface Agent {
+    /**
+     * Chooses the input for the next tick.
+     *
+     * @param engine the engine being played, to be read but not modified
+     * @return the input mask for the next tick
+     */
+    int nextInput(GameEngine engine);
+}
@@ -0,0 +1,170 @@
+package org.example.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongFunction;
+import org.example.engine.GameEngine;
+import org.example.engine.GameListener;
+import org.example.engine.LevelLoader;
+import org.example.model.Level;
+
+/**
+ * Plays many independent games headlessly across all cores and aggregates their statistics.
+ *
+ * <p>
+ * Every game gets its own {@link GameEngine}, and with it its own levels and player, so the
+ * games share no mutable state. They are split over a {@link ForkJoinPool}; each game collects
+ * its results locally and adds them to the shared {@link SimulationStatistics} once at the end.
+ * </p>
+ */
+public class BatchSimulator {
+    /** The number of games below which a fork/join task runs its games itself. */
+    private static final int GAMES_PER_TASK = 4;
+
+    private final LevelLoader levelLoader;
+    private final LongFunction<Agent> agentFactory;
+    private final long maxTicksPerGame;
+    private final int parallelism;
+
+    /**
+     * Constructs a new BatchSimulator.
+     *
+     * @param levelLoader     the source of the levels
+     * @param agentFactory    creates the agent of a game from the game's seed
+     * @param maxTicksPerGame the tick limit after which a game is abandoned
+     * @param parallelism     the number of worker threads
+     */
+    public BatchSimulator(LevelLoader levelLoader, LongFunction<Agent> agentFactory,
+                          long maxTicksPerGame, int parallelism) {
+        this.levelLoader = levelLoader;
+        this.agentFactory = agentFactory;
+        this.maxTicksPerGame = maxTicksPerGame;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plays the given number of games.
+     *
+     * @param games the number of games
+     * @param seed  the base seed; game {@code i} uses {@code seed + i}
+     * @return the aggregated statistics
+     */
+    public SimulationStatistics run(int games, long seed) {
+        SimulationStatistics statistics = new SimulationStatistics();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new GamesTask(statistics, seed, 0, games));
+        } finally {
+            pool.shutdown();
+        }
+        statistics.setTiming(System.nanoTime() - start, parallelism);
+        return statistics;
+    }
+
+    /**
+     * Plays a single game to its end or the tick limit.
+     *
+     * @param statistics the statistics to add the result to
+     * @param seed       the seed of the game's agent
+     */
+    private void playGame(SimulationStatistics statistics, long seed) {
+        GameEngine engine = new GameEngine(levelLoader);
+        GameRecorder recorder = new GameRecorder(engine);
+        engine.addListener(recorder);
+        Agent agent = agentFactory.apply(seed);
+
+        while (!engine.isGameOver() && engine.getTickCount() < maxTicksPerGame) {
+            engine.step(agent.nextInput(engine));
+        }
+
+        boolean completed = engine.isGameOver() && engine.getLevelsCleared() == GameEngine.LEVEL_COUNT;
+        statistics.addGame(engine.getTickCount(), completed, !engine.isGameOver(),
+                recorder.attempts, recorder.clears, recorder.livesLost, recorder.clearTicks);
+    }
+
+    /**
+     * Splits a range of games over the fork/join pool.
+     */
+    private class GamesTask extends RecursiveAction {
+        private final SimulationStatistics statistics;
+        private final long seed;
+        private final int from, to;
+
+        GamesTask(SimulationStatistics statistics, long seed, int from, int to) {
+            this.statistics = statistics;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int game = from; game < to; game++) {
+                    playGame(statistics, seed + game);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GamesTask(statistics, seed, from, middle), new GamesTask(statistics, seed, middle, to));
+        }
+    }
+
+    /**
+     * Collects the per-level results of one game without touching shared state.
+     */
+    private static class GameRecorder implements GameListener {
+        private final GameEngine engine;
+        private final int[] attempts = new int[GameEngine.LEVEL_COUNT + 1];
+        private final int[] clears = new int[GameEngine.LEVEL_COUNT + 1];
+        private final int[] livesLost = new int[GameEngine.LEVEL_COUNT + 1];
+        private final long[] clearTicks = new long[GameEngine.LEVEL_COUNT + 1];
+        private long levelStartTick;
+
+        GameRecorder(GameEngine engine) {
+            this.engine = engine;
+            // The first level was loaded before the recorder was added
+            attempts[engine.getLevelNumber()]++;
+        }
+
+        @Override
+        public void levelLoaded(int levelNumber, Level level) {
+            attempts[levelNumber]++;
+            levelStartTick = engine.getTickCount();
+        }
+
+        @Override
+        public void levelCleared(int levelNumber) {
+            clears[levelNumber]++;
+            clearTicks[levelNumber] += engine.getTickCount() - levelStartTick;
+        }
+
+        @Override
+        public void lifeLost(int livesLeft) {
+            livesLost[engine.getLevelNumber()]++;
+        }
+    }
+
+    /**
+     * Runs a batch from the command line and prints the report.
+     * Usage: {@code BatchSimulator [games] [random|greedy] [threads] [maxTicksPerGame]}
+     *
+     * @param args the optional number of games, agent, thread count and tick limit
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        String agentName = args.length > 1 ? args[1] : "random";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long maxTicks = args.length > 3 ? Long.parseLong(args[3]) : 60L * 60 * 10;
+
+        LongFunction<Agent> agents = switch (agentName) {
+            case "greedy" -> GreedyAgent::new;
+            case "random" -> RandomWalkAgent::new;
+            default -> throw new IllegalArgumentException("Unknown agent: " + agentName);
+        };
+
+        BatchSimulator simulator = new BatchSimulator(LevelLoader.fromDirectory("./levels"), agents, maxTicks, threads);
+        System.out.print(simulator.run(games, 1).report());
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.simulation;
+
+import java.awt.Rectangle;
+import java.util.SplittableRandom;
+import org.example.engine.GameEngine;
+import org.example.engine.InputState;
+import org.example.model.Item;
+import org.example.model.Player;
+
+/**
+ * A scripted agent that heads straight for the nearest basket and, when an obstacle blocks it,
+ * sidesteps in a random direction for a while. It ignores rangers.
+ */
+public class GreedyAgent implements Agent {
+    private final SplittableRandom random;
+    private int lastX = Integer.MIN_VALUE, lastY = Integer.MIN_VALUE;
+    private int detour;
+    private int detourTicks;
+
+    /**
+     * Constructs a new GreedyAgent.
+     *
+     * @param seed the random seed used for detours
+     */
+    public GreedyAgent(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int nextInput(GameEngine engine) {
+        Player player = engine.getPlayer();
+        boolean stuck = player.getX() == lastX && player.getY() == lastY;
+        lastX = player.getX();
+        lastY = player.getY();
+
+        if (detourTicks > 0) {
+            detourTicks--;
+            return detour;
+        }
+
+        Item target = nearestBasket(engine, player);
+        if (target == null) {
+            return 0;
+        }
+        Rectangle bounds = target.getBounds();
+        int mask = 0;
+        if (bounds.x + bounds.width / 2 < player.getX() + player.getWidth() / 2 - 2) {
+            mask |= InputState.LEFT;
+        } else if (bounds.x + bounds.width / 2 > player.getX() + player.getWidth() / 2 + 2) {
+            mask |= InputState.RIGHT;
+        }
+        if (bounds.y + bounds.height / 2 < player.getY() + player.getHeight() / 2 - 2) {
+            mask |= InputState.UP;
+        } else if (bounds.y + bounds.height / 2 > player.getY() + player.getHeight() / 2 + 2) {
+            mask |= InputState.DOWN;
+        }
+
+        if (stuck && mask != 0) {
+            // Blocked by an obstacle or the border: move sideways for a while
+            boolean horizontal = (mask & (InputState.UP | InputState.DOWN)) != 0 && random.nextBoolean();
+            detour = horizontal
+                    ? (random.nextBoolean() ? InputState.LEFT : InputState.RIGHT)
+                    : (random.nextBoolean() ? InputState.UP : InputState.DOWN);
+            detourTicks = 10 + random.nextInt(30);
+            return detour;
+        }
+        return mask;
+    }
+
+    private static Item nearestBasket(GameEngine engine, Player player) {
+        Item nearest = null;
+        long best = Long.MAX_VALUE;
+        for (Item basket : engine.getLevel().getBaskets()) {
+            long dx = basket.getBounds().x - player.getX();
+            long dy = basket.getBounds().y - player.getY();
+            long distance = dx * dx + dy * dy;
+            if (distance < best) {
+                best = distance;
+                nearest = basket;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.simulation;
+
+import java.util.SplittableRandom;
+import org.example.engine.GameEngine;
+import org.example.engine.InputState;
+
+/**
+ * An agent that walks in a random direction, including diagonals, for a random number of ticks
+ * before choosing a new one.
+ */
+public class RandomWalkAgent implements Agent {
+    private static final int[] DIRECTIONS = {
+            InputState.UP, InputState.DOWN, InputState.LEFT, InputState.RIGHT,
+            InputState.UP | InputState.LEFT, InputState.UP | InputState.RIGHT,
+            InputState.DOWN | InputState.LEFT, InputState.DOWN | InputState.RIGHT
+    };
+
+    private final SplittableRandom random;
+    private int direction;
+    private int ticksLeft;
+
+    /**
+     * Constructs a new RandomWalkAgent.
+     *
+     * @param seed the random seed, so that a game can be reproduced
+     */
+    public RandomWalkAgent(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int nextInput(GameEngine engine) {
+        if (ticksLeft-- <= 0) {
+            direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            ticksLeft = 10 + random.nextInt(50);
+        }
+        return direction;
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.simulation;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.example.engine.GameEngine;
+
+/**
+ * Aggregated results of many simulated games.
+ *
+ * <p>
+ * Every counter is a {@link LongAdder}, so the worker threads of a batch can add their
+ * results at the same time without contending on a shared lock or cache line.
+ * Per-level counters are indexed by level number, starting at 1.
+ * </p>
+ */
+public class SimulationStatistics {
+    private final LongAdder games = new LongAdder();
+    private final LongAdder gamesCompleted = new LongAdder();
+    private final LongAdder gamesTimedOut = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder[] levelAttempts = adders();
+    private final LongAdder[] levelClears = adders();
+    private final LongAdder[] levelLivesLost = adders();
+    private final LongAdder[] levelClearTicks = adders();
+    private volatile long wallNanos;
+    private volatile int parallelism;
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[GameEngine.LEVEL_COUNT + 1];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Adds the results of one game.
+     *
+     * @param gameTicks  the number of ticks the game ran
+     * @param completed  whether every level was cleared
+     * @param timedOut   whether the game hit the tick limit before ending
+     * @param attempts   the number of times each level was played
+     * @param clears     the number of times each level was cleared
+     * @param livesLost  the number of lives lost on each level
+     * @param clearTicks the total ticks spent on each level when it was cleared
+     */
+    void addGame(long gameTicks, boolean completed, boolean timedOut,
+                 int[] attempts, int[] clears, int[] livesLost, long[] clearTicks) {
+        games.increment();
+        ticks.add(gameTicks);
+        if (completed) {
+            gamesCompleted.increment();
+        }
+        if (timedOut) {
+            gamesTimedOut.increment();
+        }
+        for (int level = 1; level <= GameEngine.LEVEL_COUNT; level++) {
+            if (attempts[level] == 0) {
+                continue;
+            }
+            levelAttempts[level].add(attempts[level]);
+            levelClears[level].add(clears[level]);
+            levelLivesLost[level].add(livesLost[level]);
+            levelClearTicks[level].add(clearTicks[level]);
+        }
+    }
+
+    /**
+     * Records how long the batch took to run.
+     *
+     * @param wallNanos   the elapsed wall-clock time in nanoseconds
+     * @param parallelism the number of worker threads used
+     */
+    void setTiming(long wallNanos, int parallelism) {
+        this.wallNanos = wallNanos;
+        this.parallelism = parallelism;
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getGamesCompleted() {
+        return gamesCompleted.sum();
+    }
+
+    public long getGamesTimedOut() {
+        return gamesTimedOut.sum();
+    }
+
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    /**
+     * Gets the fraction of attempts at a level that cleared it.
+     *
+     * @param level the level number
+     * @return the completion rate between 0 and 1, or 0 if the level was never played
+     */
+    public double getCompletionRate(int level) {
+        long attempts = levelAttempts[level].sum();
+        return attempts == 0 ? 0 : (double) levelClears[level].sum() / attempts;
+    }
+
+    /**
+     * Gets the average number of lives lost to rangers per attempt at a level.
+     *
+     * @param level the level number
+     * @return the ranger-kill rate, or 0 if the level was never played
+     */
+    public double getRangerKillRate(int level) {
+        long attempts = levelAttempts[level].sum();
+        return attempts == 0 ? 0 : (double) levelLivesLost[level].sum() / attempts;
+    }
+
+    /**
+     * Gets the average number of ticks it took to clear a level, over the attempts that cleared it.
+     *
+     * @param level the level number
+     * @return the average time-to-clear in ticks, or 0 if the level was never cleared
+     */
+    public double getAverageTicksToClear(int level) {
+        long clears = levelClears[level].sum();
+        return clears == 0 ? 0 : (double) levelClearTicks[level].sum() / clears;
+    }
+
+    /**
+     * Gets the number of times a level was played.
+     *
+     * @param level the level number
+     * @return the attempt count
+     */
+    public long getAttempts(int level) {
+        return levelAttempts[level].sum();
+    }
+
+    /**
+     * Gets the simulation throughput.
+     *
+     * @return simulated ticks per second of wall-clock time, per worker thread
+     */
+    public double getTicksPerSecondPerCore() {
+        return wallNanos == 0 ? 0 : getTicks() / (wallNanos / 1e9) / parallelism;
+    }
+
+    /**
+     * Formats the statistics as a table.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d | Completed: %d | Timed out: %d%n",
+                getGames(), getGamesCompleted(), getGamesTimedOut()));
+        sb.append(String.format("Level | Attempts | Completion | Kills/attempt | Time to clear%n"));
+        for (int level = 1; level <= GameEngine.LEVEL_COUNT; level++) {
+            sb.append(String.format("%5d | %8d | %9.1f%% | %13.2f | %8.1f ticks%n",
+                    level, getAttempts(level), getCompletionRate(level) * 100,
+                    getRangerKillRate(level), getAverageTicksToClear(level)));
+        }
+        sb.append(String.format("Ticks: %d in %.2fs on %d threads | %.0f ticks/s per core%n",
+                getTicks(), wallNanos / 1e9, parallelism, getTicksPerSecondPerCore()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * Contains the batch simulator used to balance the levels.
+ *
+ * <p>
+ * This package includes the {@link org.example.simulation.BatchSimulator}, which plays many
+ * games headlessly on the {@link org.example.engine.GameEngine} with scripted or random
+ * {@link org.example.simulation.Agent}s, spread over all cores, and aggregates completion,
+ * ranger-kill and time-to-clear statistics per level.
+ * </p>
+ */
+package org.example.simulation;
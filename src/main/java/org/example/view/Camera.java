@@ -0,0 +1,76 @@
+package org.example.view;
+
+import java.awt.Rectangle;
+import org.example.model.WorldSnapshot;
+
+/**
+ * The part of the world shown in the window, kept centred on the player.
+ *
+ * <p>
+ * The camera is placed from a snapshot and an interpolation point alone, so the thread that
+ * computes dirty regions and the thread that paints can each keep their own camera and still
+ * agree on where every frame is. The view never leaves the world; a world no larger than the
+ * view is shown from its top left corner, which is how the game looked before worlds could be
+ * larger than the window.
+ * </p>
+ */
+public final class Camera {
+    private final int viewWidth, viewHeight;
+    private int x, y;
+
+    /**
+     * Constructs a camera at the origin of the world.
+     *
+     * @param viewWidth  the width of the view in pixels
+     * @param viewHeight the height of the view in pixels
+     */
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Moves the view so the player, as drawn at the given interpolation point, is at its centre,
+     * as far as the edges of the world allow.
+     *
+     * @param snapshot the game state being drawn
+     * @param alpha    the interpolation point of the frame
+     */
+    public void follow(WorldSnapshot snapshot, double alpha) {
+        x = clamp(snapshot.getPlayerX(alpha) + snapshot.getPlayerWidth() / 2 - viewWidth / 2,
+                snapshot.getWorldWidth() - viewWidth);
+        y = clamp(snapshot.getPlayerY(alpha) + snapshot.getPlayerHeight() / 2 - viewHeight / 2,
+                snapshot.getWorldHeight() - viewHeight);
+    }
+
+    private static int clamp(int position, int max) {
+        return Math.max(0, Math.min(max, position));
+    }
+
+    /**
+     * Gets the x-coordinate of the world shown at the left edge of the view.
+     *
+     * @return the x-coordinate in pixels
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinate of the world shown at the top edge of the view.
+     *
+     * @return the y-coordinate in pixels
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the visible part of the world.
+     *
+     * @return a new rectangle in world coordinates
+     */
+    public Rectangle getView() {
+        return new Rectangle(x, y, viewWidth, viewHeight);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.view;
+
+import java.util.Arrays;
+
+/**
+ * Records the time between presented frames and reports its percentiles.
+ *
+ * <p>
+ * The most recent {@value #WINDOW} frame times are kept in a ring buffer, so the percentiles
+ * describe the last few seconds of play rather than the whole session. Frames are recorded by
+ * the thread that presents them; the statistics can be read from any thread.
+ * </p>
+ */
+public class FrameStats {
+    /** The number of recent frame times kept. */
+    public static final int WINDOW = 1024;
+
+    private final long[] frameNanos = new long[WINDOW];
+    private long frames;
+    private long lastPresentNanos;
+
+    /**
+     * Records that a frame was presented now.
+     */
+    public void framePresented() {
+        framePresented(System.nanoTime());
+    }
+
+    /**
+     * Records that a frame was presented at the given time.
+     *
+     * @param nanos the {@link System#nanoTime()} value at which the frame was presented
+     */
+    public synchronized void framePresented(long nanos) {
+        if (lastPresentNanos != 0) {
+            frameNanos[(int) (frames % WINDOW)] = nanos - lastPresentNanos;
+            frames++;
+        }
+        lastPresentNanos = nanos;
+    }
+
+    /**
+     * Gets the number of frame times recorded, one less than the number of presented frames.
+     *
+     * @return the frame count
+     */
+    public synchronized long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Gets a percentile of the recent frame times.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the frame time in nanoseconds, or 0 if no frame time has been recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(frameNanos, (int) Math.min(frames, WINDOW));
+        }
+        if (sorted.length == 0) {
+            return 0;
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Gets the median of the recent frame times.
+     *
+     * @return the frame time in nanoseconds
+     */
+    public long getP50Nanos() {
+        return getPercentileNanos(50);
+    }
+
+    /**
+     * Gets the 99th percentile of the recent frame times.
+     *
+     * @return the frame time in nanoseconds
+     */
+    public long getP99Nanos() {
+        return getPercentileNanos(99);
+    }
+
+    /**
+     * Forgets every recorded frame.
+     */
+    public synchronized void reset() {
+        frames = 0;
+        lastPresentNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames, p50 %.2f ms, p99 %.2f ms",
+                getFrameCount(), getP50Nanos() / 1e6, getP99Nanos() / 1e6);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.view;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import org.example.model.WorldSnapshot;
+
+/**
+ * A canvas that the game loop draws on directly through a {@link BufferStrategy}.
+ *
+ * <p>
+ * Unlike the passive {@link GamePanel} path, which asks Swing to repaint and lets the repaint
+ * manager decide when, every call to {@link #renderFrame(WorldSnapshot, double)} draws a whole
+ * frame into the back buffer and shows it right away. Page flipping is requested where the
+ * pipeline supports it, which lets the flip wait for the display's vertical retrace; otherwise
+ * the back buffer is copied. Swing's own repaints of the canvas are ignored.
+ * </p>
+ */
+public class GameCanvas extends Canvas {
+    private final int bufferCount;
+    private final LayeredRenderer renderer;
+    private final FrameStats frameStats;
+
+    /**
+     * Constructs a new GameCanvas.
+     *
+     * @param bufferCount the number of buffers, 2 or 3
+     * @param renderer    the renderer that draws the frames
+     * @param frameStats  records the time between shown frames
+     */
+    public GameCanvas(int bufferCount, LayeredRenderer renderer, FrameStats frameStats) {
+        this.bufferCount = bufferCount;
+        this.renderer = renderer;
+        this.frameStats = frameStats;
+        setIgnoreRepaint(true);
+        setFocusable(true);
+    }
+
+    /**
+     * Draws a frame and shows it. Must always be called from the same thread. Does nothing
+     * until the canvas is displayable.
+     *
+     * @param snapshot the game state to draw
+     * @param alpha    the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     */
+    public void renderFrame(WorldSnapshot snapshot, double alpha) {
+        if (!isDisplayable()) {
+            return;
+        }
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            createBuffers();
+            strategy = getBufferStrategy();
+        }
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    renderer.paint(g, snapshot, alpha);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        frameStats.framePresented();
+    }
+
+    /**
+     * Creates the buffer strategy, preferring page flipping and falling back to whatever the
+     * pipeline offers.
+     */
+    private void createBuffers() {
+        try {
+            createBufferStrategy(bufferCount, new BufferCapabilities(new ImageCapabilities(true),
+                    new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e) {
+            createBufferStrategy(bufferCount);
+        }
+    }
+}
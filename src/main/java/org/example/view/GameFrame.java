@@ -6,8 +6,20 @@ import org.example.controller.GameController;
 /**
  * Represents the main game window frame.
  * Initializes the game panel, controller, and menu.
+ *
+ * <p>
+ * Frames are drawn with passive Swing repaints unless the {@value #RENDERING_PROPERTY} system
+ * property is set to {@code active}, in which case the game loop draws them on a canvas with
+ * a buffer strategy of {@value #RENDERING_BUFFERS_PROPERTY} buffers (2 or 3, default 2).
+ * </p>
  */
 public class GameFrame extends JFrame {
+    /** The system property selecting the rendering mode, {@code passive} or {@code active}. */
+    public static final String RENDERING_PROPERTY = "yogi.rendering";
+
+    /** The system property with the number of buffers used for active rendering. */
+    public static final String RENDERING_BUFFERS_PROPERTY = "yogi.rendering.buffers";
+
     /**
      * The panel where the game is rendered.
      */
@@ -19,10 +31,19 @@ public class GameFrame extends JFrame {
     private GameController gameController;
 
     /**
-     * Constructs a new GameFrame, setting up the game panel and controller.
+     * Constructs a new GameFrame, using the rendering mode selected by the system properties.
      */
     public GameFrame() {
-        gamePanel = new GamePanel();
+        this(activeBuffersFromProperties());
+    }
+
+    /**
+     * Constructs a new GameFrame, setting up the game panel and controller.
+     *
+     * @param activeBuffers the number of buffers for active rendering, 2 or 3, or 0 for passive repaints
+     */
+    public GameFrame(int activeBuffers) {
+        gamePanel = new GamePanel(activeBuffers);
         gameController = new GameController(this, gamePanel);
         gamePanel.setGameController(gameController);
 
@@ -34,6 +55,24 @@ public class GameFrame extends JFrame {
         setLocationRelativeTo(null);
     }
 
+    /**
+     * Reads the rendering mode from the system properties.
+     *
+     * @return the number of buffers for active rendering, or 0 for passive repaints
+     */
+    private static int activeBuffersFromProperties() {
+        if (!"active".equalsIgnoreCase(System.getProperty(RENDERING_PROPERTY))) {
+            return 0;
+        }
+        try {
+            int buffers = Integer.parseInt(System.getProperty(RENDERING_BUFFERS_PROPERTY, "2"));
+            return Math.max(2, Math.min(3, buffers));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid " + RENDERING_BUFFERS_PROPERTY + ", using 2 buffers");
+            return 2;
+        }
+    }
+
     /**
      * Creates the game menu with options to restart the game and view highscores.
      */
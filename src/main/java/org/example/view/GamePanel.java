@@ -3,16 +3,26 @@ package org.example.view;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
-import javax.imageio.ImageIO;
+import org.example.assets.SpriteCache;
 import org.example.controller.GameController;
+import org.example.model.WorldSnapshot;
 
 /**
  * Represents the panel where the game is rendered.
- * Handles drawing the background and delegating rendering to the game controller.
+ * Draws the game controller's published state with a {@link LayeredRenderer}, which keeps the
+ * background and obstacles in a cached layer.
+ *
+ * <p>
+ * In the default passive mode the panel asks Swing to repaint only the area that changed and
+ * draws the frame when the repaint manager gets to it. In active mode the panel holds a
+ * {@link GameCanvas} instead, which the game loop draws on and flips directly. The time between
+ * presented frames is recorded in {@link FrameStats} in both modes.
+ * </p>
  */
 public class GamePanel extends JPanel {
+    /** The size of the game area, the part of the world shown around the player. */
+    private static final int WIDTH = 800, HEIGHT = 600;
+
     /**
      * The label displaying the game's status.
      */
@@ -29,33 +39,66 @@ public class GamePanel extends JPanel {
     private BufferedImage backgroundImage;
 
     /**
-     * Constructs a new GamePanel, setting up the status bar and loading the background image.
+     * Draws the frames and tracks the area they change.
+     */
+    private LayeredRenderer renderer;
+
+    /**
+     * The frame the latest dirty region was computed for, painted by the next repaint in passive
+     * mode; guarded by the renderer.
+     */
+    private WorldSnapshot frameSnapshot;
+    private double frameAlpha;
+
+    /**
+     * The canvas drawn on by the game loop in active mode, or null in passive mode.
+     */
+    private GameCanvas canvas;
+
+    /**
+     * The time between presented frames.
+     */
+    private final FrameStats frameStats = new FrameStats();
+
+    /**
+     * The status text last handed to the status bar in active mode.
+     */
+    private volatile String shownStatus;
+
+    /**
+     * Constructs a new GamePanel using passive Swing repaints.
      */
     public GamePanel() {
-        setPreferredSize(new Dimension(800, 600));
+        this(0);
+    }
+
+    /**
+     * Constructs a new GamePanel, setting up the status bar and loading the background image.
+     *
+     * @param activeBuffers the number of buffers for active rendering, 2 or 3, or 0 for passive repaints
+     */
+    public GamePanel(int activeBuffers) {
         setFocusable(true);
         setLayout(new BorderLayout());
         statusBar = new JLabel("Status: Initializing...");
         add(statusBar, BorderLayout.NORTH);
         loadBackgroundImage();
+        renderer = new LayeredRenderer(backgroundImage, getBackground(), WIDTH, HEIGHT);
+        if (activeBuffers > 0) {
+            canvas = new GameCanvas(activeBuffers, renderer, frameStats);
+            canvas.setPreferredSize(new Dimension(WIDTH, HEIGHT));
+            add(canvas, BorderLayout.CENTER);
+        } else {
+            setPreferredSize(new Dimension(WIDTH, HEIGHT));
+        }
         requestFocusInWindow();
     }
 
     /**
-     * Loads the background image from the resources.
+     * Loads the background image, pre-scaled to the game area size, from the sprite cache.
      */
     private void loadBackgroundImage() {
-        try {
-            InputStream is = getClass().getResourceAsStream("/images/background.png");
-            if (is != null) {
-                backgroundImage = ImageIO.read(is);
-            } else {
-                System.err.println("Error: Background image not found!");
-            }
-        } catch (IOException e) {
-            System.err.println("Error loading background image.");
-            e.printStackTrace();
-        }
+        backgroundImage = SpriteCache.getSprite("/images/background.png", WIDTH, HEIGHT);
     }
 
     /**
@@ -66,28 +109,114 @@ public class GamePanel extends JPanel {
     public void setGameController(GameController controller) {
         this.gameController = controller;
         addKeyListener(controller);
+        if (canvas != null) {
+            canvas.addKeyListener(controller);
+        }
     }
 
     /**
-     * Paints the component by drawing the background and delegating rendering to the controller.
+     * Presents the next frame. In passive mode this requests a repaint of the area the frame
+     * changes; in active mode the frame is drawn and shown on the calling thread, which must
+     * always be the same one.
+     *
+     * @param snapshot the game state of the next frame
+     * @param alpha    the interpolation point of the next frame
+     */
+    public void repaintFrame(WorldSnapshot snapshot, double alpha) {
+        if (canvas != null) {
+            canvas.renderFrame(snapshot, alpha);
+            updateStatusBarLater();
+            return;
+        }
+        Rectangle dirty;
+        synchronized (renderer) {
+            dirty = renderer.getDirtyRegion(snapshot, alpha);
+            frameSnapshot = snapshot;
+            frameAlpha = alpha;
+        }
+        repaint(dirty);
+    }
+
+    /**
+     * Paints the component by drawing the cached static layer and the moving elements, limited
+     * to the clip of the repaint. The frame painted is the one the latest dirty region was
+     * computed for, not whatever the controller holds by now: Swing merges the pending regions
+     * into the clip, so they cover every change up to that frame and no further. In active mode
+     * the canvas covers the game area and this only updates the status bar.
      *
      * @param g the Graphics context
      */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-
-        if (backgroundImage != null) {
-            g.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), null);
+        if (canvas != null) {
+            super.paintComponent(g);
+            updateStatusBar();
+        } else if (gameController != null) {
+            WorldSnapshot snapshot;
+            double alpha;
+            synchronized (renderer) {
+                snapshot = frameSnapshot;
+                alpha = frameAlpha;
+            }
+            if (snapshot == null) {
+                snapshot = gameController.getSnapshot();
+                alpha = gameController.getRenderAlpha();
+            }
+            renderer.paint(g, snapshot, alpha);
+            frameStats.framePresented();
+            updateStatusBar();
         } else {
-            g.setColor(new Color(144, 238, 144));
-            g.fillRect(0, 0, getWidth(), getHeight());
+            renderer.paint(g, null, 0);
         }
+    }
 
-        if (gameController != null) {
-            gameController.render(g);
-            updateStatusBar();
+    /**
+     * Hands the current status to the status bar on the Swing event thread, if it changed.
+     */
+    private void updateStatusBarLater() {
+        if (gameController == null) {
+            return;
         }
+        String status = gameController.getStatus();
+        if (!status.equals(shownStatus)) {
+            shownStatus = status;
+            SwingUtilities.invokeLater(() -> statusBar.setText(status));
+        }
+    }
+
+    /**
+     * Shows or hides the debug overlay and repaints the whole panel.
+     */
+    public void toggleOverlay() {
+        renderer.setOverlayVisible(!renderer.isOverlayVisible());
+        repaint();
+    }
+
+    /**
+     * Checks whether the game loop draws frames directly instead of requesting repaints.
+     *
+     * @return true in active rendering mode
+     */
+    public boolean isActiveRendering() {
+        return canvas != null;
+    }
+
+    /**
+     * Retrieves the frame pacing statistics of the current rendering mode.
+     *
+     * @return the FrameStats instance
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Retrieves the renderer, which exposes frame paint time measurements.
+     *
+     * @return the LayeredRenderer instance
+     */
+    public LayeredRenderer getRenderer() {
+        return renderer;
     }
 
     /**
@@ -0,0 +1,336 @@
+package org.example.view;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.TickMetrics;
+import org.example.model.WorldSnapshot;
+
+/**
+ * Draws game frames in two layers and works out which part of the screen a frame changes.
+ *
+ * <p>
+ * The background and the obstacles never move, so they are composited once per level into a
+ * cached, display-compatible image. A frame is that image plus the baskets, rangers and player
+ * drawn on top. {@link #getDirtyRegion(WorldSnapshot, double)} returns the area where the
+ * moving elements were drawn in the previous frame or are drawn in the next one, so a repaint
+ * can be limited to it; the whole frame is only repainted when the level changes or the view scrolls.
+ * </p>
+ *
+ * <p>
+ * The frame shows the part of the world around the player chosen by a {@link Camera}. In a
+ * world larger than the frame, the static layer covers the view and a margin around it, and is
+ * rebuilt around the camera when the view leaves it. Only the obstacles, baskets and rangers
+ * that intersect the layer or the painted area are drawn, so the frame time does not grow with
+ * the size of the world.
+ * </p>
+ *
+ * <p>
+ * {@link #paint(Graphics, WorldSnapshot, double)} must be called from one thread, usually the
+ * Swing event thread, and {@link #getDirtyRegion(WorldSnapshot, double)} from one thread, usually
+ * the game loop; the two may be different. The paint time measurements can be read from any thread.
+ * </p>
+ *
+ * <p>
+ * When {@link TickMetrics} are set, paint times are also recorded into them, and a debug overlay
+ * with the percentiles of every phase can be shown in the top left corner of the frame.
+ * </p>
+ */
+public class LayeredRenderer {
+    /** The weight of a new sample in the running average, as a shift (1/16). */
+    private static final int AVERAGE_SHIFT = 4;
+
+    /** The distance the static layer reaches beyond each edge of the view, where the world allows. */
+    static final int LAYER_MARGIN = 256;
+
+    /** The area of the frame covered by the debug overlay. */
+    private static final Rectangle OVERLAY_BOUNDS = new Rectangle(8, 24, 300, 20 + 14 * TickMetrics.Phase.values().length);
+
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+
+    private final BufferedImage background;
+    private final Color backdrop;
+    private final int width, height;
+
+    /** The cached static layer, the snapshot it was drawn for and its origin in the world; used by the painting thread. */
+    private BufferedImage staticLayer;
+    private WorldSnapshot layerSnapshot;
+    private int layerX, layerY;
+    private final Camera paintCamera;
+
+    /** The last frame a dirty region was computed for and where it was viewed from; used by the requesting thread. */
+    private WorldSnapshot lastSnapshot;
+    private Rectangle lastMovingBounds;
+    private int lastCameraX, lastCameraY;
+    private final Camera dirtyCamera;
+
+    private volatile long paintCount;
+    private volatile long layerBuilds;
+    private volatile long lastPaintNanos;
+    private volatile long averagePaintNanos;
+
+    private volatile TickMetrics metrics;
+    private volatile boolean overlayVisible;
+
+    /**
+     * Constructs a new LayeredRenderer.
+     *
+     * @param background the background image, already scaled to the frame size, or null for a plain fill
+     * @param backdrop   the color shown through transparent parts of the background image
+     * @param width      the width of a frame
+     * @param height     the height of a frame
+     */
+    public LayeredRenderer(BufferedImage background, Color backdrop, int width, int height) {
+        this.background = background;
+        this.backdrop = backdrop;
+        this.width = width;
+        this.height = height;
+        paintCamera = new Camera(width, height);
+        dirtyCamera = new Camera(width, height);
+    }
+
+    /**
+     * Paints a frame: the cached static layer, rebuilt if the level changed or the view left
+     * it, then the moving elements. Only the area inside the clip of the Graphics context is
+     * touched, and only the moving elements intersecting it are drawn.
+     *
+     * @param g        the Graphics context
+     * @param snapshot the game state to draw, or null to draw only the background
+     * @param alpha    the fraction of a tick elapsed since the snapshot's step, from 0 to 1
+     */
+    public void paint(Graphics g, WorldSnapshot snapshot, double alpha) {
+        long start = System.nanoTime();
+        if (snapshot == null) {
+            drawBackground(g, 0, 0, width, height);
+        } else {
+            paintCamera.follow(snapshot, alpha);
+            int cameraX = paintCamera.getX();
+            int cameraY = paintCamera.getY();
+            if (staticLayer == null || !snapshot.hasSameObstacles(layerSnapshot) || !layerCovers(cameraX, cameraY)) {
+                buildStaticLayer(snapshot, cameraX, cameraY);
+            }
+            g.drawImage(staticLayer, layerX - cameraX, layerY - cameraY, null);
+            Rectangle view = g.getClipBounds();
+            if (view == null) {
+                view = new Rectangle(0, 0, width, height);
+            }
+            view.translate(cameraX, cameraY);
+            g.translate(-cameraX, -cameraY);
+            try {
+                snapshot.drawDynamic(g, alpha, view);
+            } finally {
+                g.translate(cameraX, cameraY);
+            }
+        }
+        TickMetrics current = metrics;
+        if (current != null && overlayVisible) {
+            drawOverlay(g, current);
+        }
+        long nanos = System.nanoTime() - start;
+        if (current != null) {
+            current.record(TickMetrics.Phase.RENDER, nanos);
+        }
+        lastPaintNanos = nanos;
+        averagePaintNanos = paintCount == 0 ? nanos : averagePaintNanos + ((nanos - averagePaintNanos) >> AVERAGE_SHIFT);
+        paintCount++;
+    }
+
+    /**
+     * Computes the area that changes when the given frame is drawn after the frame passed to
+     * the previous call.
+     *
+     * @param snapshot the game state of the next frame
+     * @param alpha    the interpolation point of the next frame
+     * @return the area to repaint in frame coordinates, the whole frame if the level changed or the view scrolled
+     */
+    public Rectangle getDirtyRegion(WorldSnapshot snapshot, double alpha) {
+        dirtyCamera.follow(snapshot, alpha);
+        Rectangle moving = snapshot.getMovingBounds(alpha, dirtyCamera.getView());
+        int cameraX = dirtyCamera.getX();
+        int cameraY = dirtyCamera.getY();
+        Rectangle dirty;
+        if (!snapshot.hasSameObstacles(lastSnapshot) || cameraX != lastCameraX || cameraY != lastCameraY) {
+            dirty = new Rectangle(0, 0, width, height);
+        } else {
+            dirty = moving.union(lastMovingBounds);
+            Rectangle removed = snapshot.getRemovedBasketBounds(lastSnapshot);
+            if (removed != null) {
+                dirty.add(removed);
+            }
+            dirty.translate(-cameraX, -cameraY);
+            dirty = dirty.intersection(new Rectangle(0, 0, width, height));
+            if (overlayVisible && metrics != null) {
+                dirty.add(OVERLAY_BOUNDS);
+            }
+        }
+        lastSnapshot = snapshot;
+        lastMovingBounds = moving;
+        lastCameraX = cameraX;
+        lastCameraY = cameraY;
+        return dirty;
+    }
+
+    /**
+     * Draws the debug overlay with the percentiles of every measured phase.
+     *
+     * @param g       the Graphics context
+     * @param metrics the metrics to show
+     */
+    private void drawOverlay(Graphics g, TickMetrics metrics) {
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(OVERLAY_BOUNDS.x, OVERLAY_BOUNDS.y, OVERLAY_BOUNDS.width, OVERLAY_BOUNDS.height);
+        g.setFont(OVERLAY_FONT);
+        g.setColor(Color.WHITE);
+        int y = OVERLAY_BOUNDS.y + 16;
+        g.drawString(String.format("%-13s %8s %8s %8s", "phase (us)", "p50", "p99", "max"), OVERLAY_BOUNDS.x + 6, y);
+        for (TickMetrics.Phase phase : TickMetrics.Phase.values()) {
+            LatencyHistogram histogram = metrics.get(phase);
+            y += 14;
+            g.drawString(String.format("%-13s %8.1f %8.1f %8.1f", phase.getLabel(), histogram.getP50Nanos() / 1e3,
+                    histogram.getP99Nanos() / 1e3, histogram.getMaxNanos() / 1e3), OVERLAY_BOUNDS.x + 6, y);
+        }
+    }
+
+    /**
+     * Sets the metrics that paint times are recorded into and the overlay shows.
+     *
+     * @param metrics the metrics, or null to stop measuring
+     */
+    public void setMetrics(TickMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Shows or hides the debug overlay. The overlay is only drawn while metrics are set.
+     *
+     * @param visible true to show the overlay
+     */
+    public void setOverlayVisible(boolean visible) {
+        overlayVisible = visible;
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    /**
+     * Checks whether the static layer covers the whole view from a camera position.
+     *
+     * @param cameraX the x-coordinate of the view in the world
+     * @param cameraY the y-coordinate of the view in the world
+     * @return true if the layer can be drawn for the view without rebuilding it
+     */
+    private boolean layerCovers(int cameraX, int cameraY) {
+        return cameraX >= layerX && cameraY >= layerY
+                && cameraX + width <= layerX + staticLayer.getWidth() && cameraY + height <= layerY + staticLayer.getHeight();
+    }
+
+    /**
+     * Composites the background and the obstacles of a snapshot into the static layer, covering
+     * the view from the camera position and up to {@link #LAYER_MARGIN} around it.
+     *
+     * @param snapshot the snapshot whose obstacles are drawn
+     * @param cameraX  the x-coordinate of the view in the world
+     * @param cameraY  the y-coordinate of the view in the world
+     */
+    private void buildStaticLayer(WorldSnapshot snapshot, int cameraX, int cameraY) {
+        int layerWidth = Math.min(width + 2 * LAYER_MARGIN, Math.max(width, snapshot.getWorldWidth()));
+        int layerHeight = Math.min(height + 2 * LAYER_MARGIN, Math.max(height, snapshot.getWorldHeight()));
+        if (staticLayer == null || staticLayer.getWidth() != layerWidth || staticLayer.getHeight() != layerHeight) {
+            staticLayer = createCompatibleImage(layerWidth, layerHeight);
+        }
+        layerX = Math.max(0, Math.min(snapshot.getWorldWidth() - layerWidth, cameraX - (layerWidth - width) / 2));
+        layerY = Math.max(0, Math.min(snapshot.getWorldHeight() - layerHeight, cameraY - (layerHeight - height) / 2));
+        Graphics2D g = staticLayer.createGraphics();
+        try {
+            g.translate(-layerX, -layerY);
+            drawBackground(g, layerX, layerY, layerWidth, layerHeight);
+            snapshot.drawStatic(g, new Rectangle(layerX, layerY, layerWidth, layerHeight));
+        } finally {
+            g.dispose();
+        }
+        layerSnapshot = snapshot;
+        layerBuilds++;
+    }
+
+    /**
+     * Fills an area with the background, repeating the image over worlds larger than it.
+     *
+     * @param g      the Graphics context
+     * @param x      the x-coordinate of the area
+     * @param y      the y-coordinate of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     */
+    private void drawBackground(Graphics g, int x, int y, int width, int height) {
+        if (background != null) {
+            g.setColor(backdrop);
+            g.fillRect(x, y, width, height);
+            int tileWidth = background.getWidth();
+            int tileHeight = background.getHeight();
+            for (int ty = Math.floorDiv(y, tileHeight) * tileHeight; ty < y + height; ty += tileHeight) {
+                for (int tx = Math.floorDiv(x, tileWidth) * tileWidth; tx < x + width; tx += tileWidth) {
+                    g.drawImage(background, tx, ty, null);
+                }
+            }
+        } else {
+            g.setColor(new Color(144, 238, 144));
+            g.fillRect(x, y, width, height);
+        }
+    }
+
+    /**
+     * Creates an opaque image in the format of the default screen, or a plain RGB image
+     * when running without a display.
+     *
+     * @param width  the image width
+     * @param height the image height
+     * @return the new image
+     */
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice()
+                .getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.OPAQUE);
+    }
+
+    /**
+     * Gets the number of frames painted.
+     *
+     * @return the paint count
+     */
+    public long getPaintCount() {
+        return paintCount;
+    }
+
+    /**
+     * Gets the number of times the static layer has been composited, about once per level.
+     *
+     * @return the layer build count
+     */
+    public long getLayerBuilds() {
+        return layerBuilds;
+    }
+
+    /**
+     * Gets the time painting the most recent frame took.
+     *
+     * @return the paint time in nanoseconds
+     */
+    public long getLastPaintNanos() {
+        return lastPaintNanos;
+    }
+
+    /**
+     * Gets the running average of the frame paint time.
+     *
+     * @return the average paint time in nanoseconds
+     */
+    public long getAveragePaintNanos() {
+        return averagePaintNanos;
+    }
+}
@@ -1,10 +1,13 @@
 package org.example;
 
 import org.example.model.*;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 public class BlackBoxTests {
@@ -14,12 +17,19 @@ public class BlackBoxTests {
     private HighscoreManager highscoreManager;
 
     @BeforeEach
-    void setup() {
+    void setup(@TempDir Path dir) {
+        System.setProperty("yogi.highscores.file", dir.resolve("highscores.ylog").toString());
         level = new Level("./levels/testLevel.txt"); // Replace with mock or simple initialization if needed
         yogi = new Player(50, 50, level);
         highscoreManager = new HighscoreManager();
     }
 
+    @AfterEach
+    void tearDown() {
+        highscoreManager.close();
+        System.clearProperty("yogi.highscores.file");
+    }
+
     @Test
     void testBasketCollection() {
         level.getBaskets().add(new Item(100, 100));
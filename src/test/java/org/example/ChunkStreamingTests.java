@@ -0,0 +1,175 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.example.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkStreamingTests {
+
+    /**
+     * The heap the walk across a million entities is confined to: enough to decode the largest
+     * sprite once, far too little for the whole level.
+     */
+    private static final String WALK_HEAP = "-Xmx64m";
+
+    @Test
+    void testChunksHoldEveryEntityOnce(@TempDir Path dir) throws IOException {
+        LevelData data = new LevelGenerator(5, 1_000, 1_000, 1_000).generate();
+        Path file = dir.resolve("level" + ChunkedLevelFormat.EXTENSION);
+        ChunkedLevelFormat.write(data, 256, file);
+
+        ChunkedLevelFormat chunks = ChunkedLevelFormat.open(file);
+        assertEquals(data.getWidth(), chunks.getWidth());
+        assertEquals(data.getHeight(), chunks.getHeight());
+        int obstacles = 0, baskets = 0, rangers = 0;
+        for (int chunk = 0; chunk < chunks.getChunkCount(); chunk++) {
+            Level level = new Level(chunks.readChunk(chunk));
+            assertEquals(chunks.getBasketCount(chunk), level.getBaskets().size());
+            for (Obstacle obstacle : level.getObstacles()) {
+                assertEquals(chunk, chunks.chunkAt(obstacle.getBounds().x, obstacle.getBounds().y));
+            }
+            for (Ranger ranger : level.getRangers()) {
+                assertEquals(chunk, chunks.chunkAt(ranger.getX(), ranger.getY()));
+            }
+            obstacles += level.getObstacles().size();
+            baskets += level.getBaskets().size();
+            rangers += level.getRangers().size();
+        }
+        assertEquals(1_000, obstacles);
+        assertEquals(1_000, baskets);
+        assertEquals(1_000, rangers);
+    }
+
+    @Test
+    void testEvictedChunksKeepTheirState(@TempDir Path dir) throws IOException {
+        LevelData data = new LevelGenerator(9, 300, 300, 300).generate();
+        Path file = dir.resolve("level" + ChunkedLevelFormat.EXTENSION);
+        ChunkedLevelFormat.write(data, 256, file);
+
+        Level level = new Level(ChunkedLevelFormat.open(file));
+        ChunkStreamer streamer = level.getChunkStreamer();
+        Player player = new Player(50, 50, level);
+        assertEquals(300, level.getBaskets().size() + streamer.getUnloadedBaskets());
+
+        // Collect whatever is around the start, walk far enough for it to be evicted, and come back
+        int collected = 0;
+        for (int y = 0; y < 512; y += 5) {
+            for (int x = 0; x < 512; x += 25) {
+                player.setPosition(x, y);
+                level.update(x, y);
+                if (level.checkBasketCollision(player)) {
+                    collected++;
+                }
+            }
+        }
+        assertTrue(collected > 0);
+
+        int far = data.getWidth() - 100;
+        for (int x = 0; x < far; x += 5) {
+            level.update(x, 50);
+        }
+        assertTrue(streamer.getEvictions() > 0);
+        assertFalse(streamer.getInstalledChunks().contains(0));
+        for (int x = far; x >= 0; x -= 5) {
+            level.update(x, 50);
+        }
+        assertTrue(streamer.getInstalledChunks().contains(0));
+        assertEquals(300 - collected, level.getBaskets().size() + streamer.getUnloadedBaskets());
+        assertTrue(streamer.getPeakInstalled() <= streamer.getCapacity() + 6);
+        streamer.close();
+    }
+
+    @Test
+    void testUnloadedWorldIsSolid(@TempDir Path dir) throws IOException {
+        LevelData data = new LevelGenerator(2, 100, 100, 100).generate();
+        Path file = dir.resolve("level" + ChunkedLevelFormat.EXTENSION);
+        ChunkedLevelFormat.write(data, 256, file);
+
+        Level level = new Level(ChunkedLevelFormat.open(file));
+        Level full = new Level(data);
+        int x = data.getWidth() - 60, y = data.getHeight() - 60;
+        assertTrue(level.checkObstacleCollision(x, y, 50, 50));
+        assertFalse(level.areAllBasketsCollected());
+
+        // Everything the player could touch from there is installed before the update returns
+        level.update(x, y);
+        for (int dy = -100; dy <= 0; dy += 5) {
+            for (int dx = -100; dx <= 0; dx += 5) {
+                assertEquals(full.checkObstacleCollision(x + dx, y + dy, 50, 50),
+                        level.checkObstacleCollision(x + dx, y + dy, 50, 50));
+            }
+        }
+        level.getChunkStreamer().close();
+    }
+
+    @Test
+    void testWalkAcrossMillionEntitiesInBoundedHeap(@TempDir Path dir) throws Exception {
+        LevelData data = new LevelGenerator(42, 333_333, 333_334, 333_333).generate();
+        Path file = dir.resolve("million" + ChunkedLevelFormat.EXTENSION);
+        ChunkedLevelFormat.write(data, ChunkedLevelFormat.DEFAULT_CHUNK_SIZE, file);
+        assertEquals(1_000_000, data.getEntityCount());
+        data = null;
+
+        String classPath = codeSource(Level.class) + File.pathSeparator + codeSource(ChunkStreamingTests.class);
+        Process walk = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                WALK_HEAP, "-Djava.awt.headless=true", "-cp", classPath,
+                ChunkStreamingTests.class.getName(), file.toString())
+                .redirectErrorStream(true)
+                .start();
+        String output;
+        try (var in = walk.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(walk.waitFor(5, TimeUnit.MINUTES));
+        assertEquals(0, walk.exitValue(), output);
+        assertFalse(output.contains("OutOfMemoryError"), output);
+
+        String[] stats = output.lines().filter(line -> line.startsWith("walked ")).findFirst().orElseThrow().split(" ");
+        long evictions = Long.parseLong(stats[3]);
+        int peak = Integer.parseInt(stats[5]);
+        int capacity = Integer.parseInt(stats[6]);
+        assertTrue(evictions > 100, output);
+        assertTrue(peak <= capacity + 6, output);
+    }
+
+    private static String codeSource(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /**
+     * Walks a player diagonally across a chunked level, capturing a snapshot every tick, and
+     * prints the streaming statistics. Run in a separate JVM with a small heap.
+     *
+     * @param args the chunked level file
+     * @throws IOException if the level cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        Level level = new Level(ChunkedLevelFormat.open(Path.of(args[0])));
+        ChunkStreamer streamer = level.getChunkStreamer();
+        Player player = new Player(50, 50, level);
+        int ticks = (level.getWidth() - 100) / player.getSpeed();
+        int collected = 0;
+        for (int tick = 0; tick <= ticks; tick++) {
+            int x = 50 + (int) ((long) (level.getWidth() - 100) * tick / ticks);
+            int y = 50 + (int) ((long) (level.getHeight() - 100) * tick / ticks);
+            player.setPosition(x, y);
+            level.update(x, y);
+            if (level.checkBasketCollision(player)) {
+                collected++;
+            }
+            level.checkRangerCollision(player);
+            WorldSnapshot.capture(level, player);
+        }
+        List<Integer> installed = streamer.getInstalledChunks();
+        System.out.println("walked " + streamer.getLoads() + " " + streamer.getStalls() + " " + streamer.getEvictions()
+                + " " + collected + " " + streamer.getPeakInstalled() + " " + streamer.getCapacity() + " " + installed.size());
+        streamer.close();
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.example.controller.InputQueue;
+import org.example.engine.InputState;
+import org.example.model.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrencyTests {
+
+    @Test
+    void testRenderingSnapshotsWhileSimulating() throws InterruptedException {
+        Level level = new Level("./levels/level10.txt");
+        Player yogi = new Player(50, 50, level);
+        AtomicReference<WorldSnapshot> published = new AtomicReference<>(WorldSnapshot.capture(level, yogi));
+        InputQueue inputQueue = new InputQueue();
+        InputState inputState = new InputState();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicLong ticks = new AtomicLong();
+        AtomicLong frames = new AtomicLong();
+
+        Thread simulation = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    inputQueue.drainTo(inputState);
+                    yogi.setDirection(InputState.horizontal(inputState.getMask()) * yogi.getSpeed(),
+                            InputState.vertical(inputState.getMask()) * yogi.getSpeed());
+                    yogi.update();
+                    level.update();
+                    if (level.checkBasketCollision(yogi) || level.areAllBasketsCollected()) {
+                        level.getBaskets().add(new Item((int) (ticks.get() % 700), 500));
+                    }
+                    if (ticks.get() % 50 == 0) {
+                        // Churn the ranger list the way loading and resetting a level does
+                        level.getRangers().add(new Ranger(100, 500, "Horizontal", level));
+                        if (level.getRangers().size() > 20) {
+                            level.getRangers().remove(0);
+                        }
+                    }
+                    published.set(WorldSnapshot.capture(level, yogi));
+                    ticks.incrementAndGet();
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        });
+
+        Runnable renderer = () -> {
+            BufferedImage frame = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+            try {
+                while (running.get()) {
+                    Graphics2D g = frame.createGraphics();
+                    published.get().draw(g, 0.5);
+                    g.dispose();
+                    frames.incrementAndGet();
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        };
+
+        Thread input = new Thread(() -> {
+            int[] keys = {KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT};
+            int i = 0;
+            while (running.get()) {
+                inputQueue.offer(keys[i % keys.length], i % 3 != 0);
+                i++;
+                Thread.onSpinWait();
+            }
+        });
+
+        Thread[] renderers = {new Thread(renderer), new Thread(renderer)};
+        simulation.start();
+        input.start();
+        for (Thread t : renderers) {
+            t.start();
+        }
+
+        TimeUnit.SECONDS.sleep(2);
+        running.set(false);
+        simulation.join();
+        input.join();
+        for (Thread t : renderers) {
+            t.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Concurrent rendering failed: " + failures.peek());
+        assertTrue(ticks.get() > 1000, "The simulation should have run many ticks.");
+        assertTrue(frames.get() > 100, "The renderers should have drawn many frames.");
+    }
+}
@@ -0,0 +1,117 @@
+package org.example;
+
+import org.example.engine.*;
+import org.example.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EngineTests {
+
+    private GameEngine engine;
+    private ArrayList<String> events;
+
+    @BeforeEach
+    void setup() {
+        engine = new GameEngine(LevelLoader.fromDirectory("./levels"));
+        events = new ArrayList<>();
+        engine.addListener(new GameListener() {
+            @Override
+            public void levelLoaded(int levelNumber, Level level) {
+                events.add("loaded " + levelNumber);
+            }
+
+            @Override
+            public void basketCollected(int totalBasketsCollected) {
+                events.add("basket " + totalBasketsCollected);
+            }
+
+            @Override
+            public void levelCleared(int levelNumber) {
+                events.add("cleared " + levelNumber);
+            }
+
+            @Override
+            public void lifeLost(int livesLeft) {
+                events.add("life " + livesLeft);
+            }
+
+            @Override
+            public void gameEnded(int basketsCollected, int levelsCleared) {
+                events.add("ended " + basketsCollected + " " + levelsCleared);
+            }
+        });
+    }
+
+    @Test
+    void testInputMovesPlayer() {
+        engine.step(InputState.RIGHT | InputState.UP);
+        assertEquals(55, engine.getPlayer().getX());
+        assertEquals(45, engine.getPlayer().getY());
+
+        engine.step(0);
+        assertEquals(55, engine.getPlayer().getX(), "The player should stop without input.");
+    }
+
+    @Test
+    void testClearingLevelLoadsNextOne() {
+        Level level = engine.getLevel();
+        level.getBaskets().clear();
+        level.getRangers().clear();
+        level.getBaskets().add(new Item(60, 50));
+
+        engine.step(0);
+
+        assertEquals(2, engine.getLevelNumber());
+        assertEquals(1, engine.getTotalBasketsCollected());
+        assertEquals(List.of("basket 1", "cleared 1", "loaded 2"), events);
+    }
+
+    @Test
+    void testLosingAllLivesEndsGame() {
+        for (int i = 0; i < GameEngine.STARTING_LIVES; i++) {
+            engine.getLevel().getRangers().add(new Ranger(50, 50, "Horizontal", engine.getLevel()));
+            engine.step(0);
+            engine.getLevel().getRangers().clear();
+        }
+
+        assertTrue(engine.isGameOver());
+        assertEquals(List.of("life 2", "life 1", "life 0", "ended 0 0"), events);
+
+        long ticks = engine.getTickCount();
+        engine.step(InputState.RIGHT);
+        assertEquals(ticks, engine.getTickCount(), "A finished game should not advance.");
+
+        engine.reset();
+        assertFalse(engine.isGameOver());
+        assertEquals(GameEngine.STARTING_LIVES, engine.getLives());
+        assertEquals(1, engine.getLevelNumber());
+    }
+
+    @Test
+    void testInputStateFollowsKeyEvents() {
+        InputState input = new InputState();
+        input.press(KeyEvent.VK_UP);
+        input.press(KeyEvent.VK_RIGHT);
+        assertEquals(InputState.UP | InputState.RIGHT, input.getMask());
+
+        input.press(KeyEvent.VK_S);
+        assertEquals(InputState.DOWN | InputState.RIGHT, input.getMask(), "The last pressed direction should win.");
+
+        input.release(KeyEvent.VK_W);
+        assertEquals(InputState.RIGHT, input.getMask(), "Releasing a key should stop its axis.");
+    }
+
+    @Test
+    void testRunsManyTicksHeadless() {
+        int[] pattern = {InputState.RIGHT, InputState.DOWN, InputState.LEFT, InputState.UP};
+        for (int i = 0; i < 200_000 && !engine.isGameOver(); i++) {
+            engine.step(pattern[(i / 40) % pattern.length]);
+        }
+        assertTrue(engine.getTickCount() > 0);
+    }
+}
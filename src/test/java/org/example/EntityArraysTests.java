@@ -0,0 +1,116 @@
+package org.example;
+
+import java.awt.Rectangle;
+import java.util.Random;
+import org.example.model.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityArraysTests {
+
+    /**
+     * Creates a random 800x600 level with patrolling and chasing rangers.
+     */
+    private static LevelData randomLevel(long seed, int perKind) {
+        Random random = new Random(seed);
+        LevelData.Builder builder = new LevelData.Builder();
+        for (int i = 0; i < perKind / 4; i++) {
+            builder.addObstacle(random.nextBoolean() ? LevelData.TREE : LevelData.MOUNTAIN,
+                    random.nextInt(800), random.nextInt(600));
+        }
+        for (int i = 0; i < perKind; i++) {
+            builder.addBasket(random.nextInt(780), random.nextInt(580));
+        }
+        for (int i = 0; i < perKind; i++) {
+            int pattern = switch (random.nextInt(4)) {
+                case 0 -> LevelData.HORIZONTAL;
+                case 1 -> LevelData.VERTICAL;
+                case 2 -> LevelData.CHASE;
+                default -> LevelData.UNKNOWN_PATTERN;
+            };
+            builder.addRanger(random.nextInt(800), random.nextInt(600), pattern);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testRangersMoveLikeObjectLayout() {
+        LevelData data = randomLevel(42, 200);
+        Level level = new Level(data);
+        EntityArrays arrays = new EntityArrays(data);
+        assertEquals(level.getRangers().size(), arrays.getRangerCount());
+
+        for (int tick = 0; tick < 1_000; tick++) {
+            int targetX = 400 + (int) (300 * Math.sin(tick / 50.0));
+            int targetY = 300 + (int) (200 * Math.cos(tick / 70.0));
+            level.update(targetX, targetY);
+            arrays.updateAll(targetX, targetY);
+            for (int i = 0; i < arrays.getRangerCount(); i++) {
+                Ranger ranger = level.getRangers().get(i);
+                assertEquals(ranger.getX(), arrays.getRangerX(i), "Ranger " + i + " x at tick " + tick);
+                assertEquals(ranger.getY(), arrays.getRangerY(i), "Ranger " + i + " y at tick " + tick);
+            }
+        }
+    }
+
+    @Test
+    void testRangerScanMatchesLevel() {
+        LevelData data = randomLevel(7, 300);
+        Level level = new Level(data);
+        EntityArrays arrays = new EntityArrays(data);
+        Random random = new Random(3);
+
+        for (int q = 0; q < 2_000; q++) {
+            Player player = new Player(random.nextInt(800), random.nextInt(600), level);
+            Rectangle b = player.getBounds();
+            assertEquals(level.checkRangerCollision(player), arrays.anyRangerIntersects(b.x, b.y, b.width, b.height));
+        }
+    }
+
+    @Test
+    void testBasketsAreCollectedInLevelOrder() {
+        LevelData data = randomLevel(11, 500);
+        Level level = new Level(data);
+        EntityArrays arrays = new EntityArrays(data);
+        Random random = new Random(5);
+
+        for (int q = 0; q < 3_000; q++) {
+            Player player = new Player(random.nextInt(800), random.nextInt(600), level);
+            Rectangle b = player.getBounds();
+            int before = level.getBaskets().size();
+            Item first = null;
+            for (Item basket : level.getBaskets()) {
+                if (basket.getBounds().intersects(b)) {
+                    first = basket;
+                    break;
+                }
+            }
+            boolean hit = level.checkBasketCollision(player);
+            int index = arrays.collectBasket(b.x, b.y, b.width, b.height);
+
+            assertEquals(hit, index >= 0);
+            if (hit) {
+                assertEquals(first.getBounds().x, arrays.getBasketX(index));
+                assertEquals(first.getBounds().y, arrays.getBasketY(index));
+                assertTrue(arrays.isCollected(index));
+                assertEquals(before - 1, level.getBaskets().size());
+            }
+            assertEquals(level.getBaskets().size(), arrays.getBasketsLeft());
+        }
+    }
+
+    @Test
+    void testRemovedGridEntryNeverIntersects() {
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.reset(2);
+        grid.set(0, 10, 10, 30, 30);
+        grid.set(1, 20, 20, 30, 30);
+        grid.build();
+
+        assertEquals(0, grid.firstIntersecting(25, 25, 5, 5));
+        grid.remove(0);
+        assertEquals(1, grid.firstIntersecting(25, 25, 5, 5));
+        grid.remove(1);
+        assertFalse(grid.intersectsAny(0, 0, 100, 100));
+    }
+}
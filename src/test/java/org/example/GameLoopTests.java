@@ -0,0 +1,94 @@
+package org.example;
+
+import org.example.controller.GameLoop;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameLoopTests {
+
+    /**
+     * A clock that only advances while the loop waits or a step says so, and stops the loop at
+     * the first wait that would pass the end time, so every run takes the same steps.
+     */
+    private static final class FakeClock implements GameLoop.Clock {
+        private final long endNanos;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile long now;
+        private GameLoop loop;
+
+        FakeClock(long endMillis) {
+            this.endNanos = TimeUnit.MILLISECONDS.toNanos(endMillis);
+        }
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void pause(long nanos) {
+            if (now + nanos > endNanos) {
+                loop.stop();
+                finished.countDown();
+            } else {
+                now += nanos;
+            }
+        }
+
+        void advanceMillis(long millis) {
+            now += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        void run(GameLoop loop) throws InterruptedException {
+            this.loop = loop;
+            loop.start();
+            assertTrue(finished.await(10, TimeUnit.SECONDS), "The loop should reach the end time.");
+            loop.stop();
+        }
+    }
+
+    @Test
+    void testFixedStepRateAndInterpolation() throws InterruptedException {
+        AtomicInteger ticks = new AtomicInteger();
+        AtomicInteger badAlphas = new AtomicInteger();
+        FakeClock clock = new FakeClock(500);
+        GameLoop loop = new GameLoop(ticks::incrementAndGet, alpha -> {
+            if (alpha < 0 || alpha >= 1) {
+                badAlphas.incrementAndGet();
+            }
+        }, 100, 200, clock);
+
+        clock.run(loop);
+
+        assertFalse(loop.isRunning());
+        assertEquals(ticks.get(), loop.getTickCount());
+        assertEquals(51, ticks.get(), "A step should run at 0, 10, ..., 500ms at 100Hz.");
+        assertEquals(101, loop.getFrameCount(), "A frame should be rendered every 5ms at 200Hz.");
+        assertEquals(0, loop.getDroppedFrames());
+        assertEquals(0, loop.getSkippedTicks());
+        assertEquals(0, badAlphas.get(), "The interpolation factor should stay within [0, 1).");
+    }
+
+    @Test
+    void testCatchUpIsLimitedAfterStall() throws InterruptedException {
+        AtomicInteger ticks = new AtomicInteger();
+        FakeClock clock = new FakeClock(500);
+        GameLoop loop = new GameLoop(() -> {
+            if (ticks.incrementAndGet() == 5) {
+                clock.advanceMillis(300); // simulate a long GC pause
+            }
+        }, alpha -> { }, 100, 100, clock);
+
+        clock.run(loop);
+
+        // Steps 1-5 run at 0-40ms, the stall ends at 340ms, and the next frame catches up
+        // five steps and drops the other 25 of the 30 steps the stall covered
+        assertEquals(25, loop.getSkippedTicks(), "Ticks beyond the catch-up limit should be dropped.");
+        assertEquals(ticks.get(), loop.getTickCount());
+        assertTrue(loop.getDroppedFrames() > 0, "The stall should be counted as dropped frames.");
+    }
+}
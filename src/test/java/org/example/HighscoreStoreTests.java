@@ -0,0 +1,258 @@
+package org.example;
+
+import org.example.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class HighscoreStoreTests {
+    private static int databases;
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("yogi-highscores-");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static List<GameRecord> randomRecords(int count, long seed) {
+        Random random = new Random(seed);
+        ArrayList<GameRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(new GameRecord(0, "Player " + random.nextInt(count / 3 + 1), random.nextInt(30), random.nextInt(10)));
+        }
+        return records;
+    }
+
+    private static ArrayList<GameRecord> walk(HighscoreStore store, int pageSize) throws IOException {
+        ArrayList<GameRecord> walked = new ArrayList<>(store.top(pageSize));
+        while (!walked.isEmpty()) {
+            List<GameRecord> page = store.page(walked.get(walked.size() - 1), pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            walked.addAll(page);
+        }
+        return walked;
+    }
+
+    private static String describe(List<GameRecord> records) {
+        StringBuilder sb = new StringBuilder();
+        for (GameRecord record : records) {
+            sb.append(record.getPlayerName()).append('/').append(record.getBasketsCollected())
+                    .append('/').append(record.getLevelsCleared()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void testLogStoreMatchesJdbcStore() throws IOException {
+        List<GameRecord> records = randomRecords(400, 11);
+        try (HighscoreStore log = new LogHighscoreStore(dir.resolve("scores.ylog"));
+             HighscoreStore jdbc = new JdbcHighscoreStore(
+                     "jdbc:h2:mem:stores" + (databases++) + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "")) {
+            for (HighscoreStore store : List.of(log, jdbc)) {
+                assertTrue(store.isEmpty());
+                for (int i = 0; i < records.size(); i += 64) {
+                    store.append(records.subList(i, Math.min(i + 64, records.size())));
+                }
+                assertFalse(store.isEmpty());
+            }
+
+            assertEquals(describe(jdbc.top(25)), describe(log.top(25)));
+            assertEquals(describe(walk(jdbc, 33)), describe(walk(log, 33)));
+            assertEquals(400, walk(log, 33).size());
+            for (int i = 0; i < 40; i++) {
+                assertEquals(jdbc.rank("Player " + i), log.rank("Player " + i), "Player " + i);
+            }
+            assertEquals(0, log.rank("Nobody"));
+        }
+    }
+
+    @Test
+    void testLogSurvivesReopen() throws IOException {
+        Path file = dir.resolve("scores.ylog");
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            store.append(randomRecords(3000, 5));
+        }
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            assertEquals(3000, store.size());
+            List<GameRecord> top = store.top(1);
+            store.append(List.of(new GameRecord(0, "Yogi", 1000, 10)));
+            assertEquals("Yogi", store.top(1).get(0).getPlayerName());
+            assertEquals(3001, store.top(1).get(0).getPlayerId());
+            assertEquals(2, store.rank(top.get(0).getPlayerName()));
+        }
+    }
+
+    @Test
+    void testUncommittedAndCorruptRecordsAreIgnored() throws IOException {
+        Path file = dir.resolve("scores.ylog");
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            store.append(List.of(new GameRecord(0, "Yogi", 5, 1), new GameRecord(0, "Boo-Boo", 4, 1)));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // A record written after the committed length, as left by a crash mid-batch
+            raf.seek(24 + 2 * 128);
+            raf.write(new byte[128]);
+            raf.seek(24 + 128 + 20);
+            raf.write('X');
+        }
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            assertEquals(1, store.size());
+            assertEquals("Yogi", store.top(10).get(0).getPlayerName());
+            store.append(List.of(new GameRecord(0, "Cindy", 6, 1)));
+        }
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            assertEquals(List.of("Cindy", "Yogi"), store.top(10).stream().map(GameRecord::getPlayerName).toList());
+        }
+    }
+
+    @Test
+    void testCompactionKeepsBestRecords() throws IOException {
+        Path file = dir.resolve("scores.ylog");
+        try (LogHighscoreStore store = new LogHighscoreStore(file, 100)) {
+            for (int i = 0; i < 20; i++) {
+                store.append(List.of(new GameRecord(0, "Grinder", i, 0)));
+            }
+            store.append(List.of(new GameRecord(0, "Newcomer", -1, 0)));
+            List<GameRecord> records = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                records.add(new GameRecord(0, "Player", 100 + i, 0));
+            }
+            store.append(records);
+            assertTrue(store.size() <= 102);
+            assertEquals(299, store.top(1).get(0).getBasketsCollected());
+            assertEquals(102, store.rank("Newcomer"));
+
+            List<GameRecord> before = store.top(200);
+            store.close();
+            store.open();
+            assertEquals(describe(before), describe(store.top(200)));
+        }
+        assertFalse(Files.exists(dir.resolve("scores.ylog.compact")));
+    }
+
+    @Test
+    void testFailedCompactionKeepsCommittedBatch() throws IOException {
+        Path file = dir.resolve("scores.ylog");
+        // A non-empty directory where compaction writes its new log makes every compaction fail
+        Path blocker = Files.createDirectories(dir.resolve("scores.ylog.compact"));
+        Files.createFile(blocker.resolve("keep"));
+        try (LogHighscoreStore store = new LogHighscoreStore(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                List<GameRecord> saved = store.append(List.of(new GameRecord(0, "Player" + i, i, 0)));
+                assertEquals(1, saved.size());
+            }
+            assertEquals(10, store.size());
+            store.close();
+            store.open();
+            assertEquals(10, store.size());
+        }
+    }
+
+    @Test
+    void testCompactionNeverReissuesIds() throws IOException {
+        Path file = dir.resolve("scores.ylog");
+        HashSet<Integer> issued = new HashSet<>();
+        try (LogHighscoreStore store = new LogHighscoreStore(file, 4)) {
+            for (int i = 0; i < 4; i++) {
+                issued.add(store.append(List.of(new GameRecord(0, "Champion", 100 + i, 0))).get(0).getPlayerId());
+            }
+            // Every later record is the worst, so compaction drops the records with the highest ids
+            for (int i = 0; i < 20; i++) {
+                int id = store.append(List.of(new GameRecord(0, "Loser", 0, 0))).get(0).getPlayerId();
+                assertTrue(issued.add(id), "Id " + id + " was issued twice.");
+            }
+            assertTrue(store.size() < 24);
+        }
+        try (LogHighscoreStore store = new LogHighscoreStore(file, 4)) {
+            int id = store.append(List.of(new GameRecord(0, "Loser", 0, 0))).get(0).getPlayerId();
+            assertEquals(25, id);
+        }
+    }
+
+    @Test
+    void testLogCannotBeOpenedTwice() throws IOException {
+        Path file = dir.resolve("scores.ylog");
+        try (LogHighscoreStore store = new LogHighscoreStore(file, 4)) {
+            store.append(List.of(new GameRecord(0, "Yogi", 5, 1)));
+            try (LogHighscoreStore other = new LogHighscoreStore(file)) {
+                assertThrows(IOException.class, other::open);
+            }
+            // The lock is kept while compaction replaces the log
+            for (int i = 0; i < 10; i++) {
+                store.append(List.of(new GameRecord(0, "Boo-Boo", 1, 1)));
+            }
+            try (LogHighscoreStore other = new LogHighscoreStore(file)) {
+                assertThrows(IOException.class, other::open);
+            }
+        }
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            assertEquals("Yogi", store.top(1).get(0).getPlayerName());
+        }
+    }
+
+    @Test
+    void testLongNamesAreTruncated() throws IOException {
+        Path file = dir.resolve("scores.ylog");
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            store.append(List.of(new GameRecord(0, "ü".repeat(200), 1, 1)));
+        }
+        try (LogHighscoreStore store = new LogHighscoreStore(file)) {
+            assertEquals("ü".repeat(55), store.top(1).get(0).getPlayerName());
+        }
+    }
+
+    @Test
+    void testLegacyHighscoresAreImported() throws Exception {
+        List<GameRecord> legacy = LegacyHighscoreImporter.read(Path.of("highscores.dat"));
+        assertEquals(7, legacy.size());
+        assertEquals("Malik", legacy.get(0).getPlayerName());
+
+        try (HighscoreManager manager = new HighscoreManager(new LogHighscoreStore(dir.resolve("scores.ylog")),
+                Path.of("highscores.dat"))) {
+            assertTrue(manager.addScore("Yogi", 12, 3));
+            assertTrue(manager.flush(10, TimeUnit.SECONDS));
+            ArrayList<GameRecord> scores = manager.getTopScores(100);
+            assertEquals(8, scores.size());
+            assertEquals("Yogi", scores.get(0).getPlayerName());
+        }
+
+        try (LogHighscoreStore store = new LogHighscoreStore(dir.resolve("scores.ylog"))) {
+            assertEquals(0, LegacyHighscoreImporter.importInto(Path.of("highscores.dat"), store));
+            assertEquals(8, store.size());
+        }
+    }
+
+    @Test
+    void testUnexpectedClassesAreRejected() throws IOException {
+        Path file = dir.resolve("evil.dat");
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(Files.newOutputStream(file))) {
+            out.writeObject(new ArrayList<>(List.of(new java.util.Date())));
+        }
+        assertThrows(IOException.class, () -> LegacyHighscoreImporter.read(file));
+    }
+}
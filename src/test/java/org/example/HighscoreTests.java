@@ -0,0 +1,217 @@
+package org.example;
+
+import org.example.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class HighscoreTests {
+    private static int databases;
+
+    private String url;
+    private HighscoreManager manager;
+
+    @BeforeEach
+    void setup() {
+        url = "jdbc:h2:mem:highscores" + (databases++) + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        manager = new HighscoreManager(url, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    private int countRows() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM highscores")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testScoresAreVisibleBeforeTheyAreWritten() {
+        assertTrue(manager.addScore("Yogi", 12, 3));
+        ArrayList<GameRecord> scores = manager.getTopScores(10);
+        assertEquals(1, scores.size());
+        assertEquals("Yogi", scores.get(0).getPlayerName());
+    }
+
+    @Test
+    void testScoresAreWrittenInBackground() throws Exception {
+        manager.addScore("Yogi", 12, 3);
+        manager.addScore("Boo-Boo", 20, 4);
+        manager.addScore("Cindy", 12, 5);
+        assertTrue(manager.flush(10, TimeUnit.SECONDS));
+
+        assertEquals(3, countRows());
+        ArrayList<GameRecord> scores = manager.getTopScores(10);
+        assertEquals(3, scores.size());
+        assertEquals("Boo-Boo", scores.get(0).getPlayerName());
+        assertEquals("Cindy", scores.get(1).getPlayerName());
+        assertEquals("Yogi", scores.get(2).getPlayerName());
+        for (GameRecord record : scores) {
+            assertTrue(record.getPlayerId() > 0 && record.getPlayerId() < Integer.MAX_VALUE / 2, "not a store id");
+        }
+    }
+
+    @Test
+    void testManyScoresAreBatched() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(manager.addScore("Player " + i, i % 50, i % 10));
+        }
+        assertTrue(manager.flush(20, TimeUnit.SECONDS));
+        assertEquals(1000, countRows());
+        assertEquals(1000, manager.getTopScores(Integer.MAX_VALUE).size());
+        assertTrue(manager.isFullyCached());
+        assertEquals(0, manager.getPendingCount());
+    }
+
+    @Test
+    void testExistingScoresAreLoaded() throws Exception {
+        manager.addScore("Yogi", 12, 3);
+        assertTrue(manager.flush(10, TimeUnit.SECONDS));
+
+        try (HighscoreManager reopened = new HighscoreManager(url, "sa", "")) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (reopened.getTopScores(10).isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, reopened.getTopScores(10).size());
+        }
+    }
+
+    @Test
+    void testPagesWalkTheLeaderboardInOrder() throws Exception {
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            manager.addScore("Player " + i, random.nextInt(20), random.nextInt(5));
+        }
+        assertTrue(manager.flush(20, TimeUnit.SECONDS));
+
+        ArrayList<GameRecord> walked = new ArrayList<>();
+        GameRecord last = null;
+        ArrayList<GameRecord> page;
+        while (!(page = manager.getPage(last, 37)).isEmpty()) {
+            assertTrue(page.size() <= 37);
+            walked.addAll(page);
+            last = page.get(page.size() - 1);
+        }
+        assertEquals(500, walked.size());
+        for (int i = 1; i < walked.size(); i++) {
+            GameRecord a = walked.get(i - 1), b = walked.get(i);
+            assertTrue(a.getBasketsCollected() > b.getBasketsCollected()
+                    || a.getBasketsCollected() == b.getBasketsCollected() && a.getLevelsCleared() > b.getLevelsCleared()
+                    || a.getBasketsCollected() == b.getBasketsCollected() && a.getLevelsCleared() == b.getLevelsCleared()
+                    && a.getPlayerId() > b.getPlayerId());
+        }
+
+        ArrayList<GameRecord> top = manager.getTopScores(100);
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(walked.get(i).getPlayerId(), top.get(i).getPlayerId());
+        }
+    }
+
+    @Test
+    void testRankOfPlayer() throws Exception {
+        manager.addScore("Yogi", 10, 2);
+        manager.addScore("Boo-Boo", 20, 4);
+        manager.addScore("Cindy", 10, 3);
+        manager.addScore("Yogi", 5, 1);
+        manager.addScore("Ranger Smith", 10, 2);
+        assertTrue(manager.flush(10, TimeUnit.SECONDS));
+
+        assertEquals(1, manager.getRank("Boo-Boo"));
+        assertEquals(2, manager.getRank("Cindy"));
+        assertEquals(3, manager.getRank("Ranger Smith"));
+        assertEquals(4, manager.getRank("Yogi"));
+        assertEquals(0, manager.getRank("Nobody"));
+    }
+
+    @Test
+    void testRecordsBeyondCapacityAreReadFromStore() throws Exception {
+        try (HighscoreManager capped = new HighscoreManager(new JdbcHighscoreStore(url, "sa", ""), null, 50)) {
+            for (int i = 0; i < 200; i++) {
+                capped.addScore("Player " + i, i, 0);
+            }
+            assertTrue(capped.flush(20, TimeUnit.SECONDS));
+            assertFalse(capped.isFullyCached());
+            assertEquals(50, capped.getTopScores(Integer.MAX_VALUE).size());
+
+            assertEquals(1, capped.getRank("Player 199"));
+            assertEquals(200, capped.getRank("Player 0"));
+            assertEquals(0, capped.getRank("Nobody"));
+
+            ArrayList<GameRecord> deep = capped.getPage(capped.getTopScores(60).get(49), 20);
+            assertEquals(20, deep.size());
+            assertEquals("Player 149", deep.get(0).getPlayerName());
+        }
+    }
+
+    @Test
+    void testScoresBetweenComeFromMemory() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            manager.addScore("Player " + i, i, 0);
+        }
+        ArrayList<GameRecord> range = manager.getScoresBetween(10, 14, 10);
+        assertEquals(5, range.size());
+        assertEquals(14, range.get(0).getBasketsCollected());
+        assertEquals(10, range.get(4).getBasketsCollected());
+        assertEquals(3, manager.getScoresBetween(0, 29, 3).size());
+    }
+
+    @Test
+    void testLeaderboardIndexesAreCreated() throws Exception {
+        manager.addScore("Yogi", 1, 1);
+        assertTrue(manager.flush(10, TimeUnit.SECONDS));
+        ArrayList<String> indexes = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             ResultSet rs = conn.getMetaData().getIndexInfo(null, null, "HIGHSCORES", false, false)) {
+            while (rs.next()) {
+                indexes.add(rs.getString("INDEX_NAME").toLowerCase());
+            }
+        }
+        assertTrue(indexes.contains("idx_highscores_rank"));
+        assertTrue(indexes.contains("idx_highscores_player"));
+    }
+
+    @Test
+    void testPendingScoresRankNewestFirst() throws Exception {
+        manager.addScore("Written", 12, 3);
+        assertTrue(manager.flush(10, TimeUnit.SECONDS));
+        manager.addScore("Pending", 12, 3);
+        assertEquals("Pending", manager.getTopScores(1).get(0).getPlayerName());
+
+        try (HighscoreManager offline = new HighscoreManager("jdbc:unknown://nowhere", "", "")) {
+            offline.addScore("First", 12, 3);
+            offline.addScore("Second", 12, 3);
+            ArrayList<GameRecord> scores = offline.getTopScores(10);
+            assertEquals("Second", scores.get(0).getPlayerName());
+            assertEquals("First", scores.get(1).getPlayerName());
+        }
+    }
+
+    @Test
+    void testUnreachableDatabaseDoesNotBlock() throws Exception {
+        try (HighscoreManager offline = new HighscoreManager("jdbc:unknown://nowhere", "", "")) {
+            long start = System.nanoTime();
+            assertTrue(offline.addScore("Yogi", 12, 3));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+            assertEquals(1, offline.getTopScores(10).size());
+            assertFalse(offline.flush(200, TimeUnit.MILLISECONDS));
+            assertEquals(1, offline.getPendingCount());
+        }
+    }
+}
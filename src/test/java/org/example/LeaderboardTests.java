@@ -0,0 +1,169 @@
+package org.example;
+
+import org.example.model.GameRecord;
+import org.example.model.HighscoreStore;
+import org.example.model.Leaderboard;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LeaderboardTests {
+    private static ArrayList<GameRecord> randomRecords(int count, long seed) {
+        Random random = new Random(seed);
+        ArrayList<GameRecord> records = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            records.add(new GameRecord(i, "Player " + random.nextInt(count / 4 + 1), random.nextInt(50), random.nextInt(10)));
+        }
+        return records;
+    }
+
+    private static GameRecord bestOf(ArrayList<GameRecord> sorted, String playerName) {
+        for (GameRecord record : sorted) {
+            if (record.getPlayerName().equals(playerName)) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testMatchesSortedList() {
+        ArrayList<GameRecord> records = randomRecords(2000, 1);
+        Leaderboard leaderboard = new Leaderboard();
+        for (GameRecord record : records) {
+            assertTrue(leaderboard.insert(record));
+        }
+        assertFalse(leaderboard.insert(records.get(0)));
+
+        ArrayList<GameRecord> sorted = new ArrayList<>(records);
+        sorted.sort(HighscoreStore.RANKING);
+        assertEquals(sorted.size(), leaderboard.size());
+        assertEquals(sorted, leaderboard.top(Integer.MAX_VALUE));
+        assertEquals(sorted.subList(0, 10), leaderboard.top(10));
+        for (int i = 0; i < sorted.size(); i += 7) {
+            assertEquals(i + 1, leaderboard.rankOf(sorted.get(i)));
+            assertSame(sorted.get(i), leaderboard.recordAt(i + 1));
+        }
+        assertNull(leaderboard.recordAt(0));
+        assertNull(leaderboard.recordAt(sorted.size() + 1));
+        assertEquals(0, leaderboard.rankOf(new GameRecord(-1, "Nobody", 100, 0)));
+    }
+
+    @Test
+    void testRemoveKeepsRanksAndBestRecords() {
+        ArrayList<GameRecord> records = randomRecords(1000, 2);
+        Leaderboard leaderboard = new Leaderboard();
+        records.forEach(leaderboard::insert);
+
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            GameRecord removed = records.remove(random.nextInt(records.size()));
+            assertTrue(leaderboard.remove(removed));
+            assertFalse(leaderboard.remove(removed));
+        }
+
+        ArrayList<GameRecord> sorted = new ArrayList<>(records);
+        sorted.sort(HighscoreStore.RANKING);
+        assertEquals(sorted, leaderboard.top(Integer.MAX_VALUE));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, leaderboard.rankOf(sorted.get(i)));
+        }
+        for (int i = 0; i <= 251; i++) {
+            String name = "Player " + i;
+            GameRecord best = bestOf(sorted, name);
+            assertSame(best, leaderboard.bestOf(name));
+            assertEquals(best == null ? 0 : sorted.indexOf(best) + 1, leaderboard.rankOf(name));
+        }
+    }
+
+    @Test
+    void testAfterAndBetweenBaskets() {
+        ArrayList<GameRecord> records = randomRecords(500, 4);
+        Leaderboard leaderboard = new Leaderboard();
+        records.forEach(leaderboard::insert);
+        ArrayList<GameRecord> sorted = new ArrayList<>(records);
+        sorted.sort(HighscoreStore.RANKING);
+
+        assertEquals(sorted.subList(101, 121), leaderboard.after(sorted.get(100), 20));
+        assertTrue(leaderboard.after(sorted.get(sorted.size() - 1), 20).isEmpty());
+        GameRecord absent = new GameRecord(0, "Nobody", 25, 5);
+        ArrayList<GameRecord> expected = new ArrayList<>();
+        for (GameRecord record : sorted) {
+            if (HighscoreStore.RANKING.compare(record, absent) > 0 && expected.size() < 5) {
+                expected.add(record);
+            }
+        }
+        assertEquals(expected, leaderboard.after(absent, 5));
+
+        ArrayList<GameRecord> range = new ArrayList<>();
+        for (GameRecord record : sorted) {
+            if (record.getBasketsCollected() >= 10 && record.getBasketsCollected() <= 20) {
+                range.add(record);
+            }
+        }
+        assertEquals(range, leaderboard.betweenBaskets(10, 20, Integer.MAX_VALUE));
+        assertEquals(range.subList(0, 3), leaderboard.betweenBaskets(10, 20, 3));
+        assertTrue(leaderboard.betweenBaskets(60, 70, 10).isEmpty());
+    }
+
+    @Test
+    void testReplaceAndTrim() {
+        Leaderboard leaderboard = new Leaderboard();
+        GameRecord provisional = new GameRecord(-1, "Yogi", 12, 3);
+        leaderboard.insert(new GameRecord(1, "Boo-Boo", 20, 4));
+        leaderboard.insert(provisional);
+        leaderboard.insert(new GameRecord(2, "Cindy", 5, 1));
+
+        GameRecord saved = new GameRecord(3, "Yogi", 12, 3);
+        assertTrue(leaderboard.replace(provisional, saved));
+        assertEquals(3, leaderboard.size());
+        assertSame(saved, leaderboard.bestOf("Yogi"));
+        assertEquals(2, leaderboard.rankOf("Yogi"));
+
+        assertEquals(1, leaderboard.trimTo(2));
+        assertEquals(0, leaderboard.rankOf("Cindy"));
+        assertNull(leaderboard.bestOf("Cindy"));
+        assertEquals(0, leaderboard.trimTo(2));
+
+        leaderboard.clear();
+        assertEquals(0, leaderboard.size());
+        assertTrue(leaderboard.top(10).isEmpty());
+    }
+
+    @Test
+    void testReadersSeeConsistentOrderWhileWriting() throws Exception {
+        Leaderboard leaderboard = new Leaderboard();
+        randomRecords(1000, 5).forEach(leaderboard::insert);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    ArrayList<GameRecord> top = leaderboard.top(200);
+                    for (int i = 1; i < top.size(); i++) {
+                        assertTrue(HighscoreStore.RANKING.compare(top.get(i - 1), top.get(i)) < 0);
+                    }
+                    assertEquals(200, top.size());
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+
+        Random random = new Random(6);
+        for (int i = 0; i < 20000; i++) {
+            leaderboard.insert(new GameRecord(1000 + i, "Player " + random.nextInt(100), random.nextInt(50), random.nextInt(10)));
+            leaderboard.trimTo(1000);
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(1000, leaderboard.size());
+    }
+}
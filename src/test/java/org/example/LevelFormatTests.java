@@ -0,0 +1,132 @@
+package org.example;
+
+import org.example.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class LevelFormatTests {
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("yogi-levels-");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void testCompiledLevelMatchesText() throws IOException {
+        Path source = Path.of("levels/level1.txt");
+        Path target = dir.resolve("level1" + BinaryLevelFormat.EXTENSION);
+        LevelCompiler.compile(source, target);
+
+        Level text = new Level(source.toString());
+        Level binary = new Level(target.toString());
+        assertEquals(text.getObstacles().size(), binary.getObstacles().size());
+        assertEquals(text.getBaskets().size(), binary.getBaskets().size());
+        assertEquals(text.getRangers().size(), binary.getRangers().size());
+        for (int i = 0; i < text.getObstacles().size(); i++) {
+            assertEquals(text.getObstacles().get(i).getBounds(), binary.getObstacles().get(i).getBounds());
+        }
+        for (int i = 0; i < text.getBaskets().size(); i++) {
+            assertEquals(text.getBaskets().get(i).getBounds(), binary.getBaskets().get(i).getBounds());
+        }
+        for (int i = 0; i < text.getRangers().size(); i++) {
+            assertEquals(text.getRangers().get(i).getBounds(), binary.getRangers().get(i).getBounds());
+        }
+    }
+
+    @Test
+    void testRoundTripPreservesTags() throws IOException {
+        LevelData data = new LevelData.Builder()
+                .addObstacle(LevelData.TREE, 1, 2)
+                .addObstacle(LevelData.MOUNTAIN, -3, 4)
+                .addObstacle(LevelData.UNKNOWN_OBSTACLE, 5, 6)
+                .addBasket(7, 8)
+                .addRanger(9, 10, LevelData.VERTICAL)
+                .addRanger(11, 12, LevelData.UNKNOWN_PATTERN)
+                .build();
+        Path file = dir.resolve("tags" + BinaryLevelFormat.EXTENSION);
+        BinaryLevelFormat.write(data, file);
+
+        Level level = new Level(BinaryLevelFormat.read(file));
+        assertEquals(3, level.getObstacles().size());
+        assertEquals(new Obstacle("Mountain", -3, 4).getBounds(), level.getObstacles().get(1).getBounds());
+        assertEquals(1, level.getBaskets().size());
+        assertEquals(2, level.getRangers().size());
+    }
+
+    @Test
+    void testWorldSizeSurvivesBothFormats() throws IOException {
+        Path text = dir.resolve("wide.txt");
+        Files.writeString(text, "W,3200,2400\nB,3000,2200\nW,0,600\n");
+        LevelData data = LevelData.parseText(text);
+        assertEquals(3200, data.getWidth());
+        assertEquals(2400, data.getHeight());
+        assertEquals(1, data.getBasketCount());
+
+        Path binary = dir.resolve("wide" + BinaryLevelFormat.EXTENSION);
+        BinaryLevelFormat.write(data, binary);
+        Level level = new Level(binary.toString());
+        assertEquals(3200, level.getWidth());
+        assertEquals(2400, level.getHeight());
+
+        Level original = new Level("levels/level1.txt");
+        assertEquals(LevelData.DEFAULT_WIDTH, original.getWidth());
+        assertEquals(LevelData.DEFAULT_HEIGHT, original.getHeight());
+    }
+
+    @Test
+    void testCorruptedLevelIsRejected() throws IOException {
+        Path file = dir.resolve("level1" + BinaryLevelFormat.EXTENSION);
+        LevelCompiler.compile(Path.of("levels/level1.txt"), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[24] ^= 1;
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> BinaryLevelFormat.read(file));
+        assertTrue(e.getMessage().contains("Checksum"));
+    }
+
+    @Test
+    void testTruncatedLevelIsRejected() throws IOException {
+        Path file = dir.resolve("level1" + BinaryLevelFormat.EXTENSION);
+        LevelCompiler.compile(Path.of("levels/level1.txt"), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> BinaryLevelFormat.read(file));
+
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, 0);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> BinaryLevelFormat.read(file));
+    }
+
+    @Test
+    void testMalformedLinesAreSkipped() throws IOException {
+        Path file = dir.resolve("level.txt");
+        Files.writeString(file, "O,Tree,10,20\n\nB,oops,5\nR,1,2\nB,30,40\nX,1,2\nR,50,60,Vertical\n");
+        LevelData data = LevelData.parseText(file);
+        assertEquals(1, data.getObstacleCount());
+        assertEquals(1, data.getBasketCount());
+        assertEquals(1, data.getRangerCount());
+    }
+}
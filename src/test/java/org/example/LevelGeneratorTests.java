@@ -0,0 +1,125 @@
+package org.example;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import org.example.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelGeneratorTests {
+
+    private static void assertSameData(LevelData expected, LevelData actual) {
+        assertEquals(expected.getObstacleCount(), actual.getObstacleCount());
+        assertEquals(expected.getBasketCount(), actual.getBasketCount());
+        assertEquals(expected.getRangerCount(), actual.getRangerCount());
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        Level a = new Level(expected);
+        Level b = new Level(actual);
+        for (int i = 0; i < expected.getObstacleCount(); i++) {
+            assertEquals(a.getObstacles().get(i).getBounds(), b.getObstacles().get(i).getBounds());
+            assertEquals(a.getObstacles().get(i).getTypeTag(), b.getObstacles().get(i).getTypeTag());
+        }
+        for (int i = 0; i < expected.getBasketCount(); i++) {
+            assertEquals(a.getBaskets().get(i).getBounds(), b.getBaskets().get(i).getBounds());
+        }
+        for (int i = 0; i < expected.getRangerCount(); i++) {
+            assertEquals(a.getRangers().get(i).getBounds(), b.getRangers().get(i).getBounds());
+            assertEquals(a.getRangers().get(i).getPattern(), b.getRangers().get(i).getPattern());
+        }
+    }
+
+    @Test
+    void testSameSeedGivesSameLevel() {
+        LevelData first = new LevelGenerator(7, 1_000, 1_000, 1_000).generate();
+        LevelData second = new LevelGenerator(7, 1_000, 1_000, 1_000).generate();
+        assertSameData(first, second);
+
+        LevelData other = new LevelGenerator(8, 1_000, 1_000, 1_000).generate();
+        Level a = new Level(first);
+        Level b = new Level(other);
+        assertNotEquals(a.getBaskets().get(0).getBounds(), b.getBaskets().get(0).getBounds());
+    }
+
+    @Test
+    void testEveryBasketIsReachableFromSpawn() {
+        LevelGenerator generator = new LevelGenerator(42, 1_000, 1_000, 1_000);
+        Level level = new Level(generator.generate());
+        assertEquals(1_000, level.getBaskets().size());
+
+        // Walk the player's 5 pixel lattice from the spawn point, asking the level for collisions
+        int step = 5, size = 50;
+        int columns = (generator.getWidth() - size) / step + 1;
+        int rows = (generator.getHeight() - size) / step + 1;
+        boolean[] reached = new boolean[columns * rows];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int spawn = 10 * columns + 10;
+        reached[spawn] = true;
+        queue.add(spawn);
+        int[][] moves = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            for (int[] move : moves) {
+                int c = cell % columns + move[0];
+                int r = cell / columns + move[1];
+                if (c >= 0 && r >= 0 && c < columns && r < rows && !reached[r * columns + c]
+                        && !level.checkObstacleCollision(c * step, r * step, size, size)) {
+                    reached[r * columns + c] = true;
+                    queue.add(r * columns + c);
+                }
+            }
+        }
+        for (Item basket : level.getBaskets()) {
+            Rectangle b = basket.getBounds();
+            boolean collectable = false;
+            for (int r = Math.max(0, (b.y - size) / step); r < rows && r * step < b.y + b.height; r++) {
+                for (int c = Math.max(0, (b.x - size) / step); c < columns && c * step < b.x + b.width; c++) {
+                    collectable |= reached[r * columns + c] && b.intersects(c * step, r * step, size, size);
+                }
+            }
+            assertTrue(collectable, "Basket at " + b.x + "," + b.y + " is unreachable");
+        }
+    }
+
+    @Test
+    void testEntitiesStayInsideTheWorld() {
+        for (int entities : new int[] {30, 3_000, 30_000}) {
+            LevelGenerator generator = new LevelGenerator(entities, entities / 3, entities / 3, entities / 3);
+            Level level = new Level(generator.generate());
+            assertEquals(entities / 3, level.getObstacles().size());
+            assertEquals(entities / 3, level.getRangers().size());
+            for (Obstacle obstacle : level.getObstacles()) {
+                assertTrue(obstacle.getBounds().x >= LevelGenerator.ROAD_WIDTH && obstacle.getBounds().y >= LevelGenerator.ROAD_WIDTH);
+                assertTrue(obstacle.getBounds().getMaxX() <= generator.getWidth() && obstacle.getBounds().getMaxY() <= generator.getHeight());
+            }
+            for (Ranger ranger : level.getRangers()) {
+                assertTrue(ranger.getX() >= 0 && ranger.getX() + ranger.getWidth() <= generator.getWidth());
+                assertTrue(ranger.getY() >= 0 && ranger.getY() + ranger.getHeight() <= generator.getHeight());
+                assertFalse(ranger.getX() < 250 && ranger.getY() < 250, "Ranger next to the spawn point");
+                for (Obstacle obstacle : level.getObstacles()) {
+                    assertFalse(ranger.getBounds().intersects(obstacle.getBounds()), "Ranger placed on an obstacle");
+                }
+            }
+        }
+        assertEquals(800, LevelGenerator.worldWidth(10));
+        assertEquals(600, LevelGenerator.worldHeight(10));
+    }
+
+    @Test
+    void testGeneratedLevelSurvivesBothFormats(@TempDir Path dir) throws IOException {
+        LevelData data = new LevelGenerator(3, 500, 500, 500).generate();
+        Path text = dir.resolve("generated.txt");
+        LevelData.writeText(data, text);
+        assertSameData(data, LevelData.parseText(text));
+        assertEquals("W," + data.getWidth() + "," + data.getHeight(), Files.readAllLines(text).get(0));
+        assertEquals(1_501, Files.readAllLines(text).size());
+
+        Path binary = dir.resolve("generated" + BinaryLevelFormat.EXTENSION);
+        BinaryLevelFormat.write(data, binary);
+        assertSameData(data, BinaryLevelFormat.read(binary));
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import org.example.engine.*;
+import org.example.model.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LevelPrefetchTests {
+
+    @Test
+    void testNextLevelIsPreparedInBackground() throws InterruptedException {
+        ConcurrentHashMap<Integer, String> loadingThreads = new ConcurrentHashMap<>();
+        CountDownLatch secondLoaded = new CountDownLatch(1);
+        LevelLoader source = LevelLoader.fromDirectory("./levels");
+        try (PrefetchingLevelLoader loader = new PrefetchingLevelLoader(levelNumber -> {
+            loadingThreads.put(levelNumber, Thread.currentThread().getName());
+            Level level = source.load(levelNumber);
+            if (levelNumber == 2) {
+                secondLoaded.countDown();
+            }
+            return level;
+        }, GameEngine.LEVEL_COUNT)) {
+            assertNotNull(loader.load(1));
+            assertEquals(Thread.currentThread().getName(), loadingThreads.get(1));
+
+            assertTrue(secondLoaded.await(5, TimeUnit.SECONDS));
+            assertEquals("level-prefetch", loadingThreads.get(2));
+
+            Level second = loader.load(2);
+            assertEquals(source.load(2).getBaskets().size(), second.getBaskets().size());
+            PrefetchingLevelLoader.LoadStats stats = loader.getStats(2);
+            assertEquals(1, stats.getLoads());
+            assertEquals(1, stats.getPrefetchedSwaps());
+            assertTrue(stats.getLastLoadNanos() > 0);
+            assertEquals(0, loader.getStats(1).getPrefetchedSwaps());
+        }
+    }
+
+    @Test
+    void testPreparedLevelsAreUsedOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        try (PrefetchingLevelLoader loader = new PrefetchingLevelLoader(levelNumber -> {
+            loads.incrementAndGet();
+            return new Level(new LevelData.Builder().addBasket(levelNumber, levelNumber).build());
+        }, 3)) {
+            loader.load(1);
+            Level first = loader.load(2);
+            Level second = loader.load(2);
+            assertNotSame(first, second);
+            assertEquals(2, second.getBaskets().get(0).getBounds().x);
+            assertTrue(loads.get() >= 3);
+        }
+    }
+
+    @Test
+    void testFailedPrefetchFallsBackToDirectLoad() {
+        AtomicInteger attempts = new AtomicInteger();
+        try (PrefetchingLevelLoader loader = new PrefetchingLevelLoader(levelNumber -> {
+            if (levelNumber == 2 && attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("disk unavailable");
+            }
+            return new Level(new LevelData.Builder().build());
+        }, 3)) {
+            loader.load(1);
+            assertNotNull(loader.load(2));
+            assertEquals(2, attempts.get());
+        }
+    }
+
+    @Test
+    void testEngineUsesPrefetchedLevels() {
+        try (PrefetchingLevelLoader loader = new PrefetchingLevelLoader(LevelLoader.fromDirectory("./levels"),
+                GameEngine.LEVEL_COUNT, 1)) {
+            GameEngine engine = new GameEngine(loader);
+            for (int n = 2; n <= 4; n++) {
+                engine.getLevel().getBaskets().clear();
+                engine.getLevel().getRangers().clear();
+                engine.getLevel().getBaskets().add(new Item(GameEngine.SPAWN_X, GameEngine.SPAWN_Y));
+                engine.step(0);
+                assertEquals(n, engine.getLevelNumber());
+                assertEquals(1, loader.getStats(n).getSwaps());
+                assertEquals(1, loader.getStats(n).getPrefetchedSwaps());
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.example.engine.GameEngine;
+import org.example.engine.InputState;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.TickMetrics;
+import org.example.model.Level;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class MetricsTests {
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        Random random = new Random(1);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMaxNanos());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.getPercentileNanos(percentile);
+            assertTrue(reported >= exact, "p" + percentile);
+            assertTrue(reported <= exact + exact / 8 + 1, "p" + percentile + ": " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+        assertEquals(21, histogram.getCount());
+        assertEquals(10, histogram.getP50Nanos());
+        assertEquals(20, histogram.getPercentileNanos(100));
+        assertEquals(210 / 21.0, histogram.getMeanNanos(), 1e-9);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getP99Nanos());
+    }
+
+    @Test
+    void testConcurrentRecordsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(random.nextInt(1_000_000));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, histogram.getCount());
+    }
+
+    @Test
+    void testEngineRecordsEveryPhase() {
+        GameEngine engine = new GameEngine(levelNumber -> new Level("levels/level1.txt"));
+        engine.step(InputState.RIGHT);
+
+        TickMetrics metrics = new TickMetrics();
+        engine.setMetrics(metrics);
+        for (int i = 0; i < 10; i++) {
+            engine.step(InputState.RIGHT);
+        }
+        assertEquals(10, metrics.get(TickMetrics.Phase.PLAYER_UPDATE).getCount());
+        assertEquals(10, metrics.get(TickMetrics.Phase.RANGER_UPDATE).getCount());
+        assertEquals(10, metrics.get(TickMetrics.Phase.COLLISION).getCount());
+        assertEquals(0, metrics.get(TickMetrics.Phase.RENDER).getCount());
+
+        engine.setMetrics(null);
+        engine.step(InputState.RIGHT);
+        assertEquals(10, metrics.get(TickMetrics.Phase.PLAYER_UPDATE).getCount());
+    }
+
+    @Test
+    void testHistogramsAreReadableThroughJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = TickMetrics.objectName(TickMetrics.Phase.COLLISION);
+        try (TickMetrics metrics = new TickMetrics()) {
+            metrics.register();
+            metrics.record(TickMetrics.Phase.COLLISION, 1500);
+            assertEquals(1L, server.getAttribute(name, "Count"));
+            assertEquals(1500L, server.getAttribute(name, "MaxNanos"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Count"));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
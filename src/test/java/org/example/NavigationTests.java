@@ -0,0 +1,107 @@
+package org.example;
+
+import java.util.ArrayList;
+import org.example.model.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NavigationTests {
+
+    /**
+     * A wall of mountains at x = 350 from top to bottom, with one gap between y = 400 and 500.
+     */
+    private static ArrayList<Obstacle> wallWithGap() {
+        ArrayList<Obstacle> wall = new ArrayList<>();
+        for (int y : new int[]{0, 100, 200, 300, 500}) {
+            wall.add(new Obstacle("Mountain", 350, y));
+        }
+        return wall;
+    }
+
+    @Test
+    void testFieldLeadsThroughGapToTarget() {
+        NavigationGrid grid = new NavigationGrid(800, 600, 16, 40, 40);
+        grid.addObstacles(wallWithGap());
+        grid.setTarget(700, 50);
+        assertTrue(grid.advance(Integer.MAX_VALUE));
+
+        int x = 48, y = 48;
+        boolean passedGap = false;
+        int steps = 0;
+        while (grid.directionAt(x, y) != NavigationGrid.GOAL) {
+            int direction = grid.directionAt(x, y);
+            assertNotEquals(NavigationGrid.NONE, direction, "Lost the field at " + x + "," + y);
+            x = grid.neighbourX(x, direction);
+            y = grid.neighbourY(y, direction);
+            assertTrue(grid.isWalkable(x, y), "Stepped into a blocked cell at " + x + "," + y);
+            if (x > 300 && x < 450) {
+                passedGap |= y >= 400 && y + 40 <= 500;
+            }
+            assertTrue(++steps < 1000, "The field should not loop");
+        }
+        assertTrue(passedGap, "The only way past the wall is the gap");
+        assertEquals(688, x);
+        assertEquals(48, y);
+    }
+
+    @Test
+    void testCellsNextToObstaclesAndEdgesAreBlocked() {
+        NavigationGrid grid = new NavigationGrid(800, 600, 16, 40, 40);
+        grid.addObstacles(wallWithGap());
+
+        assertTrue(grid.isWalkable(0, 0));
+        assertFalse(grid.isWalkable(790, 10), "A ranger there would leave the field");
+        assertFalse(grid.isWalkable(320, 150), "A ranger there would touch the wall");
+        assertTrue(grid.isWalkable(288, 150));
+        assertTrue(grid.isWalkable(400, 420), "The gap is wide enough for a ranger");
+    }
+
+    @Test
+    void testBudgetedSearchKeepsPreviousField() {
+        NavigationGrid grid = new NavigationGrid(800, 600, 16, 40, 40);
+        grid.setTarget(700, 500);
+        assertTrue(grid.advance(Integer.MAX_VALUE));
+        long searches = grid.getSearchCount();
+        int before = grid.directionAt(100, 100);
+
+        grid.setTarget(20, 20);
+        assertFalse(grid.advance(10));
+        assertEquals(before, grid.directionAt(100, 100), "Agents follow the old field until the new one is done");
+        while (!grid.advance(10)) {
+            assertEquals(searches, grid.getSearchCount());
+        }
+        assertEquals(searches + 1, grid.getSearchCount());
+        assertNotEquals(before, grid.directionAt(100, 100));
+
+        grid.setTarget(25, 25);
+        assertTrue(grid.advance(0), "A target in the same cell should not start a new search");
+    }
+
+    @Test
+    void testChasingRangerReachesTargetWithoutCollisions() {
+        LevelData.Builder builder = new LevelData.Builder();
+        for (Obstacle obstacle : wallWithGap()) {
+            builder.addObstacle(LevelData.MOUNTAIN, obstacle.getBounds().x, obstacle.getBounds().y);
+        }
+        builder.addRanger(50, 50, LevelData.patternTag("Chase"));
+        Level level = new Level(builder.build());
+        Ranger ranger = level.getRangers().get(0);
+        assertTrue(ranger.isChasing());
+
+        for (int tick = 0; tick < 2_000 && (ranger.getX() != 700 || ranger.getY() != 50); tick++) {
+            level.update(700, 50);
+            assertFalse(level.checkObstacleCollision(ranger.getBounds()), "Collided at tick " + tick);
+        }
+        assertEquals(700, ranger.getX());
+        assertEquals(50, ranger.getY());
+        assertNotNull(level.getNavigation());
+    }
+
+    @Test
+    void testPatrollingLevelsHaveNoNavigation() {
+        Level level = new Level(new LevelData.Builder().addRanger(100, 100, LevelData.HORIZONTAL).build());
+        level.update(50, 50);
+        assertNull(level.getNavigation());
+        assertEquals(102, level.getRangers().get(0).getX());
+    }
+}
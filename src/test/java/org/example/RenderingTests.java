@@ -0,0 +1,212 @@
+package org.example;
+
+import org.example.assets.SpriteCache;
+import org.example.engine.GameEngine;
+import org.example.engine.InputState;
+import org.example.model.Level;
+import org.example.model.LevelData;
+import org.example.model.LevelGenerator;
+import org.example.model.Player;
+import org.example.model.Ranger;
+import org.example.model.WorldSnapshot;
+import org.example.view.Camera;
+import org.example.view.FrameStats;
+import org.example.view.LayeredRenderer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+public class RenderingTests {
+    private static final int WIDTH = 800, HEIGHT = 600;
+
+    private GameEngine engine;
+    private BufferedImage background;
+
+    @BeforeEach
+    void setup() {
+        engine = new GameEngine(levelNumber -> new Level("levels/level" + levelNumber + ".txt"));
+        background = SpriteCache.getSprite("/images/background.png", WIDTH, HEIGHT);
+    }
+
+    private BufferedImage fullRedraw(WorldSnapshot snapshot, double alpha) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.GRAY);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.drawImage(background, 0, 0, null);
+        snapshot.draw(g, alpha);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Draws the view of a camera without culling or caching: the tiled background and every entity.
+     */
+    private BufferedImage fullRedraw(WorldSnapshot snapshot, double alpha, Camera camera) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.translate(-camera.getX(), -camera.getY());
+        g.setColor(Color.GRAY);
+        g.fillRect(camera.getX(), camera.getY(), WIDTH, HEIGHT);
+        for (int y = 0; y < snapshot.getWorldHeight(); y += HEIGHT) {
+            for (int x = 0; x < snapshot.getWorldWidth(); x += WIDTH) {
+                g.drawImage(background, x, y, null);
+            }
+        }
+        snapshot.draw(g, alpha);
+        g.dispose();
+        return image;
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual, int frame) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (expected.getRGB(x, y) != actual.getRGB(x, y)) {
+                    fail("Frame " + frame + " differs at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDirtyRepaintsMatchFullRedraw() {
+        LayeredRenderer renderer = new LayeredRenderer(background, Color.GRAY, WIDTH, HEIGHT);
+        BufferedImage screen = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+
+        for (int frame = 0; frame < 120; frame++) {
+            if (frame % 2 == 0) {
+                engine.step(frame < 60 ? InputState.RIGHT | InputState.DOWN : InputState.LEFT);
+            }
+            WorldSnapshot snapshot = engine.snapshot();
+            double alpha = frame % 2 == 0 ? 0.25 : 0.75;
+            Rectangle dirty = renderer.getDirtyRegion(snapshot, alpha);
+            g.setClip(dirty);
+            renderer.paint(g, snapshot, alpha);
+            if (frame % 20 == 0) {
+                assertSameImage(fullRedraw(snapshot, alpha), screen, frame);
+            }
+        }
+        g.dispose();
+        assertEquals(1, renderer.getLayerBuilds());
+        assertEquals(120, renderer.getPaintCount());
+    }
+
+    @Test
+    void testDirtyRegionCoversOnlyMovingElements() {
+        LayeredRenderer renderer = new LayeredRenderer(background, Color.GRAY, WIDTH, HEIGHT);
+        WorldSnapshot first = engine.snapshot();
+        assertEquals(new Rectangle(0, 0, WIDTH, HEIGHT), renderer.getDirtyRegion(first, 1.0));
+
+        engine.step(InputState.RIGHT);
+        WorldSnapshot second = engine.snapshot();
+        Rectangle dirty = renderer.getDirtyRegion(second, 1.0);
+        assertTrue(dirty.contains(first.getMovingBounds(1.0)));
+        assertTrue(dirty.contains(second.getMovingBounds(1.0)));
+        assertTrue(dirty.width * dirty.height < WIDTH * HEIGHT);
+    }
+
+    @Test
+    void testStaticLayerIsRebuiltForNewLevel() {
+        LayeredRenderer renderer = new LayeredRenderer(background, Color.GRAY, WIDTH, HEIGHT);
+        BufferedImage screen = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        renderer.paint(g, engine.snapshot(), 1.0);
+        renderer.paint(g, engine.snapshot(), 1.0);
+        assertEquals(1, renderer.getLayerBuilds());
+
+        engine.reset();
+        WorldSnapshot reloaded = engine.snapshot();
+        assertEquals(new Rectangle(0, 0, WIDTH, HEIGHT), renderer.getDirtyRegion(reloaded, 1.0));
+        renderer.paint(g, reloaded, 1.0);
+        g.dispose();
+        assertEquals(2, renderer.getLayerBuilds());
+        assertSameImage(fullRedraw(reloaded, 1.0), screen, 0);
+    }
+
+    @Test
+    void testCameraFollowsPlayerAcrossLargeWorld() {
+        Level level = new Level(new LevelData.Builder().setSize(4000, 3000)
+                .addRanger(1000, 100, LevelData.HORIZONTAL).build());
+        Player player = new Player(750, 50, level);
+        player.setDirection(5, 0);
+        for (int i = 0; i < 10; i++) {
+            player.update();
+            level.update();
+        }
+        assertEquals(800, player.getX(), "The player should walk past the old 800 pixel edge");
+        Ranger ranger = level.getRangers().get(0);
+        assertEquals(1020, ranger.getX(), "The ranger should patrol past the old 800 pixel edge");
+
+        Camera camera = new Camera(WIDTH, HEIGHT);
+        camera.follow(WorldSnapshot.capture(level, player), 1.0);
+        assertEquals(new Rectangle(800 + 25 - WIDTH / 2, 0, WIDTH, HEIGHT), camera.getView());
+
+        player.setPosition(3990 - player.getWidth(), 2990 - player.getHeight());
+        camera.follow(WorldSnapshot.capture(level, player), 1.0);
+        assertEquals(new Rectangle(4000 - WIDTH, 3000 - HEIGHT, WIDTH, HEIGHT), camera.getView());
+    }
+
+    @Test
+    void testScrollingFramesMatchFullRedraw() {
+        Level level = new Level(new LevelGenerator(5, 2_000, 2_000, 2_000).generate());
+        Player player = new Player(50, 50, level);
+        LayeredRenderer renderer = new LayeredRenderer(background, Color.GRAY, WIDTH, HEIGHT);
+        BufferedImage screen = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        Camera camera = new Camera(WIDTH, HEIGHT);
+        int partialFrames = 0;
+
+        for (int frame = 0; frame < 400; frame++) {
+            if (frame % 40 < 30) {
+                // Walk diagonally through obstacles to scroll, then stand still while the rangers move
+                player.setPosition(player.getX() + 9, player.getY() + 7);
+            } else {
+                player.setPosition(player.getX(), player.getY());
+            }
+            level.update();
+            WorldSnapshot snapshot = WorldSnapshot.capture(level, player);
+            double alpha = frame % 2 == 0 ? 0.25 : 0.75;
+            Rectangle dirty = renderer.getDirtyRegion(snapshot, alpha);
+            if (dirty.width < WIDTH || dirty.height < HEIGHT) {
+                partialFrames++;
+            }
+            g.setClip(dirty);
+            renderer.paint(g, snapshot, alpha);
+            if (frame % 10 == 9) {
+                camera.follow(snapshot, alpha);
+                assertSameImage(fullRedraw(snapshot, alpha, camera), screen, frame);
+            }
+        }
+        g.dispose();
+        assertTrue(player.getX() > 2_000, "The player should have crossed several screens");
+        assertTrue(renderer.getLayerBuilds() > 5, "The static layer should follow the camera");
+        assertTrue(partialFrames > 50, "Frames without scrolling should repaint only what moved");
+    }
+
+    @Test
+    void testFrameStatsPercentiles() {
+        FrameStats stats = new FrameStats();
+        assertEquals(0, stats.getP99Nanos());
+        long now = 1_000;
+        stats.framePresented(now);
+        for (int i = 1; i <= 100; i++) {
+            now += i * 1_000L;
+            stats.framePresented(now);
+        }
+        assertEquals(100, stats.getFrameCount());
+        assertEquals(50_000, stats.getP50Nanos());
+        assertEquals(99_000, stats.getP99Nanos());
+
+        for (int i = 0; i < FrameStats.WINDOW; i++) {
+            now += 5_000;
+            stats.framePresented(now);
+        }
+        assertEquals(5_000, stats.getP99Nanos());
+    }
+}
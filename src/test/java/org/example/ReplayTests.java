@@ -0,0 +1,154 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.example.engine.GameEngine;
+import org.example.engine.InputRecording;
+import org.example.engine.InputState;
+import org.example.engine.LevelLoader;
+import org.example.engine.Replayer;
+import org.example.model.ChunkStreamer;
+import org.example.model.ChunkedLevelFormat;
+import org.example.model.LevelData;
+import org.example.model.LevelGenerator;
+import org.example.simulation.Agent;
+import org.example.simulation.GreedyAgent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayTests {
+    private static final LevelLoader LEVELS = LevelLoader.fromDirectory("./levels");
+
+    /**
+     * Plays a game with a greedy agent and records its input.
+     */
+    private static InputRecording recordGame(long seed, long maxTicks) {
+        GameEngine engine = new GameEngine(LEVELS);
+        Agent agent = new GreedyAgent(seed);
+        InputRecording.Builder recorder = new InputRecording.Builder();
+        while (!engine.isGameOver() && engine.getTickCount() < maxTicks) {
+            int mask = agent.nextInput(engine);
+            recorder.record(mask);
+            engine.step(mask);
+        }
+        return recorder.build(engine);
+    }
+
+    private static InputRecording roundTrip(InputRecording recording) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recording.write(out);
+        return InputRecording.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    void testBuilderStoresOnlyChanges() {
+        InputRecording.Builder recorder = new InputRecording.Builder();
+        for (int i = 0; i < 100; i++) {
+            recorder.record(i < 50 ? InputState.RIGHT : InputState.RIGHT | InputState.DOWN);
+        }
+        recorder.record(0);
+        InputRecording recording = recorder.build(new GameEngine(LEVELS));
+
+        assertEquals(101, recording.getTicks());
+        assertEquals(3, recording.getChangeCount());
+        assertEquals(InputState.RIGHT, recording.maskAt(0));
+        assertEquals(InputState.RIGHT, recording.maskAt(49));
+        assertEquals(InputState.RIGHT | InputState.DOWN, recording.maskAt(50));
+        assertEquals(0, recording.maskAt(100));
+    }
+
+    @Test
+    void testRecordingSurvivesRoundTrip() throws IOException {
+        InputRecording recording = recordGame(3, 5_000);
+        InputRecording read = roundTrip(recording);
+
+        assertTrue(read.hasSameOutcome(recording));
+        assertEquals(recording.getChangeCount(), read.getChangeCount());
+        for (long tick = 0; tick < recording.getTicks(); tick++) {
+            assertEquals(recording.maskAt(tick), read.maskAt(tick), "Mask differs at tick " + tick);
+        }
+    }
+
+    @Test
+    void testCorruptRecordingIsRejected() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recordGame(5, 1_000).write(out);
+        byte[] bytes = out.toByteArray();
+        bytes[bytes.length / 2] ^= 0x10;
+
+        assertThrows(IOException.class, () -> InputRecording.read(new ByteArrayInputStream(bytes)));
+        assertThrows(IOException.class, () -> InputRecording.read(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+    }
+
+    @Test
+    void testReplayReproducesGame() throws IOException {
+        InputRecording recording = roundTrip(recordGame(11, 20_000));
+
+        Replayer.Result result = new Replayer(LEVELS).replay(recording);
+
+        assertTrue(result.matches(), result.toString());
+        assertEquals(recording.getTicks(), result.getTicks());
+        assertEquals(recording.getBasketsCollected(), result.getBasketsCollected());
+        assertEquals(recording.getLevelsCleared(), result.getLevelsCleared());
+    }
+
+    @Test
+    void testReplayReproducesChunkedGame(@TempDir Path dir) throws IOException {
+        LevelData data = new LevelGenerator(23, 300, 300, 300).generate();
+        ChunkedLevelFormat.write(data, 256, dir.resolve("level1" + ChunkedLevelFormat.EXTENSION));
+        LevelLoader levels = LevelLoader.fromDirectory(dir.toString());
+
+        GameEngine engine = new GameEngine(levels);
+        Agent agent = new GreedyAgent(29);
+        InputRecording.Builder recorder = new InputRecording.Builder();
+        while (!engine.isGameOver() && engine.getTickCount() < 10_000) {
+            int mask = agent.nextInput(engine);
+            recorder.record(mask);
+            engine.step(mask);
+        }
+        InputRecording recording = roundTrip(recorder.build(engine));
+        ChunkStreamer streamer = engine.getLevel().getChunkStreamer();
+        assertTrue(streamer.getEvictions() > 0, "The game should stream chunks in and out.");
+        streamer.close();
+
+        // Chunks are installed in the same tick however fast the background reads are
+        for (int run = 0; run < 3; run++) {
+            Replayer.Result result = new Replayer(levels).replay(recording);
+            assertTrue(result.matches(), result.toString());
+        }
+    }
+
+    @Test
+    void testTamperedScoreIsDetected() throws IOException {
+        InputRecording honest = recordGame(11, 20_000);
+        InputRecording.Builder forged = new InputRecording.Builder();
+        for (long tick = 0; tick < honest.getTicks(); tick++) {
+            forged.record(tick % 120 < 60 ? InputState.LEFT : InputState.UP);
+        }
+        InputRecording claimed = forged.build(new GameEngine(LEVELS) {
+            @Override
+            public int getTotalBasketsCollected() {
+                return honest.getBasketsCollected() + 100;
+            }
+        });
+
+        assertFalse(new Replayer(LEVELS).replay(claimed).matches());
+    }
+
+    @Test
+    void testReplayRunsFasterThanRealTime() {
+        InputRecording recording = recordGame(17, 36_000);
+        Replayer replayer = new Replayer(LEVELS);
+        replayer.replay(recording);
+
+        Replayer.Result result = replayer.replay(recording);
+
+        assertTrue(result.matches());
+        long realTimeNanos = recording.getTicks() * 1_000_000_000L / 60;
+        assertTrue(result.getNanos() * 100 < realTimeNanos,
+                "Replaying " + recording.getTicks() + " ticks took " + result.getNanos() / 1e6 + " ms");
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.function.BooleanSupplier;
+import org.example.engine.InputState;
+import org.example.engine.LevelLoader;
+import org.example.metrics.LatencyHistogram;
+import org.example.server.GameServer;
+import org.example.server.ServerProtocol;
+import org.example.server.SyntheticClient;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerTests {
+
+    private static GameServer startServer() throws IOException {
+        return new GameServer(LevelLoader.cachedFromDirectory("./levels"), new InetSocketAddress("127.0.0.1", 0), 2);
+    }
+
+    private static ByteBuffer readFully(SocketChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                fail("Connection closed after " + buffer.position() + " of " + length + " bytes");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void waitFor(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testSessionWelcomesAndReportsStatus() throws Exception {
+        try (GameServer server = startServer();
+             SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()))) {
+            ByteBuffer welcome = readFully(channel, ServerProtocol.WELCOME_LENGTH);
+            assertEquals(ServerProtocol.WELCOME, welcome.get());
+            int sessionId = welcome.getInt();
+
+            ByteBuffer status = readFully(channel, ServerProtocol.STATUS_LENGTH);
+            assertEquals(ServerProtocol.STATUS, status.get());
+            assertEquals(1, status.getLong());
+            assertEquals(1, status.get());
+            assertEquals(3, status.get());
+            assertEquals(0, status.getInt());
+            assertEquals(0, status.get());
+
+            channel.write(ByteBuffer.wrap(new byte[] {ServerProtocol.INPUT, InputState.RIGHT}));
+            waitFor(() -> server.getSessionTickCount(sessionId) >= 30, "Session did not keep ticking");
+            LatencyHistogram latency = server.getSessionTickLatency(sessionId);
+            assertTrue(latency.getCount() >= 30);
+
+            channel.write(ByteBuffer.wrap(new byte[] {ServerProtocol.QUIT}));
+            assertEquals(-1, drain(channel));
+            waitFor(() -> server.getSessionCount() == 0, "Session was not dropped after quitting");
+        }
+    }
+
+    /**
+     * Reads status messages sent before the quit was handled until the server closes the connection.
+     */
+    private static int drain(SocketChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        int read;
+        while ((read = channel.read(buffer)) >= 0) {
+            buffer.clear();
+        }
+        return read;
+    }
+
+    @Test
+    void testManySessionsTickIndependently() throws Exception {
+        int connections = 200;
+        try (GameServer server = startServer();
+             SyntheticClient client = new SyntheticClient(new InetSocketAddress("127.0.0.1", server.getPort()), connections, 7)) {
+            waitFor(() -> client.getWelcomes() == connections, "Not every connection was welcomed");
+            waitFor(() -> client.getStatuses() >= connections, "Not every session reported its status");
+            assertEquals(connections, server.getSessionCount());
+
+            for (int i = 0; i < connections; i++) {
+                int sessionId = client.getSessionId(i);
+                waitFor(() -> server.getSessionTickCount(sessionId) >= 10, "Session " + sessionId + " is not ticking");
+                assertTrue(server.getSessionTickLatency(sessionId).getCount() > 0);
+            }
+            assertTrue(server.getTickLatency().getCount() >= 10L * connections);
+            assertEquals(0, client.getClosedByServer());
+        }
+    }
+
+    @Test
+    void testClosedConnectionsEndTheirSessions() throws Exception {
+        try (GameServer server = startServer()) {
+            try (SyntheticClient client = new SyntheticClient(new InetSocketAddress("127.0.0.1", server.getPort()), 50, 3)) {
+                waitFor(() -> client.getWelcomes() == 50, "Not every connection was welcomed");
+                assertEquals(50, server.getSessionCount());
+            }
+            waitFor(() -> server.getSessionCount() == 0, "Sessions outlived their connections");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import org.example.engine.LevelLoader;
+import org.example.simulation.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationTests {
+
+    @Test
+    void testBatchAggregatesEveryGame() {
+        BatchSimulator simulator = new BatchSimulator(LevelLoader.fromDirectory("./levels"),
+                RandomWalkAgent::new, 2_000, 4);
+
+        SimulationStatistics statistics = simulator.run(40, 7);
+
+        assertEquals(40, statistics.getGames());
+        assertEquals(40, statistics.getAttempts(1), "Every game should start on level 1.");
+        assertTrue(statistics.getTicks() > 0);
+        assertTrue(statistics.getTicks() <= 40 * 2_000L, "No game should run past the tick limit.");
+        assertTrue(statistics.getTicksPerSecondPerCore() > 0);
+    }
+
+    @Test
+    void testSameSeedGivesSameResults() {
+        BatchSimulator simulator = new BatchSimulator(LevelLoader.fromDirectory("./levels"),
+                GreedyAgent::new, 3_000, 2);
+
+        SimulationStatistics first = simulator.run(10, 99);
+        SimulationStatistics second = simulator.run(10, 99);
+
+        assertEquals(first.getTicks(), second.getTicks());
+        assertEquals(first.getCompletionRate(1), second.getCompletionRate(1));
+        assertEquals(first.getRangerKillRate(2), second.getRangerKillRate(2));
+    }
+}
@@ -0,0 +1,98 @@
+package org.example;
+
+import org.example.model.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class SpatialGridTests {
+
+    @Test
+    void testGridMatchesLinearScan() {
+        Random random = new Random(42);
+        ArrayList<Rectangle> rects = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rects.add(new Rectangle(random.nextInt(4000) - 500, random.nextInt(3000) - 500,
+                    random.nextInt(120), random.nextInt(120)));
+        }
+
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.reset(rects.size());
+        for (int i = 0; i < rects.size(); i++) {
+            Rectangle r = rects.get(i);
+            grid.set(i, r.x, r.y, r.width, r.height);
+        }
+        grid.build();
+
+        for (int q = 0; q < 5000; q++) {
+            Rectangle query = new Rectangle(random.nextInt(4400) - 700, random.nextInt(3400) - 700,
+                    random.nextInt(80), random.nextInt(80));
+            int expected = -1;
+            for (int i = 0; i < rects.size(); i++) {
+                if (query.intersects(rects.get(i))) {
+                    expected = i;
+                    break;
+                }
+            }
+            assertEquals(expected, grid.firstIntersecting(query.x, query.y, query.width, query.height));
+            assertEquals(expected >= 0, grid.intersectsAny(query.x, query.y, query.width, query.height));
+        }
+    }
+
+    @Test
+    void testFindIntersectingMatchesLinearScan() {
+        Random random = new Random(7);
+        ArrayList<Rectangle> rects = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            rects.add(new Rectangle(random.nextInt(6000), random.nextInt(4500), random.nextInt(150), random.nextInt(150)));
+        }
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.reset(rects.size());
+        for (int i = 0; i < rects.size(); i++) {
+            Rectangle r = rects.get(i);
+            grid.set(i, r.x, r.y, r.width, r.height);
+        }
+        grid.build();
+        grid.remove(0);
+
+        for (int q = 0; q < 500; q++) {
+            Rectangle view = new Rectangle(random.nextInt(6800) - 400, random.nextInt(5100) - 300,
+                    random.nextInt(900), random.nextInt(700));
+            int[] expected = IntStream.range(1, rects.size()).filter(i -> view.intersects(rects.get(i))).toArray();
+            assertArrayEquals(expected, grid.findIntersecting(view.x, view.y, view.width, view.height));
+        }
+    }
+
+    @Test
+    void testLevelCollisionsFollowListChanges() {
+        Level level = new Level("./levels/testLevel.txt");
+        Player yogi = new Player(50, 50, level);
+        level.getObstacles().add(new Obstacle("Tree", 100, 100));
+        level.getRangers().add(new Ranger(400, 400, "Horizontal", level));
+
+        assertTrue(level.checkObstacleCollision(new Rectangle(120, 120, 10, 10)));
+        level.getObstacles().clear();
+        assertFalse(level.checkObstacleCollision(new Rectangle(120, 120, 10, 10)),
+                "Removed obstacles should no longer collide.");
+
+        level.getBaskets().add(new Item(300, 300));
+        level.getBaskets().add(new Item(600, 100));
+        level.getBaskets().add(new Item(610, 100));
+        yogi.setPosition(600, 100);
+        assertTrue(level.checkBasketCollision(yogi));
+        assertEquals(2, level.getBaskets().size());
+        assertEquals(610, level.getBaskets().get(1).getBounds().x,
+                "The first basket in list order should be the one collected.");
+
+        yogi.setPosition(380, 400);
+        assertTrue(level.checkRangerCollision(yogi));
+        for (int i = 0; i < 50; i++) {
+            level.update();
+        }
+        assertFalse(level.checkRangerCollision(yogi), "The ranger grid should follow moving rangers.");
+    }
+}
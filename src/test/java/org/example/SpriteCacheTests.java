@@ -0,0 +1,56 @@
+package org.example;
+
+import org.example.assets.SpriteCache;
+import org.example.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpriteCacheTests {
+
+    @BeforeEach
+    void setup() {
+        SpriteCache.clear();
+    }
+
+    @Test
+    void testLevelDecodesEachImageOnce() {
+        Level level = new Level("./levels/level10.txt");
+        new Player(50, 50, level);
+
+        assertEquals(1, SpriteCache.getDecodeCount("/images/tree1.png"), "tree1.png should be decoded once.");
+        assertEquals(1, SpriteCache.getDecodeCount("/images/mountain.png"), "mountain.png should be decoded once.");
+        assertEquals(1, SpriteCache.getDecodeCount("/images/basket.png"), "basket.png should be decoded once.");
+        assertEquals(1, SpriteCache.getDecodeCount("/images/ranger.png"), "ranger.png should be decoded once.");
+        assertEquals(1, SpriteCache.getDecodeCount("/images/yogi.png"), "yogi.png should be decoded once.");
+
+        // level10 has 20 entities plus Yogi, drawn with 5 distinct sprites
+        assertEquals(5, SpriteCache.getMisses());
+        assertEquals(16, SpriteCache.getHits());
+    }
+
+    @Test
+    void testReloadingLevelOnlyHitsCache() {
+        new Level("./levels/level10.txt");
+        long misses = SpriteCache.getMisses();
+
+        new Level("./levels/level10.txt");
+
+        assertEquals(misses, SpriteCache.getMisses(), "Reloading a level should not create new sprites.");
+        assertEquals(1, SpriteCache.getDecodeCount("/images/tree1.png"));
+    }
+
+    @Test
+    void testSpritesAreSharedAndPreScaled() {
+        assertSame(SpriteCache.getSprite("/images/tree1.png", 50, 50),
+                SpriteCache.getSprite("/images/tree1.png", 50, 50));
+        assertEquals(50, SpriteCache.getSprite("/images/tree1.png", 50, 50).getWidth());
+        assertEquals(100, SpriteCache.getSprite("/images/tree1.png", 100, 100).getHeight());
+        assertEquals(1, SpriteCache.getDecodeCount("/images/tree1.png"));
+    }
+
+    @Test
+    void testMissingImageReturnsNull() {
+        assertNull(SpriteCache.getSprite("/images/doesNotExist.png", 10, 10));
+    }
+}
@@ -4,21 +4,31 @@ import org.example.model.*;
 import org.example.controller.GameController;
 import org.example.view.GamePanel;
 import org.example.view.GameFrame;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
+
 public class WhiteBoxTests {
 
     private GameController controller;
 
     @BeforeEach
-    void setup() {
+    void setup(@TempDir Path dir) {
+        System.setProperty("yogi.highscores.file", dir.resolve("highscores.ylog").toString());
         GameFrame frame = new GameFrame();
         GamePanel panel = frame.getGamePanel();
         controller = new GameController(frame, panel);
     }
 
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("yogi.highscores.file");
+    }
+
 
 
     @Test
@@ -0,0 +1,126 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import org.example.engine.GameEngine;
+import org.example.engine.LevelLoader;
+import org.example.model.*;
+import org.example.server.WorldStateDecoder;
+import org.example.server.WorldStateEncoder;
+import org.example.simulation.Agent;
+import org.example.simulation.GreedyAgent;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorldStateTests {
+
+    /**
+     * Checks that the decoded state matches the level, with baskets identified by their index
+     * in the level's first keyframe.
+     */
+    private static void assertSameState(Level level, Player player, ArrayList<Item> keyframeBaskets,
+                                        WorldStateDecoder decoder, long tick) {
+        assertEquals(player.getX(), decoder.getPlayerX(), "Player x at tick " + tick);
+        assertEquals(player.getY(), decoder.getPlayerY(), "Player y at tick " + tick);
+        assertEquals(level.getObstacles().size(), decoder.getObstacleCount());
+        for (int i = 0; i < decoder.getObstacleCount(); i++) {
+            Obstacle obstacle = level.getObstacles().get(i);
+            assertEquals(obstacle.getTypeTag(), decoder.getObstacleType(i));
+            assertEquals(obstacle.getBounds().x, decoder.getObstacleX(i));
+            assertEquals(obstacle.getBounds().y, decoder.getObstacleY(i));
+        }
+        assertEquals(level.getRangers().size(), decoder.getRangerCount());
+        for (int i = 0; i < decoder.getRangerCount(); i++) {
+            Ranger ranger = level.getRangers().get(i);
+            assertEquals(ranger.getPattern(), decoder.getRangerPattern(i));
+            assertEquals(ranger.getX(), decoder.getRangerX(i), "Ranger " + i + " x at tick " + tick);
+            assertEquals(ranger.getY(), decoder.getRangerY(i), "Ranger " + i + " y at tick " + tick);
+        }
+        IdentityHashMap<Item, Boolean> remaining = new IdentityHashMap<>();
+        level.getBaskets().forEach(basket -> remaining.put(basket, true));
+        assertEquals(level.getBaskets().size(), decoder.getBasketsLeft());
+        for (int i = 0; i < decoder.getBasketCount(); i++) {
+            Item basket = keyframeBaskets.get(i);
+            assertEquals(basket.getBounds().x, decoder.getBasketX(i));
+            assertEquals(basket.getBounds().y, decoder.getBasketY(i));
+            assertEquals(!remaining.containsKey(basket), decoder.isBasketRemoved(i), "Basket " + i + " at tick " + tick);
+        }
+    }
+
+    @Test
+    void testDecoderFollowsGame() {
+        GameEngine engine = new GameEngine(LevelLoader.fromDirectory("./levels"));
+        Agent agent = new GreedyAgent(67);
+        WorldStateEncoder encoder = new WorldStateEncoder();
+        WorldStateDecoder decoder = new WorldStateDecoder();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        ArrayList<Item> keyframeBaskets = null;
+        int keyframes = 0;
+
+        while (!engine.isGameOver() && engine.getTickCount() < 20_000) {
+            engine.step(agent.nextInput(engine));
+            assertTrue(buffer.capacity() >= WorldStateEncoder.maxEncodedSize(engine.getLevel()));
+            buffer.clear();
+            boolean keyframe = encoder.encode(engine, buffer);
+            buffer.flip();
+            assertEquals(keyframe, decoder.apply(buffer));
+            assertFalse(buffer.hasRemaining(), "Decoder left bytes unread");
+            if (keyframe) {
+                keyframes++;
+                keyframeBaskets = new ArrayList<>(engine.getLevel().getBaskets());
+            } else {
+                assertTrue(buffer.limit() < 64 + 8 * decoder.getRangerCount(), "Delta of " + buffer.limit() + " bytes");
+            }
+            assertEquals(engine.getLevelNumber(), decoder.getLevelNumber());
+            assertEquals(engine.getTickCount(), decoder.getTick());
+            assertSameState(engine.getLevel(), engine.getPlayer(), keyframeBaskets, decoder, engine.getTickCount());
+        }
+        assertTrue(keyframes > 1, "The game should have changed levels");
+    }
+
+    @Test
+    void testLargeMapDeltasStaySmall() {
+        Random random = new Random(13);
+        LevelData.Builder builder = new LevelData.Builder();
+        for (int i = 0; i < 500; i++) {
+            builder.addObstacle(LevelData.TREE, random.nextInt(800), random.nextInt(600));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            builder.addBasket(random.nextInt(780), random.nextInt(580));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            builder.addRanger(random.nextInt(760), random.nextInt(560), random.nextBoolean() ? LevelData.HORIZONTAL : LevelData.VERTICAL);
+        }
+        Level level = new Level(builder.build());
+        Player player = new Player(50, 50, level);
+        ArrayList<Item> keyframeBaskets = new ArrayList<>(level.getBaskets());
+        WorldStateEncoder encoder = new WorldStateEncoder();
+        WorldStateDecoder decoder = new WorldStateDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(WorldStateEncoder.maxEncodedSize(level));
+
+        assertTrue(encoder.encode(level, player, 1, 0, buffer));
+        int keyframeSize = buffer.position();
+        decoder.apply(buffer.flip());
+
+        for (int tick = 1; tick <= 200; tick++) {
+            level.update(player.getX(), player.getY());
+            player.setPosition(50 + tick % 300, 50);
+            level.checkBasketCollision(player);
+            buffer.clear();
+            assertFalse(encoder.encode(level, player, 1, tick, buffer));
+            assertTrue(buffer.position() < keyframeSize / 2, "Delta of " + buffer.position() + " bytes");
+            decoder.apply(buffer.flip());
+            assertSameState(level, player, keyframeBaskets, decoder, tick);
+        }
+        assertTrue(decoder.getBasketsLeft() < 5_000, "The player should have collected baskets");
+    }
+
+    @Test
+    void testDeltaBeforeKeyframeIsRejected() {
+        WorldStateDecoder decoder = new WorldStateDecoder();
+        assertThrows(IllegalStateException.class, () -> decoder.apply(ByteBuffer.wrap(new byte[] {WorldStateEncoder.DELTA, 1, 0})));
+        assertThrows(IllegalArgumentException.class, () -> decoder.apply(ByteBuffer.wrap(new byte[] {9})));
+    }
+}